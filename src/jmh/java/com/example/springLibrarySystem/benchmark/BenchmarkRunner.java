@@ -0,0 +1,43 @@
+package com.example.springLibrarySystem.benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+
+/**
+ * Ejecuta las suites JMH una vez por cada cantidad de hilos pedida y deja
+ * un JSON de resultados por corrida, para comparar entre versiones.
+ *
+ * Propiedades: jmh.threads (ej. "1,4,8"), jmh.sizes (valores de "tamanio"),
+ * jmh.include (regex de benchmarks), jmh.args (opciones JMH adicionales)
+ * y jmh.output (directorio de salida).
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws Exception {
+        String[] hilos = System.getProperty("jmh.threads", "1").split(",");
+        String[] tamanios = System.getProperty("jmh.sizes", "10000").split(",");
+        String include = System.getProperty("jmh.include", ".*");
+        String extra = System.getProperty("jmh.args", "").trim();
+        File salida = new File(System.getProperty("jmh.output", "target/jmh"));
+        salida.mkdirs();
+
+        CommandLineOptions base = new CommandLineOptions(extra.isEmpty() ? new String[0] : extra.split("\\s+"));
+        for (String h : hilos) {
+            int cantidad = Integer.parseInt(h.trim());
+            Options opciones = new OptionsBuilder()
+                    .parent(base)
+                    .include(BenchmarkRunner.class.getPackageName() + "\\..*" + include)
+                    .threads(cantidad)
+                    .param("tamanio", tamanios)
+                    .resultFormat(ResultFormatType.JSON)
+                    .result(new File(salida, "jmh-t" + cantidad + ".json").getPath())
+                    .build();
+            new Runner(opciones).run();
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.springLibrarySystem.benchmark;
+
+import com.example.springLibrarySystem.enums.EstadoLibro;
+import com.example.springLibrarySystem.models.Libro;
+import com.example.springLibrarySystem.models.ResultadoLote;
+import com.example.springLibrarySystem.repository.LibroRepositoryImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class LibroRepositoryBenchmark {
+
+    private static final int LOTE = 1000;
+    private static final String[] PALABRAS = {
+            "amor", "años", "ciudad", "cólera", "guerra", "historia", "invierno", "jardín", "laberinto", "luna",
+            "mar", "memoria", "noche", "olvido", "otoño", "paz", "río", "silencio", "soledad", "tiempo"};
+
+    @Param({"10000"})
+    public int tamanio;
+
+    private LibroRepositoryImpl repository;
+
+    @Setup(Level.Trial)
+    public void cargar() {
+        repository = new LibroRepositoryImpl();
+        for (int i = 1; i <= tamanio; i++) {
+            repository.save(new Libro(null, isbn(i), titulo(i), "Autor " + (i % 1000), EstadoLibro.DISPONIBLE));
+        }
+    }
+
+    @Benchmark
+    public Libro save() {
+        long id = 1 + ThreadLocalRandom.current().nextInt(tamanio);
+        return repository.save(new Libro(id, isbn(id), "Libro " + id, "Autor", EstadoLibro.DISPONIBLE));
+    }
+
+    /**
+     * Mismo trabajo que {@link #save()} pero en lotes de {@value #LOTE}: el score
+     * se mide por lote, así que se compara contra save × {@value #LOTE}.
+     */
+    @Benchmark
+    public List<ResultadoLote<Libro>> saveAll() {
+        List<Libro> lote = new ArrayList<>(LOTE);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < LOTE; i++) {
+            long id = 1 + random.nextInt(tamanio);
+            lote.add(new Libro(id, isbn(id), "Libro " + id, "Autor", EstadoLibro.DISPONIBLE));
+        }
+        return repository.saveAll(lote);
+    }
+
+    @Benchmark
+    public Optional<Libro> findById() {
+        return repository.findById(1L + ThreadLocalRandom.current().nextInt(tamanio));
+    }
+
+    @Benchmark
+    public Optional<Libro> findByIsbn() {
+        return repository.findByIsbn(isbn(1 + ThreadLocalRandom.current().nextInt(tamanio)));
+    }
+
+    @Benchmark
+    public List<Libro> search() {
+        int i = ThreadLocalRandom.current().nextInt(tamanio);
+        return repository.search(PALABRAS[i % PALABRAS.length] + " " + PALABRAS[(i / 7) % PALABRAS.length], 20);
+    }
+
+    @Benchmark
+    public List<Libro> searchPrefix() {
+        String palabra = PALABRAS[ThreadLocalRandom.current().nextInt(PALABRAS.length)];
+        return repository.search(palabra.substring(0, 2) + "*", 20);
+    }
+
+    // Dos palabras comunes y una casi única, como en un catálogo real.
+    static String titulo(long i) {
+        return PALABRAS[(int) (i % PALABRAS.length)] + " y " + PALABRAS[(int) ((i / 7) % PALABRAS.length)] + " " + i;
+    }
+
+    static String isbn(long i) {
+        return "978-" + i;
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.springLibrarySystem.benchmark;
+
+import com.example.springLibrarySystem.enums.EstadoLibro;
+import com.example.springLibrarySystem.exception.LibroNoEncontradoException;
+import com.example.springLibrarySystem.models.Libro;
+import com.example.springLibrarySystem.repository.LibroRepositoryImpl;
+import com.example.springLibrarySystem.repository.PrestamoRepositoryImpl;
+import com.example.springLibrarySystem.repository.UsuarioRepositoryImpl;
+import com.example.springLibrarySystem.service.LibroServiceImpl;
+import com.example.springLibrarySystem.service.PrestamoServiceImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class LibroServiceBenchmark {
+
+    @Param({"10000"})
+    public int tamanio;
+
+    private LibroServiceImpl service;
+
+    @Setup(Level.Trial)
+    public void cargar() {
+        LibroRepositoryImpl repository = new LibroRepositoryImpl();
+        for (int i = 1; i <= tamanio; i++) {
+            repository.save(new Libro(null, LibroRepositoryBenchmark.isbn(i), "Libro " + i, "Autor", EstadoLibro.DISPONIBLE));
+        }
+        service = new LibroServiceImpl(repository,
+                new PrestamoServiceImpl(new PrestamoRepositoryImpl(), repository, new UsuarioRepositoryImpl()));
+    }
+
+    @Benchmark
+    public Libro findByIsbnHit() {
+        return service.findByIsbn(LibroRepositoryBenchmark.isbn(1 + ThreadLocalRandom.current().nextInt(tamanio)));
+    }
+
+    @Benchmark
+    public Object findByIsbnMiss() {
+        try {
+            return service.findByIsbn("000-" + ThreadLocalRandom.current().nextInt(tamanio));
+        } catch (LibroNoEncontradoException e) {
+            return e;
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.example.springLibrarySystem.benchmark;
+
+import com.example.springLibrarySystem.SpringLibrarySystemApplication;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+/**
+ * Prueba de carga HTTP de la aplicación completa con hilos de plataforma y con
+ * hilos virtuales ({@code spring.threads.virtual.enabled}). Cada cliente hace
+ * {@code POST /api/libros} en bucle con la persistencia activa y {@code sync=true},
+ * así que cada respuesta espera un fsync del write-ahead log: I/O bloqueante real.
+ *
+ * Propiedades: carga.modos ("platform,virtual"), carga.clientes (ej. "50,200,1000"),
+ * carga.segundos (duración de cada corrida) y carga.output (directorio del CSV).
+ */
+public class LoadTestRunner {
+
+    public static void main(String[] args) throws Exception {
+        String[] modos = System.getProperty("carga.modos", "platform,virtual").split(",");
+        int[] clientes = Arrays.stream(System.getProperty("carga.clientes", "50,200,1000").split(","))
+                .mapToInt(c -> Integer.parseInt(c.trim()))
+                .toArray();
+        int segundos = Integer.parseInt(System.getProperty("carga.segundos", "10"));
+        Path salida = Path.of(System.getProperty("carga.output", "target/carga"));
+        Files.createDirectories(salida);
+
+        List<String> filas = new ArrayList<>();
+        filas.add("modo,clientes,peticiones,errores,req_s,p50_ms,p99_ms");
+        for (String modo : modos) {
+            Path datos = Files.createTempDirectory("carga-" + modo);
+            ConfigurableApplicationContext contexto = iniciar(modo.trim(), datos);
+            try {
+                int puerto = Integer.parseInt(contexto.getEnvironment().getProperty("local.server.port"));
+                medir(puerto, modo, clientes[0], 2);
+                for (int cantidad : clientes) {
+                    Resultado resultado = medir(puerto, modo, cantidad, segundos);
+                    filas.add(resultado.csv());
+                    System.out.println(resultado);
+                }
+            } finally {
+                contexto.close();
+                borrar(datos);
+            }
+        }
+        Path archivo = salida.resolve("carga.csv");
+        try (PrintWriter escritor = new PrintWriter(Files.newBufferedWriter(archivo))) {
+            filas.forEach(escritor::println);
+        }
+        System.out.println("Resultados en " + archivo);
+    }
+
+    private static ConfigurableApplicationContext iniciar(String modo, Path datos) {
+        return new SpringApplication(SpringLibrarySystemApplication.class).run(
+                "--server.port=0",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN",
+                "--spring.threads.virtual.enabled=" + modo.equals("virtual"),
+                "--library.persistence.enabled=true",
+                "--library.persistence.sync=true",
+                "--library.persistence.directory=" + datos);
+    }
+
+    private static Resultado medir(int puerto, String modo, int clientes, int segundos) throws Exception {
+        URI uri = URI.create("http://localhost:" + puerto + "/api/libros");
+        long fin = System.nanoTime() + segundos * 1_000_000_000L;
+        long inicio = System.nanoTime();
+        try (ExecutorService hilos = Executors.newVirtualThreadPerTaskExecutor();
+             HttpClient http = HttpClient.newBuilder()
+                     .version(HttpClient.Version.HTTP_1_1)
+                     .executor(hilos)
+                     .build()) {
+            List<Future<Muestras>> futuros = new ArrayList<>(clientes);
+            for (int c = 0; c < clientes; c++) {
+                String prefijo = modo + "-" + clientes + "-" + c + "-" + inicio + "-";
+                futuros.add(hilos.submit(() -> cliente(http, uri, prefijo, fin)));
+            }
+            Muestras total = new Muestras();
+            for (Future<Muestras> futuro : futuros) {
+                total.agregar(futuro.get());
+            }
+            double duracion = (System.nanoTime() - inicio) / 1e9;
+            return total.resultado(modo, clientes, duracion);
+        }
+    }
+
+    private static Muestras cliente(HttpClient http, URI uri, String prefijo, long fin) {
+        Muestras muestras = new Muestras();
+        for (long n = 0; System.nanoTime() < fin; n++) {
+            String cuerpo = "{\"isbn\":\"" + prefijo + n + "\",\"titulo\":\"Carga\",\"autor\":\"Autor\",\"estado\":\"DISPONIBLE\"}";
+            HttpRequest peticion = HttpRequest.newBuilder(uri)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(cuerpo))
+                    .build();
+            long antes = System.nanoTime();
+            try {
+                int estado = http.send(peticion, HttpResponse.BodyHandlers.discarding()).statusCode();
+                if (estado / 100 == 2) {
+                    muestras.registrar(System.nanoTime() - antes);
+                } else {
+                    muestras.errores++;
+                }
+            } catch (IOException | InterruptedException e) {
+                muestras.errores++;
+            }
+        }
+        return muestras;
+    }
+
+    private static void borrar(Path directorio) throws IOException {
+        try (Stream<Path> archivos = Files.walk(directorio)) {
+            archivos.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    private static final class Muestras {
+        private long[] latencias = new long[1024];
+        private int cantidad;
+        private long errores;
+
+        void registrar(long nanos) {
+            if (cantidad == latencias.length) {
+                latencias = Arrays.copyOf(latencias, cantidad * 2);
+            }
+            latencias[cantidad++] = nanos;
+        }
+
+        void agregar(Muestras otras) {
+            for (int i = 0; i < otras.cantidad; i++) {
+                registrar(otras.latencias[i]);
+            }
+            errores += otras.errores;
+        }
+
+        Resultado resultado(String modo, int clientes, double segundos) {
+            long[] ordenadas = Arrays.copyOf(latencias, cantidad);
+            Arrays.sort(ordenadas);
+            return new Resultado(modo, clientes, cantidad, errores, cantidad / segundos,
+                    percentil(ordenadas, 0.50), percentil(ordenadas, 0.99));
+        }
+
+        private static double percentil(long[] ordenadas, double p) {
+            if (ordenadas.length == 0) {
+                return Double.NaN;
+            }
+            return ordenadas[(int) Math.min(ordenadas.length - 1, Math.ceil(p * ordenadas.length) - 1)] / 1e6;
+        }
+    }
+
+    private record Resultado(String modo, int clientes, long peticiones, long errores,
+                             double porSegundo, double p50, double p99) {
+
+        String csv() {
+            return String.format(Locale.ROOT, "%s,%d,%d,%d,%.1f,%.2f,%.2f",
+                    modo, clientes, peticiones, errores, porSegundo, p50, p99);
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%-8s clientes=%5d  %9.1f req/s  p50=%7.2f ms  p99=%7.2f ms  errores=%d",
+                    modo, clientes, porSegundo, p50, p99, errores);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.springLibrarySystem.benchmark;
+
+import com.example.springLibrarySystem.enums.EstadoLibro;
+import com.example.springLibrarySystem.models.Libro;
+import com.example.springLibrarySystem.models.Prestamo;
+import com.example.springLibrarySystem.repository.PrestamoRepositoryImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PrestamoRepositoryBenchmark {
+
+    private static final int LIBROS = 1000;
+
+    @Param({"10000"})
+    public int tamanio;
+
+    private PrestamoRepositoryImpl repository;
+    private Libro[] libros;
+
+    @Setup(Level.Trial)
+    public void cargar() {
+        repository = new PrestamoRepositoryImpl();
+        libros = new Libro[LIBROS];
+        for (int i = 0; i < LIBROS; i++) {
+            libros[i] = new Libro((long) i + 1, "978-" + i, "Libro " + i, "Autor", EstadoLibro.DISPONIBLE);
+        }
+        LocalDate hoy = LocalDate.now();
+        for (int i = 0; i < tamanio; i++) {
+            repository.save(new Prestamo(null, libros[i % LIBROS].getId(), (long) i % 5000 + 1, hoy, hoy.plusDays(14)));
+        }
+    }
+
+    @Benchmark
+    public Optional<Prestamo> findByLibro() {
+        return repository.findByLibro(libros[ThreadLocalRandom.current().nextInt(LIBROS)]);
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.springLibrarySystem.benchmark;
+
+import com.example.springLibrarySystem.enums.EstadoLibro;
+import com.example.springLibrarySystem.enums.EstadoUsuario;
+import com.example.springLibrarySystem.models.Libro;
+import com.example.springLibrarySystem.models.Prestamo;
+import com.example.springLibrarySystem.models.PrestamoExpandido;
+import com.example.springLibrarySystem.models.Usuario;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialización de préstamos con el mismo mapper que configura Spring Boot
+ * (módulos registrados y fechas como texto ISO).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class PrestamoSerializationBenchmark {
+
+    @Param({"100"})
+    public int tamanio;
+
+    private ObjectMapper mapper;
+    private Prestamo prestamo;
+    private List<Prestamo> pagina;
+    private List<PrestamoExpandido> paginaExpandida;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        mapper = JsonMapper.builder()
+                .findAndAddModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        LocalDate hoy = LocalDate.now();
+        pagina = new ArrayList<>(tamanio);
+        paginaExpandida = new ArrayList<>(tamanio);
+        for (int i = 1; i <= tamanio; i++) {
+            Libro libro = new Libro((long) i, "978-" + i, "Cien años de soledad " + i, "Gabriel García Márquez", EstadoLibro.PRESTADO);
+            Usuario usuario = new Usuario((long) i, "Usuario " + i, "usuario" + i + "@mail.com", EstadoUsuario.ACTIVO);
+            Prestamo actual = new Prestamo((long) i, libro.getId(), usuario.getId(), hoy, hoy.plusDays(14));
+            pagina.add(actual);
+            paginaExpandida.add(new PrestamoExpandido(actual, libro, usuario));
+        }
+        prestamo = pagina.get(0);
+    }
+
+    @Benchmark
+    public byte[] serializarPrestamo() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(prestamo);
+    }
+
+    @Benchmark
+    public byte[] serializarLista() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(pagina);
+    }
+
+    @Benchmark
+    public byte[] serializarListaExpandida() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(paginaExpandida);
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.springLibrarySystem.benchmark;
+
+import com.example.springLibrarySystem.enums.EstadoLibro;
+import com.example.springLibrarySystem.models.Libro;
+import com.example.springLibrarySystem.persistence.BinaryCodecs;
+import com.example.springLibrarySystem.persistence.BinarySnapshot;
+import com.example.springLibrarySystem.persistence.JsonSnapshot;
+import com.example.springLibrarySystem.persistence.Snapshot;
+import com.example.springLibrarySystem.storage.ConcurrentEntityStore;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * Tiempo de arranque: cargar un snapshot de libros en un store vacío, en JSON y en binario,
+ * y sólo decodificar el binario (sin el costo de poblar el store).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SnapshotLoadBenchmark {
+
+    @Param({"1000000"})
+    public int tamanio;
+
+    private Path directorio;
+    private Snapshot<Libro> json;
+    private Snapshot<Libro> binario;
+
+    @Setup(Level.Trial)
+    public void escribir() throws IOException {
+        directorio = Files.createTempDirectory("snapshot-bench");
+        json = new JsonSnapshot<>(directorio.resolve("libros.snapshot"), JsonMapper.builder().build(), Libro.class);
+        binario = new BinarySnapshot<>(directorio.resolve("libros.bin"), BinaryCodecs.LIBRO);
+        Snapshot.Cabecera cabecera = new Snapshot.Cabecera(0, tamanio + 1L);
+        json.write(cabecera, libros().iterator());
+        binario.write(cabecera, libros().iterator());
+    }
+
+    @TearDown(Level.Trial)
+    public void borrar() throws IOException {
+        try (Stream<Path> archivos = Files.walk(directorio)) {
+            archivos.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public int cargarJson() throws IOException {
+        return cargar(json);
+    }
+
+    @Benchmark
+    public int cargarBinario() throws IOException {
+        return cargar(binario);
+    }
+
+    @Benchmark
+    public long decodificarBinario() throws IOException {
+        long[] cantidad = new long[1];
+        binario.read(libro -> cantidad[0]++);
+        return cantidad[0];
+    }
+
+    private int cargar(Snapshot<Libro> snapshot) throws IOException {
+        ConcurrentEntityStore<Libro> store = new ConcurrentEntityStore<>();
+        snapshot.read(store::restore);
+        return store.size();
+    }
+
+    private Stream<Libro> libros() {
+        return LongStream.rangeClosed(1, tamanio).mapToObj(i -> new Libro(i, LibroRepositoryBenchmark.isbn(i),
+                "Libro " + i, "Autor " + (i % 1000), EstadoLibro.DISPONIBLE));
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.springLibrarySystem.benchmark;
+
+import com.example.springLibrarySystem.enums.EstadoUsuario;
+import com.example.springLibrarySystem.models.Usuario;
+import com.example.springLibrarySystem.repository.UsuarioRepositoryImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class UsuarioRepositoryBenchmark {
+
+    @Param({"10000"})
+    public int tamanio;
+
+    private UsuarioRepositoryImpl repository;
+
+    @Setup(Level.Trial)
+    public void cargar() {
+        repository = new UsuarioRepositoryImpl();
+        for (int i = 1; i <= tamanio; i++) {
+            repository.save(new Usuario(null, "Usuario " + i, "usuario" + i + "@mail.com", EstadoUsuario.ACTIVO));
+        }
+    }
+
+    @Benchmark
+    public Optional<Usuario> findByEmail() {
+        int i = 1 + ThreadLocalRandom.current().nextInt(tamanio);
+        return repository.findByEmail("Usuario" + i + "@Mail.com");
+    }
+}
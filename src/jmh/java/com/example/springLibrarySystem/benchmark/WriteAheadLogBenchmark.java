@@ -0,0 +1,56 @@
+package com.example.springLibrarySystem.benchmark;
+
+import com.example.springLibrarySystem.persistence.WriteAheadLog;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Latencia de una escritura durable (append + espera del fsync del lote).
+ * En modo SampleTime JMH reporta los percentiles, incluido p0.99; con varios
+ * hilos se ve el efecto del group commit.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class WriteAheadLogBenchmark {
+
+    @Param({"10000"})
+    public int tamanio;
+
+    @Param({"true", "false"})
+    public boolean sync;
+
+    private Path directorio;
+    private WriteAheadLog wal;
+    private byte[] registro;
+
+    @Setup(Level.Trial)
+    public void abrir() throws IOException {
+        directorio = Files.createTempDirectory("wal-bench");
+        wal = new WriteAheadLog(directorio, "libros", 0, sync);
+        registro = new byte[200];
+        ThreadLocalRandom.current().nextBytes(registro);
+    }
+
+    @TearDown(Level.Trial)
+    public void cerrar() throws IOException {
+        wal.close();
+        try (Stream<Path> archivos = Files.walk(directorio)) {
+            archivos.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public long appendDurable() {
+        long lsn = wal.append(WriteAheadLog.SAVE, ThreadLocalRandom.current().nextInt(tamanio), registro);
+        wal.awaitDurable(lsn);
+        return lsn;
+    }
+}
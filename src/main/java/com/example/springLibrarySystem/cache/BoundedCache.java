@@ -0,0 +1,177 @@
+package com.example.springLibrarySystem.cache;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Caché read-through acotada por tamaño con desalojo LRU y vencimiento opcional.
+ * Las claves se reparten en segmentos, cada uno con su propio lock y su propia
+ * lista LRU, así que lecturas de claves distintas casi nunca compiten.
+ *
+ * Una carga que empezó antes de una invalidación de su segmento no se guarda:
+ * así un lector lento no puede volver a dejar en la caché un valor que un
+ * escritor acaba de reemplazar.
+ */
+public class BoundedCache<K, V> {
+    private static final int SEGMENTOS_MAXIMOS = 16;
+
+    private final String nombre;
+    private final Segmento<K, V>[] segmentos;
+    private final int mascara;
+    private final long ttlNanos;
+    private final LongSupplier reloj;
+    private final LongAdder aciertos = new LongAdder();
+    private final LongAdder fallos = new LongAdder();
+    private final LongAdder desalojos = new LongAdder();
+
+    /**
+     * @param ttl vencimiento desde que se carga cada entrada; {@code Duration.ZERO} para no vencer nunca
+     */
+    public BoundedCache(String nombre, int tamanioMaximo, Duration ttl) {
+        this(nombre, tamanioMaximo, ttl, Math.min(SEGMENTOS_MAXIMOS, tamanioMaximo), System::nanoTime);
+    }
+
+    @SuppressWarnings("unchecked")
+    BoundedCache(String nombre, int tamanioMaximo, Duration ttl, int segmentos, LongSupplier reloj) {
+        if (tamanioMaximo < 1) {
+            throw new IllegalArgumentException("El tamaño máximo de la caché debe ser positivo");
+        }
+        int cantidad = Integer.highestOneBit(Math.max(1, segmentos));
+        this.nombre = nombre;
+        this.segmentos = new Segmento[cantidad];
+        int porSegmento = (tamanioMaximo + cantidad - 1) / cantidad;
+        for (int i = 0; i < cantidad; i++) {
+            this.segmentos[i] = new Segmento<>(porSegmento, desalojos);
+        }
+        this.mascara = cantidad - 1;
+        this.ttlNanos = ttl.toNanos();
+        this.reloj = reloj;
+    }
+
+    public String getNombre() {
+        return nombre;
+    }
+
+    /**
+     * Devuelve el valor en caché o lo carga con {@code cargar}. Los resultados vacíos no se guardan.
+     */
+    public Optional<V> obtener(K clave, Function<K, Optional<V>> cargar) {
+        Segmento<K, V> segmento = segmento(clave);
+        long ahora = reloj.getAsLong();
+        long generacion;
+        segmento.lock.lock();
+        try {
+            Entrada<V> entrada = segmento.entradas.get(clave);
+            if (entrada != null && !entrada.vencida(ahora)) {
+                aciertos.increment();
+                return Optional.of(entrada.valor);
+            }
+            if (entrada != null) {
+                segmento.entradas.remove(clave);
+                desalojos.increment();
+            }
+            generacion = segmento.generacion;
+        } finally {
+            segmento.lock.unlock();
+        }
+        fallos.increment();
+
+        Optional<V> valor = cargar.apply(clave);
+        if (valor.isPresent()) {
+            long vence = ttlNanos > 0 ? reloj.getAsLong() + ttlNanos : Long.MAX_VALUE;
+            segmento.lock.lock();
+            try {
+                if (segmento.generacion == generacion) {
+                    segmento.entradas.put(clave, new Entrada<>(valor.get(), vence));
+                }
+            } finally {
+                segmento.lock.unlock();
+            }
+        }
+        return valor;
+    }
+
+    public void invalidar(K clave) {
+        Segmento<K, V> segmento = segmento(clave);
+        segmento.lock.lock();
+        try {
+            segmento.entradas.remove(clave);
+            segmento.generacion++;
+        } finally {
+            segmento.lock.unlock();
+        }
+    }
+
+    public void invalidarTodo() {
+        for (Segmento<K, V> segmento : segmentos) {
+            segmento.lock.lock();
+            try {
+                segmento.entradas.clear();
+                segmento.generacion++;
+            } finally {
+                segmento.lock.unlock();
+            }
+        }
+    }
+
+    public long size() {
+        long total = 0;
+        for (Segmento<K, V> segmento : segmentos) {
+            segmento.lock.lock();
+            try {
+                total += segmento.entradas.size();
+            } finally {
+                segmento.lock.unlock();
+            }
+        }
+        return total;
+    }
+
+    public Estadisticas estadisticas() {
+        return new Estadisticas(aciertos.sum(), fallos.sum(), desalojos.sum(), size());
+    }
+
+    private Segmento<K, V> segmento(K clave) {
+        int h = clave.hashCode();
+        return segmentos[(h ^ (h >>> 16)) & mascara];
+    }
+
+    /**
+     * Contadores acumulados desde que se creó la caché. Los desalojos incluyen
+     * las entradas vencidas, no las invalidadas por una escritura.
+     */
+    public record Estadisticas(long aciertos, long fallos, long desalojos, long tamanio) {
+    }
+
+    private record Entrada<V>(V valor, long vence) {
+        boolean vencida(long ahora) {
+            return ahora - vence >= 0;
+        }
+    }
+
+    private static final class Segmento<K, V> {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final LinkedHashMap<K, Entrada<V>> entradas;
+        private long generacion;
+
+        Segmento(int capacidad, LongAdder desalojos) {
+            // Orden de acceso: la entrada más antigua es la menos usada recientemente.
+            this.entradas = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<K, Entrada<V>> masVieja) {
+                    if (size() > capacidad) {
+                        desalojos.increment();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.springLibrarySystem.cache;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuración de las cachés de lectura delante de los repositorios de libros y usuarios.
+ */
+@Data
+@ConfigurationProperties(prefix = "library.cache")
+public class CacheProperties {
+    /** Activa las cachés; sin ellas los servicios leen siempre del repositorio. */
+    private boolean enabled = true;
+    /** Cantidad máxima de entradas de cada caché; al superarla se desaloja la menos usada. */
+    private int maxSize = 10_000;
+    /** Vencimiento de cada entrada desde que se carga; 0 para que sólo la saque una escritura o el desalojo. */
+    private Duration ttl = Duration.ZERO;
+}
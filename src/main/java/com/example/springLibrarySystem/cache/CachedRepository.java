@@ -0,0 +1,11 @@
+package com.example.springLibrarySystem.cache;
+
+import java.util.List;
+
+/**
+ * Repositorio que lee a través de una o más {@link BoundedCache}.
+ */
+public interface CachedRepository {
+
+    List<BoundedCache<?, ?>> getCaches();
+}
@@ -0,0 +1,44 @@
+package com.example.springLibrarySystem.cache;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Recuerda las claves que no existen para responder esas búsquedas sin ir al
+ * repositorio. Quien guarda una entidad debe invalidar su clave; igual que en
+ * {@link BoundedCache}, una ausencia leída antes de esa invalidación no se registra.
+ */
+public class NegativeCache<K> {
+    private final BoundedCache<K, Boolean> ausentes;
+
+    public NegativeCache(String nombre, int tamanioMaximo, Duration ttl) {
+        this.ausentes = new BoundedCache<>(nombre, tamanioMaximo, ttl);
+    }
+
+    /**
+     * Si la clave se sabe ausente devuelve vacío sin llamar a {@code cargar}; si no,
+     * carga y, cuando no hay resultado, registra la ausencia.
+     */
+    public <V> Optional<V> obtener(K clave, Function<K, Optional<V>> cargar) {
+        Object[] encontrado = new Object[1];
+        boolean ausente = ausentes.obtener(clave, k -> {
+            Optional<V> valor = cargar.apply(k);
+            encontrado[0] = valor.orElse(null);
+            return valor.isPresent() ? Optional.empty() : Optional.of(Boolean.TRUE);
+        }).isPresent();
+        @SuppressWarnings("unchecked")
+        V valor = (V) encontrado[0];
+        return ausente ? Optional.empty() : Optional.ofNullable(valor);
+    }
+
+    public void invalidar(K clave) {
+        if (clave != null) {
+            ausentes.invalidar(clave);
+        }
+    }
+
+    public BoundedCache<K, Boolean> getCache() {
+        return ausentes;
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.springLibrarySystem.changes;
+
+import com.example.springLibrarySystem.enums.TipoCambio;
+import com.example.springLibrarySystem.models.Entidad;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.Instant;
+
+/**
+ * Una escritura confirmada en un repositorio, tal como la ven los consumidores de
+ * {@code /api/changes}.
+ * @param offset Posición en el log, creciente y sin huecos entre todas las colecciones
+ * @param coleccion {@code libros}, {@code usuarios} o {@code prestamos}
+ * @param entidad Estado guardado; en los borrados no se incluye
+ */
+public record Cambio(long offset, String coleccion, TipoCambio tipo, Long id, Instant instante,
+                     @JsonInclude(JsonInclude.Include.NON_NULL) Entidad entidad) {
+}
@@ -0,0 +1,288 @@
+package com.example.springLibrarySystem.changes;
+
+import com.example.springLibrarySystem.enums.TipoCambio;
+import com.example.springLibrarySystem.exception.CambiosNoDisponiblesException;
+import com.example.springLibrarySystem.models.Entidad;
+import com.example.springLibrarySystem.persistence.WriteAheadLog;
+import com.example.springLibrarySystem.storage.StoreListener;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Log de cambios de todos los repositorios, para consumidores externos que leen desde
+ * un offset y retoman desde el último que procesaron.
+ *
+ * <p>Cada escritura confirmada recibe el siguiente offset de una única secuencia y se
+ * guarda en un anillo de tamaño fijo, así que leer lo reciente no toca el disco. Con un
+ * directorio, cada cambio también se agrega a un {@link WriteAheadLog} (con el offset
+ * como LSN): lo que ya salió del anillo se lee de ahí, y al reiniciar la secuencia sigue
+ * desde el último offset escrito. Sin directorio, pedir un offset que ya no está en
+ * memoria, o uno posterior al último (por ejemplo después de un reinicio), lanza
+ * {@link CambiosNoDisponiblesException}: el consumidor tiene que volver a sincronizar.
+ *
+ * <p>La secuencia se asigna con un lock global, tomado por muy poco tiempo dentro del
+ * lock de la franja del store: los cambios de un mismo ID quedan en el orden en que se
+ * aplicaron y los offsets no tienen huecos.
+ */
+@Slf4j
+public class ChangeLog implements Closeable {
+    private static final String NOMBRE = "changes";
+    // Cada cuánto se rota el segmento en disco; la retención se aplica por segmentos enteros.
+    private static final Duration ROTACION_MAXIMA = Duration.ofHours(1);
+
+    private final AtomicReferenceArray<Cambio> anillo;
+    private final int mascara;
+    private final ObjectMapper mapper;
+    private final Map<String, Class<? extends Entidad>> tipos = new ConcurrentHashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition nuevos = lock.newCondition();
+    // Protegidos por lock.
+    private long secuencia;
+    private int esperando;
+    private boolean abierto = true;
+    private volatile long ultimo;
+
+    private final Path directorio;
+    private final WriteAheadLog derrame;
+    private final Duration retencion;
+    private final ScheduledExecutorService programador;
+    // Sólo los usa el hilo del programador.
+    private final Deque<Corte> cortes = new ArrayDeque<>();
+
+    /**
+     * @param directorio Dónde escribir los cambios en disco, o {@code null} para mantenerlos sólo en memoria
+     * @param retencion Cuánto se conservan en disco
+     */
+    public ChangeLog(int capacidad, Path directorio, Duration retencion, ObjectMapper mapper) throws IOException {
+        int tamanio = Integer.highestOneBit(Math.max(1, capacidad - 1)) << 1;
+        this.anillo = new AtomicReferenceArray<>(tamanio);
+        this.mascara = tamanio - 1;
+        this.mapper = mapper;
+        this.directorio = directorio;
+        this.retencion = retencion;
+        if (directorio == null) {
+            this.derrame = null;
+            this.programador = null;
+            return;
+        }
+        long recuperado = WriteAheadLog.replay(directorio, NOMBRE, 0, registro -> {
+        });
+        this.secuencia = recuperado;
+        this.ultimo = recuperado;
+        this.derrame = new WriteAheadLog(directorio, NOMBRE, recuperado, false);
+        // Lo escrito antes de arrancar se cuenta desde ahora: se borra una retención después.
+        cortes.addLast(new Corte(Instant.now(), recuperado));
+        this.programador = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("cambios").daemon().factory());
+        long intervalo = Math.max(1, Math.min(retencion.toMillis(), ROTACION_MAXIMA.toMillis()));
+        programador.scheduleWithFixedDelay(this::purgarSeguro, intervalo, intervalo, TimeUnit.MILLISECONDS);
+        log.info("Log de cambios en {} (último offset {})", directorio, recuperado);
+    }
+
+    /**
+     * Listener que registra en este log las escrituras de un store.
+     * @param coleccion Nombre con el que aparecen sus cambios
+     * @param tipo Clase de sus entidades, para leerlas de disco
+     */
+    public <T extends Entidad> StoreListener<T> listener(String coleccion, Class<T> tipo) {
+        tipos.put(coleccion, tipo);
+        return StoreListener.of(
+                (entidad, nueva) -> registrar(coleccion, TipoCambio.GUARDADO, entidad.getId(), entidad),
+                entidad -> registrar(coleccion, TipoCambio.ELIMINADO, entidad.getId(), null));
+    }
+
+    /**
+     * Offset del último cambio registrado, o 0 si no hubo ninguno.
+     */
+    public long lastOffset() {
+        return ultimo;
+    }
+
+    /**
+     * Cambios con offset mayor a {@code desde}, en orden y sin huecos. Puede devolver
+     * menos de {@code limite} aunque haya más; se sigue leyendo desde el último devuelto.
+     * @throws CambiosNoDisponiblesException si {@code desde} es posterior al último offset
+     *         o si los cambios siguientes ya no están ni en memoria ni en disco
+     */
+    public List<Cambio> read(long desde, int limite) {
+        long hasta = ultimo;
+        if (desde > hasta) {
+            throw new CambiosNoDisponiblesException(desde, hasta);
+        }
+        int cantidad = (int) Math.min(limite, hasta - desde);
+        List<Cambio> cambios = new ArrayList<>(cantidad);
+        for (long offset = desde + 1; offset <= desde + cantidad; offset++) {
+            Cambio cambio = anillo.get((int) offset & mascara);
+            // Si el casillero ya tiene otro offset, ese cambio fue desplazado por uno más nuevo.
+            if (cambio == null || cambio.offset() != offset) {
+                return cambios.isEmpty() ? leerDeDisco(desde, cantidad) : cambios;
+            }
+            cambios.add(cambio);
+        }
+        return cambios;
+    }
+
+    /**
+     * Como {@link #read}, pero si todavía no hay cambios posteriores a {@code desde}
+     * espera hasta que llegue alguno o pase {@code espera}. Sin cambios devuelve una lista vacía.
+     */
+    public List<Cambio> await(long desde, int limite, Duration espera) throws InterruptedException {
+        long hasta = ultimo;
+        if (desde > hasta) {
+            throw new CambiosNoDisponiblesException(desde, hasta);
+        }
+        if (desde == hasta && espera.isPositive()) {
+            long restante = espera.toNanos();
+            lock.lock();
+            esperando++;
+            try {
+                while (ultimo == desde && restante > 0 && abierto) {
+                    restante = nuevos.awaitNanos(restante);
+                }
+            } finally {
+                esperando--;
+                lock.unlock();
+            }
+        }
+        return read(desde, limite);
+    }
+
+    /**
+     * Despierta a quienes esperan y cierra el log en disco. Los cambios posteriores sólo quedan en memoria.
+     */
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            abierto = false;
+            nuevos.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        if (programador != null) {
+            programador.shutdownNow();
+        }
+        if (derrame != null) {
+            derrame.close();
+        }
+    }
+
+    /**
+     * Rota el segmento en disco y borra los que quedaron fuera de la retención.
+     */
+    void purgar(Instant ahora) throws IOException {
+        cortes.addLast(new Corte(ahora, derrame.rotate()));
+        Instant limite = ahora.minus(retencion);
+        long borrarHasta = -1;
+        while (!cortes.isEmpty() && !cortes.peekFirst().instante().isAfter(limite)) {
+            borrarHasta = cortes.pollFirst().lsn();
+        }
+        if (borrarHasta >= 0) {
+            derrame.deleteSegmentsUpTo(borrarHasta);
+        }
+    }
+
+    private void registrar(String coleccion, TipoCambio tipo, Long id, Entidad entidad) {
+        Instant instante = Instant.now();
+        // Se serializa antes de tomar el lock global para no alargarlo.
+        byte[] datos = derrame == null ? null : serializar(new Cambio(0, coleccion, tipo, id, instante, entidad));
+        lock.lock();
+        try {
+            long offset = ++secuencia;
+            if (datos != null && abierto) {
+                derrame.append(tipo == TipoCambio.GUARDADO ? WriteAheadLog.SAVE : WriteAheadLog.DELETE, id, datos);
+            }
+            anillo.set((int) offset & mascara, new Cambio(offset, coleccion, tipo, id, instante, entidad));
+            ultimo = offset;
+            if (esperando > 0) {
+                nuevos.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private List<Cambio> leerDeDisco(long desde, int cantidad) {
+        if (derrame == null) {
+            throw new CambiosNoDisponiblesException(desde, ultimo);
+        }
+        derrame.awaitDurable(desde + cantidad);
+        List<Cambio> cambios = new ArrayList<>(cantidad);
+        try {
+            WriteAheadLog.read(directorio, NOMBRE, desde, cantidad, registro -> cambios.add(decodificar(registro)));
+        } catch (NoSuchFileException e) {
+            // La retención borró el segmento mientras se leía.
+            throw new CambiosNoDisponiblesException(desde, ultimo);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo leer el log de cambios", e);
+        }
+        if (cambios.isEmpty() || cambios.get(0).offset() != desde + 1) {
+            throw new CambiosNoDisponiblesException(desde, ultimo);
+        }
+        return cambios;
+    }
+
+    // Cada escritura tiene que llegar a disco para que los LSN sigan siendo los offsets:
+    // si la entidad no se puede serializar se guarda el cambio sin ella.
+    private byte[] serializar(Cambio cambio) {
+        try {
+            return mapper.writeValueAsBytes(cambio);
+        } catch (JsonProcessingException e) {
+            log.error("No se pudo serializar el cambio de {} {}", cambio.coleccion(), cambio.id(), e);
+            try {
+                return mapper.writeValueAsBytes(new Cambio(0, cambio.coleccion(), cambio.tipo(), cambio.id(),
+                        cambio.instante(), null));
+            } catch (JsonProcessingException sinEntidad) {
+                throw new UncheckedIOException(sinEntidad);
+            }
+        }
+    }
+
+    // El offset es el LSN del registro: en los datos se guarda en 0.
+    private Cambio decodificar(WriteAheadLog.Registro registro) {
+        try {
+            JsonNode nodo = mapper.readTree(registro.datos());
+            String coleccion = nodo.get("coleccion").asText();
+            JsonNode entidad = nodo.get("entidad");
+            Class<? extends Entidad> tipo = tipos.get(coleccion);
+            return new Cambio(registro.lsn(), coleccion, TipoCambio.valueOf(nodo.get("tipo").asText()), registro.id(),
+                    mapper.treeToValue(nodo.get("instante"), Instant.class),
+                    entidad == null || tipo == null ? null : mapper.treeToValue(entidad, tipo));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cambio ilegible en el offset " + registro.lsn(), e);
+        }
+    }
+
+    private void purgarSeguro() {
+        try {
+            purgar(Instant.now());
+        } catch (IOException | RuntimeException e) {
+            log.error("No se pudieron borrar los cambios vencidos", e);
+        }
+    }
+
+    private record Corte(Instant instante, long lsn) {
+    }
+}
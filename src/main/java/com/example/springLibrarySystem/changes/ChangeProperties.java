@@ -0,0 +1,22 @@
+package com.example.springLibrarySystem.changes;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuración del log de cambios que se expone en {@code /api/changes}.
+ */
+@Data
+@ConfigurationProperties(prefix = "library.changes")
+public class ChangeProperties {
+    /** Cambios que se guardan en memoria (se redondea a potencia de 2). Los más viejos sólo se leen de disco. */
+    private int capacity = 65536;
+    /** Escribe cada cambio en disco: se pueden leer los que ya salieron de memoria y los offsets sobreviven a un reinicio. */
+    private boolean spill = false;
+    /** Directorio de los segmentos del log de cambios. */
+    private String directory = "data/changes";
+    /** Cuánto se conservan en disco los cambios; los segmentos más viejos se borran. */
+    private Duration retention = Duration.ofDays(7);
+}
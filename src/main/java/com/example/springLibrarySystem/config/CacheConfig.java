@@ -0,0 +1,37 @@
+package com.example.springLibrarySystem.config;
+
+import com.example.springLibrarySystem.cache.CacheProperties;
+import com.example.springLibrarySystem.repository.CachingLibroRepository;
+import com.example.springLibrarySystem.repository.CachingUsuarioRepository;
+import com.example.springLibrarySystem.repository.LibroRepositoryImpl;
+import com.example.springLibrarySystem.repository.UsuarioRepositoryImpl;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+/**
+ * Pone las cachés de lectura entre los servicios y los repositorios de libros y
+ * usuarios ({@code library.cache.enabled}, activas por defecto). Los servicios reciben
+ * el repositorio con caché; la persistencia sigue trabajando sobre los originales.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(prefix = "library.cache", name = "enabled", havingValue = "true", matchIfMissing = true)
+@EnableConfigurationProperties(CacheProperties.class)
+public class CacheConfig {
+
+    @Bean
+    @Primary
+    public CachingLibroRepository cachingLibroRepository(LibroRepositoryImpl libroRepository,
+                                                         CacheProperties properties) {
+        return new CachingLibroRepository(libroRepository, properties);
+    }
+
+    @Bean
+    @Primary
+    public CachingUsuarioRepository cachingUsuarioRepository(UsuarioRepositoryImpl usuarioRepository,
+                                                             CacheProperties properties) {
+        return new CachingUsuarioRepository(usuarioRepository, properties);
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.springLibrarySystem.config;
+
+import com.example.springLibrarySystem.changes.ChangeLog;
+import com.example.springLibrarySystem.changes.ChangeProperties;
+import com.example.springLibrarySystem.models.Libro;
+import com.example.springLibrarySystem.models.Prestamo;
+import com.example.springLibrarySystem.models.Usuario;
+import com.example.springLibrarySystem.repository.LibroRepositoryImpl;
+import com.example.springLibrarySystem.repository.PrestamoRepositoryImpl;
+import com.example.springLibrarySystem.repository.UsuarioRepositoryImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Log de cambios de libros, usuarios y préstamos que se lee en {@code /api/changes}.
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(ChangeProperties.class)
+public class ChangesConfig {
+
+    @Bean(destroyMethod = "close")
+    public ChangeLog changeLog(ChangeProperties properties, ObjectMapper objectMapper,
+                               LibroRepositoryImpl libroRepository,
+                               UsuarioRepositoryImpl usuarioRepository,
+                               PrestamoRepositoryImpl prestamoRepository) throws IOException {
+        Path directorio = properties.isSpill() ? Path.of(properties.getDirectory()) : null;
+        ChangeLog changeLog = new ChangeLog(properties.getCapacity(), directorio, properties.getRetention(), objectMapper);
+        libroRepository.getStore().addListener(changeLog.listener("libros", Libro.class));
+        usuarioRepository.getStore().addListener(changeLog.listener("usuarios", Usuario.class));
+        prestamoRepository.getStore().addListener(changeLog.listener("prestamos", Prestamo.class));
+        return changeLog;
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.springLibrarySystem.config;
+
+import com.example.springLibrarySystem.events.EventBus;
+import com.example.springLibrarySystem.events.EventProperties;
+import com.example.springLibrarySystem.events.EventSubscriber;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Bus de eventos de dominio: los repositorios publican cada escritura confirmada y los
+ * beans {@link EventSubscriber} la procesan fuera del hilo de la petición.
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(EventProperties.class)
+public class EventsConfig {
+
+    // Se cierra después que los repositorios que publican en él, y entrega lo pendiente antes de cerrar.
+    @Bean(destroyMethod = "close")
+    public EventBus eventBus(EventProperties properties) {
+        return new EventBus(properties.getBufferSize(), properties.getMaxBatch());
+    }
+
+    // Los suscriptores se registran con todos los beans ya creados: pueden depender de
+    // servicios y repositorios que a su vez publican en el bus.
+    @Bean
+    public SmartInitializingSingleton eventSubscribers(EventBus eventBus, ObjectProvider<EventSubscriber> suscriptores) {
+        return () -> suscriptores.orderedStream().forEach(eventBus::subscribe);
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.springLibrarySystem.config;
+
+import com.example.springLibrarySystem.events.DomainEvent;
+import com.example.springLibrarySystem.events.EventBus;
+import com.example.springLibrarySystem.events.EventSubscriber;
+import com.example.springLibrarySystem.metrics.MetricsInterceptor;
+import com.example.springLibrarySystem.repository.LibroRepositoryImpl;
+import com.example.springLibrarySystem.repository.PrestamoRepositoryImpl;
+import com.example.springLibrarySystem.repository.UsuarioRepositoryImpl;
+import com.example.springLibrarySystem.storage.ConcurrentEntityStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.aspectj.AspectJExpressionPointcutAdvisor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+
+/**
+ * Métricas propias de la biblioteca ({@code library.metrics.enabled}, activas por defecto):
+ * <ul>
+ *   <li>{@code library.service} y {@code library.repository}: timers con histograma de cada
+ *       método de los servicios y repositorios de libros, usuarios y préstamos.</li>
+ *   <li>{@code library.not.found}: búsquedas sin resultado, por clase y método.</li>
+ *   <li>{@code library.repository.size}: cantidad de entidades guardadas.</li>
+ *   <li>{@code library.events}: eventos de dominio entregados, por tipo,
+ *       {@code library.events.pending}: los publicados que esperan entrega, y
+ *       {@code library.events.dropped}: los descartados con el anillo lleno.</li>
+ * </ul>
+ * Los endpoints ya quedan medidos por Actuator en {@code http.server.requests}. Desactivadas,
+ * no se registran los advisors y los beans quedan sin proxy.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(prefix = "library.metrics", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class MetricsConfig {
+    private static final String PAQUETE = "com.example.springLibrarySystem.";
+
+    // Static y con ObjectProvider: los advisors se crean antes que el resto de los beans
+    // y no deben arrastrar al registro de métricas antes de que Spring lo configure.
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public static Advisor serviceMetricsAdvisor(ObjectProvider<MeterRegistry> registry) {
+        return advisor(registry, "library.service",
+                "service.LibroService", "service.UsuarioService", "service.PrestamoService");
+    }
+
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public static Advisor repositoryMetricsAdvisor(ObjectProvider<MeterRegistry> registry) {
+        return advisor(registry, "library.repository",
+                "repository.LibroRepository", "repository.UsuarioRepository", "repository.PrestamoRepository");
+    }
+
+    @Bean
+    public MeterBinder repositorySizeMetrics(LibroRepositoryImpl libroRepository,
+                                             UsuarioRepositoryImpl usuarioRepository,
+                                             PrestamoRepositoryImpl prestamoRepository) {
+        return registry -> {
+            tamanio(registry, "libros", libroRepository.getStore());
+            tamanio(registry, "usuarios", usuarioRepository.getStore());
+            tamanio(registry, "prestamos", prestamoRepository.getStore());
+        };
+    }
+
+    @Bean
+    public MeterBinder eventBusMetrics(EventBus eventBus) {
+        return registry -> {
+            Gauge.builder("library.events.pending", eventBus, EventBus::pending).register(registry);
+            FunctionCounter.builder("library.events.dropped", eventBus, EventBus::dropped).register(registry);
+        };
+    }
+
+    @Bean
+    public EventSubscriber eventMetrics(ObjectProvider<MeterRegistry> registry) {
+        ClassValue<Counter> contadores = new ClassValue<>() {
+            @Override
+            protected Counter computeValue(Class<?> tipo) {
+                return Counter.builder("library.events").tag("type", tipo.getSimpleName()).register(registry.getObject());
+            }
+        };
+        return lote -> {
+            for (DomainEvent evento : lote) {
+                contadores.get(evento.getClass()).increment();
+            }
+        };
+    }
+
+    private static Advisor advisor(ObjectProvider<MeterRegistry> registry, String nombre, String... interfaces) {
+        StringBuilder expresion = new StringBuilder();
+        for (String tipo : interfaces) {
+            if (!expresion.isEmpty()) {
+                expresion.append(" || ");
+            }
+            expresion.append("execution(* ").append(PAQUETE).append(tipo).append(".*(..))");
+        }
+        AspectJExpressionPointcutAdvisor advisor = new AspectJExpressionPointcutAdvisor();
+        advisor.setExpression(expresion.toString());
+        advisor.setAdvice(new MetricsInterceptor(registry::getObject, nombre));
+        return advisor;
+    }
+
+    private static void tamanio(MeterRegistry registry, String entidad, ConcurrentEntityStore<?> store) {
+        Gauge.builder("library.repository.size", store, ConcurrentEntityStore::size)
+                .tag("entity", entidad)
+                .register(registry);
+    }
+}
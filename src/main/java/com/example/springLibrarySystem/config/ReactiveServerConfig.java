@@ -0,0 +1,23 @@
+package com.example.springLibrarySystem.config;
+
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Con el perfil {@code reactive} la API corre sobre Reactor Netty en lugar de Tomcat:
+ * unos pocos hilos de event loop atienden todas las conexiones, así que las conexiones
+ * keep-alive ociosas no ocupan un hilo cada una.
+ */
+@Profile("reactive")
+@Configuration(proxyBeanMethods = false)
+public class ReactiveServerConfig {
+
+    // Tomcat también está en el classpath (para el modo servlet) y Spring Boot lo
+    // preferiría; declarar la fábrica de Netty lo evita.
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.springLibrarySystem.controller;
+
+import com.example.springLibrarySystem.cache.BoundedCache;
+import com.example.springLibrarySystem.cache.CachedRepository;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+@RestController
+@RequestMapping("/api/cache")
+public class CacheController {
+
+    private final ObjectProvider<CachedRepository> repositorios;
+
+    public CacheController(ObjectProvider<CachedRepository> repositorios) {
+        this.repositorios = repositorios;
+    }
+
+    /**
+     * Obtiene los contadores de aciertos, fallos y desalojos de cada caché.
+     * @return Estadísticas por nombre de caché; vacío si las cachés están desactivadas
+     */
+    // GET /api/cache
+    @GetMapping
+    public Map<String, BoundedCache.Estadisticas> getStats() {
+        Map<String, BoundedCache.Estadisticas> estadisticas = new TreeMap<>();
+        repositorios.forEach(repositorio -> repositorio.getCaches()
+                .forEach(cache -> estadisticas.put(cache.getNombre(), cache.estadisticas())));
+        return estadisticas;
+    }
+}
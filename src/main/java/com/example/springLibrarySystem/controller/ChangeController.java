@@ -0,0 +1,118 @@
+package com.example.springLibrarySystem.controller;
+
+import com.example.springLibrarySystem.changes.Cambio;
+import com.example.springLibrarySystem.changes.ChangeLog;
+import com.example.springLibrarySystem.exception.CambiosNoDisponiblesException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Feed de cambios de libros, usuarios y préstamos para sistemas externos. Cada cambio
+ * tiene un offset creciente; el consumidor guarda el último que procesó y lo manda como
+ * {@code since} para seguir desde ahí, también después de un reinicio. Si ese offset ya
+ * no está disponible se responde 410 y hay que volver a sincronizar con los listados.
+ */
+@Slf4j
+@Profile("!reactive")
+@RestController
+@RequestMapping("/api/changes")
+public class ChangeController {
+    static final String HEADER_OFFSET = "X-Change-Offset";
+    static final Duration ESPERA_MAXIMA = Duration.ofSeconds(30);
+    // Sin cambios, el stream manda un comentario cada tanto para detectar clientes desconectados.
+    static final Duration LATIDO = Duration.ofSeconds(15);
+
+    private final ChangeLog changeLog;
+
+    public ChangeController(ChangeLog changeLog) {
+        this.changeLog = changeLog;
+    }
+
+    /**
+     * Obtiene los cambios posteriores a un offset. Con {@code wait}, si todavía no hay
+     * ninguno espera a que llegue (long-polling). El offset desde el que seguir viaja en
+     * el header {@value #HEADER_OFFSET}.
+     * @param since Último offset procesado; 0 para empezar desde el principio
+     * @param limit Cantidad máxima de cambios
+     * @param wait Segundos a esperar si no hay cambios (máximo 30)
+     * @return Cambios en orden de offset; 410 si los posteriores a {@code since} ya no están disponibles
+     */
+    // GET /api/changes?since=1200&limit=500&wait=30
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<Cambio>> getChanges(@RequestParam(defaultValue = "0") long since,
+                                                   @RequestParam(required = false) Integer limit,
+                                                   @RequestParam(defaultValue = "0") int wait) throws InterruptedException {
+        return leer(changeLog, since, limit, wait);
+    }
+
+    /**
+     * Transmite los cambios posteriores a un offset como Server-Sent Events, con el offset
+     * como ID de cada evento: al reconectar, el navegador lo manda en {@code Last-Event-ID}.
+     * @param since Último offset procesado
+     * @param lastEventId Último offset recibido antes de reconectar; tiene prioridad sobre {@code since}
+     * @return Stream de cambios; 410 si los posteriores al offset ya no están disponibles
+     */
+    // GET /api/changes?since=1200 (Accept: text/event-stream)
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> stream(@RequestParam(defaultValue = "0") long since,
+                                             @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        long desde = lastEventId != null ? lastEventId : since;
+        if (desde < 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (desde > changeLog.lastOffset()) {
+            return ResponseEntity.status(HttpStatus.GONE).build();
+        }
+        SseEmitter emitter = new SseEmitter(0L);
+        // Hilo virtual aunque no estén activos: pasa casi toda la vida esperando cambios.
+        Thread.ofVirtual().name("cambios-sse").start(() -> emitir(emitter, desde));
+        return ResponseEntity.ok(emitter);
+    }
+
+    static ResponseEntity<List<Cambio>> leer(ChangeLog changeLog, long since, Integer limit, int wait)
+            throws InterruptedException {
+        if (since < 0 || wait < 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        Duration espera = Duration.ofSeconds(wait).compareTo(ESPERA_MAXIMA) > 0 ? ESPERA_MAXIMA : Duration.ofSeconds(wait);
+        List<Cambio> cambios;
+        try {
+            cambios = changeLog.await(since, Paginacion.limite(limit), espera);
+        } catch (CambiosNoDisponiblesException e) {
+            return ResponseEntity.status(HttpStatus.GONE).build();
+        }
+        long siguiente = cambios.isEmpty() ? since : cambios.get(cambios.size() - 1).offset();
+        return ResponseEntity.ok().header(HEADER_OFFSET, String.valueOf(siguiente)).body(cambios);
+    }
+
+    private void emitir(SseEmitter emitter, long desde) {
+        try {
+            while (true) {
+                List<Cambio> cambios = changeLog.await(desde, Paginacion.LIMITE_MAXIMO, LATIDO);
+                if (cambios.isEmpty()) {
+                    emitter.send(SseEmitter.event().comment("latido"));
+                }
+                for (Cambio cambio : cambios) {
+                    emitter.send(SseEmitter.event().id(String.valueOf(cambio.offset())).data(cambio));
+                    desde = cambio.offset();
+                }
+            }
+        } catch (CambiosNoDisponiblesException e) {
+            emitter.completeWithError(e);
+        } catch (IOException e) {
+            log.debug("Cliente de cambios desconectado en el offset {}", desde);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            emitter.complete();
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.example.springLibrarySystem.controller;
+
+import com.example.springLibrarySystem.models.Entidad;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Mono;
+
+import java.util.function.Supplier;
+
+/**
+ * ETags fuertes derivados del ID y la versión de cada entidad ({@code "<época>-7.3"}) y
+ * lectura de {@code If-Match} para las actualizaciones condicionales.
+ *
+ * La época cambia en cada arranque y el ID distingue entidades con la misma versión: un
+ * ETag sólo coincide con la misma entidad, en la misma versión, dentro de la misma ejecución.
+ *
+ * Los GET responden 304 sin cuerpo cuando el {@code If-None-Match} del cliente
+ * coincide. Los listados usan un ETag de colección armado con el contador de
+ * modificaciones del repositorio, así que un listado sin cambios se contesta
+ * sin recorrer ni serializar nada.
+ */
+final class ETags {
+    // Versión que nunca coincide: un If-Match que no es un ETag nuestro debe dar 412.
+    private static final long NINGUNA = -1L;
+    // El contador de modificaciones vuelve a cero al reiniciar, y una entidad restaurada de
+    // un respaldo puede repetir una versión con otro contenido: el prefijo evita que un
+    // ETag de una ejecución anterior coincida.
+    private static final String EPOCA = Long.toString(System.currentTimeMillis(), 36);
+
+    private ETags() {
+    }
+
+    /**
+     * ETag de una respuesta con una o más entidades: la época seguida del ID y la versión
+     * de cada una ({@code "<época>-7.3"}, o {@code "<época>-7.3-2.5"} para un préstamo con
+     * su libro). Las entidades null se omiten; si alguna no tiene ID o versión no hay ETag.
+     */
+    static String de(Entidad... entidades) {
+        StringBuilder etag = new StringBuilder("\"").append(EPOCA);
+        for (Entidad entidad : entidades) {
+            if (entidad == null) {
+                continue;
+            }
+            if (entidad.getId() == null || entidad.getVersion() == null) {
+                return null;
+            }
+            etag.append('-').append(entidad.getId()).append('.').append(entidad.getVersion());
+        }
+        return etag.append('"').toString();
+    }
+
+    static <T extends Entidad> ResponseEntity<T> ok(T entidad) {
+        return conETag(ResponseEntity.ok(), entidad);
+    }
+
+    /**
+     * Igual que {@link #ok(Entidad)}, pero responde 304 sin cuerpo si el cliente ya tiene esa versión.
+     */
+    static <T extends Entidad> ResponseEntity<T> ok(T entidad, String ifNoneMatch) {
+        return ok(entidad, de(entidad), ifNoneMatch);
+    }
+
+    /**
+     * Respuesta 200 con el ETag indicado, o 304 sin cuerpo si el cliente ya lo tiene.
+     */
+    static <B> ResponseEntity<B> ok(B cuerpo, String etag, String ifNoneMatch) {
+        if (coincide(ifNoneMatch, etag)) {
+            return noModificado(etag);
+        }
+        ResponseEntity.BodyBuilder respuesta = ResponseEntity.ok();
+        if (etag != null) {
+            respuesta.eTag(etag);
+        }
+        return respuesta.body(cuerpo);
+    }
+
+    static <T extends Entidad> ResponseEntity<T> creado(T entidad) {
+        return conETag(ResponseEntity.status(HttpStatus.CREATED), entidad);
+    }
+
+    static String deColeccion(long modificaciones) {
+        return "\"" + EPOCA + "-" + modificaciones + "\"";
+    }
+
+    /**
+     * Listado condicional: si el contador no cambió desde el ETag del cliente responde
+     * 304 sin armar la respuesta; si no, la arma y le agrega el ETag de colección.
+     * El contador se lee antes de consultar, así que el ETag nunca es más nuevo que el cuerpo.
+     */
+    static <B> ResponseEntity<B> coleccion(long modificaciones, String ifNoneMatch,
+                                           Supplier<ResponseEntity<B>> respuesta) {
+        String etag = deColeccion(modificaciones);
+        if (coincide(ifNoneMatch, etag)) {
+            return noModificado(etag);
+        }
+        return agregarETag(respuesta.get(), etag);
+    }
+
+    /**
+     * Igual que {@link #coleccion(long, String, Supplier)} para los controladores reactivos.
+     */
+    static <B> Mono<ResponseEntity<B>> coleccionReactiva(long modificaciones, String ifNoneMatch,
+                                                         Supplier<Mono<ResponseEntity<B>>> respuesta) {
+        String etag = deColeccion(modificaciones);
+        if (coincide(ifNoneMatch, etag)) {
+            return Mono.just(noModificado(etag));
+        }
+        return respuesta.get().map(r -> agregarETag(r, etag));
+    }
+
+    /**
+     * Indica si {@code If-None-Match} incluye el ETag. Usa la comparación débil que
+     * pide HTTP para este header: {@code W/"<época>-7.3"} coincide con {@code "<época>-7.3"}.
+     */
+    static boolean coincide(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || etag == null) {
+            return false;
+        }
+        for (String candidato : ifNoneMatch.split(",")) {
+            String valor = candidato.trim();
+            if (valor.startsWith("W/")) {
+                valor = valor.substring(2);
+            }
+            if (valor.equals("*") || valor.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Versión que exige el header {@code If-Match} sobre la entidad {@code id}: null si no
+     * vino o es {@code *}. Sólo se acepta un ETag fuerte de esa entidad y de esta ejecución;
+     * los débiles, las listas, los de otra entidad o de antes de un reinicio no coinciden nunca.
+     */
+    static Long versionEsperada(Long id, String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String valor = ifMatch.trim();
+        String prefijo = "\"" + EPOCA + "-" + id + ".";
+        if (!valor.startsWith(prefijo) || !valor.endsWith("\"")) {
+            return NINGUNA;
+        }
+        try {
+            return Long.parseLong(valor.substring(prefijo.length(), valor.length() - 1));
+        } catch (NumberFormatException e) {
+            return NINGUNA;
+        }
+    }
+
+    /**
+     * Aplica el {@code If-Match} a la entidad a guardar como {@code id}; sin header se
+     * respeta la versión del cuerpo.
+     */
+    static <T extends Entidad> T condicionar(T entidad, Long id, String ifMatch) {
+        Long esperada = versionEsperada(id, ifMatch);
+        if (esperada != null) {
+            entidad.setVersion(esperada);
+        }
+        return entidad;
+    }
+
+    private static <B> ResponseEntity<B> noModificado(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+    }
+
+    private static <B> ResponseEntity<B> agregarETag(ResponseEntity<B> respuesta, String etag) {
+        if (!respuesta.getStatusCode().is2xxSuccessful()) {
+            return respuesta;
+        }
+        return ResponseEntity.status(respuesta.getStatusCode())
+                .headers(respuesta.getHeaders())
+                .eTag(etag)
+                .body(respuesta.getBody());
+    }
+
+    private static <T extends Entidad> ResponseEntity<T> conETag(ResponseEntity.BodyBuilder respuesta, T entidad) {
+        String etag = de(entidad);
+        if (etag != null) {
+            respuesta.eTag(etag);
+        }
+        return respuesta.body(entidad);
+    }
+}
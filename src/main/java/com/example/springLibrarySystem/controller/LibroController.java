@@ -1,45 +1,123 @@
 package com.example.springLibrarySystem.controller;
 
+import com.example.springLibrarySystem.enums.EstadoLibro;
+import com.example.springLibrarySystem.exception.ConflictoVersionException;
+import com.example.springLibrarySystem.exception.EstadoLibroInvalidoException;
+import com.example.springLibrarySystem.exception.IsbnDuplicadoException;
+import com.example.springLibrarySystem.exception.LibroConPrestamosException;
 import com.example.springLibrarySystem.exception.LibroNoEncontradoException;
 import com.example.springLibrarySystem.models.Libro;
+import com.example.springLibrarySystem.models.ResultadoLote;
 import com.example.springLibrarySystem.service.LibroService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
+import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 
+@Profile("!reactive")
 @RestController
 @RequestMapping("/api/libros")
 public class LibroController {
+    static final int RESULTADOS_POR_DEFECTO = 20;
+    static final int RESULTADOS_MAXIMOS = 100;
 
     private final LibroService libroService;
+    private final ObjectMapper objectMapper;
 
-    public LibroController(LibroService libroService) {
+    public LibroController(LibroService libroService, ObjectMapper objectMapper) {
         this.libroService = libroService;
+        this.objectMapper = objectMapper;
     }
 
     /**
-     * Obtiene la lista completa de libros registrados.
+     * Obtiene una página de los libros registrados, ordenada por ID, y el cursor de la
+     * siguiente en el header {@code X-Next-Cursor}. Para obtener todos sin paginar está
+     * {@code /export}.
+     * @param limit Cantidad máxima de elementos de la página (por defecto {@value Paginacion#LIMITE_POR_DEFECTO})
+     * @param after Cursor recibido en la página anterior
+     * @param estado Si se indica, sólo los libros en ese estado
+     * @param ifNoneMatch ETag de una respuesta anterior; si no hubo cambios se responde 304
      * @return Lista de libros
      */
-    // GET /api/libros
+    // GET /api/libros?estado=...&limit=50&after=...
     @GetMapping
-    public ResponseEntity<List<Libro>> getAll() {
-        return ResponseEntity.ok(libroService.findAll());
+    public ResponseEntity<List<Libro>> getAll(@RequestParam(required = false) Integer limit,
+                                              @RequestParam(required = false) String after,
+                                              @RequestParam(required = false) EstadoLibro estado,
+                                              @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return ETags.coleccion(libroService.getModificationCount(), ifNoneMatch, () ->
+                estado == null
+                        ? Paginacion.pagina(libroService::findPage, limit, after)
+                        : Paginacion.pagina((afterId, l) -> libroService.findPageByEstado(estado, afterId, l), limit, after));
+    }
+
+    /**
+     * Busca libros por palabras del título o del autor, sin distinguir mayúsculas ni tildes,
+     * ordenados por relevancia (BM25). Una palabra terminada en {@code *} busca por prefijo.
+     * @param q Texto a buscar, por ejemplo {@code garcia soled*}
+     * @param limit Cantidad máxima de resultados (por defecto 20, máximo 100)
+     * @param ifNoneMatch ETag de una respuesta anterior; si no hubo cambios se responde 304
+     * @return Libros más relevantes primero
+     */
+    // GET /api/libros/search?q=garcia+soled*&limit=20
+    @GetMapping("/search")
+    public ResponseEntity<List<Libro>> search(@RequestParam String q,
+                                              @RequestParam(required = false) Integer limit,
+                                              @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return ETags.coleccion(libroService.getModificationCount(), ifNoneMatch,
+                () -> ResponseEntity.ok(libroService.search(q, resultados(limit))));
+    }
+
+    /**
+     * Exporta todos los libros en formato NDJSON (un JSON por línea), escribiendo
+     * la respuesta a medida que se recorren, con uso de memoria constante.
+     * @param modifiedSince Si se indica, sólo los modificados desde ese instante (ISO-8601). El instante de
+     *                      modificación no se persiste: tras un reinicio todos cuentan como modificados
+     *                      al recuperarse, así que un instante anterior al reinicio devuelve todo
+     * @return Stream NDJSON de libros
+     */
+    // GET /api/libros/export?modifiedSince=2025-01-01T00:00:00Z
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> export(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant modifiedSince) {
+        return NdjsonExport.exportar(objectMapper, Libro.class, libroService.streamAll(modifiedSince));
+    }
+
+    /**
+     * Cuenta los libros por estado sin recorrerlos.
+     * @param estado Si se indica, sólo la cantidad en ese estado
+     * @return Cantidad de libros por estado
+     */
+    // GET /api/libros/count?estado=...
+    @GetMapping("/count")
+    public ResponseEntity<Map<EstadoLibro, Long>> count(@RequestParam(required = false) EstadoLibro estado) {
+        Map<EstadoLibro, Long> cantidades = libroService.countByEstado();
+        return ResponseEntity.ok(estado == null ? cantidades : Map.of(estado, cantidades.get(estado)));
     }
 
     /**
      * Obtiene un libro por su ID.
      * @param id Identificador del libro
+     * @param ifNoneMatch ETag de una respuesta anterior; si no cambió se responde 304
      * @return Libro correspondiente al ID
      */
     // GET /api/libros/{id}
     @GetMapping("/{id}")
-    public ResponseEntity<Libro> getById(@PathVariable Long id) {
+    public ResponseEntity<Libro> getById(@PathVariable Long id,
+                                         @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         try {
             Libro libro = libroService.findById(id);
-            return ResponseEntity.ok(libro);
+            return ETags.ok(libro, ifNoneMatch);
         } catch (LibroNoEncontradoException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
         }
@@ -48,14 +126,16 @@ public class LibroController {
     /**
      * Obtiene un libro por su ISBN.
      * @param isbn Código ISBN
+     * @param ifNoneMatch ETag de una respuesta anterior; si no cambió se responde 304
      * @return Libro correspondiente al ISBN
      */
     // GET /api/libros/isbn/{isbn}
     @GetMapping("/isbn/{isbn}")
-    public ResponseEntity<Libro> getByIsbn(@PathVariable String isbn) {
+    public ResponseEntity<Libro> getByIsbn(@PathVariable String isbn,
+                                           @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         try {
             Libro libro = libroService.findByIsbn(isbn);
-            return ResponseEntity.ok(libro);
+            return ETags.ok(libro, ifNoneMatch);
         } catch (LibroNoEncontradoException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
         }
@@ -64,43 +144,95 @@ public class LibroController {
     /**
      * Registra un nuevo libro.
      * @param libro Datos del libro a registrar
-     * @return Libro registrado con ID asignado
+     * @return Libro registrado con ID asignado, o 409 si el ISBN ya existe o el libro viene {@code PRESTADO}
      */
     // POST /api/libros
     @PostMapping
     public ResponseEntity<Libro> create(@RequestBody Libro libro) {
-        return ResponseEntity.status(HttpStatus.CREATED).body(libroService.save(libro));
+        try {
+            return ETags.creado(libroService.save(libro));
+        } catch (IsbnDuplicadoException | EstadoLibroInvalidoException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(null);
+        }
     }
 
     /**
-     * Actualiza un libro existente.
+     * Registra o reemplaza libros en lote a partir de un arreglo JSON.
+     * @param libros Libros a guardar
+     * @return Resultado de cada elemento, en el mismo orden recibido
+     */
+    // POST /api/libros/bulk
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<ResultadoLote<Libro>>> createBulk(@RequestBody List<Libro> libros) {
+        return ResponseEntity.ok(libroService.saveAll(libros));
+    }
+
+    /**
+     * Registra o reemplaza libros en lote a partir de un cuerpo NDJSON (un JSON por línea).
+     * @param cuerpo Cuerpo de la petición
+     * @return Resultado de cada elemento, en el mismo orden recibido
+     */
+    // POST /api/libros/bulk (application/x-ndjson)
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<List<ResultadoLote<Libro>>> createBulkNdjson(InputStream cuerpo) {
+        return NdjsonImport.importar(objectMapper, Libro.class, cuerpo, libroService::saveAll);
+    }
+
+    /**
+     * Actualiza libros existentes en lote. Los elementos sin ID o inexistentes se rechazan.
+     * @param libros Libros con sus IDs
+     * @return Resultado de cada elemento, en el mismo orden recibido
+     */
+    // PUT /api/libros/bulk
+    @PutMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<ResultadoLote<Libro>>> updateBulk(@RequestBody List<Libro> libros) {
+        return ResponseEntity.ok(libroService.updateAll(libros));
+    }
+
+    /**
+     * Actualiza un libro existente. Con {@code If-Match} (el ETag de un GET previo)
+     * sólo se guarda si nadie lo modificó desde entonces.
      * @param id ID del libro a actualizar
      * @param libro Nuevos datos del libro
-     * @return Libro actualizado
+     * @param ifMatch ETag esperado, opcional
+     * @return Libro actualizado, 409 si el nuevo ISBN ya pertenece a otro libro o el estado
+     * no coincide con sus préstamos activos, o 412 si el libro cambió
      */
     // PUT /api/libros/{id}
     @PutMapping("/{id}")
-    public ResponseEntity<Libro> update(@PathVariable Long id, @RequestBody Libro libro) {
+    public ResponseEntity<Libro> update(@PathVariable Long id, @RequestBody Libro libro,
+                                        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         try {
-            return ResponseEntity.ok(libroService.update(id, libro));
+            return ETags.ok(libroService.update(id, ETags.condicionar(libro, id, ifMatch)));
         } catch (LibroNoEncontradoException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
+        } catch (IsbnDuplicadoException | EstadoLibroInvalidoException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(null);
+        } catch (ConflictoVersionException e) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(null);
         }
     }
 
     /**
      * Elimina un libro por su ID.
      * @param id ID del libro
-     * @return Sin contenido si se elimina correctamente
+     * @param cascade Si es true, elimina también los préstamos del libro
+     * @return Sin contenido si se elimina correctamente; 409 si tiene préstamos y no se pidió {@code cascade}
      */
-    // DELETE /api/libros/{id}
+    // DELETE /api/libros/{id}?cascade=true
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> delete(@PathVariable Long id) {
+    public ResponseEntity<Void> delete(@PathVariable Long id, @RequestParam(defaultValue = "false") boolean cascade) {
         try {
-            libroService.deleteById(id);
+            libroService.deleteById(id, cascade);
             return ResponseEntity.noContent().build();
+        } catch (LibroConPrestamosException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (LibroNoEncontradoException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
         }
     }
+
+    static int resultados(Integer limit) {
+        return limit == null ? RESULTADOS_POR_DEFECTO : Math.max(1, Math.min(limit, RESULTADOS_MAXIMOS));
+    }
 }
@@ -0,0 +1,42 @@
+package com.example.springLibrarySystem.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Exportación en NDJSON: una entidad por línea, escrita a medida que se recorre
+ * el repositorio, sin armar la colección completa en memoria.
+ */
+final class NdjsonExport {
+    private static final int ENTIDADES_POR_FLUSH = 256;
+
+    private NdjsonExport() {
+    }
+
+    static <T> ResponseEntity<StreamingResponseBody> exportar(ObjectMapper mapper, Class<T> tipo, Stream<T> entidades) {
+        ObjectWriter writer = mapper.writerFor(tipo);
+        StreamingResponseBody cuerpo = salida -> {
+            try (Stream<T> recorrido = entidades) {
+                Iterator<T> it = recorrido.iterator();
+                int escritas = 0;
+                while (it.hasNext()) {
+                    salida.write(writer.writeValueAsBytes(it.next()));
+                    salida.write('\n');
+                    if (++escritas % ENTIDADES_POR_FLUSH == 0) {
+                        salida.flush();
+                    }
+                }
+                salida.flush();
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(cuerpo);
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.springLibrarySystem.controller;
+
+import com.example.springLibrarySystem.models.ResultadoLote;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.server.ServerWebInputException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * Importación en NDJSON: lee una entidad por línea y la guarda en lotes de
+ * {@value #TAMANIO_LOTE}, sin cargar el cuerpo completo en memoria.
+ */
+final class NdjsonImport {
+    static final int TAMANIO_LOTE = 1000;
+
+    private NdjsonImport() {
+    }
+
+    /**
+     * Si una línea no se puede leer, se responde 400 con los resultados de lo que
+     * ya se había guardado más un error en la posición de la línea inválida.
+     */
+    static <T> ResponseEntity<List<ResultadoLote<T>>> importar(ObjectMapper mapper, Class<T> tipo, InputStream entrada,
+                                                                Function<List<T>, List<ResultadoLote<T>>> guardar) {
+        List<ResultadoLote<T>> resultados = new ArrayList<>();
+        List<T> lote = new ArrayList<>(TAMANIO_LOTE);
+        try (MappingIterator<T> it = mapper.readerFor(tipo).readValues(entrada)) {
+            while (it.hasNextValue()) {
+                lote.add(it.nextValue());
+                if (lote.size() == TAMANIO_LOTE) {
+                    agregar(resultados, guardar.apply(lote));
+                    lote = new ArrayList<>(TAMANIO_LOTE);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            agregar(resultados, guardar.apply(lote));
+            resultados.add(ResultadoLote.error(resultados.size(), "Línea NDJSON inválida: " + e.getMessage()));
+            return ResponseEntity.badRequest().body(resultados);
+        }
+        agregar(resultados, guardar.apply(lote));
+        return ResponseEntity.ok(resultados);
+    }
+
+    /**
+     * Versión reactiva para los controladores WebFlux: el cuerpo (arreglo JSON o NDJSON)
+     * llega como {@code Flux} y se guarda en lotes a medida que se lee. Como la respuesta
+     * ya empezó a enviarse, una línea inválida no cambia el estado: se agrega un error en
+     * su posición y se corta la importación.
+     */
+    static <T> Flux<ResultadoLote<T>> importar(Flux<T> entidades,
+                                               Function<List<T>, Mono<List<ResultadoLote<T>>>> guardar) {
+        return Flux.defer(() -> {
+            AtomicInteger leidos = new AtomicInteger();
+            AtomicReference<ServerWebInputException> falla = new AtomicReference<>();
+            return entidades
+                    .doOnNext(e -> leidos.incrementAndGet())
+                    .onErrorResume(ServerWebInputException.class, e -> {
+                        falla.set(e);
+                        return Flux.empty();
+                    })
+                    .buffer(TAMANIO_LOTE)
+                    .index()
+                    .concatMap(lote -> guardar.apply(lote.getT2())
+                            .flatMapIterable(resultados -> resultados.stream()
+                                    .map(r -> r.conPosicion((int) (lote.getT1() * TAMANIO_LOTE) + r.getPosicion()))
+                                    .toList()))
+                    .concatWith(Flux.defer(() -> falla.get() == null
+                            ? Flux.empty()
+                            : Flux.just(ResultadoLote.error(leidos.get(), "Línea NDJSON inválida: " + falla.get().getReason()))));
+        });
+    }
+
+    private static <T> void agregar(List<ResultadoLote<T>> resultados, List<ResultadoLote<T>> lote) {
+        int base = resultados.size();
+        for (ResultadoLote<T> resultado : lote) {
+            resultados.add(resultado.conPosicion(base + resultado.getPosicion()));
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.springLibrarySystem.controller;
+
+import com.example.springLibrarySystem.models.Entidad;
+import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Paginación por cursor para los listados. El cursor es opaco para el cliente:
+ * codifica el último ID entregado y la página siguiente empieza después de él.
+ * El cursor de la próxima página viaja en el header {@value #HEADER_CURSOR};
+ * si no viene, no hay más resultados.
+ */
+final class Paginacion {
+    static final String HEADER_CURSOR = "X-Next-Cursor";
+    static final int LIMITE_POR_DEFECTO = 50;
+    static final int LIMITE_MAXIMO = 1000;
+
+    private Paginacion() {
+    }
+
+    interface Buscador<T> {
+        List<T> findPage(Long afterId, int limit);
+    }
+
+    interface BuscadorReactivo<T> {
+        Mono<List<T>> findPage(Long afterId, int limit);
+    }
+
+    static <T extends Entidad> ResponseEntity<List<T>> pagina(Buscador<T> buscador, Integer limit, String after) {
+        Long despuesDe;
+        try {
+            despuesDe = decodificar(after);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        int limite = limite(limit);
+        return recortar(buscador.findPage(despuesDe, limite + 1), limite, pagina -> pagina);
+    }
+
+    static <T extends Entidad> Mono<ResponseEntity<Flux<T>>> paginaReactiva(BuscadorReactivo<T> buscador,
+                                                                             Integer limit, String after) {
+        Long despuesDe;
+        try {
+            despuesDe = decodificar(after);
+        } catch (IllegalArgumentException e) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        int limite = limite(limit);
+        return buscador.findPage(despuesDe, limite + 1)
+                .map(resultado -> recortar(resultado, limite, Flux::fromIterable));
+    }
+
+    static int limite(Integer limit) {
+        return limit == null ? LIMITE_POR_DEFECTO : Math.max(1, Math.min(limit, LIMITE_MAXIMO));
+    }
+
+    // Se pide un elemento extra sólo para saber si existe una página siguiente.
+    private static <T extends Entidad, B> ResponseEntity<B> recortar(List<T> resultado, int limite,
+                                                                     Function<List<T>, B> cuerpo) {
+        if (resultado.size() <= limite) {
+            return ResponseEntity.ok(cuerpo.apply(resultado));
+        }
+        List<T> pagina = resultado.subList(0, limite);
+        return ResponseEntity.ok()
+                .header(HEADER_CURSOR, codificar(pagina.get(limite - 1).getId()))
+                .body(cuerpo.apply(pagina));
+    }
+
+    static String codificar(Long id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(("id:" + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    static Long decodificar(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        String valor = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        if (!valor.startsWith("id:")) {
+            throw new IllegalArgumentException("Cursor inválido: " + cursor);
+        }
+        return Long.valueOf(valor.substring(3));
+    }
+}
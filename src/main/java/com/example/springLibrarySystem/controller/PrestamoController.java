@@ -1,72 +1,203 @@
 package com.example.springLibrarySystem.controller;
 
+import com.example.springLibrarySystem.enums.ExpansionPrestamo;
+import com.example.springLibrarySystem.exception.ConflictoVersionException;
+import com.example.springLibrarySystem.exception.LibroNoDisponibleException;
+import com.example.springLibrarySystem.exception.PrestamoNoModificableException;
+import com.example.springLibrarySystem.exception.PrestamoYaDevueltoException;
+import com.example.springLibrarySystem.exception.UsuarioNoActivoException;
 import com.example.springLibrarySystem.models.Prestamo;
+import com.example.springLibrarySystem.models.PrestamoExpandido;
+import com.example.springLibrarySystem.models.ResultadoLote;
 import com.example.springLibrarySystem.service.PrestamoService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
+import java.time.Instant;
 import java.util.List;
+import java.util.Set;
 
+@Profile("!reactive")
 @RestController
 @RequestMapping("/api/prestamos")
 public class PrestamoController {
 
     private final PrestamoService prestamoService;
+    private final ObjectMapper objectMapper;
 
-    public PrestamoController(PrestamoService prestamoService) {
+    public PrestamoController(PrestamoService prestamoService, ObjectMapper objectMapper) {
         this.prestamoService = prestamoService;
+        this.objectMapper = objectMapper;
     }
 
     /**
-     * Obtiene la lista completa de prestamos registrados.
-     * @return Lista de prestamos
+     * Obtiene una página de los prestamos registrados, ordenada por ID, y el cursor de la
+     * siguiente en el header {@code X-Next-Cursor}. Para obtener todos sin paginar está
+     * {@code /export}.
+     * @param limit Cantidad máxima de elementos de la página (por defecto {@value Paginacion#LIMITE_POR_DEFECTO})
+     * @param after Cursor recibido en la página anterior
+     * @param expand {@code libro} y/o {@code usuario}, separados por coma, para incluirlos en cada préstamo
+     * @param ifNoneMatch ETag de una respuesta anterior; si no hubo cambios se responde 304
+     * @return Lista de prestamos, o 400 si {@code expand} no es válido
      */
-    // GET /api/prestamos
+    // GET /api/prestamos?limit=50&after=...&expand=libro,usuario
     @GetMapping
-    public ResponseEntity<List<Prestamo>> getAll() {
-        return ResponseEntity.ok(prestamoService.findAll());
+    public ResponseEntity<List<PrestamoExpandido>> getAll(@RequestParam(required = false) Integer limit,
+                                                          @RequestParam(required = false) String after,
+                                                          @RequestParam(required = false) String expand,
+                                                          @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        Set<ExpansionPrestamo> expansiones;
+        try {
+            expansiones = ExpansionPrestamo.desde(expand);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ETags.coleccion(prestamoService.getModificationCount(expansiones), ifNoneMatch, () ->
+                expandir(Paginacion.pagina(prestamoService::findPage, limit, after), expansiones));
+    }
+
+    /**
+     * Exporta todos los prestamos en formato NDJSON (un JSON por línea), escribiendo
+     * la respuesta a medida que se recorren, con uso de memoria constante.
+     * @param modifiedSince Si se indica, sólo los modificados desde ese instante (ISO-8601). El instante de
+     *                      modificación no se persiste: tras un reinicio todos cuentan como modificados
+     *                      al recuperarse, así que un instante anterior al reinicio devuelve todo
+     * @return Stream NDJSON de prestamos
+     */
+    // GET /api/prestamos/export?modifiedSince=2025-01-01T00:00:00Z
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> export(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant modifiedSince) {
+        return NdjsonExport.exportar(objectMapper, Prestamo.class, prestamoService.streamAll(modifiedSince));
+    }
+
+    /**
+     * Obtiene los préstamos activos cuya fecha de devolución ya pasó, del más atrasado al más
+     * reciente. Se leen de un índice por fecha de devolución, sin recorrer todos los préstamos.
+     * @param limit Cantidad máxima de préstamos (por defecto {@value Paginacion#LIMITE_POR_DEFECTO}, hasta {@value Paginacion#LIMITE_MAXIMO})
+     * @param expand {@code libro} y/o {@code usuario}, separados por coma, para incluirlos en cada préstamo
+     * @return Préstamos vencidos, o 400 si {@code expand} no es válido
+     */
+    // GET /api/prestamos/vencidos?limit=100&expand=usuario
+    @GetMapping("/vencidos")
+    public ResponseEntity<List<PrestamoExpandido>> getVencidos(@RequestParam(required = false) Integer limit,
+                                                               @RequestParam(required = false) String expand) {
+        Set<ExpansionPrestamo> expansiones;
+        try {
+            expansiones = ExpansionPrestamo.desde(expand);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(prestamoService.expandir(prestamoService.findVencidos(Paginacion.limite(limit)), expansiones));
     }
 
     /**
      * Obtiene un prestamo por su ID.
      * @param id Identificador del préstamo
-     * @return Prestamo correspondiente al ID
+     * @param expand {@code libro} y/o {@code usuario}, separados por coma, para incluirlos
+     * @param ifNoneMatch ETag de una respuesta anterior; si no cambió se responde 304
+     * @return Prestamo correspondiente al ID, o 400 si {@code expand} no es válido
      */
-    // GET /api/prestamos/{id}
+    // GET /api/prestamos/{id}?expand=libro
     @GetMapping("/{id}")
-    public ResponseEntity<Prestamo> getById(@PathVariable Long id) {
+    public ResponseEntity<PrestamoExpandido> getById(@PathVariable Long id,
+                                                     @RequestParam(required = false) String expand,
+                                                     @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        Set<ExpansionPrestamo> expansiones;
         try {
-            Prestamo prestamo = prestamoService.findById(id);
-            return ResponseEntity.ok(prestamo);
+            expansiones = ExpansionPrestamo.desde(expand);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            PrestamoExpandido prestamo = prestamoService.expandir(prestamoService.findById(id), expansiones);
+            return ETags.ok(prestamo, ETags.de(prestamo.prestamo(), prestamo.libro(), prestamo.usuario()), ifNoneMatch);
         } catch (RuntimeException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
         }
     }
 
     /**
-     * Registra un nuevo préstamo.
+     * Registra un nuevo préstamo. Si está activo se aplican las mismas reglas que en
+     * {@code /prestar} y el libro queda prestado.
      * @param prestamo Datos del prestamo a registrar
-     * @return Prestamo registrado con ID asignado
+     * @return Prestamo registrado con ID asignado; 409 si el libro no está disponible o el
+     *         usuario no está activo, 404 si alguno no existe
      */
     // POST /api/prestamos
     @PostMapping
     public ResponseEntity<Prestamo> create(@RequestBody Prestamo prestamo) {
-        return ResponseEntity.status(HttpStatus.CREATED).body(prestamoService.save(prestamo));
+        try {
+            return ETags.creado(prestamoService.save(prestamo));
+        } catch (LibroNoDisponibleException | UsuarioNoActivoException | PrestamoNoModificableException
+                 | ConflictoVersionException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(null);
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
+        }
+    }
+
+    /**
+     * Registra o reemplaza préstamos en lote a partir de un arreglo JSON.
+     * @param prestamos Préstamos a guardar
+     * @return Resultado de cada elemento, en el mismo orden recibido
+     */
+    // POST /api/prestamos/bulk
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<ResultadoLote<Prestamo>>> createBulk(@RequestBody List<Prestamo> prestamos) {
+        return ResponseEntity.ok(prestamoService.saveAll(prestamos));
+    }
+
+    /**
+     * Registra o reemplaza préstamos en lote a partir de un cuerpo NDJSON (un JSON por línea).
+     * @param cuerpo Cuerpo de la petición
+     * @return Resultado de cada elemento, en el mismo orden recibido
+     */
+    // POST /api/prestamos/bulk (application/x-ndjson)
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<List<ResultadoLote<Prestamo>>> createBulkNdjson(InputStream cuerpo) {
+        return NdjsonImport.importar(objectMapper, Prestamo.class, cuerpo, prestamoService::saveAll);
+    }
+
+    /**
+     * Actualiza préstamos existentes en lote. Los elementos sin ID o inexistentes se rechazan.
+     * @param prestamos Préstamos con sus IDs
+     * @return Resultado de cada elemento, en el mismo orden recibido
+     */
+    // PUT /api/prestamos/bulk
+    @PutMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<ResultadoLote<Prestamo>>> updateBulk(@RequestBody List<Prestamo> prestamos) {
+        return ResponseEntity.ok(prestamoService.updateAll(prestamos));
     }
 
     /**
-     * Actualiza un prestamo existente.
+     * Actualiza un prestamo existente. Con {@code If-Match} sólo se guarda si nadie
+     * lo modificó desde el GET que devolvió ese ETag.
      * @param id ID del libro a actualizar
      * @param prestamo Nuevos datos del libro
-     * @return prestamo actualizado
+     * @param ifMatch ETag esperado, opcional
+     * @return prestamo actualizado, o 412 si el préstamo cambió; 409 si intenta cambiar
+     *         el libro, el usuario o el estado
      */
     // PUT /api/prestamos/{id}
     @PutMapping("/{id}")
-    public ResponseEntity<Prestamo> update(@PathVariable Long id, @RequestBody Prestamo prestamo) {
+    public ResponseEntity<Prestamo> update(@PathVariable Long id, @RequestBody Prestamo prestamo,
+                                           @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         try {
-            Prestamo actualizado = prestamoService.update(id, prestamo);
-            return ResponseEntity.ok(actualizado);
+            Prestamo actualizado = prestamoService.update(id, ETags.condicionar(prestamo, id, ifMatch));
+            return ETags.ok(actualizado);
+        } catch (ConflictoVersionException e) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(null);
+        } catch (PrestamoNoModificableException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(null);
         } catch (RuntimeException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
         }
@@ -87,4 +218,48 @@ public class PrestamoController {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
         }
     }
+
+    /**
+     * Presta un libro disponible a un usuario activo y lo marca como prestado.
+     * @param libroId ID del libro
+     * @param usuarioId ID del usuario
+     * @return Préstamo creado; 409 si el libro no está disponible o el usuario no está activo
+     */
+    // POST /api/prestamos/prestar?libroId=1&usuarioId=2
+    @PostMapping("/prestar")
+    public ResponseEntity<Prestamo> prestar(@RequestParam Long libroId, @RequestParam Long usuarioId) {
+        try {
+            return ETags.creado(prestamoService.prestarLibro(libroId, usuarioId));
+        } catch (LibroNoDisponibleException | UsuarioNoActivoException | ConflictoVersionException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(null);
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
+        }
+    }
+
+    /**
+     * Registra la devolución de un préstamo y deja el libro disponible.
+     * @param id ID del préstamo
+     * @return Préstamo devuelto; 409 si ya se había devuelto
+     */
+    // POST /api/prestamos/{id}/devolver
+    @PostMapping("/{id}/devolver")
+    public ResponseEntity<Prestamo> devolver(@PathVariable Long id) {
+        try {
+            return ETags.ok(prestamoService.devolverLibro(id));
+        } catch (PrestamoYaDevueltoException | ConflictoVersionException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(null);
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
+        }
+    }
+
+    // Conserva el estado y los headers de la página (el cursor) y expande el cuerpo.
+    private ResponseEntity<List<PrestamoExpandido>> expandir(ResponseEntity<List<Prestamo>> respuesta,
+                                                             Set<ExpansionPrestamo> expansiones) {
+        List<PrestamoExpandido> cuerpo = respuesta.getBody() == null
+                ? null
+                : prestamoService.expandir(respuesta.getBody(), expansiones);
+        return ResponseEntity.status(respuesta.getStatusCode()).headers(respuesta.getHeaders()).body(cuerpo);
+    }
 }
@@ -0,0 +1,88 @@
+package com.example.springLibrarySystem.controller;
+
+import com.example.springLibrarySystem.changes.Cambio;
+import com.example.springLibrarySystem.changes.ChangeLog;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+
+/**
+ * Las mismas rutas que {@link ChangeController} sobre WebFlux (perfil {@code reactive}).
+ * La espera de cambios bloquea, así que corre en {@link Schedulers#boundedElastic()}.
+ */
+@Profile("reactive")
+@RestController
+@RequestMapping("/api/changes")
+public class ReactiveChangeController {
+
+    private final ChangeLog changeLog;
+
+    public ReactiveChangeController(ChangeLog changeLog) {
+        this.changeLog = changeLog;
+    }
+
+    /**
+     * Obtiene los cambios posteriores a un offset, esperando hasta {@code wait} segundos si no hay ninguno.
+     * @param since Último offset procesado; 0 para empezar desde el principio
+     * @param limit Cantidad máxima de cambios
+     * @param wait Segundos a esperar si no hay cambios (máximo 30)
+     * @return Cambios en orden de offset; 410 si los posteriores a {@code since} ya no están disponibles
+     */
+    // GET /api/changes?since=1200&limit=500&wait=30
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<List<Cambio>>> getChanges(@RequestParam(defaultValue = "0") long since,
+                                                         @RequestParam(required = false) Integer limit,
+                                                         @RequestParam(defaultValue = "0") int wait) {
+        return Mono.fromCallable(() -> ChangeController.leer(changeLog, since, limit, wait))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * Transmite los cambios posteriores a un offset como Server-Sent Events, con el offset como ID.
+     * @param since Último offset procesado
+     * @param lastEventId Último offset recibido antes de reconectar; tiene prioridad sobre {@code since}
+     * @return Stream de cambios; 410 si los posteriores al offset ya no están disponibles
+     */
+    // GET /api/changes?since=1200 (Accept: text/event-stream)
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Mono<ResponseEntity<Flux<ServerSentEvent<Cambio>>>> stream(
+            @RequestParam(defaultValue = "0") long since,
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        long desde = lastEventId != null ? lastEventId : since;
+        if (desde < 0) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        if (desde > changeLog.lastOffset()) {
+            return Mono.just(ResponseEntity.status(HttpStatus.GONE).build());
+        }
+        Flux<ServerSentEvent<Cambio>> eventos = Flux.<List<ServerSentEvent<Cambio>>, Long>generate(() -> desde, (offset, sink) -> {
+                    List<Cambio> cambios;
+                    try {
+                        cambios = changeLog.await(offset, Paginacion.LIMITE_MAXIMO, ChangeController.LATIDO);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        sink.complete();
+                        return offset;
+                    }
+                    if (cambios.isEmpty()) {
+                        sink.next(List.of(ServerSentEvent.<Cambio>builder().comment("latido").build()));
+                        return offset;
+                    }
+                    sink.next(cambios.stream()
+                            .map(cambio -> ServerSentEvent.builder(cambio).id(String.valueOf(cambio.offset())).build())
+                            .toList());
+                    return cambios.get(cambios.size() - 1).offset();
+                })
+                .flatMapIterable(lote -> lote)
+                .subscribeOn(Schedulers.boundedElastic());
+        return Mono.just(ResponseEntity.ok(eventos));
+    }
+}
@@ -0,0 +1,208 @@
+package com.example.springLibrarySystem.controller;
+
+import com.example.springLibrarySystem.enums.EstadoLibro;
+import com.example.springLibrarySystem.exception.ConflictoVersionException;
+import com.example.springLibrarySystem.exception.EstadoLibroInvalidoException;
+import com.example.springLibrarySystem.exception.IsbnDuplicadoException;
+import com.example.springLibrarySystem.exception.LibroConPrestamosException;
+import com.example.springLibrarySystem.exception.LibroNoEncontradoException;
+import com.example.springLibrarySystem.models.Libro;
+import com.example.springLibrarySystem.models.ResultadoLote;
+import com.example.springLibrarySystem.service.ReactiveLibroService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Las mismas rutas que {@link LibroController} sobre WebFlux (perfil {@code reactive}).
+ */
+@Profile("reactive")
+@RestController
+@RequestMapping("/api/libros")
+public class ReactiveLibroController {
+
+    private final ReactiveLibroService libroService;
+
+    public ReactiveLibroController(ReactiveLibroService libroService) {
+        this.libroService = libroService;
+    }
+
+    /**
+     * Obtiene una página de los libros registrados (arreglo JSON o NDJSON según el
+     * {@code Accept}) y el cursor de la siguiente en el header {@code X-Next-Cursor}.
+     * Para transmitirlos todos con contrapresión está {@code /export}.
+     * @param limit Cantidad máxima de elementos de la página (por defecto {@value Paginacion#LIMITE_POR_DEFECTO})
+     * @param after Cursor recibido en la página anterior
+     * @param estado Si se indica, sólo los libros en ese estado
+     * @param ifNoneMatch ETag de una respuesta anterior; si no hubo cambios se responde 304
+     * @return Libros
+     */
+    // GET /api/libros?estado=...&limit=50&after=...
+    @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Mono<ResponseEntity<Flux<Libro>>> getAll(@RequestParam(required = false) Integer limit,
+                                                    @RequestParam(required = false) String after,
+                                                    @RequestParam(required = false) EstadoLibro estado,
+                                                    @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return ETags.coleccionReactiva(libroService.getModificationCount(), ifNoneMatch, () ->
+                estado == null
+                        ? Paginacion.paginaReactiva(libroService::findPage, limit, after)
+                        : Paginacion.paginaReactiva((afterId, l) -> libroService.findPageByEstado(estado, afterId, l), limit, after));
+    }
+
+    /**
+     * Busca libros por palabras del título o del autor, ordenados por relevancia.
+     * Una palabra terminada en {@code *} busca por prefijo.
+     * @param q Texto a buscar
+     * @param limit Cantidad máxima de resultados (por defecto 20, máximo 100)
+     * @param ifNoneMatch ETag de una respuesta anterior; si no hubo cambios se responde 304
+     * @return Libros más relevantes primero
+     */
+    // GET /api/libros/search?q=garcia+soled*&limit=20
+    @GetMapping("/search")
+    public Mono<ResponseEntity<List<Libro>>> search(@RequestParam String q,
+                                                    @RequestParam(required = false) Integer limit,
+                                                    @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return ETags.coleccionReactiva(libroService.getModificationCount(), ifNoneMatch,
+                () -> libroService.search(q, LibroController.resultados(limit)).map(ResponseEntity::ok));
+    }
+
+    /**
+     * Exporta los libros en NDJSON a medida que el cliente los consume.
+     * @param modifiedSince Si se indica, sólo los modificados desde ese instante (ISO-8601). El instante de
+     *                      modificación no se persiste: tras un reinicio todos cuentan como modificados
+     *                      al recuperarse, así que un instante anterior al reinicio devuelve todo
+     * @return Stream NDJSON de libros
+     */
+    // GET /api/libros/export?modifiedSince=2025-01-01T00:00:00Z
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Libro> export(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant modifiedSince) {
+        return libroService.streamAll(modifiedSince);
+    }
+
+    /**
+     * Cuenta los libros por estado sin recorrerlos.
+     * @param estado Si se indica, sólo la cantidad en ese estado
+     * @return Cantidad de libros por estado
+     */
+    // GET /api/libros/count?estado=...
+    @GetMapping("/count")
+    public Mono<Map<EstadoLibro, Long>> count(@RequestParam(required = false) EstadoLibro estado) {
+        return libroService.countByEstado()
+                .map(cantidades -> estado == null ? cantidades : Map.of(estado, cantidades.get(estado)));
+    }
+
+    /**
+     * Obtiene un libro por su ID.
+     * @param id Identificador del libro
+     * @param ifNoneMatch ETag de una respuesta anterior; si no cambió se responde 304
+     * @return Libro correspondiente al ID
+     */
+    // GET /api/libros/{id}
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<Libro>> getById(@PathVariable Long id,
+                                               @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return libroService.findById(id)
+                .map(libro -> ETags.ok(libro, ifNoneMatch))
+                .onErrorResume(LibroNoEncontradoException.class, e -> Mono.just(ResponseEntity.status(HttpStatus.NOT_FOUND).build()));
+    }
+
+    /**
+     * Obtiene un libro por su ISBN.
+     * @param isbn Código ISBN
+     * @param ifNoneMatch ETag de una respuesta anterior; si no cambió se responde 304
+     * @return Libro correspondiente al ISBN
+     */
+    // GET /api/libros/isbn/{isbn}
+    @GetMapping("/isbn/{isbn}")
+    public Mono<ResponseEntity<Libro>> getByIsbn(@PathVariable String isbn,
+                                                 @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return libroService.findByIsbn(isbn)
+                .map(libro -> ETags.ok(libro, ifNoneMatch))
+                .onErrorResume(LibroNoEncontradoException.class, e -> Mono.just(ResponseEntity.status(HttpStatus.NOT_FOUND).build()));
+    }
+
+    /**
+     * Registra un nuevo libro.
+     * @param libro Datos del libro a registrar
+     * @return Libro registrado con ID asignado, o 409 si el ISBN ya existe o el libro viene {@code PRESTADO}
+     */
+    // POST /api/libros
+    @PostMapping
+    public Mono<ResponseEntity<Libro>> create(@RequestBody Libro libro) {
+        return libroService.save(libro)
+                .map(ETags::creado)
+                .onErrorResume(IsbnDuplicadoException.class, e -> Mono.just(ResponseEntity.status(HttpStatus.CONFLICT).build()))
+                .onErrorResume(EstadoLibroInvalidoException.class, e -> Mono.just(ResponseEntity.status(HttpStatus.CONFLICT).build()));
+    }
+
+    /**
+     * Registra o reemplaza libros en lote desde un arreglo JSON o un cuerpo NDJSON,
+     * guardando a medida que se lee.
+     * @param libros Libros a guardar
+     * @return Resultado de cada elemento, en el mismo orden recibido
+     */
+    // POST /api/libros/bulk
+    @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<ResultadoLote<Libro>> createBulk(@RequestBody Flux<Libro> libros) {
+        return NdjsonImport.importar(libros, libroService::saveAll);
+    }
+
+    /**
+     * Actualiza libros existentes en lote. Los elementos sin ID o inexistentes se rechazan.
+     * @param libros Libros con sus IDs
+     * @return Resultado de cada elemento, en el mismo orden recibido
+     */
+    // PUT /api/libros/bulk
+    @PutMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<List<ResultadoLote<Libro>>> updateBulk(@RequestBody List<Libro> libros) {
+        return libroService.updateAll(libros);
+    }
+
+    /**
+     * Actualiza un libro existente. Con {@code If-Match} sólo se guarda si nadie
+     * lo modificó desde el GET que devolvió ese ETag.
+     * @param id ID del libro a actualizar
+     * @param libro Nuevos datos del libro
+     * @param ifMatch ETag esperado, opcional
+     * @return Libro actualizado, o 409 si el nuevo ISBN ya pertenece a otro libro o el estado no
+     * coincide con sus préstamos activos; 412 si cambió
+     */
+    // PUT /api/libros/{id}
+    @PutMapping("/{id}")
+    public Mono<ResponseEntity<Libro>> update(@PathVariable Long id, @RequestBody Libro libro,
+                                              @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return libroService.update(id, ETags.condicionar(libro, id, ifMatch))
+                .map(ETags::ok)
+                .onErrorResume(ConflictoVersionException.class,
+                        e -> Mono.just(ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build()))
+                .onErrorResume(LibroNoEncontradoException.class, e -> Mono.just(ResponseEntity.status(HttpStatus.NOT_FOUND).build()))
+                .onErrorResume(IsbnDuplicadoException.class, e -> Mono.just(ResponseEntity.status(HttpStatus.CONFLICT).build()))
+                .onErrorResume(EstadoLibroInvalidoException.class, e -> Mono.just(ResponseEntity.status(HttpStatus.CONFLICT).build()));
+    }
+
+    /**
+     * Elimina un libro por su ID.
+     * @param id ID del libro
+     * @param cascade Si es true, elimina también los préstamos del libro
+     * @return Sin contenido si se elimina correctamente; 409 si tiene préstamos y no se pidió {@code cascade}
+     */
+    // DELETE /api/libros/{id}?cascade=true
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<Void>> delete(@PathVariable Long id, @RequestParam(defaultValue = "false") boolean cascade) {
+        return libroService.deleteById(id, cascade)
+                .then(Mono.just(ResponseEntity.noContent().<Void>build()))
+                .onErrorResume(LibroConPrestamosException.class, e -> Mono.just(ResponseEntity.status(HttpStatus.CONFLICT).build()))
+                .onErrorResume(LibroNoEncontradoException.class, e -> Mono.just(ResponseEntity.status(HttpStatus.NOT_FOUND).build()));
+    }
+}
@@ -0,0 +1,239 @@
+package com.example.springLibrarySystem.controller;
+
+import com.example.springLibrarySystem.enums.ExpansionPrestamo;
+import com.example.springLibrarySystem.exception.ConflictoVersionException;
+import com.example.springLibrarySystem.exception.LibroNoDisponibleException;
+import com.example.springLibrarySystem.exception.PrestamoNoModificableException;
+import com.example.springLibrarySystem.exception.PrestamoYaDevueltoException;
+import com.example.springLibrarySystem.exception.UsuarioNoActivoException;
+import com.example.springLibrarySystem.models.Prestamo;
+import com.example.springLibrarySystem.models.PrestamoExpandido;
+import com.example.springLibrarySystem.models.ResultadoLote;
+import com.example.springLibrarySystem.service.ReactivePrestamoService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Las mismas rutas que {@link PrestamoController} sobre WebFlux (perfil {@code reactive}).
+ */
+@Profile("reactive")
+@RestController
+@RequestMapping("/api/prestamos")
+public class ReactivePrestamoController {
+
+    private final ReactivePrestamoService prestamoService;
+
+    public ReactivePrestamoController(ReactivePrestamoService prestamoService) {
+        this.prestamoService = prestamoService;
+    }
+
+    /**
+     * Obtiene una página de los préstamos registrados, paginados por cursor; para
+     * transmitirlos todos con contrapresión está {@code /export}.
+     * @param limit Cantidad máxima de elementos de la página (por defecto {@value Paginacion#LIMITE_POR_DEFECTO})
+     * @param after Cursor recibido en la página anterior
+     * @param expand {@code libro} y/o {@code usuario}, separados por coma, para incluirlos en cada préstamo
+     * @param ifNoneMatch ETag de una respuesta anterior; si no hubo cambios se responde 304
+     * @return Préstamos, o 400 si {@code expand} no es válido
+     */
+    // GET /api/prestamos?limit=50&after=...&expand=libro,usuario
+    @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Mono<ResponseEntity<Flux<PrestamoExpandido>>> getAll(@RequestParam(required = false) Integer limit,
+                                                                @RequestParam(required = false) String after,
+                                                                @RequestParam(required = false) String expand,
+                                                                @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        Set<ExpansionPrestamo> expansiones;
+        try {
+            expansiones = ExpansionPrestamo.desde(expand);
+        } catch (IllegalArgumentException e) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        return ETags.coleccionReactiva(prestamoService.getModificationCount(expansiones), ifNoneMatch, () ->
+                Paginacion.paginaReactiva(prestamoService::findPage, limit, after)
+                        .map(respuesta -> expandir(respuesta, expansiones)));
+    }
+
+    /**
+     * Exporta los préstamos en NDJSON a medida que el cliente los consume.
+     * @param modifiedSince Si se indica, sólo los modificados desde ese instante (ISO-8601). El instante de
+     *                      modificación no se persiste: tras un reinicio todos cuentan como modificados
+     *                      al recuperarse, así que un instante anterior al reinicio devuelve todo
+     * @return Stream NDJSON de préstamos
+     */
+    // GET /api/prestamos/export?modifiedSince=2025-01-01T00:00:00Z
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Prestamo> export(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant modifiedSince) {
+        return prestamoService.streamAll(modifiedSince);
+    }
+
+    /**
+     * Obtiene los préstamos activos cuya fecha de devolución ya pasó, del más atrasado al más reciente.
+     * @param limit Cantidad máxima de préstamos (por defecto {@value Paginacion#LIMITE_POR_DEFECTO}, hasta {@value Paginacion#LIMITE_MAXIMO})
+     * @param expand {@code libro} y/o {@code usuario}, separados por coma, para incluirlos en cada préstamo
+     * @return Préstamos vencidos, o 400 si {@code expand} no es válido
+     */
+    // GET /api/prestamos/vencidos?limit=100&expand=usuario
+    @GetMapping("/vencidos")
+    public Mono<ResponseEntity<Flux<PrestamoExpandido>>> getVencidos(@RequestParam(required = false) Integer limit,
+                                                                     @RequestParam(required = false) String expand) {
+        Set<ExpansionPrestamo> expansiones;
+        try {
+            expansiones = ExpansionPrestamo.desde(expand);
+        } catch (IllegalArgumentException e) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        return prestamoService.findVencidos(Paginacion.limite(limit))
+                .map(vencidos -> ResponseEntity.ok(prestamoService.expandir(Flux.fromIterable(vencidos), expansiones)));
+    }
+
+    /**
+     * Obtiene un prestamo por su ID.
+     * @param id Identificador del préstamo
+     * @param expand {@code libro} y/o {@code usuario}, separados por coma, para incluirlos
+     * @param ifNoneMatch ETag de una respuesta anterior; si no cambió se responde 304
+     * @return Prestamo correspondiente al ID, o 400 si {@code expand} no es válido
+     */
+    // GET /api/prestamos/{id}?expand=libro
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<PrestamoExpandido>> getById(@PathVariable Long id,
+                                                           @RequestParam(required = false) String expand,
+                                                           @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        Set<ExpansionPrestamo> expansiones;
+        try {
+            expansiones = ExpansionPrestamo.desde(expand);
+        } catch (IllegalArgumentException e) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        return prestamoService.findById(id)
+                .flatMap(prestamo -> prestamoService.expandir(prestamo, expansiones))
+                .map(prestamo -> ETags.ok(prestamo, ETags.de(prestamo.prestamo(), prestamo.libro(), prestamo.usuario()), ifNoneMatch))
+                .onErrorResume(RuntimeException.class, e -> Mono.just(ResponseEntity.status(HttpStatus.NOT_FOUND).build()));
+    }
+
+    /**
+     * Registra un nuevo préstamo. Si está activo se aplican las mismas reglas que en
+     * {@code /prestar} y el libro queda prestado.
+     * @param prestamo Datos del prestamo a registrar
+     * @return Prestamo registrado con ID asignado; 409 si el libro no está disponible o el
+     *         usuario no está activo, 404 si alguno no existe
+     */
+    // POST /api/prestamos
+    @PostMapping
+    public Mono<ResponseEntity<Prestamo>> create(@RequestBody Prestamo prestamo) {
+        return prestamoService.save(prestamo)
+                .map(ETags::creado)
+                .onErrorResume(e -> e instanceof LibroNoDisponibleException || e instanceof UsuarioNoActivoException
+                                || e instanceof PrestamoNoModificableException || e instanceof ConflictoVersionException,
+                        e -> Mono.just(ResponseEntity.status(HttpStatus.CONFLICT).build()))
+                .onErrorResume(RuntimeException.class, e -> Mono.just(ResponseEntity.status(HttpStatus.NOT_FOUND).build()));
+    }
+
+    /**
+     * Registra o reemplaza préstamos en lote desde un arreglo JSON o un cuerpo NDJSON.
+     * @param prestamos Préstamos a guardar
+     * @return Resultado de cada elemento, en el mismo orden recibido
+     */
+    // POST /api/prestamos/bulk
+    @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<ResultadoLote<Prestamo>> createBulk(@RequestBody Flux<Prestamo> prestamos) {
+        return NdjsonImport.importar(prestamos, prestamoService::saveAll);
+    }
+
+    /**
+     * Actualiza préstamos existentes en lote. Los elementos sin ID o inexistentes se rechazan.
+     * @param prestamos Préstamos con sus IDs
+     * @return Resultado de cada elemento, en el mismo orden recibido
+     */
+    // PUT /api/prestamos/bulk
+    @PutMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<List<ResultadoLote<Prestamo>>> updateBulk(@RequestBody List<Prestamo> prestamos) {
+        return prestamoService.updateAll(prestamos);
+    }
+
+    /**
+     * Actualiza un prestamo existente. Con {@code If-Match} sólo se guarda si nadie
+     * lo modificó desde el GET que devolvió ese ETag.
+     * @param id ID del préstamo a actualizar
+     * @param prestamo Nuevos datos del préstamo
+     * @param ifMatch ETag esperado, opcional
+     * @return prestamo actualizado; 412 si cambió, 409 si intenta cambiar el libro, el usuario o el estado
+     */
+    // PUT /api/prestamos/{id}
+    @PutMapping("/{id}")
+    public Mono<ResponseEntity<Prestamo>> update(@PathVariable Long id, @RequestBody Prestamo prestamo,
+                                                 @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return prestamoService.update(id, ETags.condicionar(prestamo, id, ifMatch))
+                .map(ETags::ok)
+                .onErrorResume(ConflictoVersionException.class,
+                        e -> Mono.just(ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build()))
+                .onErrorResume(PrestamoNoModificableException.class,
+                        e -> Mono.just(ResponseEntity.status(HttpStatus.CONFLICT).build()))
+                .onErrorResume(RuntimeException.class, e -> Mono.just(ResponseEntity.status(HttpStatus.NOT_FOUND).build()));
+    }
+
+    /**
+     * Elimina un prestamo por su ID.
+     * @param id ID del prestamo
+     * @return Sin contenido si se elimina correctamente
+     */
+    // DELETE /api/prestamos/{id}
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<Void>> delete(@PathVariable Long id) {
+        return prestamoService.deleteById(id)
+                .then(Mono.just(ResponseEntity.noContent().<Void>build()))
+                .onErrorResume(RuntimeException.class, e -> Mono.just(ResponseEntity.status(HttpStatus.NOT_FOUND).build()));
+    }
+
+    /**
+     * Presta un libro disponible a un usuario activo y lo marca como prestado.
+     * @param libroId ID del libro
+     * @param usuarioId ID del usuario
+     * @return Préstamo creado; 409 si el libro no está disponible o el usuario no está activo
+     */
+    // POST /api/prestamos/prestar?libroId=1&usuarioId=2
+    @PostMapping("/prestar")
+    public Mono<ResponseEntity<Prestamo>> prestar(@RequestParam Long libroId, @RequestParam Long usuarioId) {
+        return prestamoService.prestarLibro(libroId, usuarioId)
+                .map(ETags::creado)
+                .onErrorResume(e -> e instanceof LibroNoDisponibleException || e instanceof UsuarioNoActivoException
+                                || e instanceof ConflictoVersionException,
+                        e -> Mono.just(ResponseEntity.status(HttpStatus.CONFLICT).build()))
+                .onErrorResume(RuntimeException.class, e -> Mono.just(ResponseEntity.status(HttpStatus.NOT_FOUND).build()));
+    }
+
+    /**
+     * Registra la devolución de un préstamo y deja el libro disponible.
+     * @param id ID del préstamo
+     * @return Préstamo devuelto; 409 si ya se había devuelto
+     */
+    // POST /api/prestamos/{id}/devolver
+    @PostMapping("/{id}/devolver")
+    public Mono<ResponseEntity<Prestamo>> devolver(@PathVariable Long id) {
+        return prestamoService.devolverLibro(id)
+                .map(ETags::ok)
+                .onErrorResume(e -> e instanceof PrestamoYaDevueltoException || e instanceof ConflictoVersionException,
+                        e -> Mono.just(ResponseEntity.status(HttpStatus.CONFLICT).build()))
+                .onErrorResume(RuntimeException.class, e -> Mono.just(ResponseEntity.status(HttpStatus.NOT_FOUND).build()));
+    }
+
+    // Conserva el estado y los headers de la página (el cursor) y expande el cuerpo.
+    private ResponseEntity<Flux<PrestamoExpandido>> expandir(ResponseEntity<Flux<Prestamo>> respuesta,
+                                                             Set<ExpansionPrestamo> expansiones) {
+        Flux<PrestamoExpandido> cuerpo = respuesta.getBody() == null
+                ? null
+                : prestamoService.expandir(respuesta.getBody(), expansiones);
+        return ResponseEntity.status(respuesta.getStatusCode()).headers(respuesta.getHeaders()).body(cuerpo);
+    }
+}
@@ -0,0 +1,195 @@
+package com.example.springLibrarySystem.controller;
+
+import com.example.springLibrarySystem.enums.EstadoUsuario;
+import com.example.springLibrarySystem.exception.ConflictoVersionException;
+import com.example.springLibrarySystem.exception.EmailDuplicadoException;
+import com.example.springLibrarySystem.exception.UsuarioConPrestamosException;
+import com.example.springLibrarySystem.models.ResultadoLote;
+import com.example.springLibrarySystem.models.Usuario;
+import com.example.springLibrarySystem.service.ReactiveUsuarioService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Las mismas rutas que {@link UsuarioController} sobre WebFlux (perfil {@code reactive}).
+ */
+@Profile("reactive")
+@RestController
+@RequestMapping("/api/usuarios")
+public class ReactiveUsuarioController {
+
+    private final ReactiveUsuarioService usuarioService;
+
+    public ReactiveUsuarioController(ReactiveUsuarioService usuarioService) {
+        this.usuarioService = usuarioService;
+    }
+
+    /**
+     * Obtiene una página de los usuarios registrados, paginados por cursor; para
+     * recorrerlos todos se sigue el cursor de {@code X-Next-Cursor} hasta que no venga.
+     * @param limit Cantidad máxima de elementos de la página (por defecto {@value Paginacion#LIMITE_POR_DEFECTO})
+     * @param after Cursor recibido en la página anterior
+     * @param estado Si se indica, sólo los usuarios en ese estado
+     * @param ifNoneMatch ETag de una respuesta anterior; si no hubo cambios se responde 304
+     * @return Usuarios
+     */
+    // GET /api/usuarios?estado=...&limit=50&after=...
+    @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Mono<ResponseEntity<Flux<Usuario>>> getAll(@RequestParam(required = false) Integer limit,
+                                                      @RequestParam(required = false) String after,
+                                                      @RequestParam(required = false) EstadoUsuario estado,
+                                                      @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return ETags.coleccionReactiva(usuarioService.getModificationCount(), ifNoneMatch, () ->
+                estado == null
+                        ? Paginacion.paginaReactiva(usuarioService::findPage, limit, after)
+                        : Paginacion.paginaReactiva((afterId, l) -> usuarioService.findPageByEstado(estado, afterId, l), limit, after));
+    }
+
+    /**
+     * Cuenta los usuarios por estado sin recorrerlos.
+     * @param estado Si se indica, sólo la cantidad en ese estado
+     * @return Cantidad de usuarios por estado
+     */
+    // GET /api/usuarios/count?estado=...
+    @GetMapping("/count")
+    public Mono<Map<EstadoUsuario, Long>> count(@RequestParam(required = false) EstadoUsuario estado) {
+        return usuarioService.countByEstado()
+                .map(cantidades -> estado == null ? cantidades : Map.of(estado, cantidades.get(estado)));
+    }
+
+    /**
+     * Obtiene un usuario por su ID.
+     * @param id Identificador del usuario
+     * @param ifNoneMatch ETag de una respuesta anterior; si no cambió se responde 304
+     * @return Usuario correspondiente al ID
+     */
+    // GET /api/usuarios/{id}
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<Usuario>> getById(@PathVariable Long id,
+                                                 @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return encontrado(usuarioService.findById(id), ifNoneMatch);
+    }
+
+    /**
+     * Obtiene un usuario por su email.
+     * @param email Correo electrónico del usuario
+     * @param ifNoneMatch ETag de una respuesta anterior; si no cambió se responde 304
+     * @return Usuario correspondiente al email
+     */
+    // GET /api/usuarios/email/{email}
+    @GetMapping("/email/{email}")
+    public Mono<ResponseEntity<Usuario>> getByEmail(@PathVariable String email,
+                                                    @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return encontrado(usuarioService.findByEmail(email), ifNoneMatch);
+    }
+
+    /**
+     * Obtiene un usuario por su nombre.
+     * @param nombre Nombre del usuario
+     * @param ifNoneMatch ETag de una respuesta anterior; si no cambió se responde 304
+     * @return Usuario correspondiente al nombre
+     */
+    // GET /api/usuarios/nombre/{nombre}
+    @GetMapping("/nombre/{nombre}")
+    public Mono<ResponseEntity<Usuario>> getByNombre(@PathVariable String nombre,
+                                                     @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return encontrado(usuarioService.findByNombre(nombre), ifNoneMatch);
+    }
+
+    /**
+     * Registra un nuevo usuario.
+     * @param usuario Datos del usuario a registrar
+     * @return Usuario registrado con ID asignado, o 409 si el email ya existe
+     */
+    // POST /api/usuarios
+    @PostMapping
+    public Mono<ResponseEntity<Usuario>> create(@RequestBody Usuario usuario) {
+        return usuarioService.save(usuario)
+                .map(ETags::creado)
+                .onErrorResume(EmailDuplicadoException.class, e -> Mono.just(ResponseEntity.status(HttpStatus.CONFLICT).build()));
+    }
+
+    /**
+     * Registra o reemplaza usuarios en lote desde un arreglo JSON o un cuerpo NDJSON.
+     * @param usuarios Usuarios a guardar
+     * @return Resultado de cada elemento, en el mismo orden recibido
+     */
+    // POST /api/usuarios/bulk
+    @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<ResultadoLote<Usuario>> createBulk(@RequestBody Flux<Usuario> usuarios) {
+        return NdjsonImport.importar(usuarios, usuarioService::saveAll);
+    }
+
+    /**
+     * Actualiza usuarios existentes en lote. Los elementos sin ID o inexistentes se rechazan.
+     * @param usuarios Usuarios con sus IDs
+     * @return Resultado de cada elemento, en el mismo orden recibido
+     */
+    // PUT /api/usuarios/bulk
+    @PutMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<List<ResultadoLote<Usuario>>> updateBulk(@RequestBody List<Usuario> usuarios) {
+        return usuarioService.updateAll(usuarios);
+    }
+
+    /**
+     * Actualiza un usuario existente. Con {@code If-Match} sólo se guarda si nadie
+     * lo modificó desde el GET que devolvió ese ETag.
+     * @param id ID del usuario a actualizar
+     * @param usuario Nuevos datos del usuario
+     * @param ifMatch ETag esperado, opcional
+     * @return Usuario actualizado, o 409 si el nuevo email ya pertenece a otro usuario; 412 si cambió
+     */
+    // PUT /api/usuarios/{id}
+    @PutMapping("/{id}")
+    public Mono<ResponseEntity<Usuario>> update(@PathVariable Long id, @RequestBody Usuario usuario,
+                                                @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return usuarioService.update(id, ETags.condicionar(usuario, id, ifMatch))
+                .map(ETags::ok)
+                .onErrorResume(ConflictoVersionException.class,
+                        e -> Mono.just(ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build()))
+                .onErrorResume(EmailDuplicadoException.class, e -> Mono.just(ResponseEntity.status(HttpStatus.CONFLICT).build()))
+                .onErrorResume(RuntimeException.class, e -> Mono.just(ResponseEntity.status(HttpStatus.NOT_FOUND).build()));
+    }
+
+    /**
+     * Elimina usuarios en lote.
+     * @param ids IDs de los usuarios
+     * @param cascade Si es true, elimina también sus préstamos; si no, se rechazan los que tienen préstamos
+     * @return Resultado de cada elemento, en el mismo orden recibido
+     */
+    // DELETE /api/usuarios/bulk?cascade=true
+    @DeleteMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<List<ResultadoLote<Usuario>>> deleteBulk(@RequestBody List<Long> ids,
+                                                         @RequestParam(defaultValue = "false") boolean cascade) {
+        return usuarioService.deleteAllById(ids, cascade);
+    }
+
+    /**
+     * Elimina un usuario por su ID.
+     * @param id ID del usuario
+     * @param cascade Si es true, elimina también sus préstamos y libera los libros de los activos
+     * @return Sin contenido si se elimina correctamente; 409 si tiene préstamos y no se pidió {@code cascade}
+     */
+    // DELETE /api/usuarios/{id}?cascade=true
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<Void>> delete(@PathVariable Long id, @RequestParam(defaultValue = "false") boolean cascade) {
+        return usuarioService.deleteById(id, cascade)
+                .then(Mono.just(ResponseEntity.noContent().<Void>build()))
+                .onErrorResume(UsuarioConPrestamosException.class, e -> Mono.just(ResponseEntity.status(HttpStatus.CONFLICT).build()))
+                .onErrorResume(RuntimeException.class, e -> Mono.just(ResponseEntity.status(HttpStatus.NOT_FOUND).build()));
+    }
+
+    private static Mono<ResponseEntity<Usuario>> encontrado(Mono<Usuario> usuario, String ifNoneMatch) {
+        return usuario.map(u -> ETags.ok(u, ifNoneMatch))
+                .onErrorResume(RuntimeException.class, e -> Mono.just(ResponseEntity.status(HttpStatus.NOT_FOUND).build()));
+    }
+}
@@ -1,43 +1,83 @@
 package com.example.springLibrarySystem.controller;
 
+import com.example.springLibrarySystem.enums.EstadoUsuario;
+import com.example.springLibrarySystem.exception.ConflictoVersionException;
+import com.example.springLibrarySystem.exception.EmailDuplicadoException;
+import com.example.springLibrarySystem.exception.UsuarioConPrestamosException;
+import com.example.springLibrarySystem.models.ResultadoLote;
 import com.example.springLibrarySystem.models.Usuario;
 import com.example.springLibrarySystem.service.UsuarioService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.InputStream;
 import java.util.List;
+import java.util.Map;
 
+@Profile("!reactive")
 @RestController
 @RequestMapping("/api/usuarios")
 public class UsuarioController {
 
     private final UsuarioService usuarioService;
+    private final ObjectMapper objectMapper;
 
-    public UsuarioController(UsuarioService usuarioService) {
+    public UsuarioController(UsuarioService usuarioService, ObjectMapper objectMapper) {
         this.usuarioService = usuarioService;
+        this.objectMapper = objectMapper;
     }
 
     /**
-     * Obtiene la lista completa de usuarios registrados.
+     * Obtiene una página de los usuarios registrados, ordenada por ID, y el cursor de la
+     * siguiente en el header {@code X-Next-Cursor}; para recorrerlos todos se sigue
+     * ese cursor hasta que no venga.
+     * @param limit Cantidad máxima de elementos de la página (por defecto {@value Paginacion#LIMITE_POR_DEFECTO})
+     * @param after Cursor recibido en la página anterior
+     * @param estado Si se indica, sólo los usuarios en ese estado
+     * @param ifNoneMatch ETag de una respuesta anterior; si no hubo cambios se responde 304
      * @return Lista de usuarios
      */
-    // GET /api/usuarios
+    // GET /api/usuarios?estado=...&limit=50&after=...
     @GetMapping
-    public ResponseEntity<List<Usuario>> getAll() {
-        return ResponseEntity.ok(usuarioService.findAll());
+    public ResponseEntity<List<Usuario>> getAll(@RequestParam(required = false) Integer limit,
+                                                @RequestParam(required = false) String after,
+                                                @RequestParam(required = false) EstadoUsuario estado,
+                                                @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return ETags.coleccion(usuarioService.getModificationCount(), ifNoneMatch, () ->
+                estado == null
+                        ? Paginacion.pagina(usuarioService::findPage, limit, after)
+                        : Paginacion.pagina((afterId, l) -> usuarioService.findPageByEstado(estado, afterId, l), limit, after));
+    }
+
+    /**
+     * Cuenta los usuarios por estado sin recorrerlos.
+     * @param estado Si se indica, sólo la cantidad en ese estado
+     * @return Cantidad de usuarios por estado
+     */
+    // GET /api/usuarios/count?estado=...
+    @GetMapping("/count")
+    public ResponseEntity<Map<EstadoUsuario, Long>> count(@RequestParam(required = false) EstadoUsuario estado) {
+        Map<EstadoUsuario, Long> cantidades = usuarioService.countByEstado();
+        return ResponseEntity.ok(estado == null ? cantidades : Map.of(estado, cantidades.get(estado)));
     }
 
     /**
      * Obtiene un usuario por su ID.
      * @param id Identificador del usuario
+     * @param ifNoneMatch ETag de una respuesta anterior; si no cambió se responde 304
      * @return Usuario correspondiente al ID
      */
     // GET /api/usuarios/{id}
     @GetMapping("/{id}")
-    public ResponseEntity<Usuario> getById(@PathVariable Long id) {
+    public ResponseEntity<Usuario> getById(@PathVariable Long id,
+                                           @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         try {
-            return ResponseEntity.ok(usuarioService.findById(id));
+            return ETags.ok(usuarioService.findById(id), ifNoneMatch);
         } catch (RuntimeException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
         }
@@ -46,13 +86,15 @@ public class UsuarioController {
     /**
      * Obtiene un usuario por su email.
      * @param email Correo electrónico del usuario
+     * @param ifNoneMatch ETag de una respuesta anterior; si no cambió se responde 304
      * @return Usuario correspondiente al email
      */
     // GET /api/usuarios/email/{email}
     @GetMapping("/email/{email}")
-    public ResponseEntity<Usuario> getByEmail(@PathVariable String email) {
+    public ResponseEntity<Usuario> getByEmail(@PathVariable String email,
+                                              @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         try {
-            return ResponseEntity.ok(usuarioService.findByEmail(email));
+            return ETags.ok(usuarioService.findByEmail(email), ifNoneMatch);
         } catch (RuntimeException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
         }
@@ -61,13 +103,15 @@ public class UsuarioController {
     /**
      * Obtiene un usuario por su nombre.
      * @param nombre Nombre del usuario
+     * @param ifNoneMatch ETag de una respuesta anterior; si no cambió se responde 304
      * @return Usuario correspondiente al nombre
      */
     // GET /api/usuarios/nombre/{nombre}
     @GetMapping("/nombre/{nombre}")
-    public ResponseEntity<Usuario> getByNombre(@PathVariable String nombre) {
+    public ResponseEntity<Usuario> getByNombre(@PathVariable String nombre,
+                                               @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         try {
-            return ResponseEntity.ok(usuarioService.findByNombre(nombre));
+            return ETags.ok(usuarioService.findByNombre(nombre), ifNoneMatch);
         } catch (RuntimeException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
         }
@@ -76,41 +120,102 @@ public class UsuarioController {
     /**
      * Registra un nuevo usuario.
      * @param usuario Datos del usuario a registrar
-     * @return Usuario registrado con ID asignado
+     * @return Usuario registrado con ID asignado, o 409 si el email ya existe
      */
     // POST /api/usuarios
     @PostMapping
     public ResponseEntity<Usuario> create(@RequestBody Usuario usuario) {
-        return ResponseEntity.status(HttpStatus.CREATED).body(usuarioService.save(usuario));
+        try {
+            return ETags.creado(usuarioService.save(usuario));
+        } catch (EmailDuplicadoException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(null);
+        }
+    }
+
+    /**
+     * Registra o reemplaza usuarios en lote a partir de un arreglo JSON.
+     * @param usuarios Usuarios a guardar
+     * @return Resultado de cada elemento, en el mismo orden recibido
+     */
+    // POST /api/usuarios/bulk
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<ResultadoLote<Usuario>>> createBulk(@RequestBody List<Usuario> usuarios) {
+        return ResponseEntity.ok(usuarioService.saveAll(usuarios));
+    }
+
+    /**
+     * Registra o reemplaza usuarios en lote a partir de un cuerpo NDJSON (un JSON por línea).
+     * @param cuerpo Cuerpo de la petición
+     * @return Resultado de cada elemento, en el mismo orden recibido
+     */
+    // POST /api/usuarios/bulk (application/x-ndjson)
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<List<ResultadoLote<Usuario>>> createBulkNdjson(InputStream cuerpo) {
+        return NdjsonImport.importar(objectMapper, Usuario.class, cuerpo, usuarioService::saveAll);
     }
 
     /**
-     * Actualiza un usuario existente.
+     * Actualiza usuarios existentes en lote. Los elementos sin ID o inexistentes se rechazan.
+     * @param usuarios Usuarios con sus IDs
+     * @return Resultado de cada elemento, en el mismo orden recibido
+     */
+    // PUT /api/usuarios/bulk
+    @PutMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<ResultadoLote<Usuario>>> updateBulk(@RequestBody List<Usuario> usuarios) {
+        return ResponseEntity.ok(usuarioService.updateAll(usuarios));
+    }
+
+    /**
+     * Actualiza un usuario existente. Con {@code If-Match} sólo se guarda si nadie
+     * lo modificó desde el GET que devolvió ese ETag.
      * @param id ID del usuario a actualizar
      * @param usuario Nuevos datos del usuario
-     * @return Usuario actualizado
+     * @param ifMatch ETag esperado, opcional
+     * @return Usuario actualizado, 409 si el nuevo email ya pertenece a otro usuario
+     * o 412 si el usuario cambió
      */
     // PUT /api/usuarios/{id}
     @PutMapping("/{id}")
-    public ResponseEntity<Usuario> update(@PathVariable Long id, @RequestBody Usuario usuario) {
+    public ResponseEntity<Usuario> update(@PathVariable Long id, @RequestBody Usuario usuario,
+                                          @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         try {
-            return ResponseEntity.ok(usuarioService.update(id, usuario));
+            return ETags.ok(usuarioService.update(id, ETags.condicionar(usuario, id, ifMatch)));
+        } catch (EmailDuplicadoException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(null);
+        } catch (ConflictoVersionException e) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(null);
         } catch (RuntimeException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
         }
     }
 
+    /**
+     * Elimina usuarios en lote.
+     * @param ids IDs de los usuarios
+     * @param cascade Si es true, elimina también sus préstamos; si no, se rechazan los que tienen préstamos
+     * @return Resultado de cada elemento, en el mismo orden recibido
+     */
+    // DELETE /api/usuarios/bulk?cascade=true
+    @DeleteMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<ResultadoLote<Usuario>>> deleteBulk(@RequestBody List<Long> ids,
+                                                                   @RequestParam(defaultValue = "false") boolean cascade) {
+        return ResponseEntity.ok(usuarioService.deleteAllById(ids, cascade));
+    }
+
     /**
      * Elimina un usuario por su ID.
      * @param id ID del usuario
-     * @return Sin contenido si se elimina correctamente
+     * @param cascade Si es true, elimina también sus préstamos y libera los libros de los activos
+     * @return Sin contenido si se elimina correctamente; 409 si tiene préstamos y no se pidió {@code cascade}
      */
-    // DELETE /api/usuarios/{id}
+    // DELETE /api/usuarios/{id}?cascade=true
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> delete(@PathVariable Long id) {
+    public ResponseEntity<Void> delete(@PathVariable Long id, @RequestParam(defaultValue = "false") boolean cascade) {
         try {
-            usuarioService.deleteById(id);
+            usuarioService.deleteById(id, cascade);
             return ResponseEntity.noContent().build();
+        } catch (UsuarioConPrestamosException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (RuntimeException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
         }
@@ -0,0 +1,30 @@
+package com.example.springLibrarySystem.enums;
+
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Datos relacionados que se pueden pedir junto con un préstamo ({@code expand=libro,usuario}).
+ */
+public enum ExpansionPrestamo {
+    LIBRO,
+    USUARIO;
+
+    /**
+     * Lee el parámetro {@code expand}: nombres separados por coma, sin distinguir mayúsculas.
+     * @throws IllegalArgumentException si algún nombre no es una expansión conocida
+     */
+    public static Set<ExpansionPrestamo> desde(String expand) {
+        Set<ExpansionPrestamo> expansiones = EnumSet.noneOf(ExpansionPrestamo.class);
+        if (expand == null) {
+            return expansiones;
+        }
+        for (String nombre : expand.split(",")) {
+            if (!nombre.isBlank()) {
+                expansiones.add(valueOf(nombre.trim().toUpperCase(Locale.ROOT)));
+            }
+        }
+        return expansiones;
+    }
+}
@@ -0,0 +1,6 @@
+package com.example.springLibrarySystem.enums;
+
+public enum TipoCambio {
+    GUARDADO,
+    ELIMINADO
+}
@@ -0,0 +1,36 @@
+package com.example.springLibrarySystem.events;
+
+import com.example.springLibrarySystem.models.Entidad;
+import com.example.springLibrarySystem.models.Libro;
+import com.example.springLibrarySystem.models.Prestamo;
+import com.example.springLibrarySystem.models.Usuario;
+
+/**
+ * Cambio ya confirmado en un repositorio. Lleva la entidad tal como quedó guardada
+ * (o como estaba al eliminarse); no debe modificarse.
+ */
+public sealed interface DomainEvent {
+
+    Entidad entidad();
+
+    record LibroGuardado(Libro entidad) implements DomainEvent {
+    }
+
+    record LibroEliminado(Libro entidad) implements DomainEvent {
+    }
+
+    record UsuarioGuardado(Usuario entidad) implements DomainEvent {
+    }
+
+    record UsuarioEliminado(Usuario entidad) implements DomainEvent {
+    }
+
+    record PrestamoCreado(Prestamo entidad) implements DomainEvent {
+    }
+
+    record PrestamoActualizado(Prestamo entidad) implements DomainEvent {
+    }
+
+    record PrestamoEliminado(Prestamo entidad) implements DomainEvent {
+    }
+}
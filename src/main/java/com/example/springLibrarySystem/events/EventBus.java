@@ -0,0 +1,168 @@
+package com.example.springLibrarySystem.events;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Bus de eventos en proceso sobre un anillo de tamaño fijo, sin locks.
+ *
+ * <p>Cada publicación reclama una secuencia con un incremento atómico y escribe el evento
+ * en su casillero; un único hilo despachador recorre el anillo en orden de secuencia,
+ * vacía los casilleros y entrega lo acumulado a los suscriptores en lotes. Publicar nunca
+ * espera a los suscriptores: los repositorios publican con el lock de la franja tomado, y
+ * esperar ahí frenaría a todos los escritores detrás de un suscriptor lento (o los trabaría
+ * si el suscriptor escribe en el mismo store). Con el anillo lleno el evento se descarta y
+ * se cuenta en {@link #dropped()}.
+ *
+ * <p>El despachador, sin trabajo, se duerme; quien publica lo despierta sólo si está
+ * dormido, así que con carga sostenida publicar no hace ninguna llamada al sistema.
+ */
+@Slf4j
+public class EventBus implements EventPublisher, Closeable {
+    // Cota del sueño del despachador, por si un unpark llegara a perderse.
+    private static final long ESPERA_MAXIMA = TimeUnit.MILLISECONDS.toNanos(100);
+    // Reintentos con el anillo lleno antes de descartar, por si el despachador libera lugar enseguida.
+    private static final int GIROS = 100;
+
+    private final AtomicReferenceArray<DomainEvent> anillo;
+    private final int mascara;
+    private final int maxLote;
+    private final AtomicLong siguiente = new AtomicLong();
+    private final AtomicLong descartados = new AtomicLong();
+    private final List<EventSubscriber> suscriptores = new CopyOnWriteArrayList<>();
+    private final Thread despachador;
+    // Secuencias menores ya se retiraron del anillo; sólo la escribe el despachador.
+    private volatile long consumido;
+    private volatile boolean durmiendo;
+    private volatile boolean abierto = true;
+
+    public EventBus(int capacidad, int maxLote) {
+        int tamanio = Integer.highestOneBit(Math.max(1, capacidad - 1)) << 1;
+        this.anillo = new AtomicReferenceArray<>(tamanio);
+        this.mascara = tamanio - 1;
+        this.maxLote = Math.max(1, maxLote);
+        // Hilo de plataforma: pasa la vida esperando en el anillo y no debe ocupar un carrier de hilos virtuales.
+        this.despachador = new Thread(this::despachar, "eventos");
+        this.despachador.setDaemon(true);
+        this.despachador.start();
+    }
+
+    public void subscribe(EventSubscriber suscriptor) {
+        suscriptores.add(suscriptor);
+    }
+
+    /**
+     * Encola el evento y vuelve enseguida; si el anillo está lleno lo descarta.
+     * Después de {@link #close()} los eventos se descartan sin contarlos.
+     */
+    @Override
+    public void publish(DomainEvent evento) {
+        if (!abierto) {
+            return;
+        }
+        long secuencia = reservar();
+        if (secuencia < 0) {
+            descartados.incrementAndGet();
+            return;
+        }
+        // Escritura volátil: se ordena antes de leer durmiendo, igual que en el despachador.
+        anillo.set((int) secuencia & mascara, evento);
+        if (durmiendo) {
+            LockSupport.unpark(despachador);
+        }
+    }
+
+    /**
+     * Eventos publicados que todavía no se entregaron.
+     */
+    public long pending() {
+        return Math.max(0, siguiente.get() - consumido);
+    }
+
+    /**
+     * Eventos descartados porque el anillo estaba lleno.
+     */
+    public long dropped() {
+        return descartados.get();
+    }
+
+    /**
+     * Deja de aceptar eventos y espera a que se entreguen los ya publicados.
+     */
+    @Override
+    public void close() {
+        abierto = false;
+        LockSupport.unpark(despachador);
+        try {
+            despachador.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // La secuencia se reserva sólo si su casillero ya se vació: el despachador recorre las
+    // secuencias en orden, así que una reservada y no escrita lo dejaría esperando.
+    // Devuelve -1 si el anillo sigue lleno después de los reintentos.
+    private long reservar() {
+        for (int giro = 0; ; giro++) {
+            long secuencia = siguiente.get();
+            if (secuencia - consumido < anillo.length()) {
+                if (siguiente.compareAndSet(secuencia, secuencia + 1)) {
+                    return secuencia;
+                }
+            } else if (giro < GIROS) {
+                Thread.onSpinWait();
+            } else {
+                return -1;
+            }
+        }
+    }
+
+    private void despachar() {
+        List<DomainEvent> lote = new ArrayList<>(maxLote);
+        long proximo = 0;
+        while (true) {
+            DomainEvent evento;
+            while (lote.size() < maxLote && (evento = anillo.get((int) proximo & mascara)) != null) {
+                anillo.lazySet((int) proximo & mascara, null);
+                lote.add(evento);
+                proximo++;
+            }
+            if (!lote.isEmpty()) {
+                consumido = proximo;
+                entregar(lote);
+                lote.clear();
+            } else if (!abierto && proximo >= siguiente.get()) {
+                return;
+            } else {
+                esperar(proximo);
+            }
+        }
+    }
+
+    private void esperar(long proximo) {
+        durmiendo = true;
+        if (anillo.get((int) proximo & mascara) == null && abierto) {
+            LockSupport.parkNanos(this, ESPERA_MAXIMA);
+        }
+        durmiendo = false;
+    }
+
+    private void entregar(List<DomainEvent> lote) {
+        for (EventSubscriber suscriptor : suscriptores) {
+            try {
+                suscriptor.onEvents(lote);
+            } catch (RuntimeException e) {
+                log.error("El suscriptor {} falló procesando {} eventos", suscriptor, lote.size(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.springLibrarySystem.events;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuración del bus de eventos de dominio.
+ */
+@Data
+@ConfigurationProperties(prefix = "library.events")
+public class EventProperties {
+    /** Capacidad del anillo (se redondea a potencia de 2). Lleno, los eventos nuevos se descartan. */
+    private int bufferSize = 8192;
+    /** Máximo de eventos que recibe un suscriptor por llamada. */
+    private int maxBatch = 256;
+}
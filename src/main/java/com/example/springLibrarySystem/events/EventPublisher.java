@@ -0,0 +1,14 @@
+package com.example.springLibrarySystem.events;
+
+/**
+ * Publica eventos de dominio sin esperar a que se procesen.
+ */
+public interface EventPublisher {
+
+    void publish(DomainEvent evento);
+
+    static EventPublisher none() {
+        return evento -> {
+        };
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.springLibrarySystem.events;
+
+import java.util.List;
+
+/**
+ * Consumidor de eventos del {@link EventBus}. Recibe los eventos en lotes, en el orden
+ * en que se publicaron, siempre desde el mismo hilo. La lista sólo es válida durante la llamada.
+ */
+public interface EventSubscriber {
+
+    void onEvents(List<DomainEvent> lote);
+}
@@ -0,0 +1,7 @@
+package com.example.springLibrarySystem.exception;
+
+public class CambiosNoDisponiblesException extends RuntimeException {
+    public CambiosNoDisponiblesException(long desde, long ultimo) {
+        super("No hay cambios disponibles después del offset " + desde + " (último offset: " + ultimo + ")");
+    }
+}
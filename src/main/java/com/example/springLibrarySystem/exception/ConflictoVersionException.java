@@ -0,0 +1,7 @@
+package com.example.springLibrarySystem.exception;
+
+public class ConflictoVersionException extends RuntimeException {
+    public ConflictoVersionException(Long id, long esperada, long vigente) {
+        super("La entidad con ID " + id + " cambió: se esperaba la versión " + esperada + " y la vigente es " + vigente);
+    }
+}
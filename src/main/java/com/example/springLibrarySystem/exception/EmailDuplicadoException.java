@@ -0,0 +1,7 @@
+package com.example.springLibrarySystem.exception;
+
+public class EmailDuplicadoException extends RuntimeException {
+    public EmailDuplicadoException(String email) {
+        super("Ya existe un usuario con email: " + email);
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.springLibrarySystem.exception;
+
+import com.example.springLibrarySystem.enums.EstadoLibro;
+
+public class EstadoLibroInvalidoException extends RuntimeException {
+    public EstadoLibroInvalidoException(Long id, EstadoLibro estado) {
+        super("El libro con ID " + id + " no puede quedar en estado " + estado
+                + ": sólo está PRESTADO mientras tenga un préstamo activo; use prestar o devolver");
+    }
+}
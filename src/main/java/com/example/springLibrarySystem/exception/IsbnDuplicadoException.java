@@ -0,0 +1,7 @@
+package com.example.springLibrarySystem.exception;
+
+public class IsbnDuplicadoException extends RuntimeException {
+    public IsbnDuplicadoException(String isbn) {
+        super("Ya existe un libro con ISBN: " + isbn);
+    }
+}
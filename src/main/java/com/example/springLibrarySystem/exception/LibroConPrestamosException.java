@@ -0,0 +1,7 @@
+package com.example.springLibrarySystem.exception;
+
+public class LibroConPrestamosException extends RuntimeException {
+    public LibroConPrestamosException(Long id, int prestamos) {
+        super("El libro con ID " + id + " tiene " + prestamos + " préstamos asociados");
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.springLibrarySystem.exception;
+
+public class LibroNoDisponibleException extends RuntimeException {
+    public LibroNoDisponibleException(Long id) {
+        super("El libro con ID " + id + " no está disponible");
+    }
+}
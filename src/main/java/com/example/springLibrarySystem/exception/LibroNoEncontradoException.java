@@ -1,12 +1,15 @@
 package com.example.springLibrarySystem.exception;
 
+/**
+ * Se lanza en cada búsqueda sin resultado y siempre se traduce a un 404, así que
+ * no captura el stack trace: armarlo era la parte más cara del camino "no existe".
+ */
 public class LibroNoEncontradoException extends RuntimeException {
     public LibroNoEncontradoException(Long id) {
-        super("Libro no encontrado con ID: " + id);
+        super("Libro no encontrado con ID: " + id, null, false, false);
     }
 
     public LibroNoEncontradoException(String isbn) {
-        super("Libro no encontrado con ISBN: " + isbn);
+        super("Libro no encontrado con ISBN: " + isbn, null, false, false);
     }
 }
-
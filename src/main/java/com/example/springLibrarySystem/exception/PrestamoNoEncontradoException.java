@@ -0,0 +1,10 @@
+package com.example.springLibrarySystem.exception;
+
+/**
+ * Igual que {@link LibroNoEncontradoException}, sin stack trace.
+ */
+public class PrestamoNoEncontradoException extends RuntimeException {
+    public PrestamoNoEncontradoException(Long id) {
+        super("Préstamo no encontrado con ID: " + id, null, false, false);
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.springLibrarySystem.exception;
+
+public class PrestamoNoModificableException extends RuntimeException {
+    public PrestamoNoModificableException(Long id) {
+        super("El préstamo con ID " + id + " no puede cambiar de libro, usuario ni estado: use prestar o devolver");
+    }
+}
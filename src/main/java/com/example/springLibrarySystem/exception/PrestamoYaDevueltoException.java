@@ -0,0 +1,7 @@
+package com.example.springLibrarySystem.exception;
+
+public class PrestamoYaDevueltoException extends RuntimeException {
+    public PrestamoYaDevueltoException(Long id) {
+        super("El préstamo con ID " + id + " ya fue devuelto");
+    }
+}
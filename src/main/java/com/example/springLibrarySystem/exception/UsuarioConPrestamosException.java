@@ -0,0 +1,7 @@
+package com.example.springLibrarySystem.exception;
+
+public class UsuarioConPrestamosException extends RuntimeException {
+    public UsuarioConPrestamosException(Long id, int prestamos) {
+        super("El usuario con ID " + id + " tiene " + prestamos + " préstamos asociados");
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.springLibrarySystem.exception;
+
+public class UsuarioNoActivoException extends RuntimeException {
+    public UsuarioNoActivoException(Long id) {
+        super("El usuario con ID " + id + " no está activo");
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.springLibrarySystem.exception;
+
+/**
+ * Igual que {@link LibroNoEncontradoException}, sin stack trace.
+ */
+public class UsuarioNoEncontradoException extends RuntimeException {
+    public UsuarioNoEncontradoException(Long id) {
+        this("ID", String.valueOf(id));
+    }
+
+    public UsuarioNoEncontradoException(String campo, String valor) {
+        super("Usuario no encontrado con " + campo + ": " + valor, null, false, false);
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.springLibrarySystem.metrics;
+
+import com.example.springLibrarySystem.exception.LibroNoEncontradoException;
+import com.example.springLibrarySystem.exception.PrestamoNoEncontradoException;
+import com.example.springLibrarySystem.exception.UsuarioNoEncontradoException;
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.support.AopUtils;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Mide cada llamada a los métodos interceptados con un timer {@code <nombre>} (etiquetas
+ * {@code class}, {@code method} y {@code exception}) y cuenta en {@code library.not.found}
+ * los {@link Optional} vacíos y las excepciones de "no encontrado".
+ * <p>
+ * Los medidores se crean la primera vez que se llama a cada método y se guardan por
+ * {@link Method} (los de excepciones, por método y clase de excepción): el camino habitual
+ * es una búsqueda en un mapa y dos lecturas del reloj, sin armar etiquetas ni builders.
+ * <p>
+ * El registro se pide en la primera llamada: los interceptores se crean junto con los
+ * proxies, antes de que Spring termine de configurar el registro.
+ */
+public class MetricsInterceptor implements MethodInterceptor {
+    public static final String NO_ENCONTRADO = "library.not.found";
+
+    // Las operaciones en memoria tardan microsegundos; el rango por defecto empieza en 1 ms.
+    private static final Duration MINIMO_ESPERADO = Duration.ofNanos(1_000);
+    private static final Duration MAXIMO_ESPERADO = Duration.ofSeconds(10);
+
+    private final Supplier<MeterRegistry> proveedor;
+    private final String nombre;
+    private volatile MeterRegistry registry;
+    private final ConcurrentMap<Method, Timer> timers = new ConcurrentHashMap<>();
+    private final ConcurrentMap<ConExcepcion, Timer> timersConExcepcion = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Method, Counter> noEncontrados = new ConcurrentHashMap<>();
+
+    public MetricsInterceptor(Supplier<MeterRegistry> proveedor, String nombre) {
+        this.proveedor = proveedor;
+        this.nombre = nombre;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Method metodo = invocation.getMethod();
+        Clock reloj = registry().config().clock();
+        long inicio = reloj.monotonicTime();
+        Object resultado;
+        try {
+            resultado = invocation.proceed();
+        } catch (Throwable e) {
+            timerConExcepcion(invocation, e.getClass()).record(reloj.monotonicTime() - inicio, TimeUnit.NANOSECONDS);
+            if (esNoEncontrado(e)) {
+                noEncontrado(invocation).increment();
+            }
+            throw e;
+        }
+        Timer timer = timers.get(metodo);
+        if (timer == null) {
+            timer = timers.computeIfAbsent(metodo, m -> timer(invocation, "none"));
+        }
+        timer.record(reloj.monotonicTime() - inicio, TimeUnit.NANOSECONDS);
+        if (resultado instanceof Optional<?> opcional && opcional.isEmpty()) {
+            noEncontrado(invocation).increment();
+        }
+        return resultado;
+    }
+
+    private Timer timerConExcepcion(MethodInvocation invocation, Class<? extends Throwable> tipo) {
+        ConExcepcion clave = new ConExcepcion(invocation.getMethod(), tipo);
+        Timer timer = timersConExcepcion.get(clave);
+        if (timer == null) {
+            timer = timersConExcepcion.computeIfAbsent(clave, c -> timer(invocation, tipo.getSimpleName()));
+        }
+        return timer;
+    }
+
+    private Timer timer(MethodInvocation invocation, String excepcion) {
+        return Timer.builder(nombre)
+                .tag("class", clase(invocation))
+                .tag("method", invocation.getMethod().getName())
+                .tag("exception", excepcion)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(MINIMO_ESPERADO)
+                .maximumExpectedValue(MAXIMO_ESPERADO)
+                .register(registry());
+    }
+
+    private Counter noEncontrado(MethodInvocation invocation) {
+        Method metodo = invocation.getMethod();
+        Counter contador = noEncontrados.get(metodo);
+        if (contador == null) {
+            contador = noEncontrados.computeIfAbsent(metodo, m -> Counter.builder(NO_ENCONTRADO)
+                    .tag("class", clase(invocation))
+                    .tag("method", m.getName())
+                    .register(registry()));
+        }
+        return contador;
+    }
+
+    private MeterRegistry registry() {
+        MeterRegistry actual = registry;
+        if (actual == null) {
+            actual = proveedor.get();
+            registry = actual;
+        }
+        return actual;
+    }
+
+    // Clase real detrás del proxy: distingue, por ejemplo, la caché del repositorio que envuelve.
+    private static String clase(MethodInvocation invocation) {
+        Object destino = invocation.getThis();
+        return destino == null
+                ? invocation.getMethod().getDeclaringClass().getSimpleName()
+                : AopUtils.getTargetClass(destino).getSimpleName();
+    }
+
+    private record ConExcepcion(Method metodo, Class<? extends Throwable> tipo) {
+    }
+
+    private static boolean esNoEncontrado(Throwable e) {
+        return e instanceof LibroNoEncontradoException
+                || e instanceof UsuarioNoEncontradoException
+                || e instanceof PrestamoNoEncontradoException;
+    }
+}
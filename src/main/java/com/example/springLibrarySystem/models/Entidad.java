@@ -0,0 +1,16 @@
+package com.example.springLibrarySystem.models;
+
+/**
+ * Contrato mínimo que cumplen las entidades guardadas en los repositorios en memoria.
+ */
+public interface Entidad {
+    Long getId();
+    void setId(Long id);
+
+    /**
+     * Versión de la última escritura: el store la incrementa en cada {@code save}.
+     * Si una entidad llega con versión, sólo se guarda si coincide con la vigente.
+     */
+    Long getVersion();
+    void setVersion(Long version);
+}
@@ -8,10 +8,15 @@ import lombok.NoArgsConstructor;
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
-public class Libro {
+public class Libro implements Entidad {
     private Long id;
     private String isbn;
     private String titulo;
     private String autor;
     private EstadoLibro estado;
+    private Long version;
+
+    public Libro(Long id, String isbn, String titulo, String autor, EstadoLibro estado) {
+        this(id, isbn, titulo, autor, estado, null);
+    }
 }
@@ -1,18 +1,48 @@
 package com.example.springLibrarySystem.models;
 
+import com.example.springLibrarySystem.enums.EstadoPrestamo;
+import com.fasterxml.jackson.annotation.JsonSetter;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDate;
 
+/**
+ * Préstamo de un libro a un usuario. Guarda sólo los IDs de ambos: los datos
+ * vigentes se leen de sus repositorios cuando hacen falta (ver {@link PrestamoExpandido}).
+ */
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
-public class Prestamo {
+public class Prestamo implements Entidad {
     private Long id;
-    private Libro libro;
-    private Usuario usuario;
+    private Long libroId;
+    private Long usuarioId;
     private LocalDate fechaPrestamo;
+    /** Fecha límite para devolver el libro. */
     private LocalDate fechaDevolucion;
+    private EstadoPrestamo estado = EstadoPrestamo.ACTIVO;
+    private Long version;
+
+    public Prestamo(Long id, Long libroId, Long usuarioId, LocalDate fechaPrestamo, LocalDate fechaDevolucion) {
+        this(id, libroId, usuarioId, fechaPrestamo, fechaDevolucion, EstadoPrestamo.ACTIVO);
+    }
+
+    public Prestamo(Long id, Long libroId, Long usuarioId, LocalDate fechaPrestamo, LocalDate fechaDevolucion,
+                    EstadoPrestamo estado) {
+        this(id, libroId, usuarioId, fechaPrestamo, fechaDevolucion, estado, null);
+    }
+
+    // El formato anterior anidaba el libro y el usuario completos; los clientes y los
+    // archivos de persistencia que todavía lo usan se leen tomando sólo los IDs.
+    @JsonSetter("libro")
+    private void setLibro(Libro libro) {
+        this.libroId = libro == null ? null : libro.getId();
+    }
+
+    @JsonSetter("usuario")
+    private void setUsuario(Usuario usuario) {
+        this.usuarioId = usuario == null ? null : usuario.getId();
+    }
 }
@@ -0,0 +1,17 @@
+package com.example.springLibrarySystem.models;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+
+/**
+ * Préstamo junto con el libro y/o el usuario pedidos con {@code expand}. Se serializa
+ * como el préstamo más los objetos incluidos; lo que no se pidió no aparece.
+ */
+public record PrestamoExpandido(@JsonUnwrapped Prestamo prestamo,
+                                @JsonInclude(JsonInclude.Include.NON_NULL) Libro libro,
+                                @JsonInclude(JsonInclude.Include.NON_NULL) Usuario usuario) {
+
+    public static PrestamoExpandido de(Prestamo prestamo) {
+        return new PrestamoExpandido(prestamo, null, null);
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.springLibrarySystem.models;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Resultado de un elemento dentro de una escritura por lotes: la entidad
+ * guardada o el motivo por el que se rechazó. {@code posicion} es el índice
+ * del elemento en el lote recibido.
+ */
+@Getter
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ResultadoLote<T> {
+    private final int posicion;
+    private final T entidad;
+    private final String error;
+
+    public static <T> ResultadoLote<T> ok(int posicion, T entidad) {
+        return new ResultadoLote<>(posicion, entidad, null);
+    }
+
+    public static <T> ResultadoLote<T> error(int posicion, String error) {
+        return new ResultadoLote<>(posicion, null, error);
+    }
+
+    public ResultadoLote<T> conPosicion(int nuevaPosicion) {
+        return new ResultadoLote<>(nuevaPosicion, entidad, error);
+    }
+
+    public boolean isOk() {
+        return error == null;
+    }
+}
@@ -8,9 +8,14 @@ import lombok.NoArgsConstructor;
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
-public class Usuario {
+public class Usuario implements Entidad {
     private Long id;
     private String nombre;
     private String email;
     private EstadoUsuario estado;
+    private Long version;
+
+    public Usuario(Long id, String nombre, String email, EstadoUsuario estado) {
+        this(id, nombre, email, estado, null);
+    }
 }
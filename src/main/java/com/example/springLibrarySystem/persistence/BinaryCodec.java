@@ -0,0 +1,12 @@
+package com.example.springLibrarySystem.persistence;
+
+/**
+ * Codifica una entidad en el formato de {@link BinarySnapshot}. Los campos se
+ * escriben y se leen en el mismo orden; los textos van al diccionario del snapshot.
+ */
+public interface BinaryCodec<T> {
+
+    void escribir(T entidad, BinarySnapshot.Escritor salida);
+
+    T leer(BinarySnapshot.Lector entrada);
+}
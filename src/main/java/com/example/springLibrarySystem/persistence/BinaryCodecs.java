@@ -0,0 +1,91 @@
+package com.example.springLibrarySystem.persistence;
+
+import com.example.springLibrarySystem.enums.EstadoLibro;
+import com.example.springLibrarySystem.enums.EstadoPrestamo;
+import com.example.springLibrarySystem.enums.EstadoUsuario;
+import com.example.springLibrarySystem.models.Libro;
+import com.example.springLibrarySystem.models.Prestamo;
+import com.example.springLibrarySystem.models.Usuario;
+
+/**
+ * Codecs binarios de las entidades del sistema.
+ */
+public final class BinaryCodecs {
+    private static final EstadoLibro[] ESTADOS_LIBRO = EstadoLibro.values();
+    private static final EstadoUsuario[] ESTADOS_USUARIO = EstadoUsuario.values();
+    private static final EstadoPrestamo[] ESTADOS_PRESTAMO = EstadoPrestamo.values();
+
+    public static final BinaryCodec<Libro> LIBRO = new BinaryCodec<>() {
+        @Override
+        public void escribir(Libro libro, BinarySnapshot.Escritor salida) {
+            salida.numero(libro.getId());
+            salida.texto(libro.getIsbn());
+            salida.texto(libro.getTitulo());
+            salida.texto(libro.getAutor());
+            salida.enumeracion(libro.getEstado());
+            salida.opcional(libro.getVersion());
+        }
+
+        @Override
+        public Libro leer(BinarySnapshot.Lector entrada) {
+            Libro libro = new Libro(entrada.numero(), entrada.texto(), entrada.texto(), entrada.texto(),
+                    entrada.enumeracion(ESTADOS_LIBRO));
+            libro.setVersion(version(entrada));
+            return libro;
+        }
+    };
+
+    public static final BinaryCodec<Usuario> USUARIO = new BinaryCodec<>() {
+        @Override
+        public void escribir(Usuario usuario, BinarySnapshot.Escritor salida) {
+            salida.numero(usuario.getId());
+            salida.texto(usuario.getNombre());
+            salida.texto(usuario.getEmail());
+            salida.enumeracion(usuario.getEstado());
+            salida.opcional(usuario.getVersion());
+        }
+
+        @Override
+        public Usuario leer(BinarySnapshot.Lector entrada) {
+            Usuario usuario = new Usuario(entrada.numero(), entrada.texto(), entrada.texto(),
+                    entrada.enumeracion(ESTADOS_USUARIO));
+            usuario.setVersion(version(entrada));
+            return usuario;
+        }
+    };
+
+    /**
+     * Un préstamo guarda sólo los IDs del libro y del usuario.
+     */
+    public static final BinaryCodec<Prestamo> PRESTAMO = new BinaryCodec<>() {
+        @Override
+        public void escribir(Prestamo prestamo, BinarySnapshot.Escritor salida) {
+            salida.numero(prestamo.getId());
+            salida.opcional(prestamo.getLibroId());
+            salida.opcional(prestamo.getUsuarioId());
+            salida.fecha(prestamo.getFechaPrestamo());
+            salida.fecha(prestamo.getFechaDevolucion());
+            salida.enumeracion(prestamo.getEstado());
+            salida.opcional(prestamo.getVersion());
+        }
+
+        @Override
+        public Prestamo leer(BinarySnapshot.Lector entrada) {
+            return new Prestamo(entrada.numero(), entrada.opcional(), entrada.opcional(), entrada.fecha(),
+                    entrada.fecha(), estadoPrestamo(entrada), version(entrada));
+        }
+    };
+
+    private BinaryCodecs() {
+    }
+
+    // La versión de cada entidad se agregó en la versión 3 del formato.
+    private static Long version(BinarySnapshot.Lector entrada) {
+        return entrada.getVersion() >= 3 ? entrada.opcional() : null;
+    }
+
+    // Los snapshots de la versión 1 no tenían estado: esos préstamos seguían activos.
+    private static EstadoPrestamo estadoPrestamo(BinarySnapshot.Lector entrada) {
+        return entrada.getVersion() >= 2 ? entrada.enumeracion(ESTADOS_PRESTAMO) : EstadoPrestamo.ACTIVO;
+    }
+}
@@ -0,0 +1,317 @@
+package com.example.springLibrarySystem.persistence;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Snapshot binario leído y escrito a través de ventanas mapeadas en memoria.
+ * <pre>
+ * [cabecera 48 bytes][entidades...][diccionario de textos]
+ * </pre>
+ * Los números van como varints (zigzag), los enums como ordinal y cada texto como
+ * índice en un diccionario UTF-8 que se carga antes que las entidades, así que los
+ * textos repetidos (autores, estados, nombres) se guardan y se cargan una sola vez.
+ */
+public class BinarySnapshot<T> implements Snapshot<T> {
+    private static final int MAGIA = 0x4C425331;
+    private static final int VERSION = 3;
+    private static final int TAMANIO_CABECERA = 48;
+    private static final long VENTANA = 64L << 20;
+
+    private final Path archivo;
+    private final BinaryCodec<T> codec;
+    private final long ventana;
+
+    public BinarySnapshot(Path archivo, BinaryCodec<T> codec) {
+        this(archivo, codec, VENTANA);
+    }
+
+    BinarySnapshot(Path archivo, BinaryCodec<T> codec, long ventana) {
+        this.archivo = archivo;
+        this.codec = codec;
+        this.ventana = ventana;
+    }
+
+    @Override
+    public Path getArchivo() {
+        return archivo;
+    }
+
+    @Override
+    public void write(Cabecera cabecera, Iterator<T> entidades) throws IOException {
+        Path temporal = archivo.resolveSibling(archivo.getFileName() + ".tmp");
+        try (FileChannel canal = FileChannel.open(temporal, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            Escritor salida = new Escritor(canal, TAMANIO_CABECERA, ventana);
+            long cantidad = 0;
+            try {
+                while (entidades.hasNext()) {
+                    codec.escribir(entidades.next(), salida);
+                    cantidad++;
+                }
+                long inicioDiccionario = salida.posicion();
+                for (String texto : salida.textos) {
+                    salida.bytes(texto.getBytes(StandardCharsets.UTF_8));
+                }
+                canal.truncate(salida.terminar());
+
+                ByteBuffer encabezado = ByteBuffer.allocate(TAMANIO_CABECERA)
+                        .putInt(MAGIA)
+                        .putInt(VERSION)
+                        .putLong(cabecera.lsn())
+                        .putLong(cabecera.nextId())
+                        .putLong(cantidad)
+                        .putLong(inicioDiccionario)
+                        .putInt(salida.textos.size())
+                        .putInt(0)
+                        .flip();
+                while (encabezado.hasRemaining()) {
+                    canal.write(encabezado, encabezado.position());
+                }
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            canal.force(true);
+        }
+        Files.move(temporal, archivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    @Override
+    public Optional<Cabecera> read(Consumer<T> aplicar) throws IOException {
+        if (!Files.exists(archivo)) {
+            return Optional.empty();
+        }
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            ByteBuffer encabezado = ByteBuffer.allocate(TAMANIO_CABECERA);
+            canal.read(encabezado, 0);
+            encabezado.flip();
+            if (encabezado.remaining() < TAMANIO_CABECERA || encabezado.getInt() != MAGIA) {
+                throw new IOException(archivo + " no es un snapshot binario");
+            }
+            int version = encabezado.getInt();
+            if (version < 1 || version > VERSION) {
+                throw new IOException("Versión de snapshot no soportada: " + version);
+            }
+            long lsn = encabezado.getLong();
+            long nextId = encabezado.getLong();
+            long cantidad = encabezado.getLong();
+            long inicioDiccionario = encabezado.getLong();
+            int cantidadTextos = encabezado.getInt();
+            long tamanio = canal.size();
+            if (inicioDiccionario < TAMANIO_CABECERA || inicioDiccionario > tamanio) {
+                throw new IOException(archivo + " está truncado");
+            }
+
+            try {
+                Lector diccionario = new Lector(canal, inicioDiccionario, tamanio, ventana, version, null);
+                String[] textos = new String[cantidadTextos];
+                for (int i = 0; i < cantidadTextos; i++) {
+                    textos[i] = diccionario.textoPlano();
+                }
+                Lector entrada = new Lector(canal, TAMANIO_CABECERA, inicioDiccionario, ventana, version, textos);
+                for (long i = 0; i < cantidad; i++) {
+                    aplicar.accept(codec.leer(entrada));
+                }
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            return Optional.of(new Cabecera(lsn, nextId));
+        }
+    }
+
+    /**
+     * Escritura secuencial sobre ventanas mapeadas del archivo; al llenarse una
+     * ventana se fuerza a disco y se mapea la siguiente.
+     */
+    public static final class Escritor {
+        private final FileChannel canal;
+        private final long ventana;
+        private final Map<String, Integer> diccionario = new HashMap<>();
+        private final List<String> textos = new ArrayList<>();
+        private MappedByteBuffer buffer;
+        private long base;
+
+        private Escritor(FileChannel canal, long inicio, long ventana) {
+            this.canal = canal;
+            this.ventana = ventana;
+            mapear(inicio, 0);
+        }
+
+        public void numero(long valor) {
+            varint((valor << 1) ^ (valor >> 63));
+        }
+
+        public void opcional(Long valor) {
+            varint(valor == null ? 0 : ((valor << 1) ^ (valor >> 63)) + 1);
+        }
+
+        public void texto(String valor) {
+            if (valor == null) {
+                varint(0);
+                return;
+            }
+            varint(diccionario.computeIfAbsent(valor, v -> {
+                textos.add(v);
+                return textos.size();
+            }));
+        }
+
+        public void enumeracion(Enum<?> valor) {
+            asegurar(1);
+            buffer.put(valor == null ? 0 : (byte) (valor.ordinal() + 1));
+        }
+
+        public void fecha(LocalDate valor) {
+            opcional(valor == null ? null : valor.toEpochDay());
+        }
+
+        private void bytes(byte[] valor) {
+            varint(valor.length);
+            asegurar(valor.length);
+            buffer.put(valor);
+        }
+
+        private void varint(long valor) {
+            asegurar(10);
+            while ((valor & ~0x7FL) != 0) {
+                buffer.put((byte) ((valor & 0x7F) | 0x80));
+                valor >>>= 7;
+            }
+            buffer.put((byte) valor);
+        }
+
+        private long posicion() {
+            return base + buffer.position();
+        }
+
+        private long terminar() {
+            buffer.force();
+            return posicion();
+        }
+
+        private void asegurar(int bytes) {
+            if (buffer.remaining() < bytes) {
+                buffer.force();
+                mapear(posicion(), bytes);
+            }
+        }
+
+        private void mapear(long desde, int minimo) {
+            try {
+                buffer = canal.map(FileChannel.MapMode.READ_WRITE, desde, Math.max(ventana, minimo));
+                base = desde;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Lectura secuencial de un tramo del archivo ({@code [desde, hasta)}) sobre
+     * ventanas mapeadas de sólo lectura. {@link #getVersion()} permite a los codecs
+     * leer archivos escritos antes de que se agregara un campo.
+     */
+    public static final class Lector {
+        private final FileChannel canal;
+        private final long hasta;
+        private final long ventana;
+        private final int version;
+        private final String[] textos;
+        private MappedByteBuffer buffer;
+        private long base;
+
+        private Lector(FileChannel canal, long desde, long hasta, long ventana, int version, String[] textos) {
+            this.canal = canal;
+            this.hasta = hasta;
+            this.ventana = ventana;
+            this.version = version;
+            this.textos = textos;
+            mapear(desde, 0);
+        }
+
+        public int getVersion() {
+            return version;
+        }
+
+        public long numero() {
+            long valor = varint();
+            return (valor >>> 1) ^ -(valor & 1);
+        }
+
+        public Long opcional() {
+            long valor = varint();
+            if (valor == 0) {
+                return null;
+            }
+            valor--;
+            return (valor >>> 1) ^ -(valor & 1);
+        }
+
+        public String texto() {
+            int indice = (int) varint();
+            return indice == 0 ? null : textos[indice - 1];
+        }
+
+        public <E extends Enum<E>> E enumeracion(E[] valores) {
+            asegurar(1);
+            int ordinal = buffer.get() & 0xFF;
+            return ordinal == 0 ? null : valores[ordinal - 1];
+        }
+
+        public LocalDate fecha() {
+            Long dia = opcional();
+            return dia == null ? null : LocalDate.ofEpochDay(dia);
+        }
+
+        private String textoPlano() {
+            int longitud = (int) varint();
+            asegurar(longitud);
+            byte[] valor = new byte[longitud];
+            buffer.get(valor);
+            return new String(valor, StandardCharsets.UTF_8);
+        }
+
+        private long varint() {
+            asegurar(10);
+            long valor = 0;
+            for (int desplazamiento = 0; ; desplazamiento += 7) {
+                byte b = buffer.get();
+                valor |= (long) (b & 0x7F) << desplazamiento;
+                if (b >= 0) {
+                    return valor;
+                }
+            }
+        }
+
+        private void asegurar(int bytes) {
+            if (buffer.remaining() < bytes && base + buffer.limit() < hasta) {
+                mapear(base + buffer.position(), bytes);
+            }
+        }
+
+        private void mapear(long desde, int minimo) {
+            try {
+                buffer = canal.map(FileChannel.MapMode.READ_ONLY, desde, Math.min(Math.max(ventana, minimo), hasta - desde));
+                base = desde;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.springLibrarySystem.persistence;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Snapshot compactado de un repositorio en NDJSON: una primera línea con la
+ * cabecera ({@code lsn} del log cubierto y {@code nextId}) y luego una entidad por línea.
+ * Se escribe en un archivo temporal y se reemplaza de forma atómica.
+ */
+public class JsonSnapshot<T> implements Snapshot<T> {
+
+    private final Path archivo;
+    private final ObjectWriter writer;
+    private final ObjectReader reader;
+    private final ObjectMapper mapper;
+
+    public JsonSnapshot(Path archivo, ObjectMapper mapper, Class<T> tipo) {
+        this.archivo = archivo;
+        this.mapper = mapper;
+        this.writer = mapper.writerFor(tipo);
+        this.reader = mapper.readerFor(tipo);
+    }
+
+    @Override
+    public Path getArchivo() {
+        return archivo;
+    }
+
+    @Override
+    public void write(Cabecera cabecera, Iterator<T> entidades) throws IOException {
+        Path temporal = archivo.resolveSibling(archivo.getFileName() + ".tmp");
+        try (OutputStream salida = new BufferedOutputStream(Files.newOutputStream(temporal), 1 << 16)) {
+            salida.write(mapper.writeValueAsBytes(cabecera));
+            salida.write('\n');
+            while (entidades.hasNext()) {
+                salida.write(writer.writeValueAsBytes(entidades.next()));
+                salida.write('\n');
+            }
+        }
+        try (FileChannel canal = FileChannel.open(temporal, StandardOpenOption.WRITE)) {
+            canal.force(true);
+        }
+        Files.move(temporal, archivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    @Override
+    public Optional<Cabecera> read(Consumer<T> aplicar) throws IOException {
+        if (!Files.exists(archivo)) {
+            return Optional.empty();
+        }
+        try (InputStream entrada = Files.newInputStream(archivo);
+             JsonParser parser = mapper.getFactory().createParser(entrada)) {
+            Cabecera cabecera = mapper.readValue(parser, Cabecera.class);
+            parser.nextToken();
+            try (MappingIterator<T> entidades = reader.readValues(parser)) {
+                while (entidades.hasNextValue()) {
+                    aplicar.accept(entidades.nextValue());
+                }
+            }
+            return Optional.of(cabecera);
+        }
+    }
+}
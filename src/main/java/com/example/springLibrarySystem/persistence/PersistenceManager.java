@@ -0,0 +1,93 @@
+package com.example.springLibrarySystem.persistence;
+
+import com.example.springLibrarySystem.models.Libro;
+import com.example.springLibrarySystem.models.Prestamo;
+import com.example.springLibrarySystem.models.Usuario;
+import com.example.springLibrarySystem.repository.LibroRepositoryImpl;
+import com.example.springLibrarySystem.repository.PrestamoRepositoryImpl;
+import com.example.springLibrarySystem.repository.UsuarioRepositoryImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Persistencia opcional de los repositorios en memoria ({@code library.persistence.enabled=true}).
+ * Al iniciar recupera libros, usuarios y préstamos desde disco; mientras corre registra
+ * cada escritura en un write-ahead log y escribe snapshots periódicos; al cerrar deja
+ * un snapshot final.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "library.persistence", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(PersistenceProperties.class)
+public class PersistenceManager {
+    private final PersistenceProperties properties;
+    private final List<DurableStore<?>> stores;
+    private final ScheduledExecutorService programador;
+
+    public PersistenceManager(PersistenceProperties properties, ObjectMapper objectMapper,
+                              LibroRepositoryImpl libroRepository,
+                              UsuarioRepositoryImpl usuarioRepository,
+                              PrestamoRepositoryImpl prestamoRepository,
+                              @Value("${spring.threads.virtual.enabled:false}") boolean hilosVirtuales) {
+        this.properties = properties;
+        this.programador = Executors.newSingleThreadScheduledExecutor(hilosVirtuales
+                ? Thread.ofVirtual().name("snapshots").factory()
+                : Thread.ofPlatform().name("snapshots").daemon().factory());
+        Path directorio = Path.of(properties.getDirectory());
+        boolean sync = properties.isSync();
+        SnapshotFormat formato = properties.getSnapshotFormat();
+        this.stores = List.of(
+                new DurableStore<>("libros", libroRepository.getStore(), Libro.class, directorio, sync, objectMapper,
+                        BinaryCodecs.LIBRO, formato),
+                new DurableStore<>("usuarios", usuarioRepository.getStore(), Usuario.class, directorio, sync, objectMapper,
+                        BinaryCodecs.USUARIO, formato),
+                new DurableStore<>("prestamos", prestamoRepository.getStore(), Prestamo.class, directorio, sync, objectMapper,
+                        BinaryCodecs.PRESTAMO, formato));
+    }
+
+    @PostConstruct
+    public void iniciar() throws IOException {
+        for (DurableStore<?> store : stores) {
+            store.recuperar();
+        }
+        long intervalo = properties.getSnapshotInterval().toMillis();
+        programador.scheduleWithFixedDelay(this::snapshotSeguro, intervalo, intervalo, TimeUnit.MILLISECONDS);
+    }
+
+    public void snapshot() throws IOException {
+        for (DurableStore<?> store : stores) {
+            store.snapshot();
+        }
+    }
+
+    @PreDestroy
+    public void detener() throws IOException, InterruptedException {
+        programador.shutdown();
+        programador.awaitTermination(30, TimeUnit.SECONDS);
+        snapshot();
+        for (DurableStore<?> store : stores) {
+            store.cerrar();
+        }
+    }
+
+    private void snapshotSeguro() {
+        try {
+            snapshot();
+        } catch (IOException | RuntimeException e) {
+            log.error("No se pudo escribir el snapshot", e);
+        }
+    }
+}
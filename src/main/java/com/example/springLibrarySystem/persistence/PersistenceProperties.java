@@ -0,0 +1,24 @@
+package com.example.springLibrarySystem.persistence;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuración de la persistencia en disco de los repositorios en memoria.
+ */
+@Data
+@ConfigurationProperties(prefix = "library.persistence")
+public class PersistenceProperties {
+    /** Activa el write-ahead log, los snapshots y la recuperación al iniciar. */
+    private boolean enabled = false;
+    /** Directorio donde se guardan los segmentos del log y los snapshots. */
+    private String directory = "data";
+    /** Si es false, las escrituras no esperan el fsync (más rápido, pero se pueden perder las últimas al caerse). */
+    private boolean sync = true;
+    /** Cada cuánto se escribe un snapshot compactado y se descartan los segmentos viejos del log. */
+    private Duration snapshotInterval = Duration.ofMinutes(5);
+    /** Formato de los snapshots nuevos; el binario carga mucho más rápido al reiniciar. */
+    private SnapshotFormat snapshotFormat = SnapshotFormat.BINARY;
+}
@@ -0,0 +1,27 @@
+package com.example.springLibrarySystem.persistence;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Formato de snapshot de un repositorio: la cabecera ({@code lsn} del log cubierto y
+ * {@code nextId}) más todas las entidades. Las implementaciones escriben en un archivo
+ * temporal y lo reemplazan de forma atómica.
+ */
+public interface Snapshot<T> {
+
+    record Cabecera(long lsn, long nextId) {
+    }
+
+    Path getArchivo();
+
+    void write(Cabecera cabecera, Iterator<T> entidades) throws IOException;
+
+    /**
+     * Aplica cada entidad guardada y devuelve la cabecera, o vacío si no hay snapshot.
+     */
+    Optional<Cabecera> read(Consumer<T> aplicar) throws IOException;
+}
@@ -0,0 +1,12 @@
+package com.example.springLibrarySystem.persistence;
+
+/**
+ * Formato en el que se escriben los snapshots. Al recuperar se lee el del formato
+ * configurado y, si todavía no existe, el del otro formato.
+ */
+public enum SnapshotFormat {
+    /** NDJSON legible ({@code <nombre>.snapshot}). */
+    JSON,
+    /** Binario mapeado en memoria ({@code <nombre>.bin}), mucho más rápido de cargar. */
+    BINARY
+}
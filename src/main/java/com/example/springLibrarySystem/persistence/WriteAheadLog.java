@@ -0,0 +1,358 @@
+package com.example.springLibrarySystem.persistence;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Log append-only de un repositorio, dividido en segmentos {@code <nombre>-<lsn inicial>.wal}.
+ *
+ * <p>Cada escritura recibe un número de secuencia (LSN) y se encola; un único hilo
+ * escritor toma todo lo encolado, lo escribe de una vez y hace un solo fsync por
+ * lote (group commit). Quien necesita durabilidad espera con {@link #awaitDurable(long)}.
+ *
+ * <p>Formato de cada registro: {@code [largo int][crc32 int][lsn long][tipo byte][id long][datos]},
+ * donde largo y crc cubren desde el LSN hasta el final de los datos.
+ *
+ * <p>La sincronización usa {@link ReentrantLock} y no monitores: un hilo virtual que
+ * espera el fsync se desmonta de su carrier en vez de bloquearlo.
+ */
+public class WriteAheadLog implements Closeable {
+    public static final byte SAVE = 1;
+    public static final byte DELETE = 2;
+    private static final byte ROTAR = 3;
+    private static final int CABECERA = 4 + 4;
+    private static final int FIJO = 8 + 1 + 8;
+    private static final int MAX_LOTE = 4096;
+
+    public record Registro(long lsn, byte tipo, long id, byte[] datos) {
+    }
+
+    private final Path directorio;
+    private final String nombre;
+    private final boolean fsync;
+    private final BlockingQueue<Registro> cola = new LinkedBlockingQueue<>();
+    private final ReentrantLock lockSecuencia = new ReentrantLock();
+    private final ReentrantLock lockDurable = new ReentrantLock();
+    private final Condition avanzoDurable = lockDurable.newCondition();
+    private final ReentrantLock lockRotacion = new ReentrantLock();
+    private volatile CountDownLatch rotacionPendiente;
+    private final Thread escritor;
+    private ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 16);
+    private FileChannel canal;
+    private long secuencia;
+    private volatile long durable;
+    private volatile boolean abierto = true;
+    private volatile IOException falla;
+
+    public WriteAheadLog(Path directorio, String nombre, long ultimoLsn, boolean fsync) throws IOException {
+        this.directorio = directorio;
+        this.nombre = nombre;
+        this.fsync = fsync;
+        this.secuencia = ultimoLsn;
+        this.durable = ultimoLsn;
+        Files.createDirectories(directorio);
+        this.canal = abrirSegmento(ultimoLsn + 1);
+        // Hilo de plataforma aunque estén activos los hilos virtuales: vive todo el proceso
+        // haciendo write y fsync, que de todos modos ocupan el carrier.
+        this.escritor = new Thread(this::escribirLotes, "wal-" + nombre);
+        this.escritor.setDaemon(true);
+        this.escritor.start();
+    }
+
+    public long append(byte tipo, long id, byte[] datos) {
+        if (!abierto) {
+            throw new IllegalStateException("El log " + nombre + " está cerrado");
+        }
+        // El LSN se asigna y se encola en el mismo paso para que el archivo quede en orden de LSN.
+        lockSecuencia.lock();
+        try {
+            long lsn = ++secuencia;
+            cola.add(new Registro(lsn, tipo, id, datos));
+            return lsn;
+        } finally {
+            lockSecuencia.unlock();
+        }
+    }
+
+    public void awaitDurable(long lsn) {
+        if (durable >= lsn) {
+            return;
+        }
+        lockDurable.lock();
+        try {
+            while (durable < lsn) {
+                if (falla != null) {
+                    throw new UncheckedIOException("No se pudo escribir el log " + nombre, falla);
+                }
+                avanzoDurable.await();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrumpido esperando el log " + nombre, e);
+        } finally {
+            lockDurable.unlock();
+        }
+    }
+
+    /**
+     * Cierra el segmento actual y empieza uno nuevo. Devuelve el último LSN del
+     * segmento cerrado: todo lo que tenga ese LSN o menor ya no se escribe más ahí.
+     */
+    public long rotate() {
+        lockRotacion.lock();
+        try {
+            CountDownLatch rotada = new CountDownLatch(1);
+            rotacionPendiente = rotada;
+            long corte;
+            lockSecuencia.lock();
+            try {
+                corte = secuencia;
+                cola.add(new Registro(corte, ROTAR, 0, null));
+            } finally {
+                lockSecuencia.unlock();
+            }
+            try {
+                while (!rotada.await(100, TimeUnit.MILLISECONDS)) {
+                    if (falla != null) {
+                        throw new UncheckedIOException("No se pudo rotar el log " + nombre, falla);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrumpido rotando el log " + nombre, e);
+            }
+            return corte;
+        } finally {
+            lockRotacion.unlock();
+        }
+    }
+
+    /** Borra los segmentos cuyos registros son todos de LSN menor o igual a {@code lsn}. */
+    public void deleteSegmentsUpTo(long lsn) throws IOException {
+        List<Path> segmentos = segmentos(directorio, nombre);
+        for (int i = 0; i < segmentos.size() - 1; i++) {
+            if (inicio(segmentos.get(i + 1), nombre) <= lsn + 1) {
+                Files.deleteIfExists(segmentos.get(i));
+            }
+        }
+    }
+
+    public long lastLsn() {
+        lockSecuencia.lock();
+        try {
+            return secuencia;
+        } finally {
+            lockSecuencia.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!abierto) {
+            return;
+        }
+        long ultimo = lastLsn();
+        awaitDurable(ultimo);
+        abierto = false;
+        escritor.interrupt();
+        try {
+            escritor.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        canal.close();
+    }
+
+    /**
+     * Relee todos los segmentos en orden y entrega los registros con LSN mayor a
+     * {@code desdeLsn}. Un registro incompleto o con CRC inválido al final del último
+     * segmento (escritura cortada por una caída) se descarta y el archivo se trunca ahí.
+     * @return el último LSN leído, o {@code desdeLsn} si no había nada más nuevo
+     */
+    public static long replay(Path directorio, String nombre, long desdeLsn, Consumer<Registro> aplicar) throws IOException {
+        return recorrer(directorio, nombre, desdeLsn, Integer.MAX_VALUE, true, aplicar);
+    }
+
+    /**
+     * Como {@link #replay}, pero sin modificar los archivos, así que se puede usar mientras
+     * el log está abierto: saltea los segmentos que terminan antes de {@code desdeLsn},
+     * entrega hasta {@code limite} registros y se detiene en el primero todavía incompleto.
+     * @return el último LSN leído, o {@code desdeLsn} si no había nada más nuevo
+     */
+    public static long read(Path directorio, String nombre, long desdeLsn, int limite,
+                            Consumer<Registro> aplicar) throws IOException {
+        return recorrer(directorio, nombre, desdeLsn, limite, false, aplicar);
+    }
+
+    private static long recorrer(Path directorio, String nombre, long desdeLsn, int limite, boolean truncar,
+                                 Consumer<Registro> aplicar) throws IOException {
+        long ultimo = desdeLsn;
+        if (!Files.isDirectory(directorio)) {
+            return ultimo;
+        }
+        List<Path> segmentos = segmentos(directorio, nombre);
+        int entregados = 0;
+        for (int i = 0; i < segmentos.size() && entregados < limite; i++) {
+            if (i + 1 < segmentos.size() && inicio(segmentos.get(i + 1), nombre) <= desdeLsn + 1) {
+                continue;
+            }
+            StandardOpenOption[] modo = truncar
+                    ? new StandardOpenOption[]{StandardOpenOption.READ, StandardOpenOption.WRITE}
+                    : new StandardOpenOption[]{StandardOpenOption.READ};
+            try (FileChannel lectura = FileChannel.open(segmentos.get(i), modo)) {
+                long posicion = 0;
+                long tamanio = lectura.size();
+                ByteBuffer cabecera = ByteBuffer.allocate(CABECERA);
+                while (posicion + CABECERA <= tamanio && entregados < limite) {
+                    cabecera.clear();
+                    lectura.read(cabecera, posicion);
+                    cabecera.flip();
+                    int largo = cabecera.getInt();
+                    int crc = cabecera.getInt();
+                    if (largo < FIJO || posicion + CABECERA + largo > tamanio) {
+                        break;
+                    }
+                    ByteBuffer cuerpo = ByteBuffer.allocate(largo);
+                    lectura.read(cuerpo, posicion + CABECERA);
+                    if (crc32(cuerpo.array(), largo) != crc) {
+                        break;
+                    }
+                    cuerpo.flip();
+                    long lsn = cuerpo.getLong();
+                    byte tipo = cuerpo.get();
+                    long id = cuerpo.getLong();
+                    byte[] datos = new byte[largo - FIJO];
+                    cuerpo.get(datos);
+                    if (lsn > desdeLsn) {
+                        aplicar.accept(new Registro(lsn, tipo, id, datos));
+                        ultimo = Math.max(ultimo, lsn);
+                        entregados++;
+                    }
+                    posicion += CABECERA + largo;
+                }
+                if (truncar && posicion < tamanio) {
+                    lectura.truncate(posicion);
+                }
+            }
+        }
+        return ultimo;
+    }
+
+    private void escribirLotes() {
+        List<Registro> lote = new ArrayList<>(MAX_LOTE);
+        while (abierto || !cola.isEmpty()) {
+            try {
+                Registro primero = cola.poll(100, TimeUnit.MILLISECONDS);
+                if (primero == null) {
+                    continue;
+                }
+                lote.add(primero);
+                cola.drainTo(lote, MAX_LOTE - 1);
+                long ultimo = escribir(lote);
+                lote.clear();
+                marcarDurable(ultimo);
+            } catch (InterruptedException e) {
+                if (abierto) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            } catch (IOException e) {
+                falla = e;
+                marcarDurable(0);
+                return;
+            }
+        }
+    }
+
+    private long escribir(List<Registro> lote) throws IOException {
+        long ultimo = 0;
+        buffer.clear();
+        for (Registro registro : lote) {
+            if (registro.tipo() == ROTAR) {
+                volcar();
+                canal.close();
+                canal = abrirSegmento(registro.lsn() + 1);
+                rotacionPendiente.countDown();
+            } else {
+                int largo = FIJO + registro.datos().length;
+                if (buffer.remaining() < CABECERA + largo) {
+                    volcar();
+                    if (buffer.capacity() < CABECERA + largo) {
+                        buffer = ByteBuffer.allocateDirect(Integer.highestOneBit(CABECERA + largo) << 1);
+                    }
+                }
+                ByteBuffer cuerpo = ByteBuffer.allocate(largo);
+                cuerpo.putLong(registro.lsn()).put(registro.tipo()).putLong(registro.id()).put(registro.datos());
+                buffer.putInt(largo).putInt(crc32(cuerpo.array(), largo)).put(cuerpo.array());
+            }
+            ultimo = registro.lsn();
+        }
+        volcar();
+        return ultimo;
+    }
+
+    private void volcar() throws IOException {
+        buffer.flip();
+        if (buffer.hasRemaining()) {
+            while (buffer.hasRemaining()) {
+                canal.write(buffer);
+            }
+            if (fsync) {
+                canal.force(false);
+            }
+        }
+        buffer.clear();
+    }
+
+    private void marcarDurable(long lsn) {
+        lockDurable.lock();
+        try {
+            durable = Math.max(durable, lsn);
+            avanzoDurable.signalAll();
+        } finally {
+            lockDurable.unlock();
+        }
+    }
+
+    private FileChannel abrirSegmento(long lsnInicial) throws IOException {
+        Path archivo = directorio.resolve(String.format("%s-%020d.wal", nombre, lsnInicial));
+        return FileChannel.open(archivo, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private static List<Path> segmentos(Path directorio, String nombre) throws IOException {
+        try (Stream<Path> archivos = Files.list(directorio)) {
+            return archivos
+                    .filter(p -> p.getFileName().toString().matches(nombre + "-\\d{20}\\.wal"))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private static long inicio(Path segmento, String nombre) {
+        String archivo = segmento.getFileName().toString();
+        return Long.parseLong(archivo.substring(nombre.length() + 1, archivo.length() - 4));
+    }
+
+    private static int crc32(byte[] datos, int largo) {
+        CRC32 crc = new CRC32();
+        crc.update(datos, 0, largo);
+        return (int) crc.getValue();
+    }
+}
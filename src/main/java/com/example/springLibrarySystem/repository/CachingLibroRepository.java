@@ -0,0 +1,161 @@
+package com.example.springLibrarySystem.repository;
+
+import com.example.springLibrarySystem.cache.BoundedCache;
+import com.example.springLibrarySystem.cache.CacheProperties;
+import com.example.springLibrarySystem.cache.CachedRepository;
+import com.example.springLibrarySystem.cache.NegativeCache;
+import com.example.springLibrarySystem.enums.EstadoLibro;
+import com.example.springLibrarySystem.models.Libro;
+import com.example.springLibrarySystem.models.ResultadoLote;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * {@link LibroRepository} con caché de lectura para {@code findById} y {@code findByIsbn}.
+ * La caché por ISBN guarda sólo el ID: el libro sale de la caché por ID, que es la única
+ * que invalidan las escrituras, y si su ISBN ya no coincide la entrada se descarta.
+ * Los ISBN inexistentes se recuerdan aparte hasta que se guarde un libro con ese ISBN.
+ */
+public class CachingLibroRepository implements LibroRepository, CachedRepository {
+    private final LibroRepository delegado;
+    private final BoundedCache<Long, Libro> porId;
+    private final BoundedCache<String, Long> porIsbn;
+    private final NegativeCache<String> isbnAusentes;
+
+    public CachingLibroRepository(LibroRepository delegado, CacheProperties properties) {
+        this.delegado = delegado;
+        this.porId = new BoundedCache<>("libros.id", properties.getMaxSize(), properties.getTtl());
+        this.porIsbn = new BoundedCache<>("libros.isbn", properties.getMaxSize(), properties.getTtl());
+        this.isbnAusentes = new NegativeCache<>("libros.isbn.ausentes", properties.getMaxSize(), properties.getTtl());
+    }
+
+    @Override
+    public Libro save(Libro libro) {
+        try {
+            return delegado.save(libro);
+        } finally {
+            invalidar(libro);
+        }
+    }
+
+    @Override
+    public List<ResultadoLote<Libro>> saveAll(List<Libro> libros) {
+        try {
+            return delegado.saveAll(libros);
+        } finally {
+            libros.forEach(this::invalidar);
+        }
+    }
+
+    @Override
+    public Libro update(Libro libro) {
+        try {
+            return delegado.update(libro);
+        } finally {
+            invalidar(libro);
+        }
+    }
+
+    @Override
+    public List<ResultadoLote<Libro>> updateAll(List<Libro> libros) {
+        try {
+            return delegado.updateAll(libros);
+        } finally {
+            libros.forEach(this::invalidar);
+        }
+    }
+
+    @Override
+    public Optional<Libro> findById(Long id) {
+        return porId.obtener(id, delegado::findById);
+    }
+
+    @Override
+    public Optional<Libro> findByIsbn(String isbn) {
+        Optional<Long> id = porIsbn.obtener(isbn,
+                clave -> isbnAusentes.obtener(clave, delegado::findByIsbn).map(Libro::getId));
+        if (id.isEmpty()) {
+            return Optional.empty();
+        }
+        Optional<Libro> libro = findById(id.get()).filter(l -> isbn.equals(l.getIsbn()));
+        if (libro.isPresent()) {
+            return libro;
+        }
+        porIsbn.invalidar(isbn);
+        return delegado.findByIsbn(isbn);
+    }
+
+    @Override
+    public List<Libro> search(String consulta, int limit) {
+        return delegado.search(consulta, limit);
+    }
+
+    @Override
+    public List<Libro> findAll() {
+        return delegado.findAll();
+    }
+
+    @Override
+    public List<Libro> findPage(Long afterId, int limit) {
+        return delegado.findPage(afterId, limit);
+    }
+
+    @Override
+    public Stream<Libro> streamAll(Instant modifiedSince) {
+        return delegado.streamAll(modifiedSince);
+    }
+
+    @Override
+    public List<Libro> findAllByEstado(EstadoLibro estado) {
+        return delegado.findAllByEstado(estado);
+    }
+
+    @Override
+    public List<Libro> findPageByEstado(EstadoLibro estado, Long afterId, int limit) {
+        return delegado.findPageByEstado(estado, afterId, limit);
+    }
+
+    @Override
+    public Map<EstadoLibro, Long> countByEstado() {
+        return delegado.countByEstado();
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        try {
+            delegado.deleteById(id);
+        } finally {
+            invalidar(id);
+        }
+    }
+
+    @Override
+    public boolean existsById(Long id) {
+        return delegado.existsById(id);
+    }
+
+    @Override
+    public long getModificationCount() {
+        return delegado.getModificationCount();
+    }
+
+    @Override
+    public List<BoundedCache<?, ?>> getCaches() {
+        return List.of(porId, porIsbn, isbnAusentes.getCache());
+    }
+
+    private void invalidar(Libro libro) {
+        invalidar(libro.getId());
+        isbnAusentes.invalidar(libro.getIsbn());
+    }
+
+    private void invalidar(Long id) {
+        if (id != null) {
+            porId.invalidar(id);
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.example.springLibrarySystem.repository;
+
+import com.example.springLibrarySystem.cache.BoundedCache;
+import com.example.springLibrarySystem.cache.CacheProperties;
+import com.example.springLibrarySystem.cache.CachedRepository;
+import com.example.springLibrarySystem.cache.NegativeCache;
+import com.example.springLibrarySystem.enums.EstadoUsuario;
+import com.example.springLibrarySystem.models.ResultadoLote;
+import com.example.springLibrarySystem.models.Usuario;
+import com.example.springLibrarySystem.storage.TextKeys;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * {@link UsuarioRepository} con caché de lectura para {@code findById} y {@code findByEmail}.
+ * Igual que en {@link CachingLibroRepository}, la caché por email guarda el ID y se
+ * valida contra el usuario de la caché por ID, y los emails inexistentes se recuerdan aparte.
+ */
+public class CachingUsuarioRepository implements UsuarioRepository, CachedRepository {
+    private final UsuarioRepository delegado;
+    private final BoundedCache<Long, Usuario> porId;
+    private final BoundedCache<String, Long> porEmail;
+    private final NegativeCache<String> emailsAusentes;
+
+    public CachingUsuarioRepository(UsuarioRepository delegado, CacheProperties properties) {
+        this.delegado = delegado;
+        this.porId = new BoundedCache<>("usuarios.id", properties.getMaxSize(), properties.getTtl());
+        this.porEmail = new BoundedCache<>("usuarios.email", properties.getMaxSize(), properties.getTtl());
+        this.emailsAusentes = new NegativeCache<>("usuarios.email.ausentes", properties.getMaxSize(), properties.getTtl());
+    }
+
+    @Override
+    public Usuario save(Usuario usuario) {
+        try {
+            return delegado.save(usuario);
+        } finally {
+            invalidar(usuario);
+        }
+    }
+
+    @Override
+    public List<ResultadoLote<Usuario>> saveAll(List<Usuario> usuarios) {
+        try {
+            return delegado.saveAll(usuarios);
+        } finally {
+            usuarios.forEach(this::invalidar);
+        }
+    }
+
+    @Override
+    public Usuario update(Usuario usuario) {
+        try {
+            return delegado.update(usuario);
+        } finally {
+            invalidar(usuario);
+        }
+    }
+
+    @Override
+    public List<ResultadoLote<Usuario>> updateAll(List<Usuario> usuarios) {
+        try {
+            return delegado.updateAll(usuarios);
+        } finally {
+            usuarios.forEach(this::invalidar);
+        }
+    }
+
+    @Override
+    public Optional<Usuario> findById(Long id) {
+        return porId.obtener(id, delegado::findById);
+    }
+
+    @Override
+    public Optional<Usuario> findByEmail(String email) {
+        String clave = TextKeys.fold(email);
+        Optional<Long> id = porEmail.obtener(clave,
+                c -> emailsAusentes.obtener(c, k -> delegado.findByEmail(email)).map(Usuario::getId));
+        if (id.isEmpty()) {
+            return Optional.empty();
+        }
+        Optional<Usuario> usuario = findById(id.get()).filter(u -> clave.equals(TextKeys.fold(u.getEmail())));
+        if (usuario.isPresent()) {
+            return usuario;
+        }
+        porEmail.invalidar(clave);
+        return delegado.findByEmail(email);
+    }
+
+    @Override
+    public Optional<Usuario> findByNombre(String nombre) {
+        return delegado.findByNombre(nombre);
+    }
+
+    @Override
+    public List<Usuario> findAll() {
+        return delegado.findAll();
+    }
+
+    @Override
+    public List<Usuario> findPage(Long afterId, int limit) {
+        return delegado.findPage(afterId, limit);
+    }
+
+    @Override
+    public List<Usuario> findAllByEstado(EstadoUsuario estado) {
+        return delegado.findAllByEstado(estado);
+    }
+
+    @Override
+    public List<Usuario> findPageByEstado(EstadoUsuario estado, Long afterId, int limit) {
+        return delegado.findPageByEstado(estado, afterId, limit);
+    }
+
+    @Override
+    public Map<EstadoUsuario, Long> countByEstado() {
+        return delegado.countByEstado();
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        try {
+            delegado.deleteById(id);
+        } finally {
+            invalidar(id);
+        }
+    }
+
+    @Override
+    public List<Usuario> deleteAllById(Collection<Long> ids) {
+        try {
+            return delegado.deleteAllById(ids);
+        } finally {
+            ids.forEach(this::invalidar);
+        }
+    }
+
+    @Override
+    public boolean existsById(Long id) {
+        return delegado.existsById(id);
+    }
+
+    @Override
+    public long getModificationCount() {
+        return delegado.getModificationCount();
+    }
+
+    @Override
+    public List<BoundedCache<?, ?>> getCaches() {
+        return List.of(porId, porEmail, emailsAusentes.getCache());
+    }
+
+    private void invalidar(Usuario usuario) {
+        invalidar(usuario.getId());
+        emailsAusentes.invalidar(TextKeys.fold(usuario.getEmail()));
+    }
+
+    private void invalidar(Long id) {
+        if (id != null) {
+            porId.invalidar(id);
+        }
+    }
+}
@@ -1,15 +1,39 @@
 package com.example.springLibrarySystem.repository;
 
+import com.example.springLibrarySystem.enums.EstadoLibro;
 import com.example.springLibrarySystem.models.Libro;
+import com.example.springLibrarySystem.models.ResultadoLote;
 
+import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface LibroRepository {
     Libro save(Libro libro);
+    List<ResultadoLote<Libro>> saveAll(List<Libro> libros);
+
+    /**
+     * Reemplaza {art} libro existente; si el ID no existe (por ejemplo, porque se borró
+     * mientras tanto) lanza {@link com.example.springLibrarySystem.exception.LibroNoEncontradoException} sin crearlo.
+     */
+    Libro update(Libro libro);
+
+    /**
+     * Como {@link #update} para un lote: los elementos sin ID o con un ID inexistente se rechazan.
+     */
+    List<ResultadoLote<Libro>> updateAll(List<Libro> libros);
     Optional<Libro> findById(Long id);
     Optional<Libro> findByIsbn(String isbn);
+    List<Libro> search(String consulta, int limit);
     List<Libro> findAll();
+    List<Libro> findPage(Long afterId, int limit);
+    List<Libro> findAllByEstado(EstadoLibro estado);
+    List<Libro> findPageByEstado(EstadoLibro estado, Long afterId, int limit);
+    Map<EstadoLibro, Long> countByEstado();
+    Stream<Libro> streamAll(Instant modifiedSince);
     void deleteById(Long id);
     boolean existsById(Long id);
+    long getModificationCount();
 }
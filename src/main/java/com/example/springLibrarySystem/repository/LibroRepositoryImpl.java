@@ -1,49 +1,131 @@
 package com.example.springLibrarySystem.repository;
 
+import com.example.springLibrarySystem.enums.EstadoLibro;
+import com.example.springLibrarySystem.events.DomainEvent;
+import com.example.springLibrarySystem.events.EventPublisher;
+import com.example.springLibrarySystem.exception.IsbnDuplicadoException;
+import com.example.springLibrarySystem.exception.LibroNoEncontradoException;
 import com.example.springLibrarySystem.models.Libro;
+import com.example.springLibrarySystem.models.ResultadoLote;
+import com.example.springLibrarySystem.storage.ConcurrentEntityStore;
+import com.example.springLibrarySystem.storage.EnumIndex;
+import com.example.springLibrarySystem.storage.FullTextIndex;
+import com.example.springLibrarySystem.storage.StoreListener;
+import com.example.springLibrarySystem.storage.UniqueIndex;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
 import java.util.*;
+import java.util.stream.Stream;
 
 @Repository
 public class LibroRepositoryImpl implements LibroRepository {
-    private final Map<Long, Libro> libros = new HashMap<>();
-    private Long nextId = 1L;
+    private final ConcurrentEntityStore<Libro> libros = new ConcurrentEntityStore<>();
+    private final UniqueIndex<Libro, String> porIsbn =
+            libros.addIndex(new UniqueIndex<>(Libro::getIsbn, IsbnDuplicadoException::new));
+    private final EnumIndex<Libro, EstadoLibro> porEstado =
+            libros.addIndex(new EnumIndex<>(EstadoLibro.class, Libro::getEstado));
+    private final FullTextIndex<Libro> porTexto =
+            libros.addIndex(new FullTextIndex<>(List.of(Libro::getTitulo, Libro::getAutor)));
+
+    public LibroRepositoryImpl() {
+        this(EventPublisher.none());
+    }
+
+    @Autowired
+    public LibroRepositoryImpl(EventPublisher eventos) {
+        libros.addListener(StoreListener.of(
+                (libro, nuevo) -> eventos.publish(new DomainEvent.LibroGuardado(libro)),
+                libro -> eventos.publish(new DomainEvent.LibroEliminado(libro))));
+    }
 
     @Override
     public Libro save(Libro libro) {
-        if (libro.getId() == null) {
-            libro.setId(nextId++);
-        }
-        libros.put(libro.getId(), libro);
-        return libro;
+        return libros.save(libro);
+    }
+
+    @Override
+    public List<ResultadoLote<Libro>> saveAll(List<Libro> lote) {
+        return libros.saveAll(lote);
+    }
+
+    @Override
+    public Libro update(Libro libro) {
+        return libros.replace(libro, LibroNoEncontradoException::new);
+    }
+
+    @Override
+    public List<ResultadoLote<Libro>> updateAll(List<Libro> lote) {
+        return libros.replaceAll(lote, LibroNoEncontradoException::new);
     }
 
     @Override
     public Optional<Libro> findById(Long id) {
-        return Optional.ofNullable(libros.get(id));
+        return libros.findById(id);
     }
 
     @Override
     public Optional<Libro> findByIsbn(String isbn) {
-        return libros.values().stream()
-                .filter(libro -> libro.getIsbn().equals(isbn))
-                .findFirst();
+        return porIsbn.find(isbn)
+                .flatMap(libros::findById)
+                .filter(libro -> isbn.equals(libro.getIsbn()));
+    }
+
+    @Override
+    public List<Libro> search(String consulta, int limit) {
+        return porTexto.search(consulta, limit).stream()
+                .map(coincidencia -> libros.findById(coincidencia.id()))
+                .flatMap(Optional::stream)
+                .toList();
     }
 
     @Override
     public List<Libro> findAll() {
-        return new ArrayList<>(libros.values());
+        return libros.findAll();
+    }
+
+    @Override
+    public List<Libro> findPage(Long afterId, int limit) {
+        return libros.findPage(afterId, limit);
+    }
+
+    @Override
+    public List<Libro> findAllByEstado(EstadoLibro estado) {
+        return findPageByEstado(estado, null, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<Libro> findPageByEstado(EstadoLibro estado, Long afterId, int limit) {
+        return libros.findPage(porEstado.find(estado), afterId, limit, libro -> libro.getEstado() == estado);
+    }
+
+    @Override
+    public Map<EstadoLibro, Long> countByEstado() {
+        return porEstado.counts();
+    }
+
+    @Override
+    public Stream<Libro> streamAll(Instant modifiedSince) {
+        return libros.stream(modifiedSince);
     }
 
     @Override
     public void deleteById(Long id) {
-        libros.remove(id);
+        libros.deleteById(id);
     }
 
     @Override
     public boolean existsById(Long id) {
-        return libros.containsKey(id);
+        return libros.existsById(id);
     }
-}
 
+    @Override
+    public long getModificationCount() {
+        return libros.getModificationCount();
+    }
+
+    public ConcurrentEntityStore<Libro> getStore() {
+        return libros;
+    }
+}
@@ -2,17 +2,51 @@ package com.example.springLibrarySystem.repository;
 
 import com.example.springLibrarySystem.models.Libro;
 import com.example.springLibrarySystem.models.Prestamo;
+import com.example.springLibrarySystem.models.ResultadoLote;
 import com.example.springLibrarySystem.models.Usuario;
 
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface PrestamoRepository {
     Prestamo save(Prestamo prestamo);
+    List<ResultadoLote<Prestamo>> saveAll(List<Prestamo> prestamos);
+
+    /**
+     * Reemplaza {art} préstamo existente; si el ID no existe (por ejemplo, porque se borró
+     * mientras tanto) lanza {@link com.example.springLibrarySystem.exception.PrestamoNoEncontradoException} sin crearlo.
+     */
+    Prestamo update(Prestamo prestamo);
+
+    /**
+     * Como {@link #update} para un lote: los elementos sin ID o con un ID inexistente se rechazan.
+     */
+    List<ResultadoLote<Prestamo>> updateAll(List<Prestamo> prestamos);
     Optional<Prestamo> findById(Long id);
     List<Prestamo> findAll();
+    List<Prestamo> findPage(Long afterId, int limit);
+    Stream<Prestamo> streamAll(Instant modifiedSince);
     Optional<Prestamo> findByLibro(Libro libro);
-    Optional<Prestamo> findByUsuario(Usuario usuario);
+    List<Prestamo> findByUsuario(Usuario usuario);
+    List<Prestamo> findAllByLibroId(Long libroId);
+    List<Prestamo> findAllByUsuarioId(Long usuarioId);
+
+    /**
+     * Préstamos activos con fecha de devolución en {@code [desde, hasta)}, ordenados por
+     * esa fecha y después por ID. Con {@code desde} nulo, todos los que vencen antes de {@code hasta}.
+     */
+    List<Prestamo> findDueBetween(LocalDate desde, LocalDate hasta, int limit);
     void deleteById(Long id);
+
+    /**
+     * Elimina varios préstamos en una sola pasada; los IDs inexistentes se ignoran.
+     * @return Los préstamos eliminados
+     */
+    List<Prestamo> deleteAllById(Collection<Long> ids);
     boolean existsById(Long id);
+    long getModificationCount();
 }
@@ -1,57 +1,160 @@
 package com.example.springLibrarySystem.repository;
 
+import com.example.springLibrarySystem.enums.EstadoPrestamo;
+import com.example.springLibrarySystem.events.DomainEvent;
+import com.example.springLibrarySystem.events.EventPublisher;
+import com.example.springLibrarySystem.exception.PrestamoNoEncontradoException;
 import com.example.springLibrarySystem.models.Libro;
 import com.example.springLibrarySystem.models.Prestamo;
+import com.example.springLibrarySystem.models.ResultadoLote;
 import com.example.springLibrarySystem.models.Usuario;
+import com.example.springLibrarySystem.storage.ConcurrentEntityStore;
+import com.example.springLibrarySystem.storage.MultiValueIndex;
+import com.example.springLibrarySystem.storage.SortedIndex;
+import com.example.springLibrarySystem.storage.StoreListener;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.time.LocalDate;
 import java.util.*;
+import java.util.stream.Stream;
 
 @Repository
 public class PrestamoRepositoryImpl implements PrestamoRepository {
-    private final Map<Long, Prestamo> prestamos = new HashMap<>();
-    private Long nextId = 1L;
+    private final ConcurrentEntityStore<Prestamo> prestamos = new ConcurrentEntityStore<>();
+    private final MultiValueIndex<Prestamo, Long> porLibro =
+            prestamos.addIndex(new MultiValueIndex<>(Prestamo::getLibroId));
+    private final MultiValueIndex<Prestamo, Long> porUsuario =
+            prestamos.addIndex(new MultiValueIndex<>(Prestamo::getUsuarioId));
+    // Sólo los activos: al devolverse un préstamo sale del índice.
+    private final SortedIndex<Prestamo, LocalDate> porVencimiento =
+            prestamos.addIndex(new SortedIndex<>(prestamo -> activo(prestamo) ? prestamo.getFechaDevolucion() : null));
+
+    public PrestamoRepositoryImpl() {
+        this(EventPublisher.none());
+    }
+
+    @Autowired
+    public PrestamoRepositoryImpl(EventPublisher eventos) {
+        prestamos.addListener(StoreListener.of(
+                (prestamo, nuevo) -> eventos.publish(nuevo
+                        ? new DomainEvent.PrestamoCreado(prestamo)
+                        : new DomainEvent.PrestamoActualizado(prestamo)),
+                prestamo -> eventos.publish(new DomainEvent.PrestamoEliminado(prestamo))));
+    }
 
     @Override
     public Prestamo save(Prestamo prestamo) {
-        if (prestamo.getId() == null) {
-            prestamo.setId(nextId++);
-        }
-        prestamos.put(prestamo.getId(), prestamo);
-        return prestamo;
+        return prestamos.save(prestamo);
+    }
+
+    @Override
+    public List<ResultadoLote<Prestamo>> saveAll(List<Prestamo> lote) {
+        return prestamos.saveAll(lote);
+    }
+
+    @Override
+    public Prestamo update(Prestamo prestamo) {
+        return prestamos.replace(prestamo, PrestamoNoEncontradoException::new);
+    }
+
+    @Override
+    public List<ResultadoLote<Prestamo>> updateAll(List<Prestamo> lote) {
+        return prestamos.replaceAll(lote, PrestamoNoEncontradoException::new);
     }
 
     @Override
     public Optional<Prestamo> findById(Long id) {
-        return Optional.ofNullable(prestamos.get(id));
+        return prestamos.findById(id);
     }
 
     @Override
     public List<Prestamo> findAll() {
-        return new ArrayList<>(prestamos.values());
+        return prestamos.findAll();
+    }
+
+    @Override
+    public List<Prestamo> findPage(Long afterId, int limit) {
+        return prestamos.findPage(afterId, limit);
+    }
+
+    @Override
+    public Stream<Prestamo> streamAll(Instant modifiedSince) {
+        return prestamos.stream(modifiedSince);
     }
 
     @Override
     public Optional<Prestamo> findByLibro(Libro libro) {
-        return prestamos.values().stream()
-                .filter(p -> p.getLibro().equals(libro))
-                .findFirst();
+        return porLibro.findFirst(libro.getId()).flatMap(prestamos::findById);
+    }
+
+    @Override
+    public List<Prestamo> findByUsuario(Usuario usuario) {
+        return findAllByUsuarioId(usuario.getId());
     }
 
     @Override
-    public Optional<Prestamo> findByUsuario(Usuario usuario) {
-        return prestamos.values().stream()
-                .filter(prestamo -> prestamo.getUsuario().equals(usuario))
-                .findFirst();
+    public List<Prestamo> findAllByLibroId(Long libroId) {
+        return resolver(porLibro.find(libroId));
+    }
+
+    @Override
+    public List<Prestamo> findAllByUsuarioId(Long usuarioId) {
+        return resolver(porUsuario.find(usuarioId));
+    }
+
+    @Override
+    public List<Prestamo> findDueBetween(LocalDate desde, LocalDate hasta, int limit) {
+        List<Long> ids = porVencimiento.findBetween(desde, hasta, limit);
+        List<Prestamo> resultado = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            // El índice se actualiza antes que la entidad: se vuelve a mirar el préstamo guardado.
+            prestamos.findById(id)
+                    .filter(prestamo -> activo(prestamo) && vence(prestamo, desde, hasta))
+                    .ifPresent(resultado::add);
+        }
+        return resultado;
     }
 
     @Override
     public void deleteById(Long id) {
-        prestamos.remove(id);
+        prestamos.deleteById(id);
+    }
+
+    @Override
+    public List<Prestamo> deleteAllById(Collection<Long> ids) {
+        return prestamos.deleteAllById(ids);
     }
 
     @Override
     public boolean existsById(Long id) {
-        return prestamos.containsKey(id);
+        return prestamos.existsById(id);
+    }
+
+    @Override
+    public long getModificationCount() {
+        return prestamos.getModificationCount();
+    }
+
+    private List<Prestamo> resolver(Collection<Long> ids) {
+        List<Prestamo> resultado = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            prestamos.findById(id).ifPresent(resultado::add);
+        }
+        return resultado;
+    }
+
+    private static boolean activo(Prestamo prestamo) {
+        return prestamo.getEstado() == EstadoPrestamo.ACTIVO;
+    }
+
+    private static boolean vence(Prestamo prestamo, LocalDate desde, LocalDate hasta) {
+        LocalDate fecha = prestamo.getFechaDevolucion();
+        return fecha != null && fecha.isBefore(hasta) && (desde == null || !fecha.isBefore(desde));
+    }
+
+    public ConcurrentEntityStore<Prestamo> getStore() {
+        return prestamos;
     }
 }
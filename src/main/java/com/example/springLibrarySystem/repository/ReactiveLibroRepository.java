@@ -0,0 +1,33 @@
+package com.example.springLibrarySystem.repository;
+
+import com.example.springLibrarySystem.enums.EstadoLibro;
+import com.example.springLibrarySystem.models.Libro;
+import com.example.springLibrarySystem.models.ResultadoLote;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Versión no bloqueante de {@link LibroRepository}.
+ */
+public interface ReactiveLibroRepository {
+    Mono<Libro> save(Libro libro);
+    Mono<List<ResultadoLote<Libro>>> saveAll(List<Libro> libros);
+    Mono<Libro> update(Libro libro);
+    Mono<List<ResultadoLote<Libro>>> updateAll(List<Libro> libros);
+    Mono<Libro> findById(Long id);
+    Mono<Libro> findByIsbn(String isbn);
+    Mono<List<Libro>> search(String consulta, int limit);
+    Flux<Libro> streamAll(Instant modifiedSince);
+    Flux<Libro> findAll();
+    Mono<List<Libro>> findPage(Long afterId, int limit);
+    Flux<Libro> findAllByEstado(EstadoLibro estado);
+    Mono<List<Libro>> findPageByEstado(EstadoLibro estado, Long afterId, int limit);
+    Mono<Map<EstadoLibro, Long>> countByEstado();
+    Mono<Void> deleteById(Long id);
+    Mono<Boolean> existsById(Long id);
+    long getModificationCount();
+}
@@ -0,0 +1,101 @@
+package com.example.springLibrarySystem.repository;
+
+import com.example.springLibrarySystem.enums.EstadoLibro;
+import com.example.springLibrarySystem.models.Libro;
+import com.example.springLibrarySystem.models.ResultadoLote;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+@Repository
+public class ReactiveLibroRepositoryImpl implements ReactiveLibroRepository {
+    private final LibroRepository libroRepository;
+
+    public ReactiveLibroRepositoryImpl(LibroRepository libroRepository) {
+        this.libroRepository = libroRepository;
+    }
+
+    @Override
+    public Mono<Libro> save(Libro libro) {
+        return Reactivo.escribir(() -> libroRepository.save(libro));
+    }
+
+    @Override
+    public Mono<List<ResultadoLote<Libro>>> saveAll(List<Libro> libros) {
+        return Reactivo.escribir(() -> libroRepository.saveAll(libros));
+    }
+
+    @Override
+    public Mono<Libro> update(Libro libro) {
+        return Reactivo.escribir(() -> libroRepository.update(libro));
+    }
+
+    @Override
+    public Mono<List<ResultadoLote<Libro>>> updateAll(List<Libro> libros) {
+        return Reactivo.escribir(() -> libroRepository.updateAll(libros));
+    }
+
+    @Override
+    public Mono<Libro> findById(Long id) {
+        return Reactivo.leer(() -> libroRepository.findById(id));
+    }
+
+    @Override
+    public Mono<Libro> findByIsbn(String isbn) {
+        return Reactivo.leer(() -> libroRepository.findByIsbn(isbn));
+    }
+
+    @Override
+    public Mono<List<Libro>> search(String consulta, int limit) {
+        return Mono.fromSupplier(() -> libroRepository.search(consulta, limit));
+    }
+
+    @Override
+    public Flux<Libro> streamAll(Instant modifiedSince) {
+        return Flux.fromStream(() -> libroRepository.streamAll(modifiedSince));
+    }
+
+    @Override
+    public Flux<Libro> findAll() {
+        return Reactivo.recorrer(libroRepository::findPage);
+    }
+
+    @Override
+    public Mono<List<Libro>> findPage(Long afterId, int limit) {
+        return Mono.fromSupplier(() -> libroRepository.findPage(afterId, limit));
+    }
+
+    @Override
+    public Flux<Libro> findAllByEstado(EstadoLibro estado) {
+        return Reactivo.recorrer((afterId, limit) -> libroRepository.findPageByEstado(estado, afterId, limit));
+    }
+
+    @Override
+    public Mono<List<Libro>> findPageByEstado(EstadoLibro estado, Long afterId, int limit) {
+        return Mono.fromSupplier(() -> libroRepository.findPageByEstado(estado, afterId, limit));
+    }
+
+    @Override
+    public Mono<Map<EstadoLibro, Long>> countByEstado() {
+        return Mono.fromSupplier(libroRepository::countByEstado);
+    }
+
+    @Override
+    public Mono<Void> deleteById(Long id) {
+        return Reactivo.ejecutar(() -> libroRepository.deleteById(id));
+    }
+
+    @Override
+    public Mono<Boolean> existsById(Long id) {
+        return Mono.fromSupplier(() -> libroRepository.existsById(id));
+    }
+
+    @Override
+    public long getModificationCount() {
+        return libroRepository.getModificationCount();
+    }
+}
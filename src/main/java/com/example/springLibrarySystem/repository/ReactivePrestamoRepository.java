@@ -0,0 +1,30 @@
+package com.example.springLibrarySystem.repository;
+
+import com.example.springLibrarySystem.models.Libro;
+import com.example.springLibrarySystem.models.Prestamo;
+import com.example.springLibrarySystem.models.ResultadoLote;
+import com.example.springLibrarySystem.models.Usuario;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Versión no bloqueante de {@link PrestamoRepository}.
+ */
+public interface ReactivePrestamoRepository {
+    Mono<Prestamo> save(Prestamo prestamo);
+    Mono<List<ResultadoLote<Prestamo>>> saveAll(List<Prestamo> prestamos);
+    Mono<Prestamo> findById(Long id);
+    Flux<Prestamo> streamAll(Instant modifiedSince);
+    Mono<Prestamo> findByLibro(Libro libro);
+    Flux<Prestamo> findByUsuario(Usuario usuario);
+    Flux<Prestamo> findAll();
+    Mono<List<Prestamo>> findPage(Long afterId, int limit);
+    Mono<List<Prestamo>> findDueBetween(LocalDate desde, LocalDate hasta, int limit);
+    Mono<Void> deleteById(Long id);
+    Mono<Boolean> existsById(Long id);
+    long getModificationCount();
+}
@@ -0,0 +1,82 @@
+package com.example.springLibrarySystem.repository;
+
+import com.example.springLibrarySystem.models.Libro;
+import com.example.springLibrarySystem.models.Prestamo;
+import com.example.springLibrarySystem.models.ResultadoLote;
+import com.example.springLibrarySystem.models.Usuario;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public class ReactivePrestamoRepositoryImpl implements ReactivePrestamoRepository {
+    private final PrestamoRepository prestamoRepository;
+
+    public ReactivePrestamoRepositoryImpl(PrestamoRepository prestamoRepository) {
+        this.prestamoRepository = prestamoRepository;
+    }
+
+    @Override
+    public Mono<Prestamo> save(Prestamo prestamo) {
+        return Reactivo.escribir(() -> prestamoRepository.save(prestamo));
+    }
+
+    @Override
+    public Mono<List<ResultadoLote<Prestamo>>> saveAll(List<Prestamo> prestamos) {
+        return Reactivo.escribir(() -> prestamoRepository.saveAll(prestamos));
+    }
+
+    @Override
+    public Mono<Prestamo> findById(Long id) {
+        return Reactivo.leer(() -> prestamoRepository.findById(id));
+    }
+
+    @Override
+    public Flux<Prestamo> streamAll(Instant modifiedSince) {
+        return Flux.fromStream(() -> prestamoRepository.streamAll(modifiedSince));
+    }
+
+    @Override
+    public Mono<Prestamo> findByLibro(Libro libro) {
+        return Reactivo.leer(() -> prestamoRepository.findByLibro(libro));
+    }
+
+    @Override
+    public Flux<Prestamo> findByUsuario(Usuario usuario) {
+        return Flux.defer(() -> Flux.fromIterable(prestamoRepository.findByUsuario(usuario)));
+    }
+
+    @Override
+    public Flux<Prestamo> findAll() {
+        return Reactivo.recorrer(prestamoRepository::findPage);
+    }
+
+    @Override
+    public Mono<List<Prestamo>> findPage(Long afterId, int limit) {
+        return Mono.fromSupplier(() -> prestamoRepository.findPage(afterId, limit));
+    }
+
+    @Override
+    public Mono<List<Prestamo>> findDueBetween(LocalDate desde, LocalDate hasta, int limit) {
+        return Mono.fromSupplier(() -> prestamoRepository.findDueBetween(desde, hasta, limit));
+    }
+
+    @Override
+    public Mono<Void> deleteById(Long id) {
+        return Reactivo.ejecutar(() -> prestamoRepository.deleteById(id));
+    }
+
+    @Override
+    public Mono<Boolean> existsById(Long id) {
+        return Mono.fromSupplier(() -> prestamoRepository.existsById(id));
+    }
+
+    @Override
+    public long getModificationCount() {
+        return prestamoRepository.getModificationCount();
+    }
+}
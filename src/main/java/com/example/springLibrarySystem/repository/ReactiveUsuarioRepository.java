@@ -0,0 +1,31 @@
+package com.example.springLibrarySystem.repository;
+
+import com.example.springLibrarySystem.enums.EstadoUsuario;
+import com.example.springLibrarySystem.models.Usuario;
+import com.example.springLibrarySystem.models.ResultadoLote;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Versión no bloqueante de {@link UsuarioRepository}.
+ */
+public interface ReactiveUsuarioRepository {
+    Mono<Usuario> save(Usuario usuario);
+    Mono<List<ResultadoLote<Usuario>>> saveAll(List<Usuario> usuarios);
+    Mono<Usuario> update(Usuario usuario);
+    Mono<List<ResultadoLote<Usuario>>> updateAll(List<Usuario> usuarios);
+    Mono<Usuario> findById(Long id);
+    Mono<Usuario> findByEmail(String email);
+    Mono<Usuario> findByNombre(String nombre);
+    Flux<Usuario> findAll();
+    Mono<List<Usuario>> findPage(Long afterId, int limit);
+    Flux<Usuario> findAllByEstado(EstadoUsuario estado);
+    Mono<List<Usuario>> findPageByEstado(EstadoUsuario estado, Long afterId, int limit);
+    Mono<Map<EstadoUsuario, Long>> countByEstado();
+    Mono<Void> deleteById(Long id);
+    Mono<Boolean> existsById(Long id);
+    long getModificationCount();
+}
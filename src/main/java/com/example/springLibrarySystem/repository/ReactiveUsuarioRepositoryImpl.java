@@ -0,0 +1,95 @@
+package com.example.springLibrarySystem.repository;
+
+import com.example.springLibrarySystem.enums.EstadoUsuario;
+import com.example.springLibrarySystem.models.Usuario;
+import com.example.springLibrarySystem.models.ResultadoLote;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+
+@Repository
+public class ReactiveUsuarioRepositoryImpl implements ReactiveUsuarioRepository {
+    private final UsuarioRepository usuarioRepository;
+
+    public ReactiveUsuarioRepositoryImpl(UsuarioRepository usuarioRepository) {
+        this.usuarioRepository = usuarioRepository;
+    }
+
+    @Override
+    public Mono<Usuario> save(Usuario usuario) {
+        return Reactivo.escribir(() -> usuarioRepository.save(usuario));
+    }
+
+    @Override
+    public Mono<List<ResultadoLote<Usuario>>> saveAll(List<Usuario> usuarios) {
+        return Reactivo.escribir(() -> usuarioRepository.saveAll(usuarios));
+    }
+
+    @Override
+    public Mono<Usuario> update(Usuario usuario) {
+        return Reactivo.escribir(() -> usuarioRepository.update(usuario));
+    }
+
+    @Override
+    public Mono<List<ResultadoLote<Usuario>>> updateAll(List<Usuario> usuarios) {
+        return Reactivo.escribir(() -> usuarioRepository.updateAll(usuarios));
+    }
+
+    @Override
+    public Mono<Usuario> findById(Long id) {
+        return Reactivo.leer(() -> usuarioRepository.findById(id));
+    }
+
+    @Override
+    public Mono<Usuario> findByEmail(String email) {
+        return Reactivo.leer(() -> usuarioRepository.findByEmail(email));
+    }
+
+    @Override
+    public Mono<Usuario> findByNombre(String nombre) {
+        return Reactivo.leer(() -> usuarioRepository.findByNombre(nombre));
+    }
+
+    @Override
+    public Flux<Usuario> findAll() {
+        return Reactivo.recorrer(usuarioRepository::findPage);
+    }
+
+    @Override
+    public Mono<List<Usuario>> findPage(Long afterId, int limit) {
+        return Mono.fromSupplier(() -> usuarioRepository.findPage(afterId, limit));
+    }
+
+    @Override
+    public Flux<Usuario> findAllByEstado(EstadoUsuario estado) {
+        return Reactivo.recorrer((afterId, limit) -> usuarioRepository.findPageByEstado(estado, afterId, limit));
+    }
+
+    @Override
+    public Mono<List<Usuario>> findPageByEstado(EstadoUsuario estado, Long afterId, int limit) {
+        return Mono.fromSupplier(() -> usuarioRepository.findPageByEstado(estado, afterId, limit));
+    }
+
+    @Override
+    public Mono<Map<EstadoUsuario, Long>> countByEstado() {
+        return Mono.fromSupplier(usuarioRepository::countByEstado);
+    }
+
+    @Override
+    public Mono<Void> deleteById(Long id) {
+        return Reactivo.ejecutar(() -> usuarioRepository.deleteById(id));
+    }
+
+    @Override
+    public Mono<Boolean> existsById(Long id) {
+        return Mono.fromSupplier(() -> usuarioRepository.existsById(id));
+    }
+
+    @Override
+    public long getModificationCount() {
+        return usuarioRepository.getModificationCount();
+    }
+}
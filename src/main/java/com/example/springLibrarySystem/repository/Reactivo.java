@@ -0,0 +1,57 @@
+package com.example.springLibrarySystem.repository;
+
+import com.example.springLibrarySystem.models.Entidad;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+
+/**
+ * Adaptación de los repositorios en memoria a tipos reactivos. Las lecturas se
+ * resuelven en el hilo que se suscribe porque no bloquean; las escrituras pueden
+ * esperar el fsync del write-ahead log, así que corren en el scheduler elástico
+ * y nunca ocupan un hilo del event loop.
+ */
+final class Reactivo {
+    static final int TAMANIO_PAGINA = 256;
+
+    private Reactivo() {
+    }
+
+    static <T> Mono<T> leer(Supplier<Optional<T>> lectura) {
+        return Mono.defer(() -> Mono.justOrEmpty(lectura.get()));
+    }
+
+    static <T> Mono<T> escribir(Callable<T> escritura) {
+        return Mono.fromCallable(escritura).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    static Mono<Void> ejecutar(Runnable escritura) {
+        return Mono.fromRunnable(escritura).subscribeOn(Schedulers.boundedElastic()).then();
+    }
+
+    /**
+     * Recorre todas las entidades en orden de ID pidiendo páginas de
+     * {@value #TAMANIO_PAGINA} a medida que el suscriptor las consume: un cliente
+     * lento frena la lectura en lugar de acumular el listado completo en memoria.
+     */
+    static <T extends Entidad> Flux<T> recorrer(BiFunction<Long, Integer, List<T>> buscador) {
+        return Flux.defer(() -> {
+            Long[] ultimo = {null};
+            return Flux.<List<T>>generate(sink -> {
+                List<T> pagina = buscador.apply(ultimo[0], TAMANIO_PAGINA);
+                if (pagina.isEmpty()) {
+                    sink.complete();
+                } else {
+                    ultimo[0] = pagina.get(pagina.size() - 1).getId();
+                    sink.next(pagina);
+                }
+            }).concatMapIterable(pagina -> pagina, 1);
+        });
+    }
+}
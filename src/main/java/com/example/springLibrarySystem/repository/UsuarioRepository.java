@@ -1,16 +1,43 @@
 package com.example.springLibrarySystem.repository;
 
+import com.example.springLibrarySystem.enums.EstadoUsuario;
+import com.example.springLibrarySystem.models.ResultadoLote;
 import com.example.springLibrarySystem.models.Usuario;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public interface UsuarioRepository {
     Usuario save(Usuario usuario);
+    List<ResultadoLote<Usuario>> saveAll(List<Usuario> usuarios);
+
+    /**
+     * Reemplaza {art} usuario existente; si el ID no existe (por ejemplo, porque se borró
+     * mientras tanto) lanza {@link com.example.springLibrarySystem.exception.UsuarioNoEncontradoException} sin crearlo.
+     */
+    Usuario update(Usuario usuario);
+
+    /**
+     * Como {@link #update} para un lote: los elementos sin ID o con un ID inexistente se rechazan.
+     */
+    List<ResultadoLote<Usuario>> updateAll(List<Usuario> usuarios);
     Optional<Usuario> findById(Long id);
     Optional<Usuario> findByEmail(String email);
     Optional<Usuario> findByNombre(String nombre);
     List<Usuario> findAll();
+    List<Usuario> findPage(Long afterId, int limit);
+    List<Usuario> findAllByEstado(EstadoUsuario estado);
+    List<Usuario> findPageByEstado(EstadoUsuario estado, Long afterId, int limit);
+    Map<EstadoUsuario, Long> countByEstado();
     void deleteById(Long id);
+
+    /**
+     * Elimina varios usuarios en una sola pasada; los IDs inexistentes se ignoran.
+     * @return Los usuarios eliminados
+     */
+    List<Usuario> deleteAllById(Collection<Long> ids);
     boolean existsById(Long id);
+    long getModificationCount();
 }
@@ -1,55 +1,131 @@
 package com.example.springLibrarySystem.repository;
 
+import com.example.springLibrarySystem.enums.EstadoUsuario;
+import com.example.springLibrarySystem.events.DomainEvent;
+import com.example.springLibrarySystem.events.EventPublisher;
+import com.example.springLibrarySystem.exception.EmailDuplicadoException;
+import com.example.springLibrarySystem.exception.UsuarioNoEncontradoException;
+import com.example.springLibrarySystem.models.ResultadoLote;
 import com.example.springLibrarySystem.models.Usuario;
+import com.example.springLibrarySystem.storage.ConcurrentEntityStore;
+import com.example.springLibrarySystem.storage.EnumIndex;
+import com.example.springLibrarySystem.storage.MultiValueIndex;
+import com.example.springLibrarySystem.storage.StoreListener;
+import com.example.springLibrarySystem.storage.TextKeys;
+import com.example.springLibrarySystem.storage.UniqueIndex;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
 import java.util.*;
 
 @Repository
 public class UsuarioRepositoryImpl implements UsuarioRepository {
-    private final Map<Long, Usuario> usuarios = new HashMap<>();
-    private Long nextId = 1L;
+    private final ConcurrentEntityStore<Usuario> usuarios = new ConcurrentEntityStore<>();
+    private final UniqueIndex<Usuario, String> porEmail =
+            usuarios.addIndex(new UniqueIndex<>(u -> TextKeys.fold(u.getEmail()), EmailDuplicadoException::new));
+    private final MultiValueIndex<Usuario, String> porNombre =
+            usuarios.addIndex(new MultiValueIndex<>(u -> TextKeys.fold(u.getNombre())));
+    private final EnumIndex<Usuario, EstadoUsuario> porEstado =
+            usuarios.addIndex(new EnumIndex<>(EstadoUsuario.class, Usuario::getEstado));
+
+    public UsuarioRepositoryImpl() {
+        this(EventPublisher.none());
+    }
+
+    @Autowired
+    public UsuarioRepositoryImpl(EventPublisher eventos) {
+        usuarios.addListener(StoreListener.of(
+                (usuario, nuevo) -> eventos.publish(new DomainEvent.UsuarioGuardado(usuario)),
+                usuario -> eventos.publish(new DomainEvent.UsuarioEliminado(usuario))));
+    }
 
     @Override
     public Usuario save(Usuario usuario) {
-        if (usuario.getId() == null) {
-            usuario.setId(nextId++);
-        }
-        usuarios.put(usuario.getId(), usuario);
-        return usuario;
+        return usuarios.save(usuario);
+    }
+
+    @Override
+    public List<ResultadoLote<Usuario>> saveAll(List<Usuario> lote) {
+        return usuarios.saveAll(lote);
+    }
+
+    @Override
+    public Usuario update(Usuario usuario) {
+        return usuarios.replace(usuario, UsuarioNoEncontradoException::new);
+    }
+
+    @Override
+    public List<ResultadoLote<Usuario>> updateAll(List<Usuario> lote) {
+        return usuarios.replaceAll(lote, UsuarioNoEncontradoException::new);
     }
 
     @Override
     public Optional<Usuario> findById(Long id) {
-        return Optional.ofNullable(usuarios.get(id));
+        return usuarios.findById(id);
     }
 
     @Override
     public Optional<Usuario> findByEmail(String email) {
-        return usuarios.values().stream()
-                .filter(u -> u.getEmail().equalsIgnoreCase(email))
-                .findFirst();
+        String clave = TextKeys.fold(email);
+        return porEmail.find(clave)
+                .flatMap(usuarios::findById)
+                .filter(u -> clave.equals(TextKeys.fold(u.getEmail())));
     }
 
     @Override
     public Optional<Usuario> findByNombre(String nombre) {
-        return usuarios.values().stream()
-                .filter(u -> u.getNombre().equalsIgnoreCase(nombre))
-                .findFirst();
+        String clave = TextKeys.fold(nombre);
+        return porNombre.findFirst(clave)
+                .flatMap(usuarios::findById)
+                .filter(u -> clave.equals(TextKeys.fold(u.getNombre())));
     }
 
     @Override
     public List<Usuario> findAll() {
-        return new ArrayList<>(usuarios.values());
+        return usuarios.findAll();
+    }
+
+    @Override
+    public List<Usuario> findPage(Long afterId, int limit) {
+        return usuarios.findPage(afterId, limit);
+    }
+
+    @Override
+    public List<Usuario> findAllByEstado(EstadoUsuario estado) {
+        return findPageByEstado(estado, null, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<Usuario> findPageByEstado(EstadoUsuario estado, Long afterId, int limit) {
+        return usuarios.findPage(porEstado.find(estado), afterId, limit, usuario -> usuario.getEstado() == estado);
+    }
+
+    @Override
+    public Map<EstadoUsuario, Long> countByEstado() {
+        return porEstado.counts();
     }
 
     @Override
     public void deleteById(Long id) {
-        usuarios.remove(id);
+        usuarios.deleteById(id);
+    }
+
+    @Override
+    public List<Usuario> deleteAllById(Collection<Long> ids) {
+        return usuarios.deleteAllById(ids);
     }
 
     @Override
     public boolean existsById(Long id) {
-        return usuarios.containsKey(id);
+        return usuarios.existsById(id);
+    }
+
+    @Override
+    public long getModificationCount() {
+        return usuarios.getModificationCount();
+    }
+
+    public ConcurrentEntityStore<Usuario> getStore() {
+        return usuarios;
     }
 }
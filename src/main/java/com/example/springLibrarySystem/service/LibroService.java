@@ -1,14 +1,40 @@
 package com.example.springLibrarySystem.service;
 
+import com.example.springLibrarySystem.enums.EstadoLibro;
 import com.example.springLibrarySystem.models.Libro;
+import com.example.springLibrarySystem.models.ResultadoLote;
 
+import java.time.Instant;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 public interface LibroService {
     Libro findByIsbn(String isbn);
     Libro findById(Long id);
+    List<Libro> search(String consulta, int limit);
     List<Libro> findAll();
+    List<Libro> findPage(Long afterId, int limit);
+    Stream<Libro> streamAll(Instant modifiedSince);
+    List<Libro> findAllByEstado(EstadoLibro estado);
+    List<Libro> findPageByEstado(EstadoLibro estado, Long afterId, int limit);
+    Map<EstadoLibro, Long> countByEstado();
+
+    /**
+     * Registra o reemplaza un libro. El estado {@code PRESTADO} sólo lo cambian los préstamos
+     * y devoluciones: si no coincide con los préstamos activos del libro se rechaza con
+     * {@code EstadoLibroInvalidoException}. Lo mismo vale para los lotes y las modificaciones.
+     */
     Libro save(Libro libro);
+    List<ResultadoLote<Libro>> saveAll(List<Libro> libros);
+    List<ResultadoLote<Libro>> updateAll(List<Libro> libros);
     void deleteById(Long id);
+
+    /**
+     * Elimina un libro. Si algún préstamo lo referencia, con {@code cascade} se eliminan
+     * también esos préstamos y sin él se rechaza con {@code LibroConPrestamosException}.
+     */
+    void deleteById(Long id, boolean cascade);
     Libro update(Long id, Libro libro);
+    long getModificationCount();
 }
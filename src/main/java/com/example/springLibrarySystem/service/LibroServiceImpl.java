@@ -1,18 +1,25 @@
 package com.example.springLibrarySystem.service;
 
+import com.example.springLibrarySystem.enums.EstadoLibro;
 import com.example.springLibrarySystem.exception.LibroNoEncontradoException;
 import com.example.springLibrarySystem.models.Libro;
+import com.example.springLibrarySystem.models.ResultadoLote;
 import com.example.springLibrarySystem.repository.LibroRepository;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 @Service
 public class LibroServiceImpl implements LibroService {
     private final LibroRepository libroRepository;
+    private final PrestamoService prestamoService;
 
-    public LibroServiceImpl(LibroRepository libroRepository) {
+    public LibroServiceImpl(LibroRepository libroRepository, PrestamoService prestamoService) {
         this.libroRepository = libroRepository;
+        this.prestamoService = prestamoService;
     }
 
     @Override
@@ -27,27 +34,76 @@ public class LibroServiceImpl implements LibroService {
                 .orElseThrow(() -> new LibroNoEncontradoException(id));
     }
 
+    @Override
+    public List<Libro> search(String consulta, int limit) {
+        return libroRepository.search(consulta, limit);
+    }
+
     @Override
     public List<Libro> findAll() {
         return libroRepository.findAll();
     }
 
+    @Override
+    public List<Libro> findPage(Long afterId, int limit) {
+        return libroRepository.findPage(afterId, limit);
+    }
+
+    @Override
+    public Stream<Libro> streamAll(Instant modifiedSince) {
+        return libroRepository.streamAll(modifiedSince);
+    }
+
+    @Override
+    public List<Libro> findAllByEstado(EstadoLibro estado) {
+        return libroRepository.findAllByEstado(estado);
+    }
+
+    @Override
+    public List<Libro> findPageByEstado(EstadoLibro estado, Long afterId, int limit) {
+        return libroRepository.findPageByEstado(estado, afterId, limit);
+    }
+
+    @Override
+    public Map<EstadoLibro, Long> countByEstado() {
+        return libroRepository.countByEstado();
+    }
+
+    // Escrituras y borrados los resuelve el servicio de préstamos, que serializa los cambios
+    // de cada libro y comprueba su estado contra los préstamos activos.
     @Override
     public Libro save(Libro libro) {
-        return libroRepository.save(libro);
+        return prestamoService.guardarLibro(libro);
+    }
+
+    @Override
+    public List<ResultadoLote<Libro>> saveAll(List<Libro> libros) {
+        return prestamoService.guardarLibros(libros);
+    }
+
+    @Override
+    public List<ResultadoLote<Libro>> updateAll(List<Libro> libros) {
+        return prestamoService.actualizarLibros(libros);
     }
 
     @Override
     public void deleteById(Long id) {
-        libroRepository.deleteById(id);
+        deleteById(id, false);
+    }
+
+    @Override
+    public void deleteById(Long id, boolean cascade) {
+        prestamoService.eliminarLibro(id, cascade);
+    }
+
+    @Override
+    public long getModificationCount() {
+        return libroRepository.getModificationCount();
     }
 
     @Override
     public Libro update(Long id, Libro libro) {
-        if (!libroRepository.existsById(id)) {
-            throw new LibroNoEncontradoException(id);
-        }
         libro.setId(id);
-        return libroRepository.save(libro);
+        return prestamoService.actualizarLibro(libro);
     }
 }
@@ -0,0 +1,64 @@
+package com.example.springLibrarySystem.service;
+
+import com.example.springLibrarySystem.models.Entidad;
+import com.example.springLibrarySystem.models.ResultadoLote;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+/**
+ * Lógica común de las actualizaciones por lotes de los servicios.
+ */
+final class Lotes {
+
+    private Lotes() {
+    }
+
+    /**
+     * Guarda los elementos de a uno con {@code guardar}; el que falla se rechaza con el
+     * mensaje de la excepción sin frenar al resto.
+     */
+    static <T extends Entidad> List<ResultadoLote<T>> porElemento(List<T> lote, UnaryOperator<T> guardar) {
+        List<ResultadoLote<T>> resultados = new ArrayList<>(lote.size());
+        for (int i = 0; i < lote.size(); i++) {
+            try {
+                resultados.add(ResultadoLote.ok(i, guardar.apply(lote.get(i))));
+            } catch (RuntimeException e) {
+                resultados.add(ResultadoLote.error(i, e.getMessage()));
+            }
+        }
+        return resultados;
+    }
+
+    /**
+     * Rechaza con el mensaje de su excepción los elementos que no pasan {@code validar}
+     * y guarda el resto de una vez con {@code guardar}; cada resultado conserva la
+     * posición del elemento en el lote recibido.
+     */
+    @SuppressWarnings("unchecked")
+    static <T extends Entidad> List<ResultadoLote<T>> validados(List<T> lote, Consumer<T> validar,
+                                                                Function<List<T>, List<ResultadoLote<T>>> guardar) {
+        ResultadoLote<T>[] resultados = new ResultadoLote[lote.size()];
+        List<T> validos = new ArrayList<>(lote.size());
+        List<Integer> posiciones = new ArrayList<>(lote.size());
+        for (int i = 0; i < lote.size(); i++) {
+            try {
+                validar.accept(lote.get(i));
+                validos.add(lote.get(i));
+                posiciones.add(i);
+            } catch (RuntimeException e) {
+                resultados[i] = ResultadoLote.error(i, e.getMessage());
+            }
+        }
+        List<ResultadoLote<T>> guardados = guardar.apply(validos);
+        for (int j = 0; j < guardados.size(); j++) {
+            int posicion = posiciones.get(j);
+            resultados[posicion] = guardados.get(j).conPosicion(posicion);
+        }
+        return Arrays.asList(resultados);
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.springLibrarySystem.service;
+
+import com.example.springLibrarySystem.enums.EstadoUsuario;
+import com.example.springLibrarySystem.exception.ConflictoVersionException;
+import com.example.springLibrarySystem.models.Prestamo;
+import com.example.springLibrarySystem.models.Usuario;
+import com.example.springLibrarySystem.repository.PrestamoRepository;
+import com.example.springLibrarySystem.repository.UsuarioRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Suspende a los usuarios con préstamos vencidos ({@code library.overdue.enabled}, activo por defecto).
+ * <p>
+ * Cada revisión pide al índice por fecha de devolución los préstamos activos ya vencidos, así
+ * que no recorre los préstamos al día ni los devueltos. Se piden todos los vencidos y no sólo
+ * los que vencieron desde la revisión anterior: un préstamo cargado después con una fecha ya
+ * pasada (por ejemplo con {@code POST /api/prestamos} o desde un respaldo) suspende a su usuario
+ * en la revisión siguiente. Los usuarios que ya no están activos se descartan con una lectura
+ * por ID. La primera revisión corre al terminar de arrancar, después de recuperar los datos de disco.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "library.overdue", name = "enabled", havingValue = "true", matchIfMissing = true)
+@EnableConfigurationProperties(OverdueProperties.class)
+public class OverdueLoanScheduler {
+    private static final int REINTENTOS = 3;
+
+    private final PrestamoRepository prestamoRepository;
+    private final UsuarioRepository usuarioRepository;
+    private final OverdueProperties properties;
+    private final ScheduledExecutorService programador;
+
+    public OverdueLoanScheduler(PrestamoRepository prestamoRepository, UsuarioRepository usuarioRepository,
+                                OverdueProperties properties,
+                                @Value("${spring.threads.virtual.enabled:false}") boolean hilosVirtuales) {
+        this.prestamoRepository = prestamoRepository;
+        this.usuarioRepository = usuarioRepository;
+        this.properties = properties;
+        this.programador = Executors.newSingleThreadScheduledExecutor(hilosVirtuales
+                ? Thread.ofVirtual().name("vencimientos").factory()
+                : Thread.ofPlatform().name("vencimientos").daemon().factory());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void iniciar() {
+        long intervalo = properties.getInterval().toMillis();
+        programador.scheduleWithFixedDelay(this::revisarSeguro, 0, intervalo, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Suspende a los usuarios activos con algún préstamo activo que venció antes de {@code hoy}.
+     * @return Cantidad de usuarios suspendidos
+     */
+    public synchronized int revisar(LocalDate hoy) {
+        Set<Long> revisados = new HashSet<>();
+        int suspendidos = 0;
+        for (Prestamo prestamo : prestamoRepository.findDueBetween(null, hoy, Integer.MAX_VALUE)) {
+            Long usuarioId = prestamo.getUsuarioId();
+            if (usuarioId != null && revisados.add(usuarioId) && suspender(usuarioId)) {
+                suspendidos++;
+            }
+        }
+        return suspendidos;
+    }
+
+    @PreDestroy
+    public void detener() throws InterruptedException {
+        programador.shutdown();
+        programador.awaitTermination(30, TimeUnit.SECONDS);
+    }
+
+    // Se guarda una copia con la versión leída: si el usuario cambió en el medio, se vuelve a leer.
+    private boolean suspender(Long usuarioId) {
+        for (int intento = 0; intento < REINTENTOS; intento++) {
+            Optional<Usuario> leido = usuarioRepository.findById(usuarioId);
+            if (leido.isEmpty() || leido.get().getEstado() != EstadoUsuario.ACTIVO) {
+                return false;
+            }
+            Usuario usuario = leido.get();
+            try {
+                usuarioRepository.save(new Usuario(usuario.getId(), usuario.getNombre(), usuario.getEmail(),
+                        EstadoUsuario.SUSPENDIDO, usuario.getVersion()));
+                return true;
+            } catch (ConflictoVersionException e) {
+                log.debug("El usuario {} cambió mientras se lo suspendía; se reintenta", usuarioId);
+            }
+        }
+        log.warn("No se pudo suspender al usuario {} por préstamos vencidos", usuarioId);
+        return false;
+    }
+
+    private void revisarSeguro() {
+        try {
+            int suspendidos = revisar(LocalDate.now());
+            if (suspendidos > 0) {
+                log.info("Usuarios suspendidos por préstamos vencidos: {}", suspendidos);
+            }
+        } catch (RuntimeException e) {
+            log.error("No se pudieron revisar los préstamos vencidos", e);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.springLibrarySystem.service;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuración de la revisión periódica de préstamos vencidos.
+ */
+@Data
+@ConfigurationProperties(prefix = "library.overdue")
+public class OverdueProperties {
+    /** Suspende a los usuarios con préstamos vencidos; sin esto sólo se listan en {@code /api/prestamos/vencidos}. */
+    private boolean enabled = true;
+    /** Cada cuánto se revisa. Las fechas son por día, así que sólo la primera revisión de cada día encuentra algo. */
+    private Duration interval = Duration.ofHours(1);
+}
@@ -1,17 +1,106 @@
 package com.example.springLibrarySystem.service;
 
+import com.example.springLibrarySystem.enums.ExpansionPrestamo;
 import com.example.springLibrarySystem.models.Libro;
 import com.example.springLibrarySystem.models.Prestamo;
+import com.example.springLibrarySystem.models.PrestamoExpandido;
+import com.example.springLibrarySystem.models.ResultadoLote;
 import com.example.springLibrarySystem.models.Usuario;
 
+import java.time.Instant;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
 
 public interface PrestamoService {
     Prestamo findById(Long id);
     List<Prestamo> findAll();
+    List<Prestamo> findPage(Long afterId, int limit);
+    Stream<Prestamo> streamAll(Instant modifiedSince);
     Prestamo findByLibro(Libro libro);
-    Prestamo findByUsuario(Usuario usuario);
+    List<Prestamo> findByUsuario(Usuario usuario);
+
+    /**
+     * Préstamos activos cuya fecha de devolución ya pasó, del más atrasado al más reciente.
+     */
+    List<Prestamo> findVencidos(int limit);
+
+    /**
+     * Registra un préstamo. Si está activo se aplican las mismas reglas que en
+     * {@link #prestarLibro(Long, Long)} y el libro pasa a {@code PRESTADO}; si ya fue
+     * devuelto sólo se exige que existan el libro y el usuario.
+     */
     Prestamo save(Prestamo prestamo);
+    List<ResultadoLote<Prestamo>> saveAll(List<Prestamo> prestamos);
+    List<ResultadoLote<Prestamo>> updateAll(List<Prestamo> prestamos);
+
+    /**
+     * Modifica un préstamo sin cambiar su libro, usuario ni estado (por ejemplo, el plazo).
+     * @throws com.example.springLibrarySystem.exception.PrestamoNoModificableException si intenta cambiarlos
+     */
     Prestamo update(Long id, Prestamo prestamo);
     void deleteById(Long id);
+
+    /**
+     * Presta un libro {@code DISPONIBLE} a un usuario {@code ACTIVO}: crea el préstamo
+     * y marca el libro como {@code PRESTADO} en una sola operación.
+     */
+    Prestamo prestarLibro(Long libroId, Long usuarioId);
+
+    /**
+     * Elimina un libro con el mismo lock que los préstamos y devoluciones, así que
+     * ningún préstamo concurrente queda apuntando a un libro borrado.
+     * @param cascade Si es false y el libro tiene préstamos lanza
+     *                {@link com.example.springLibrarySystem.exception.LibroConPrestamosException};
+     *                si es true los elimina junto con el libro
+     */
+    void eliminarLibro(Long libroId, boolean cascade);
+
+    /**
+     * Registra o reemplaza un libro con el mismo lock que los préstamos y devoluciones. El
+     * estado tiene que coincidir con sus préstamos: {@code PRESTADO} si y sólo si tiene uno
+     * activo; sólo {@link #prestarLibro} y {@link #devolverLibro} lo cambian.
+     * @throws com.example.springLibrarySystem.exception.EstadoLibroInvalidoException si no coincide
+     */
+    Libro guardarLibro(Libro libro);
+
+    /**
+     * Como {@link #guardarLibro}, pero sólo reemplaza un libro existente.
+     * @throws com.example.springLibrarySystem.exception.LibroNoEncontradoException si no existe
+     */
+    Libro actualizarLibro(Libro libro);
+
+    /**
+     * Como {@link #guardarLibro} para un lote: los libros con un estado que no coincide
+     * con sus préstamos se rechazan y el resto se guarda de una vez.
+     */
+    List<ResultadoLote<Libro>> guardarLibros(List<Libro> libros);
+
+    /**
+     * Como {@link #guardarLibros}, pero los libros sin ID o inexistentes se rechazan.
+     */
+    List<ResultadoLote<Libro>> actualizarLibros(List<Libro> libros);
+
+    /**
+     * Marca el préstamo como devuelto y el libro otra vez como {@code DISPONIBLE}.
+     */
+    Prestamo devolverLibro(Long prestamoId);
+    long getModificationCount();
+
+    /**
+     * Igual que {@link #getModificationCount()}, pero cambia también con los libros
+     * y/o usuarios que se incluyen en la respuesta.
+     */
+    long getModificationCount(Set<ExpansionPrestamo> expand);
+
+    /**
+     * Resuelve el libro y/o el usuario vigentes del préstamo, según lo pedido.
+     */
+    PrestamoExpandido expandir(Prestamo prestamo, Set<ExpansionPrestamo> expand);
+
+    /**
+     * Igual que {@link #expandir(Prestamo, Set)} para una página: cada libro y usuario
+     * se busca una sola vez aunque aparezca en varios préstamos.
+     */
+    List<PrestamoExpandido> expandir(List<Prestamo> prestamos, Set<ExpansionPrestamo> expand);
 }
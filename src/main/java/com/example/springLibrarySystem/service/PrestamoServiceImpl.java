@@ -1,25 +1,72 @@
 package com.example.springLibrarySystem.service;
 
+import com.example.springLibrarySystem.enums.EstadoLibro;
+import com.example.springLibrarySystem.enums.EstadoPrestamo;
+import com.example.springLibrarySystem.enums.EstadoUsuario;
+import com.example.springLibrarySystem.enums.ExpansionPrestamo;
+import com.example.springLibrarySystem.exception.ConflictoVersionException;
+import com.example.springLibrarySystem.exception.EstadoLibroInvalidoException;
+import com.example.springLibrarySystem.exception.LibroConPrestamosException;
+import com.example.springLibrarySystem.exception.LibroNoDisponibleException;
+import com.example.springLibrarySystem.exception.LibroNoEncontradoException;
+import com.example.springLibrarySystem.exception.PrestamoNoEncontradoException;
+import com.example.springLibrarySystem.exception.PrestamoNoModificableException;
+import com.example.springLibrarySystem.exception.PrestamoYaDevueltoException;
+import com.example.springLibrarySystem.exception.UsuarioNoActivoException;
+import com.example.springLibrarySystem.exception.UsuarioNoEncontradoException;
 import com.example.springLibrarySystem.models.Libro;
 import com.example.springLibrarySystem.models.Prestamo;
+import com.example.springLibrarySystem.models.PrestamoExpandido;
+import com.example.springLibrarySystem.models.ResultadoLote;
 import com.example.springLibrarySystem.models.Usuario;
+import com.example.springLibrarySystem.repository.LibroRepository;
 import com.example.springLibrarySystem.repository.PrestamoRepository;
+import com.example.springLibrarySystem.repository.UsuarioRepository;
+import com.example.springLibrarySystem.storage.StripedLocks;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
 
+@Slf4j
 @Service
 public class PrestamoServiceImpl implements PrestamoService {
+    private static final int PLAZO_DIAS = 14;
+    private static final int FRANJAS_LIBROS = 256;
+    private static final int INTENTOS_LIBERAR = 3;
+
     private final PrestamoRepository prestamoRepository;
+    private final LibroRepository libroRepository;
+    private final UsuarioRepository usuarioRepository;
+    // Un préstamo y su devolución cambian libro y préstamo juntos; el lock de la
+    // franja del libro los serializa sin frenar operaciones sobre otros libros.
+    private final StripedLocks locksPorLibro = new StripedLocks(FRANJAS_LIBROS);
 
-    public PrestamoServiceImpl(PrestamoRepository prestamoRepository) {
+    public PrestamoServiceImpl(PrestamoRepository prestamoRepository,
+                               LibroRepository libroRepository,
+                               UsuarioRepository usuarioRepository) {
         this.prestamoRepository = prestamoRepository;
+        this.libroRepository = libroRepository;
+        this.usuarioRepository = usuarioRepository;
     }
 
     @Override
     public Prestamo findById(Long id) {
         return prestamoRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Préstamo no encontrado con ID: " + id));
+                .orElseThrow(() -> new PrestamoNoEncontradoException(id));
     }
 
     @Override
@@ -27,32 +74,381 @@ public class PrestamoServiceImpl implements PrestamoService {
         return prestamoRepository.findAll();
     }
 
+    @Override
+    public List<Prestamo> findPage(Long afterId, int limit) {
+        return prestamoRepository.findPage(afterId, limit);
+    }
+
+    @Override
+    public Stream<Prestamo> streamAll(Instant modifiedSince) {
+        return prestamoRepository.streamAll(modifiedSince);
+    }
+
     @Override
     public Prestamo findByLibro(Libro libro) {
         return prestamoRepository.findByLibro(libro).orElse(null);
     }
 
     @Override
-    public Prestamo findByUsuario(Usuario usuario) {
-        return prestamoRepository.findByUsuario(usuario).orElse(null);
+    public List<Prestamo> findByUsuario(Usuario usuario) {
+        return prestamoRepository.findByUsuario(usuario);
     }
 
+    @Override
+    public List<Prestamo> findVencidos(int limit) {
+        return prestamoRepository.findDueBetween(null, LocalDate.now(), limit);
+    }
+
+    // Un préstamo activo pasa por las mismas comprobaciones que prestarLibro y marca el libro
+    // como prestado. Uno ya devuelto (por ejemplo, un histórico importado) sólo exige que
+    // existan el libro y el usuario. Con el ID de un préstamo existente es una actualización.
     @Override
     public Prestamo save(Prestamo prestamo) {
-        return prestamoRepository.save(prestamo);
+        if (prestamo.getId() != null && prestamoRepository.existsById(prestamo.getId())) {
+            return update(prestamo.getId(), prestamo);
+        }
+        if (prestamo.getEstado() != EstadoPrestamo.DEVUELTO) {
+            return registrar(prestamo);
+        }
+        Long libroId = prestamo.getLibroId();
+        buscarUsuario(prestamo.getUsuarioId());
+        Lock lock = lockDelLibro(libroId);
+        lock.lock();
+        try {
+            buscarLibro(libroId);
+            return prestamoRepository.save(prestamo);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Cada préstamo tiene que pasar por las comprobaciones de save, que toman el lock
+    // de su libro: se guardan de a uno.
+    @Override
+    public List<ResultadoLote<Prestamo>> saveAll(List<Prestamo> prestamos) {
+        return Lotes.porElemento(prestamos, this::save);
     }
 
+    @Override
+    public List<ResultadoLote<Prestamo>> updateAll(List<Prestamo> prestamos) {
+        return Lotes.porElemento(prestamos, prestamo -> {
+            if (prestamo.getId() == null) {
+                throw new IllegalArgumentException("El elemento no tiene ID");
+            }
+            return update(prestamo.getId(), prestamo);
+        });
+    }
+
+    // El libro, el usuario y el estado sólo cambian con prestarLibro y devolverLibro, que
+    // mantienen al día el estado del libro; acá se aceptan los demás cambios, como el plazo.
     @Override
     public Prestamo update(Long id, Prestamo prestamo) {
-        if (!prestamoRepository.existsById(id)) {
-            throw new RuntimeException("Préstamo no encontrado con ID: " + id);
+        Long libroId = findById(id).getLibroId();
+        Lock lock = locksPorLibro.get(libroId == null ? id : libroId);
+        lock.lock();
+        try {
+            Prestamo actual = findById(id);
+            if (!Objects.equals(actual.getLibroId(), prestamo.getLibroId())
+                    || !Objects.equals(actual.getUsuarioId(), prestamo.getUsuarioId())
+                    || actual.getEstado() != prestamo.getEstado()) {
+                throw new PrestamoNoModificableException(id);
+            }
+            prestamo.setId(id);
+            return prestamoRepository.update(prestamo);
+        } finally {
+            lock.unlock();
         }
-        prestamo.setId(id);
-        return prestamoRepository.save(prestamo);
     }
 
+    // Borrar un préstamo activo equivale a liberar su libro: se hace con el lock del libro, como
+    // devolverLibro, para que un préstamo simultáneo no vea el libro PRESTADO sin préstamo.
+    // Borrar un préstamo que no existe no hace nada.
     @Override
     public void deleteById(Long id) {
-        prestamoRepository.deleteById(id);
+        Optional<Prestamo> leido = prestamoRepository.findById(id);
+        if (leido.isEmpty()) {
+            return;
+        }
+        Long libroId = leido.get().getLibroId();
+        Lock lock = locksPorLibro.get(libroId == null ? id : libroId);
+        lock.lock();
+        try {
+            Optional<Prestamo> prestamo = prestamoRepository.findById(id);
+            if (prestamo.isEmpty()) {
+                return;
+            }
+            if (!Objects.equals(prestamo.get().getLibroId(), libroId)) {
+                deleteById(id);
+                return;
+            }
+            prestamoRepository.deleteById(id);
+            if (libroId != null && prestamo.get().getEstado() == EstadoPrestamo.ACTIVO) {
+                libroRepository.findById(libroId)
+                        .filter(l -> l.getEstado() == EstadoLibro.PRESTADO)
+                        .ifPresent(l -> libroRepository.save(conEstado(l, EstadoLibro.DISPONIBLE)));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public long getModificationCount() {
+        return prestamoRepository.getModificationCount();
+    }
+
+    @Override
+    public long getModificationCount(Set<ExpansionPrestamo> expand) {
+        long modificaciones = prestamoRepository.getModificationCount();
+        if (expand.contains(ExpansionPrestamo.LIBRO)) {
+            modificaciones += libroRepository.getModificationCount();
+        }
+        if (expand.contains(ExpansionPrestamo.USUARIO)) {
+            modificaciones += usuarioRepository.getModificationCount();
+        }
+        return modificaciones;
+    }
+
+    @Override
+    public PrestamoExpandido expandir(Prestamo prestamo, Set<ExpansionPrestamo> expand) {
+        return expandir(List.of(prestamo), expand).get(0);
+    }
+
+    @Override
+    public List<PrestamoExpandido> expandir(List<Prestamo> prestamos, Set<ExpansionPrestamo> expand) {
+        boolean conLibro = expand.contains(ExpansionPrestamo.LIBRO);
+        boolean conUsuario = expand.contains(ExpansionPrestamo.USUARIO);
+        Map<Long, Optional<Libro>> libros = new HashMap<>();
+        Map<Long, Optional<Usuario>> usuarios = new HashMap<>();
+        List<PrestamoExpandido> resultado = new ArrayList<>(prestamos.size());
+        for (Prestamo prestamo : prestamos) {
+            Libro libro = conLibro && prestamo.getLibroId() != null
+                    ? libros.computeIfAbsent(prestamo.getLibroId(), libroRepository::findById).orElse(null)
+                    : null;
+            Usuario usuario = conUsuario && prestamo.getUsuarioId() != null
+                    ? usuarios.computeIfAbsent(prestamo.getUsuarioId(), usuarioRepository::findById).orElse(null)
+                    : null;
+            resultado.add(new PrestamoExpandido(prestamo, libro, usuario));
+        }
+        return resultado;
+    }
+
+    @Override
+    public Prestamo prestarLibro(Long libroId, Long usuarioId) {
+        return registrar(new Prestamo(null, libroId, usuarioId, null, null));
+    }
+
+    // Crea un préstamo activo; las fechas que no vienen se completan con hoy y el plazo.
+    private Prestamo registrar(Prestamo nuevo) {
+        Long libroId = nuevo.getLibroId();
+        Long usuarioId = nuevo.getUsuarioId();
+        if (buscarUsuario(usuarioId).getEstado() != EstadoUsuario.ACTIVO) {
+            throw new UsuarioNoActivoException(usuarioId);
+        }
+        Lock lock = lockDelLibro(libroId);
+        lock.lock();
+        try {
+            Libro libro = buscarLibro(libroId);
+            if (libro.getEstado() != EstadoLibro.DISPONIBLE) {
+                throw new LibroNoDisponibleException(libroId);
+            }
+            if (nuevo.getFechaPrestamo() == null) {
+                nuevo.setFechaPrestamo(LocalDate.now());
+            }
+            if (nuevo.getFechaDevolucion() == null) {
+                nuevo.setFechaDevolucion(nuevo.getFechaPrestamo().plusDays(PLAZO_DIAS));
+            }
+            nuevo.setEstado(EstadoPrestamo.ACTIVO);
+            libroRepository.save(conEstado(libro, EstadoLibro.PRESTADO));
+            Prestamo prestamo;
+            try {
+                prestamo = prestamoRepository.save(nuevo);
+            } catch (RuntimeException e) {
+                liberar(libroId, e);
+                throw e;
+            }
+            // Si el usuario se eliminó mientras tanto, el borrado pudo no ver este préstamo: se deshace.
+            if (usuarioRepository.findById(usuarioId).isEmpty()) {
+                UsuarioNoEncontradoException e = new UsuarioNoEncontradoException(usuarioId);
+                prestamoRepository.deleteById(prestamo.getId());
+                liberar(libroId, e);
+                throw e;
+            }
+            // Los borrados de libros toman el mismo lock; esto cubre a quien borre el libro
+            // directamente en el repositorio.
+            if (libroRepository.findById(libroId).isEmpty()) {
+                prestamoRepository.deleteById(prestamo.getId());
+                throw new LibroNoEncontradoException(libroId);
+            }
+            return prestamo;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Los préstamos se buscan por el índice de libroId: el costo depende sólo de los del libro.
+    @Override
+    public void eliminarLibro(Long libroId, boolean cascade) {
+        Lock lock = locksPorLibro.get(libroId);
+        lock.lock();
+        try {
+            List<Prestamo> prestamos = prestamoRepository.findAllByLibroId(libroId);
+            if (!cascade && !prestamos.isEmpty()) {
+                throw new LibroConPrestamosException(libroId, prestamos.size());
+            }
+            libroRepository.deleteById(libroId);
+            if (!prestamos.isEmpty()) {
+                prestamoRepository.deleteAllById(prestamos.stream().map(Prestamo::getId).toList());
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Libro guardarLibro(Libro libro) {
+        return escribirLibro(libro, libroRepository::save);
+    }
+
+    @Override
+    public Libro actualizarLibro(Libro libro) {
+        return escribirLibro(libro, libroRepository::update);
+    }
+
+    @Override
+    public List<ResultadoLote<Libro>> guardarLibros(List<Libro> libros) {
+        return escribirLibros(libros, libroRepository::saveAll);
+    }
+
+    @Override
+    public List<ResultadoLote<Libro>> actualizarLibros(List<Libro> libros) {
+        return escribirLibros(libros, libroRepository::updateAll);
+    }
+
+    // Un libro sin ID todavía no puede tener préstamos: no necesita el lock.
+    private Libro escribirLibro(Libro libro, UnaryOperator<Libro> escribir) {
+        if (libro.getId() == null) {
+            comprobarEstado(libro);
+            return escribir.apply(libro);
+        }
+        Lock lock = locksPorLibro.get(libro.getId());
+        lock.lock();
+        try {
+            comprobarEstado(libro);
+            return escribir.apply(libro);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Toma una sola vez los locks de todos los libros del lote, en orden de franja como
+    // ConcurrentEntityStore.saveAll, y guarda los válidos en una sola escritura.
+    private List<ResultadoLote<Libro>> escribirLibros(List<Libro> libros,
+                                                      Function<List<Libro>, List<ResultadoLote<Libro>>> escribir) {
+        BitSet franjas = new BitSet(locksPorLibro.size());
+        for (Libro libro : libros) {
+            if (libro.getId() != null) {
+                franjas.set(locksPorLibro.indice(libro.getId()));
+            }
+        }
+        for (int f = franjas.nextSetBit(0); f >= 0; f = franjas.nextSetBit(f + 1)) {
+            locksPorLibro.getAt(f).lock();
+        }
+        try {
+            return Lotes.validados(libros, this::comprobarEstado, escribir);
+        } finally {
+            for (int f = franjas.nextSetBit(0); f >= 0; f = franjas.nextSetBit(f + 1)) {
+                locksPorLibro.getAt(f).unlock();
+            }
+        }
+    }
+
+    // Debe llamarse con el lock del libro tomado, así ningún préstamo o devolución cambia
+    // sus préstamos activos entre la comprobación y la escritura.
+    private void comprobarEstado(Libro libro) {
+        boolean prestado = libro.getId() != null && prestamoRepository.findAllByLibroId(libro.getId()).stream()
+                .anyMatch(prestamo -> prestamo.getEstado() == EstadoPrestamo.ACTIVO);
+        if (prestado != (libro.getEstado() == EstadoLibro.PRESTADO)) {
+            throw new EstadoLibroInvalidoException(libro.getId(), libro.getEstado());
+        }
+    }
+
+    @Override
+    public Prestamo devolverLibro(Long prestamoId) {
+        Long libroId = prestamoRepository.findById(prestamoId)
+                .orElseThrow(() -> new PrestamoNoEncontradoException(prestamoId))
+                .getLibroId();
+        Lock lock = locksPorLibro.get(libroId == null ? prestamoId : libroId);
+        lock.lock();
+        try {
+            // Se vuelve a leer con el lock tomado: otra devolución pudo ganar la carrera.
+            Prestamo prestamo = prestamoRepository.findById(prestamoId)
+                    .orElseThrow(() -> new PrestamoNoEncontradoException(prestamoId));
+            if (!Objects.equals(prestamo.getLibroId(), libroId)) {
+                return devolverLibro(prestamoId);
+            }
+            if (prestamo.getEstado() == EstadoPrestamo.DEVUELTO) {
+                throw new PrestamoYaDevueltoException(prestamoId);
+            }
+            if (libroId != null) {
+                libroRepository.findById(libroId)
+                        .filter(l -> l.getEstado() == EstadoLibro.PRESTADO)
+                        .ifPresent(l -> libroRepository.save(conEstado(l, EstadoLibro.DISPONIBLE)));
+            }
+            return prestamoRepository.save(new Prestamo(prestamo.getId(), libroId, prestamo.getUsuarioId(),
+                    prestamo.getFechaPrestamo(), prestamo.getFechaDevolucion(), EstadoPrestamo.DEVUELTO,
+                    prestamo.getVersion()));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Deshace el PRESTADO de un préstamo que no llegó a registrarse. Las escrituras de libros del
+    // servicio esperan este lock, pero un borrado de usuario en cascada libera libros sin él: se
+    // relee el libro en cada intento en lugar de reusar la versión escrita. Si no se puede, el
+    // error queda adjunto a la causa y en el log, sin reemplazarla.
+    private void liberar(Long libroId, RuntimeException causa) {
+        RuntimeException error = null;
+        for (int intento = 0; intento < INTENTOS_LIBERAR; intento++) {
+            try {
+                libroRepository.findById(libroId)
+                        .filter(libro -> libro.getEstado() == EstadoLibro.PRESTADO)
+                        .ifPresent(libro -> libroRepository.save(conEstado(libro, EstadoLibro.DISPONIBLE)));
+                return;
+            } catch (ConflictoVersionException e) {
+                error = e;
+            } catch (RuntimeException e) {
+                error = e;
+                break;
+            }
+        }
+        causa.addSuppressed(error);
+        log.error("El libro {} quedó PRESTADO sin préstamo", libroId, error);
+    }
+
+    private Lock lockDelLibro(Long libroId) {
+        if (libroId == null) {
+            throw new LibroNoEncontradoException(libroId);
+        }
+        return locksPorLibro.get(libroId);
+    }
+
+    // Los IDs null se tratan como inexistentes: los repositorios no los aceptan como clave.
+    private Usuario buscarUsuario(Long usuarioId) {
+        return Optional.ofNullable(usuarioId).flatMap(usuarioRepository::findById)
+                .orElseThrow(() -> new UsuarioNoEncontradoException(usuarioId));
+    }
+
+    private Libro buscarLibro(Long libroId) {
+        return Optional.ofNullable(libroId).flatMap(libroRepository::findById)
+                .orElseThrow(() -> new LibroNoEncontradoException(libroId));
+    }
+
+    // Se guarda una copia: la instancia leída puede estar compartida con otros lectores.
+    // La copia lleva la versión leída, así que una edición concurrente del libro hace
+    // fallar el guardado en lugar de perderse.
+    static Libro conEstado(Libro libro, EstadoLibro estado) {
+        return new Libro(libro.getId(), libro.getIsbn(), libro.getTitulo(), libro.getAutor(), estado,
+                libro.getVersion());
     }
 }
@@ -0,0 +1,38 @@
+package com.example.springLibrarySystem.service;
+
+import com.example.springLibrarySystem.enums.EstadoLibro;
+import com.example.springLibrarySystem.models.Libro;
+import com.example.springLibrarySystem.models.ResultadoLote;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Versión no bloqueante de {@link LibroService}: los mismos casos de uso y los
+ * mismos errores, señalados en el {@code Mono} en lugar de lanzados.
+ */
+public interface ReactiveLibroService {
+    Mono<Libro> findByIsbn(String isbn);
+    Mono<Libro> findById(Long id);
+    Mono<List<Libro>> search(String consulta, int limit);
+    Flux<Libro> findAll();
+    Mono<List<Libro>> findPage(Long afterId, int limit);
+    Flux<Libro> streamAll(Instant modifiedSince);
+    Flux<Libro> findAllByEstado(EstadoLibro estado);
+    Mono<List<Libro>> findPageByEstado(EstadoLibro estado, Long afterId, int limit);
+    Mono<Map<EstadoLibro, Long>> countByEstado();
+    Mono<Libro> save(Libro libro);
+    Mono<List<ResultadoLote<Libro>>> saveAll(List<Libro> libros);
+    Mono<List<ResultadoLote<Libro>>> updateAll(List<Libro> libros);
+    Mono<Void> deleteById(Long id);
+
+    /**
+     * Igual que {@link LibroService#deleteById(Long, boolean)}.
+     */
+    Mono<Void> deleteById(Long id, boolean cascade);
+    Mono<Libro> update(Long id, Libro libro);
+    long getModificationCount();
+}
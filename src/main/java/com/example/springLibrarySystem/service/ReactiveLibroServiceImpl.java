@@ -0,0 +1,116 @@
+package com.example.springLibrarySystem.service;
+
+import com.example.springLibrarySystem.enums.EstadoLibro;
+import com.example.springLibrarySystem.exception.LibroNoEncontradoException;
+import com.example.springLibrarySystem.models.Libro;
+import com.example.springLibrarySystem.models.ResultadoLote;
+import com.example.springLibrarySystem.repository.ReactiveLibroRepository;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+@Service
+public class ReactiveLibroServiceImpl implements ReactiveLibroService {
+    private final ReactiveLibroRepository libroRepository;
+    // Las escrituras y los borrados revisan los préstamos del libro con su lock tomado:
+    // se reusa esa lógica fuera del event loop.
+    private final LibroService libroService;
+
+    public ReactiveLibroServiceImpl(ReactiveLibroRepository libroRepository, LibroService libroService) {
+        this.libroRepository = libroRepository;
+        this.libroService = libroService;
+    }
+
+    @Override
+    public Mono<Libro> findByIsbn(String isbn) {
+        return libroRepository.findByIsbn(isbn)
+                .switchIfEmpty(Mono.error(() -> new LibroNoEncontradoException(isbn)));
+    }
+
+    @Override
+    public Mono<Libro> findById(Long id) {
+        return libroRepository.findById(id)
+                .switchIfEmpty(Mono.error(() -> new LibroNoEncontradoException(id)));
+    }
+
+    @Override
+    public Mono<List<Libro>> search(String consulta, int limit) {
+        return libroRepository.search(consulta, limit);
+    }
+
+    @Override
+    public Flux<Libro> findAll() {
+        return libroRepository.findAll();
+    }
+
+    @Override
+    public Mono<List<Libro>> findPage(Long afterId, int limit) {
+        return libroRepository.findPage(afterId, limit);
+    }
+
+    @Override
+    public Flux<Libro> streamAll(Instant modifiedSince) {
+        return libroRepository.streamAll(modifiedSince);
+    }
+
+    @Override
+    public Flux<Libro> findAllByEstado(EstadoLibro estado) {
+        return libroRepository.findAllByEstado(estado);
+    }
+
+    @Override
+    public Mono<List<Libro>> findPageByEstado(EstadoLibro estado, Long afterId, int limit) {
+        return libroRepository.findPageByEstado(estado, afterId, limit);
+    }
+
+    @Override
+    public Mono<Map<EstadoLibro, Long>> countByEstado() {
+        return libroRepository.countByEstado();
+    }
+
+    @Override
+    public Mono<Libro> save(Libro libro) {
+        return Mono.fromCallable(() -> libroService.save(libro))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @Override
+    public Mono<List<ResultadoLote<Libro>>> saveAll(List<Libro> libros) {
+        return Mono.fromCallable(() -> libroService.saveAll(libros))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @Override
+    public Mono<List<ResultadoLote<Libro>>> updateAll(List<Libro> libros) {
+        return Mono.fromCallable(() -> libroService.updateAll(libros))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @Override
+    public Mono<Void> deleteById(Long id) {
+        return deleteById(id, false);
+    }
+
+    @Override
+    public Mono<Void> deleteById(Long id, boolean cascade) {
+        return Mono.fromRunnable(() -> libroService.deleteById(id, cascade))
+                .subscribeOn(Schedulers.boundedElastic())
+                .then();
+    }
+
+    @Override
+    public long getModificationCount() {
+        return libroRepository.getModificationCount();
+    }
+
+    @Override
+    public Mono<Libro> update(Long id, Libro libro) {
+        return Mono.fromCallable(() -> libroService.update(id, libro))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+}
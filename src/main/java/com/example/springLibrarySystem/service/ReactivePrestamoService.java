@@ -0,0 +1,38 @@
+package com.example.springLibrarySystem.service;
+
+import com.example.springLibrarySystem.enums.ExpansionPrestamo;
+import com.example.springLibrarySystem.models.Libro;
+import com.example.springLibrarySystem.models.Prestamo;
+import com.example.springLibrarySystem.models.PrestamoExpandido;
+import com.example.springLibrarySystem.models.ResultadoLote;
+import com.example.springLibrarySystem.models.Usuario;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Versión no bloqueante de {@link PrestamoService}.
+ */
+public interface ReactivePrestamoService {
+    Mono<Prestamo> findById(Long id);
+    Flux<Prestamo> findAll();
+    Mono<List<Prestamo>> findPage(Long afterId, int limit);
+    Flux<Prestamo> streamAll(Instant modifiedSince);
+    Mono<Prestamo> findByLibro(Libro libro);
+    Flux<Prestamo> findByUsuario(Usuario usuario);
+    Mono<List<Prestamo>> findVencidos(int limit);
+    Mono<Prestamo> save(Prestamo prestamo);
+    Mono<List<ResultadoLote<Prestamo>>> saveAll(List<Prestamo> prestamos);
+    Mono<List<ResultadoLote<Prestamo>>> updateAll(List<Prestamo> prestamos);
+    Mono<Prestamo> update(Long id, Prestamo prestamo);
+    Mono<Void> deleteById(Long id);
+    Mono<Prestamo> prestarLibro(Long libroId, Long usuarioId);
+    Mono<Prestamo> devolverLibro(Long prestamoId);
+    long getModificationCount();
+    long getModificationCount(Set<ExpansionPrestamo> expand);
+    Mono<PrestamoExpandido> expandir(Prestamo prestamo, Set<ExpansionPrestamo> expand);
+    Flux<PrestamoExpandido> expandir(Flux<Prestamo> prestamos, Set<ExpansionPrestamo> expand);
+}
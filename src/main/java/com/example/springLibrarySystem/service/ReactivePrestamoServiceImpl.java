@@ -0,0 +1,145 @@
+package com.example.springLibrarySystem.service;
+
+import com.example.springLibrarySystem.enums.ExpansionPrestamo;
+import com.example.springLibrarySystem.exception.PrestamoNoEncontradoException;
+import com.example.springLibrarySystem.models.Libro;
+import com.example.springLibrarySystem.models.Prestamo;
+import com.example.springLibrarySystem.models.PrestamoExpandido;
+import com.example.springLibrarySystem.models.ResultadoLote;
+import com.example.springLibrarySystem.models.Usuario;
+import com.example.springLibrarySystem.repository.ReactivePrestamoRepository;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+@Service
+public class ReactivePrestamoServiceImpl implements ReactivePrestamoService {
+    private static final int LOTE_EXPANSION = 256;
+
+    private final ReactivePrestamoRepository prestamoRepository;
+    private final PrestamoService prestamoService;
+
+    public ReactivePrestamoServiceImpl(ReactivePrestamoRepository prestamoRepository, PrestamoService prestamoService) {
+        this.prestamoRepository = prestamoRepository;
+        this.prestamoService = prestamoService;
+    }
+
+    @Override
+    public Mono<Prestamo> findById(Long id) {
+        return prestamoRepository.findById(id)
+                .switchIfEmpty(Mono.error(() -> new PrestamoNoEncontradoException(id)));
+    }
+
+    @Override
+    public Flux<Prestamo> findAll() {
+        return prestamoRepository.findAll();
+    }
+
+    @Override
+    public Mono<List<Prestamo>> findPage(Long afterId, int limit) {
+        return prestamoRepository.findPage(afterId, limit);
+    }
+
+    @Override
+    public Flux<Prestamo> streamAll(Instant modifiedSince) {
+        return prestamoRepository.streamAll(modifiedSince);
+    }
+
+    @Override
+    public Mono<Prestamo> findByLibro(Libro libro) {
+        return prestamoRepository.findByLibro(libro);
+    }
+
+    @Override
+    public Flux<Prestamo> findByUsuario(Usuario usuario) {
+        return prestamoRepository.findByUsuario(usuario);
+    }
+
+    @Override
+    public Mono<List<Prestamo>> findVencidos(int limit) {
+        return Mono.defer(() -> prestamoRepository.findDueBetween(null, LocalDate.now(), limit));
+    }
+
+    // Las altas y modificaciones comprueban el libro y el usuario con el lock del libro tomado:
+    // igual que préstamo y devolución, se delegan al servicio bloqueante fuera del event loop.
+    @Override
+    public Mono<Prestamo> save(Prestamo prestamo) {
+        return Mono.fromCallable(() -> prestamoService.save(prestamo))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @Override
+    public Mono<List<ResultadoLote<Prestamo>>> saveAll(List<Prestamo> prestamos) {
+        return Mono.fromCallable(() -> prestamoService.saveAll(prestamos))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @Override
+    public Mono<List<ResultadoLote<Prestamo>>> updateAll(List<Prestamo> prestamos) {
+        return Mono.fromCallable(() -> prestamoService.updateAll(prestamos))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @Override
+    public Mono<Prestamo> update(Long id, Prestamo prestamo) {
+        return Mono.fromCallable(() -> prestamoService.update(id, prestamo))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    // Borrar un préstamo activo libera su libro con el lock del libro tomado.
+    @Override
+    public Mono<Void> deleteById(Long id) {
+        return Mono.fromRunnable(() -> prestamoService.deleteById(id))
+                .subscribeOn(Schedulers.boundedElastic())
+                .then();
+    }
+
+    @Override
+    public long getModificationCount() {
+        return prestamoService.getModificationCount();
+    }
+
+    @Override
+    public long getModificationCount(Set<ExpansionPrestamo> expand) {
+        return prestamoService.getModificationCount(expand);
+    }
+
+    // Las lecturas de libros y usuarios son en memoria y no bloquean: se resuelven en el hilo que se suscribe.
+    @Override
+    public Mono<PrestamoExpandido> expandir(Prestamo prestamo, Set<ExpansionPrestamo> expand) {
+        return Mono.fromSupplier(() -> prestamoService.expandir(prestamo, expand));
+    }
+
+    /**
+     * Expande de a {@value #LOTE_EXPANSION} préstamos, así los libros y usuarios repetidos
+     * se buscan una vez por lote sin juntar el listado completo.
+     */
+    @Override
+    public Flux<PrestamoExpandido> expandir(Flux<Prestamo> prestamos, Set<ExpansionPrestamo> expand) {
+        if (expand.isEmpty()) {
+            return prestamos.map(PrestamoExpandido::de);
+        }
+        return prestamos.buffer(LOTE_EXPANSION)
+                .concatMapIterable(lote -> prestamoService.expandir(lote, expand));
+    }
+
+    // Préstamo y devolución esperan el lock del libro: se delegan al servicio bloqueante,
+    // que tiene esos locks, fuera del event loop.
+    @Override
+    public Mono<Prestamo> prestarLibro(Long libroId, Long usuarioId) {
+        return Mono.fromCallable(() -> prestamoService.prestarLibro(libroId, usuarioId))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @Override
+    public Mono<Prestamo> devolverLibro(Long prestamoId) {
+        return Mono.fromCallable(() -> prestamoService.devolverLibro(prestamoId))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.springLibrarySystem.service;
+
+import com.example.springLibrarySystem.enums.EstadoUsuario;
+import com.example.springLibrarySystem.models.ResultadoLote;
+import com.example.springLibrarySystem.models.Usuario;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Versión no bloqueante de {@link UsuarioService}.
+ */
+public interface ReactiveUsuarioService {
+    Mono<Usuario> findById(Long id);
+    Mono<Usuario> findByEmail(String email);
+    Mono<Usuario> findByNombre(String nombre);
+    Flux<Usuario> findAll();
+    Mono<List<Usuario>> findPage(Long afterId, int limit);
+    Flux<Usuario> findAllByEstado(EstadoUsuario estado);
+    Mono<List<Usuario>> findPageByEstado(EstadoUsuario estado, Long afterId, int limit);
+    Mono<Map<EstadoUsuario, Long>> countByEstado();
+    Mono<Usuario> save(Usuario usuario);
+    Mono<List<ResultadoLote<Usuario>>> saveAll(List<Usuario> usuarios);
+    Mono<List<ResultadoLote<Usuario>>> updateAll(List<Usuario> usuarios);
+    Mono<Usuario> update(Long id, Usuario usuario);
+    Mono<Void> deleteById(Long id);
+
+    /**
+     * Igual que {@link UsuarioService#deleteById(Long, boolean)}.
+     */
+    Mono<Void> deleteById(Long id, boolean cascade);
+
+    /**
+     * Igual que {@link UsuarioService#deleteAllById(List, boolean)}.
+     */
+    Mono<List<ResultadoLote<Usuario>>> deleteAllById(List<Long> ids, boolean cascade);
+    long getModificationCount();
+}
@@ -0,0 +1,113 @@
+package com.example.springLibrarySystem.service;
+
+import com.example.springLibrarySystem.enums.EstadoUsuario;
+import com.example.springLibrarySystem.exception.UsuarioNoEncontradoException;
+import com.example.springLibrarySystem.models.ResultadoLote;
+import com.example.springLibrarySystem.models.Usuario;
+import com.example.springLibrarySystem.repository.ReactiveUsuarioRepository;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+import java.util.Map;
+
+@Service
+public class ReactiveUsuarioServiceImpl implements ReactiveUsuarioService {
+    private final ReactiveUsuarioRepository usuarioRepository;
+    // Los borrados revisan los préstamos que referencian al usuario: se reusa esa lógica.
+    private final UsuarioService usuarioService;
+
+    public ReactiveUsuarioServiceImpl(ReactiveUsuarioRepository usuarioRepository, UsuarioService usuarioService) {
+        this.usuarioRepository = usuarioRepository;
+        this.usuarioService = usuarioService;
+    }
+
+    @Override
+    public Mono<Usuario> findById(Long id) {
+        return usuarioRepository.findById(id)
+                .switchIfEmpty(Mono.error(() -> new UsuarioNoEncontradoException(id)));
+    }
+
+    @Override
+    public Mono<Usuario> findByEmail(String email) {
+        return usuarioRepository.findByEmail(email)
+                .switchIfEmpty(Mono.error(() -> new UsuarioNoEncontradoException("email", email)));
+    }
+
+    @Override
+    public Mono<Usuario> findByNombre(String nombre) {
+        return usuarioRepository.findByNombre(nombre)
+                .switchIfEmpty(Mono.error(() -> new UsuarioNoEncontradoException("nombre", nombre)));
+    }
+
+    @Override
+    public Flux<Usuario> findAll() {
+        return usuarioRepository.findAll();
+    }
+
+    @Override
+    public Mono<List<Usuario>> findPage(Long afterId, int limit) {
+        return usuarioRepository.findPage(afterId, limit);
+    }
+
+    @Override
+    public Flux<Usuario> findAllByEstado(EstadoUsuario estado) {
+        return usuarioRepository.findAllByEstado(estado);
+    }
+
+    @Override
+    public Mono<List<Usuario>> findPageByEstado(EstadoUsuario estado, Long afterId, int limit) {
+        return usuarioRepository.findPageByEstado(estado, afterId, limit);
+    }
+
+    @Override
+    public Mono<Map<EstadoUsuario, Long>> countByEstado() {
+        return usuarioRepository.countByEstado();
+    }
+
+    @Override
+    public Mono<Usuario> save(Usuario usuario) {
+        return usuarioRepository.save(usuario);
+    }
+
+    @Override
+    public Mono<List<ResultadoLote<Usuario>>> saveAll(List<Usuario> usuarios) {
+        return usuarioRepository.saveAll(usuarios);
+    }
+
+    @Override
+    public Mono<List<ResultadoLote<Usuario>>> updateAll(List<Usuario> usuarios) {
+        return usuarioRepository.updateAll(usuarios);
+    }
+
+    @Override
+    public Mono<Usuario> update(Long id, Usuario usuario) {
+        usuario.setId(id);
+        return usuarioRepository.update(usuario);
+    }
+
+    @Override
+    public Mono<Void> deleteById(Long id) {
+        return deleteById(id, false);
+    }
+
+    @Override
+    public Mono<Void> deleteById(Long id, boolean cascade) {
+        return Mono.fromRunnable(() -> usuarioService.deleteById(id, cascade))
+                .subscribeOn(Schedulers.boundedElastic())
+                .then();
+    }
+
+    @Override
+    public Mono<List<ResultadoLote<Usuario>>> deleteAllById(List<Long> ids, boolean cascade) {
+        return Mono.fromCallable(() -> usuarioService.deleteAllById(ids, cascade))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @Override
+    public long getModificationCount() {
+        return usuarioRepository.getModificationCount();
+    }
+}
@@ -1,15 +1,39 @@
 package com.example.springLibrarySystem.service;
 
+import com.example.springLibrarySystem.enums.EstadoUsuario;
+import com.example.springLibrarySystem.models.ResultadoLote;
 import com.example.springLibrarySystem.models.Usuario;
 
 import java.util.List;
+import java.util.Map;
 
 public interface UsuarioService {
     Usuario findById(Long id);
     Usuario findByEmail(String email);
     Usuario findByNombre(String nombre);
     List<Usuario> findAll();
+    List<Usuario> findPage(Long afterId, int limit);
+    List<Usuario> findAllByEstado(EstadoUsuario estado);
+    List<Usuario> findPageByEstado(EstadoUsuario estado, Long afterId, int limit);
+    Map<EstadoUsuario, Long> countByEstado();
     Usuario save(Usuario usuario);
+    List<ResultadoLote<Usuario>> saveAll(List<Usuario> usuarios);
+    List<ResultadoLote<Usuario>> updateAll(List<Usuario> usuarios);
     Usuario update(Long id, Usuario usuario);
     void deleteById(Long id);
+
+    /**
+     * Elimina un usuario. Si algún préstamo lo referencia, con {@code cascade} se eliminan
+     * también esos préstamos (y se liberan los libros de los activos) y sin él se rechaza
+     * con {@code UsuarioConPrestamosException}.
+     */
+    void deleteById(Long id, boolean cascade);
+
+    /**
+     * Como {@link #deleteById(Long, boolean)} para muchos usuarios, con una sola escritura
+     * por lote en cada repositorio. Un usuario rechazado o inexistente no impide eliminar el resto.
+     * @return El usuario eliminado o el motivo del rechazo, en el mismo orden recibido
+     */
+    List<ResultadoLote<Usuario>> deleteAllById(List<Long> ids, boolean cascade);
+    long getModificationCount();
 }
@@ -1,35 +1,56 @@
 package com.example.springLibrarySystem.service;
 
+import com.example.springLibrarySystem.enums.EstadoLibro;
+import com.example.springLibrarySystem.enums.EstadoPrestamo;
+import com.example.springLibrarySystem.enums.EstadoUsuario;
+import com.example.springLibrarySystem.exception.UsuarioConPrestamosException;
+import com.example.springLibrarySystem.exception.UsuarioNoEncontradoException;
+import com.example.springLibrarySystem.models.Libro;
+import com.example.springLibrarySystem.models.Prestamo;
+import com.example.springLibrarySystem.models.ResultadoLote;
 import com.example.springLibrarySystem.models.Usuario;
+import com.example.springLibrarySystem.repository.LibroRepository;
+import com.example.springLibrarySystem.repository.PrestamoRepository;
 import com.example.springLibrarySystem.repository.UsuarioRepository;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
+@Slf4j
 @Service
 public class UsuarioServiceImpl implements UsuarioService {
     private final UsuarioRepository usuarioRepository;
+    private final PrestamoRepository prestamoRepository;
+    private final LibroRepository libroRepository;
 
-    public UsuarioServiceImpl(UsuarioRepository usuarioRepository) {
+    public UsuarioServiceImpl(UsuarioRepository usuarioRepository,
+                              PrestamoRepository prestamoRepository,
+                              LibroRepository libroRepository) {
         this.usuarioRepository = usuarioRepository;
+        this.prestamoRepository = prestamoRepository;
+        this.libroRepository = libroRepository;
     }
 
     @Override
     public Usuario findById(Long id) {
         return usuarioRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Usuario no encontrado con ID: " + id));
+                .orElseThrow(() -> new UsuarioNoEncontradoException(id));
     }
 
     @Override
     public Usuario findByEmail(String email) {
         return usuarioRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("Usuario no encontrado con email: " + email));
+                .orElseThrow(() -> new UsuarioNoEncontradoException("email", email));
     }
 
     @Override
     public Usuario findByNombre(String nombre) {
         return usuarioRepository.findByNombre(nombre)
-                .orElseThrow(() -> new RuntimeException("Usuario no encontrado con nombre: " + nombre));
+                .orElseThrow(() -> new UsuarioNoEncontradoException("nombre", nombre));
     }
 
     @Override
@@ -37,22 +58,160 @@ public class UsuarioServiceImpl implements UsuarioService {
         return usuarioRepository.findAll();
     }
 
+    @Override
+    public List<Usuario> findPage(Long afterId, int limit) {
+        return usuarioRepository.findPage(afterId, limit);
+    }
+
+    @Override
+    public List<Usuario> findAllByEstado(EstadoUsuario estado) {
+        return usuarioRepository.findAllByEstado(estado);
+    }
+
+    @Override
+    public List<Usuario> findPageByEstado(EstadoUsuario estado, Long afterId, int limit) {
+        return usuarioRepository.findPageByEstado(estado, afterId, limit);
+    }
+
+    @Override
+    public Map<EstadoUsuario, Long> countByEstado() {
+        return usuarioRepository.countByEstado();
+    }
+
     @Override
     public Usuario save(Usuario usuario) {
         return usuarioRepository.save(usuario);
     }
 
+    @Override
+    public List<ResultadoLote<Usuario>> saveAll(List<Usuario> usuarios) {
+        return usuarioRepository.saveAll(usuarios);
+    }
+
+    @Override
+    public List<ResultadoLote<Usuario>> updateAll(List<Usuario> usuarios) {
+        return usuarioRepository.updateAll(usuarios);
+    }
+
     @Override
     public Usuario update(Long id, Usuario usuario) {
-        if (!usuarioRepository.existsById(id)) {
-            throw new RuntimeException("Usuario no encontrado con ID: " + id);
-        }
         usuario.setId(id);
-        return usuarioRepository.save(usuario);
+        return usuarioRepository.update(usuario);
     }
 
     @Override
     public void deleteById(Long id) {
+        deleteById(id, false);
+    }
+
+    // Los préstamos se buscan por el índice de usuarioId: el costo depende sólo de los del usuario.
+    // Siempre se borra primero el usuario: un préstamo creado mientras tanto ya está en el índice
+    // cuando se lo busca, o prestarLibro ve que el usuario no existe y lo deshace. Sin cascada, si
+    // aparecen préstamos el usuario se vuelve a guardar y el borrado se rechaza.
+    @Override
+    public void deleteById(Long id, boolean cascade) {
+        if (!cascade) {
+            List<Usuario> eliminados = usuarioRepository.deleteAllById(List.of(id));
+            int prestamos = prestamoRepository.findAllByUsuarioId(id).size();
+            if (prestamos > 0) {
+                UsuarioConPrestamosException e = new UsuarioConPrestamosException(id, prestamos);
+                reponer(eliminados, e);
+                throw e;
+            }
+            return;
+        }
         usuarioRepository.deleteById(id);
+        eliminarPrestamos(prestamoRepository.findAllByUsuarioId(id));
+    }
+
+    @Override
+    public List<ResultadoLote<Usuario>> deleteAllById(List<Long> ids, boolean cascade) {
+        String[] errores = new String[ids.size()];
+        List<Long> aEliminar = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            if (ids.get(i) == null) {
+                errores[i] = "El elemento no tiene ID";
+            } else {
+                aEliminar.add(ids.get(i));
+            }
+        }
+        Map<Long, Usuario> eliminados = new HashMap<>();
+        for (Usuario usuario : usuarioRepository.deleteAllById(aEliminar)) {
+            eliminados.put(usuario.getId(), usuario);
+        }
+        if (cascade) {
+            List<Prestamo> prestamos = new ArrayList<>();
+            for (Long id : eliminados.keySet()) {
+                prestamos.addAll(prestamoRepository.findAllByUsuarioId(id));
+            }
+            eliminarPrestamos(prestamos);
+        } else {
+            List<Usuario> conPrestamos = new ArrayList<>();
+            for (int i = 0; i < ids.size(); i++) {
+                Long id = ids.get(i);
+                int prestamos;
+                if (errores[i] == null && (prestamos = prestamoRepository.findAllByUsuarioId(id).size()) > 0) {
+                    errores[i] = new UsuarioConPrestamosException(id, prestamos).getMessage();
+                    Usuario eliminado = eliminados.remove(id);
+                    if (eliminado != null) {
+                        conPrestamos.add(eliminado);
+                    }
+                }
+            }
+            reponer(conPrestamos, null);
+        }
+        List<ResultadoLote<Usuario>> resultados = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            Usuario eliminado = errores[i] == null ? eliminados.get(ids.get(i)) : null;
+            resultados.add(eliminado != null
+                    ? ResultadoLote.ok(i, eliminado)
+                    : ResultadoLote.error(i, errores[i] != null ? errores[i] : new UsuarioNoEncontradoException(ids.get(i)).getMessage()));
+        }
+        return resultados;
+    }
+
+    @Override
+    public long getModificationCount() {
+        return usuarioRepository.getModificationCount();
+    }
+
+    // Vuelve a guardar usuarios cuyo borrado se rechazó. Se guarda una copia con versión 0, que
+    // sólo se acepta si el ID sigue libre. Si no se puede (por ejemplo, otro usuario tomó el email
+    // mientras tanto), el error queda adjunto a la causa y en el log.
+    private void reponer(List<Usuario> usuarios, RuntimeException causa) {
+        if (usuarios.isEmpty()) {
+            return;
+        }
+        List<Usuario> copias = usuarios.stream()
+                .map(u -> new Usuario(u.getId(), u.getNombre(), u.getEmail(), u.getEstado(), 0L))
+                .toList();
+        for (ResultadoLote<Usuario> resultado : usuarioRepository.saveAll(copias)) {
+            if (!resultado.isOk()) {
+                RuntimeException error = new IllegalStateException(resultado.getError());
+                if (causa != null) {
+                    causa.addSuppressed(error);
+                }
+                log.error("No se pudo reponer el usuario {} con préstamos", copias.get(resultado.getPosicion()).getId(), error);
+            }
+        }
+    }
+
+    // Los libros de los préstamos activos quedan disponibles. Si alguno cambió mientras
+    // tanto, su guardado versionado se rechaza y se deja como está.
+    private void eliminarPrestamos(List<Prestamo> prestamos) {
+        if (prestamos.isEmpty()) {
+            return;
+        }
+        List<Libro> liberados = new ArrayList<>();
+        for (Prestamo prestamo : prestamoRepository.deleteAllById(prestamos.stream().map(Prestamo::getId).toList())) {
+            if (prestamo.getEstado() == EstadoPrestamo.ACTIVO && prestamo.getLibroId() != null) {
+                libroRepository.findById(prestamo.getLibroId())
+                        .filter(libro -> libro.getEstado() == EstadoLibro.PRESTADO)
+                        .ifPresent(libro -> liberados.add(PrestamoServiceImpl.conEstado(libro, EstadoLibro.DISPONIBLE)));
+            }
+        }
+        if (!liberados.isEmpty()) {
+            libroRepository.saveAll(liberados);
+        }
     }
 }
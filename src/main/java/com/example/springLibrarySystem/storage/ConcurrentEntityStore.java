@@ -0,0 +1,450 @@
+package com.example.springLibrarySystem.storage;
+
+import com.example.springLibrarySystem.exception.ConflictoVersionException;
+import com.example.springLibrarySystem.models.Entidad;
+import com.example.springLibrarySystem.models.ResultadoLote;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Almacenamiento en memoria compartido por los repositorios.
+ * Las lecturas no toman locks; cada escritura toma sólo el lock de la franja
+ * de su ID, así que escrituras sobre IDs distintos no se bloquean entre sí.
+ *
+ * Cada escritura incrementa la versión de la entidad. Una entidad que llega con
+ * versión se guarda sólo si coincide con la vigente (compare-and-set), y un ID que
+ * no existe cuenta como versión 0; sin versión reemplaza a la anterior sin comparar.
+ * {@link #replace} y {@link #replaceAll} además exigen que el ID exista, comprobado con
+ * el lock de la franja tomado: una modificación que corre contra un borrado no vuelve
+ * a crear la entidad.
+ *
+ * Los {@link StoreListener} registrados reciben cada escritura y borrado confirmados.
+ *
+ * {@link #getModificationCount()} cuenta las escrituras y borrados del store; sirve
+ * para saber barato si una colección cambió sin recorrerla.
+ */
+public class ConcurrentEntityStore<T extends Entidad> {
+    private static final int FRANJAS_POR_DEFECTO = 64;
+    private static final String SIN_ID = "El elemento no tiene ID";
+
+    private final ConcurrentMap<Long, T> entidades = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListSet<Long> ids = new ConcurrentSkipListSet<>();
+    private final ConcurrentMap<Long, Instant> modificados = new ConcurrentHashMap<>();
+    private final AtomicLong nextId = new AtomicLong(1L);
+    private final AtomicLong modificaciones = new AtomicLong();
+    private final StripedLocks locks;
+    private final List<EntityIndex<T>> indices = new CopyOnWriteArrayList<>();
+    private final List<StoreListener<T>> listeners = new CopyOnWriteArrayList<>();
+    private final Clock reloj;
+    private volatile StoreJournal<T> journal = StoreJournal.none();
+
+    public ConcurrentEntityStore() {
+        this(FRANJAS_POR_DEFECTO, Clock.systemUTC());
+    }
+
+    public ConcurrentEntityStore(int franjas, Clock reloj) {
+        this.locks = new StripedLocks(franjas);
+        this.reloj = reloj;
+    }
+
+    /**
+     * Registra un índice secundario. Los índices únicos conviene registrarlos
+     * primero: si uno rechaza la escritura, los anteriores se revierten.
+     */
+    public <I extends EntityIndex<T>> I addIndex(I indice) {
+        for (T entidad : entidades.values()) {
+            indice.put(entidad.getId(), entidad);
+        }
+        indices.add(indice);
+        return indice;
+    }
+
+    public void setJournal(StoreJournal<T> journal) {
+        this.journal = journal;
+    }
+
+    public void addListener(StoreListener<T> listener) {
+        listeners.add(listener);
+    }
+
+    public T save(T entidad) {
+        return guardar(asignarId(entidad), entidad, null);
+    }
+
+    /**
+     * Como {@link #save}, pero sólo reemplaza una entidad existente: si el ID no existe
+     * lanza la excepción de {@code noEncontrado} sin escribir nada.
+     */
+    public T replace(T entidad, Function<Long, ? extends RuntimeException> noEncontrado) {
+        if (entidad.getId() == null) {
+            throw new IllegalArgumentException(SIN_ID);
+        }
+        return guardar(entidad.getId(), entidad, noEncontrado);
+    }
+
+    // Con noEncontrado nulo crea el ID si no existe; si no, lo rechaza.
+    private T guardar(Long id, T entidad, Function<Long, ? extends RuntimeException> noEncontrado) {
+        StoreJournal<T> registro = journal;
+        long ticket;
+        Lock lock = locks.get(id);
+        lock.lock();
+        try {
+            if (noEncontrado != null && !entidades.containsKey(id)) {
+                throw noEncontrado.apply(id);
+            }
+            boolean nueva = escribirVersionado(id, entidad);
+            ticket = registro.recordSave(entidad);
+            notificarGuardado(entidad, nueva);
+        } finally {
+            lock.unlock();
+        }
+        registro.awaitDurable(ticket);
+        return entidad;
+    }
+
+    /**
+     * Aplica una entidad recuperada de disco: mantiene índices y contador de IDs,
+     * pero no vuelve a registrarla en el journal.
+     */
+    public void restore(T entidad) {
+        Long id = asignarId(entidad);
+        Lock lock = locks.get(id);
+        lock.lock();
+        try {
+            escribir(id, entidad);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void restoreDelete(Long id) {
+        eliminar(id);
+    }
+
+    public void reserveIdsUpTo(long siguiente) {
+        nextId.accumulateAndGet(siguiente, Math::max);
+    }
+
+    /**
+     * Guarda un lote tomando una sola vez los locks de todas las franjas que toca,
+     * en orden de franja para no generar deadlocks con otros lotes. Un elemento
+     * rechazado (por ejemplo por un índice único) no impide guardar el resto.
+     */
+    public List<ResultadoLote<T>> saveAll(List<T> lote) {
+        if (lote.isEmpty()) {
+            return new ArrayList<>();
+        }
+        long sinId = lote.stream().filter(e -> e.getId() == null).count();
+        long siguiente = nextId.getAndAdd(sinId);
+        for (T entidad : lote) {
+            if (entidad.getId() == null) {
+                entidad.setId(siguiente++);
+            } else {
+                reservarHasta(entidad.getId());
+            }
+        }
+        return guardarLote(lote, null);
+    }
+
+    /**
+     * Como {@link #saveAll}, pero cada elemento sólo reemplaza una entidad existente, como
+     * {@link #replace}: los que no tienen ID o tienen uno inexistente se rechazan.
+     */
+    public List<ResultadoLote<T>> replaceAll(List<T> lote, Function<Long, ? extends RuntimeException> noEncontrado) {
+        return guardarLote(lote, noEncontrado);
+    }
+
+    // Con noEncontrado nulo crea los IDs que no existen; si no, los rechaza.
+    private List<ResultadoLote<T>> guardarLote(List<T> lote, Function<Long, ? extends RuntimeException> noEncontrado) {
+        List<ResultadoLote<T>> resultados = new ArrayList<>(lote.size());
+        BitSet franjas = new BitSet(locks.size());
+        for (T entidad : lote) {
+            if (entidad.getId() != null) {
+                franjas.set(locks.indice(entidad.getId()));
+            }
+        }
+
+        StoreJournal<T> registro = journal;
+        long ticket = 0;
+        for (int f = franjas.nextSetBit(0); f >= 0; f = franjas.nextSetBit(f + 1)) {
+            locks.getAt(f).lock();
+        }
+        try {
+            for (int i = 0; i < lote.size(); i++) {
+                T entidad = lote.get(i);
+                try {
+                    if (noEncontrado != null && entidad.getId() == null) {
+                        throw new IllegalArgumentException(SIN_ID);
+                    }
+                    if (noEncontrado != null && !entidades.containsKey(entidad.getId())) {
+                        throw noEncontrado.apply(entidad.getId());
+                    }
+                    boolean nueva = escribirVersionado(entidad.getId(), entidad);
+                    ticket = Math.max(ticket, registro.recordSave(entidad));
+                    notificarGuardado(entidad, nueva);
+                    resultados.add(ResultadoLote.ok(i, entidad));
+                } catch (RuntimeException e) {
+                    resultados.add(ResultadoLote.error(i, e.getMessage()));
+                }
+            }
+        } finally {
+            for (int f = franjas.nextSetBit(0); f >= 0; f = franjas.nextSetBit(f + 1)) {
+                locks.getAt(f).unlock();
+            }
+        }
+        registro.awaitDurable(ticket);
+        return resultados;
+    }
+
+    public Optional<T> findById(Long id) {
+        return Optional.ofNullable(entidades.get(id));
+    }
+
+    public List<T> findAll() {
+        return new ArrayList<>(entidades.values());
+    }
+
+    /**
+     * Devuelve hasta {@code limite} entidades con ID mayor a {@code despuesDe}
+     * (o desde el principio si es null), en orden de ID. El costo depende sólo
+     * del tamaño de la página.
+     */
+    public List<T> findPage(Long despuesDe, int limite) {
+        return findPage(ids, despuesDe, limite, entidad -> true);
+    }
+
+    /**
+     * Como {@link #findPage(Long, int)}, pero recorre sólo {@code subconjunto} (por
+     * ejemplo los IDs de un índice) y descarta las entidades que no cumplen {@code filtro}:
+     * un índice se actualiza antes que la entidad, así que puede adelantarse a ella.
+     */
+    public List<T> findPage(NavigableSet<Long> subconjunto, Long despuesDe, int limite, Predicate<T> filtro) {
+        Collection<Long> desde = despuesDe == null ? subconjunto : subconjunto.tailSet(despuesDe, false);
+        List<T> pagina = new ArrayList<>(Math.min(limite, 1024));
+        for (Long id : desde) {
+            if (pagina.size() >= limite) {
+                break;
+            }
+            T entidad = entidades.get(id);
+            if (entidad != null && filtro.test(entidad)) {
+                pagina.add(entidad);
+            }
+        }
+        return pagina;
+    }
+
+    /**
+     * Recorre las entidades en orden de ID sin copiarlas, opcionalmente sólo las
+     * modificadas desde {@code desde}. El stream es perezoso y débilmente consistente:
+     * puede o no ver escrituras concurrentes al recorrido. Los instantes de modificación
+     * sólo viven en memoria: {@link #restore} usa el momento de la recuperación.
+     */
+    public Stream<T> stream(Instant desde) {
+        Stream<Long> recorrido = ids.stream();
+        if (desde != null) {
+            recorrido = recorrido.filter(id -> {
+                Instant modificado = modificados.get(id);
+                return modificado != null && !modificado.isBefore(desde);
+            });
+        }
+        return recorrido.map(entidades::get).filter(Objects::nonNull);
+    }
+
+    public Optional<Instant> getModifiedAt(Long id) {
+        return Optional.ofNullable(modificados.get(id));
+    }
+
+    public Collection<T> values() {
+        return entidades.values();
+    }
+
+    public Optional<T> deleteById(Long id) {
+        StoreJournal<T> registro = journal;
+        long ticket = 0;
+        T eliminado;
+        Lock lock = locks.get(id);
+        lock.lock();
+        try {
+            eliminado = eliminar(id);
+            if (eliminado != null) {
+                ticket = registro.recordDelete(id);
+                for (StoreListener<T> listener : listeners) {
+                    listener.deleted(eliminado);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        registro.awaitDurable(ticket);
+        return Optional.ofNullable(eliminado);
+    }
+
+    /**
+     * Elimina varios IDs tomando una sola vez los locks de sus franjas, como {@link #saveAll},
+     * y espera el journal una sola vez al final. Los IDs inexistentes se ignoran.
+     * @return Las entidades eliminadas, en el orden de {@code lote}
+     */
+    public List<T> deleteAllById(Collection<Long> lote) {
+        List<T> eliminados = new ArrayList<>(lote.size());
+        if (lote.isEmpty()) {
+            return eliminados;
+        }
+        BitSet franjas = new BitSet(locks.size());
+        for (Long id : lote) {
+            franjas.set(locks.indice(id));
+        }
+
+        StoreJournal<T> registro = journal;
+        long ticket = 0;
+        for (int f = franjas.nextSetBit(0); f >= 0; f = franjas.nextSetBit(f + 1)) {
+            locks.getAt(f).lock();
+        }
+        try {
+            for (Long id : lote) {
+                T eliminado = eliminar(id);
+                if (eliminado != null) {
+                    ticket = Math.max(ticket, registro.recordDelete(id));
+                    for (StoreListener<T> listener : listeners) {
+                        listener.deleted(eliminado);
+                    }
+                    eliminados.add(eliminado);
+                }
+            }
+        } finally {
+            for (int f = franjas.nextSetBit(0); f >= 0; f = franjas.nextSetBit(f + 1)) {
+                locks.getAt(f).unlock();
+            }
+        }
+        registro.awaitDurable(ticket);
+        return eliminados;
+    }
+
+    public boolean existsById(Long id) {
+        return entidades.containsKey(id);
+    }
+
+    public int size() {
+        return entidades.size();
+    }
+
+    public long getNextId() {
+        return nextId.get();
+    }
+
+    /**
+     * Cantidad de escrituras y borrados aplicados. Se incrementa después de aplicar
+     * cada cambio, así que un valor leído antes de recorrer el store nunca cuenta
+     * un cambio que el recorrido no pueda ver.
+     */
+    public long getModificationCount() {
+        return modificaciones.get();
+    }
+
+    private Long asignarId(T entidad) {
+        Long id = entidad.getId();
+        if (id == null) {
+            id = nextId.getAndIncrement();
+            entidad.setId(id);
+        } else {
+            reservarHasta(id);
+        }
+        return id;
+    }
+
+    // Debe llamarse con el lock de la franja del ID tomado. Si la escritura falla
+    // la entidad recupera la versión con la que llegó. Devuelve si el ID no existía.
+    // Un ID inexistente tiene versión 0: guardar con otra versión es escribir sobre
+    // una entidad que se borró mientras tanto, y también es un conflicto.
+    private boolean escribirVersionado(Long id, T entidad) {
+        T actual = entidades.get(id);
+        Long esperada = entidad.getVersion();
+        long vigente = actual == null || actual.getVersion() == null ? 0 : actual.getVersion();
+        if (esperada != null && esperada != vigente) {
+            throw new ConflictoVersionException(id, esperada, vigente);
+        }
+        entidad.setVersion(vigente + 1);
+        try {
+            escribir(id, entidad);
+        } catch (RuntimeException e) {
+            entidad.setVersion(esperada);
+            throw e;
+        }
+        return actual == null;
+    }
+
+    private void notificarGuardado(T entidad, boolean nueva) {
+        for (StoreListener<T> listener : listeners) {
+            listener.saved(entidad, nueva);
+        }
+    }
+
+    // Debe llamarse con el lock de la franja del ID tomado.
+    private void escribir(Long id, T entidad) {
+        T anterior = entidades.get(id);
+        indexar(id, entidad, anterior);
+        entidades.put(id, entidad);
+        modificados.put(id, reloj.instant());
+        if (anterior == null) {
+            ids.add(id);
+        }
+        modificaciones.incrementAndGet();
+    }
+
+    private T eliminar(Long id) {
+        Lock lock = locks.get(id);
+        lock.lock();
+        try {
+            T eliminado = entidades.remove(id);
+            if (eliminado != null) {
+                ids.remove(id);
+                modificados.remove(id);
+                for (EntityIndex<T> indice : indices) {
+                    indice.remove(id);
+                }
+                modificaciones.incrementAndGet();
+            }
+            return eliminado;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void indexar(Long id, T entidad, T anterior) {
+        for (int i = 0; i < indices.size(); i++) {
+            try {
+                indices.get(i).put(id, entidad);
+            } catch (RuntimeException e) {
+                for (int j = i - 1; j >= 0; j--) {
+                    if (anterior != null) {
+                        indices.get(j).put(id, anterior);
+                    } else {
+                        indices.get(j).remove(id);
+                    }
+                }
+                throw e;
+            }
+        }
+    }
+
+    // Un ID explícito no debe volver a entregarse como ID autogenerado.
+    private void reservarHasta(Long id) {
+        nextId.accumulateAndGet(id + 1, Math::max);
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.springLibrarySystem.storage;
+
+import com.example.springLibrarySystem.models.Entidad;
+
+/**
+ * Índice secundario que el {@link ConcurrentEntityStore} mantiene en cada escritura.
+ * Se invoca con el lock de la franja del ID tomado.
+ */
+public interface EntityIndex<T extends Entidad> {
+
+    /**
+     * Registra o actualiza la entrada de la entidad. Si lanza una excepción,
+     * el índice debe quedar como estaba y la escritura se cancela.
+     */
+    void put(Long id, T entidad);
+
+    void remove(Long id);
+}
@@ -0,0 +1,86 @@
+package com.example.springLibrarySystem.storage;
+
+import com.example.springLibrarySystem.models.Entidad;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Índice valor de enum → IDs, con un conjunto ordenado y un contador por cada valor.
+ * Filtrar por un valor recorre sólo sus IDs y contar no recorre nada, a diferencia
+ * de {@link ConcurrentSkipListSet#size()}, que es lineal.
+ */
+public class EnumIndex<T extends Entidad, E extends Enum<E>> implements EntityIndex<T> {
+    private final Class<E> tipo;
+    private final Function<T, E> extractor;
+    private final Map<E, NavigableSet<Long>> idsPorValor;
+    private final Map<E, LongAdder> cantidades;
+    private final ConcurrentMap<Long, E> valoresPorId = new ConcurrentHashMap<>();
+
+    public EnumIndex(Class<E> tipo, Function<T, E> extractor) {
+        this.tipo = tipo;
+        this.extractor = extractor;
+        this.idsPorValor = new EnumMap<>(tipo);
+        this.cantidades = new EnumMap<>(tipo);
+        for (E valor : tipo.getEnumConstants()) {
+            idsPorValor.put(valor, new ConcurrentSkipListSet<>());
+            cantidades.put(valor, new LongAdder());
+        }
+    }
+
+    @Override
+    public void put(Long id, T entidad) {
+        E nuevo = extractor.apply(entidad);
+        E anterior = nuevo == null ? valoresPorId.remove(id) : valoresPorId.put(id, nuevo);
+        if (nuevo == anterior) {
+            return;
+        }
+        if (anterior != null) {
+            quitar(anterior, id);
+        }
+        if (nuevo != null) {
+            idsPorValor.get(nuevo).add(id);
+            cantidades.get(nuevo).increment();
+        }
+    }
+
+    @Override
+    public void remove(Long id) {
+        E anterior = valoresPorId.remove(id);
+        if (anterior != null) {
+            quitar(anterior, id);
+        }
+    }
+
+    /**
+     * IDs con ese valor, en orden. La vista es débilmente consistente con las escrituras en curso.
+     */
+    public NavigableSet<Long> find(E valor) {
+        return Collections.unmodifiableNavigableSet(idsPorValor.get(valor));
+    }
+
+    public long count(E valor) {
+        return cantidades.get(valor).sum();
+    }
+
+    /**
+     * Cantidad de entidades por valor, incluidos los valores sin ninguna.
+     */
+    public Map<E, Long> counts() {
+        Map<E, Long> resultado = new EnumMap<>(tipo);
+        cantidades.forEach((valor, cantidad) -> resultado.put(valor, cantidad.sum()));
+        return resultado;
+    }
+
+    private void quitar(E valor, Long id) {
+        idsPorValor.get(valor).remove(id);
+        cantidades.get(valor).decrement();
+    }
+}
@@ -0,0 +1,318 @@
+package com.example.springLibrarySystem.storage;
+
+import com.example.springLibrarySystem.models.Entidad;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Índice invertido término → postings sobre uno o más campos de texto, con ranking
+ * BM25. Los términos salen de {@link TextKeys#terms(String)}, así que la búsqueda
+ * ignora mayúsculas y tildes.
+ *
+ * En la consulta, una palabra terminada en {@code *} busca por prefijo
+ * ("garc*" encuentra "garcia"); el resto de las palabras se buscan exactas y
+ * basta con que coincida una para que el documento aparezca.
+ *
+ * Los postings de cada término viven en arreglos primitivos ordenados por ID:
+ * una consulta sobre un término presente en cientos de miles de documentos los
+ * recorre sin tocar un objeto por posting. Las búsquedas leen una instantánea
+ * sin locks; las escrituras sobre un término se serializan en su entrada del mapa.
+ */
+public class FullTextIndex<T extends Entidad> implements EntityIndex<T> {
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    // Un prefijo muy corto puede abarcar buena parte del vocabulario.
+    static final int MAX_EXPANSIONES = 64;
+
+    // Frecuencia y longitud del documento van en un solo int, que se escribe de forma atómica.
+    private static final int BITS_LONGITUD = 20;
+    private static final int MAX_LONGITUD = (1 << BITS_LONGITUD) - 1;
+    private static final int MAX_FRECUENCIA = (1 << (31 - BITS_LONGITUD)) - 1;
+    private static final int BORRADO = 0;
+
+    private final List<Function<T, String>> campos;
+    private final ConcurrentMap<String, Tramo> postings = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListSet<String> vocabulario = new ConcurrentSkipListSet<>();
+    private final ConcurrentMap<Long, Documento> documentos = new ConcurrentHashMap<>();
+    private final AtomicLong longitudTotal = new AtomicLong();
+
+    public record Coincidencia(Long id, double puntaje) {
+    }
+
+    /**
+     * Lo indexado de una entidad: referencias a los textos de sus campos (no copias)
+     * y la cantidad de términos. Los términos se recalculan sólo cuando cambia un texto
+     * o se borra la entidad, así que el índice no guarda una segunda copia de cada término.
+     */
+    private record Documento(String[] textos, int longitud) {
+    }
+
+    public FullTextIndex(List<Function<T, String>> campos) {
+        this.campos = List.copyOf(campos);
+    }
+
+    @Override
+    public void put(Long id, T entidad) {
+        String[] textos = new String[campos.size()];
+        for (int i = 0; i < textos.length; i++) {
+            textos[i] = campos.get(i).apply(entidad);
+        }
+        Documento anterior = documentos.get(id);
+        if (anterior != null && Arrays.equals(anterior.textos(), textos)) {
+            return;
+        }
+        Map<String, Integer> frecuencias = frecuencias(textos);
+        int longitud = frecuencias.values().stream().mapToInt(Integer::intValue).sum();
+        if (longitud == 0) {
+            documentos.remove(id);
+        } else {
+            documentos.put(id, new Documento(textos, longitud));
+        }
+        if (anterior != null) {
+            for (String termino : frecuencias(anterior.textos()).keySet()) {
+                if (!frecuencias.containsKey(termino)) {
+                    quitar(termino, id);
+                }
+            }
+        }
+        frecuencias.forEach((termino, frecuencia) -> agregar(termino, id, frecuencia, longitud));
+        longitudTotal.addAndGet(longitud - (anterior == null ? 0 : anterior.longitud()));
+    }
+
+    @Override
+    public void remove(Long id) {
+        Documento anterior = documentos.remove(id);
+        if (anterior != null) {
+            frecuencias(anterior.textos()).keySet().forEach(termino -> quitar(termino, id));
+            longitudTotal.addAndGet(-anterior.longitud());
+        }
+    }
+
+    /**
+     * Devuelve hasta {@code limite} coincidencias ordenadas por puntaje descendente
+     * (a igual puntaje, por ID). Sólo recorre los postings de los términos de la consulta.
+     */
+    public List<Coincidencia> search(String consulta, int limite) {
+        int total = documentos.size();
+        if (consulta == null || limite <= 0 || total == 0) {
+            return List.of();
+        }
+        double longitudMedia = Math.max(1.0, (double) longitudTotal.get() / total);
+        List<Tramo> tramos = new ArrayList<>();
+        int candidatos = 0;
+        for (String termino : expandir(consulta)) {
+            Tramo tramo = postings.get(termino);
+            if (tramo != null) {
+                tramos.add(tramo);
+                candidatos += tramo.tamanio();
+            }
+        }
+        Puntajes puntajes = new Puntajes(candidatos);
+        for (Tramo tramo : tramos) {
+            double idf = Math.log(1 + (total - tramo.vivos() + 0.5) / (tramo.vivos() + 0.5));
+            long[] ids = tramo.ids();
+            int[] datos = tramo.datos();
+            for (int i = 0; i < tramo.tamanio(); i++) {
+                int posting = datos[i];
+                if (posting == BORRADO) {
+                    continue;
+                }
+                int frecuencia = posting >>> BITS_LONGITUD;
+                double normalizacion = K1 * (1 - B + B * (posting & MAX_LONGITUD) / longitudMedia);
+                puntajes.sumar(ids[i], idf * frecuencia * (K1 + 1) / (frecuencia + normalizacion));
+            }
+        }
+        return puntajes.mejores(limite);
+    }
+
+    public int size() {
+        return documentos.size();
+    }
+
+    private static Map<String, Integer> frecuencias(String[] textos) {
+        Map<String, Integer> frecuencias = new HashMap<>();
+        for (String texto : textos) {
+            for (String termino : TextKeys.terms(texto)) {
+                frecuencias.merge(termino, 1, Integer::sum);
+            }
+        }
+        return frecuencias;
+    }
+
+    // Cada término exacto cuenta una vez aunque se repita en la consulta;
+    // un prefijo se reemplaza por los términos del vocabulario que empiezan con él.
+    private List<String> expandir(String consulta) {
+        List<String> terminos = new ArrayList<>();
+        for (String palabra : consulta.trim().split("\\s+")) {
+            List<String> partes = TextKeys.terms(palabra);
+            if (partes.isEmpty()) {
+                continue;
+            }
+            int ultima = palabra.endsWith("*") ? partes.size() - 1 : partes.size();
+            for (String parte : partes.subList(0, ultima)) {
+                if (!terminos.contains(parte)) {
+                    terminos.add(parte);
+                }
+            }
+            if (ultima < partes.size()) {
+                String prefijo = partes.get(ultima);
+                vocabulario.subSet(prefijo, prefijo + Character.MAX_VALUE).stream()
+                        .filter(termino -> !terminos.contains(termino))
+                        .limit(MAX_EXPANSIONES)
+                        .forEach(terminos::add);
+            }
+        }
+        return terminos;
+    }
+
+    // Con el lock del bin del término tomado, así que el vocabulario no se
+    // desincroniza de los postings aunque otro ID escriba el mismo término.
+    private void agregar(String termino, Long id, int frecuencia, int longitud) {
+        int posting = Math.min(frecuencia, MAX_FRECUENCIA) << BITS_LONGITUD | Math.min(longitud, MAX_LONGITUD);
+        postings.compute(termino, (t, tramo) -> {
+            if (tramo == null) {
+                vocabulario.add(t);
+                return new Tramo(new long[]{id}, new int[]{posting}, 1, 1);
+            }
+            return tramo.con(id, posting);
+        });
+    }
+
+    private void quitar(String termino, Long id) {
+        postings.computeIfPresent(termino, (t, tramo) -> {
+            Tramo resultado = tramo.sin(id);
+            if (resultado == null) {
+                vocabulario.remove(t);
+            }
+            return resultado;
+        });
+    }
+
+    /**
+     * Postings de un término ordenados por ID: los primeros {@code tamanio} elementos
+     * de los arreglos, de los cuales {@code vivos} no están borrados. Las búsquedas leen
+     * la vista publicada en el mapa; cada escritura devuelve la vista que la reemplaza.
+     *
+     * Un ID mayor que todos se escribe después del final de la vista vigente, sin copiar;
+     * un borrado deja una marca que se compacta cuando las marcas son mayoría; insertar
+     * en el medio copia los arreglos. Dentro de una vista publicada sólo cambia, in situ,
+     * el posting de un ID que se actualiza o se borra.
+     */
+    private record Tramo(long[] ids, int[] datos, int tamanio, int vivos) {
+
+        Tramo con(long id, int posting) {
+            int i = Arrays.binarySearch(ids, 0, tamanio, id);
+            if (i >= 0) {
+                boolean revive = datos[i] == BORRADO;
+                datos[i] = posting;
+                return revive ? new Tramo(ids, datos, tamanio, vivos + 1) : this;
+            }
+            int posicion = -i - 1;
+            if (posicion == tamanio && tamanio < ids.length) {
+                ids[tamanio] = id;
+                datos[tamanio] = posting;
+                return new Tramo(ids, datos, tamanio + 1, vivos + 1);
+            }
+            int capacidad = Math.max(ids.length, tamanio + (tamanio >> 1) + 1);
+            long[] nuevosIds = new long[capacidad];
+            int[] nuevosDatos = new int[capacidad];
+            System.arraycopy(ids, 0, nuevosIds, 0, posicion);
+            System.arraycopy(datos, 0, nuevosDatos, 0, posicion);
+            nuevosIds[posicion] = id;
+            nuevosDatos[posicion] = posting;
+            System.arraycopy(ids, posicion, nuevosIds, posicion + 1, tamanio - posicion);
+            System.arraycopy(datos, posicion, nuevosDatos, posicion + 1, tamanio - posicion);
+            return new Tramo(nuevosIds, nuevosDatos, tamanio + 1, vivos + 1);
+        }
+
+        // Devuelve null si no queda ningún posting vivo.
+        Tramo sin(long id) {
+            int i = Arrays.binarySearch(ids, 0, tamanio, id);
+            if (i < 0 || datos[i] == BORRADO) {
+                return this;
+            }
+            datos[i] = BORRADO;
+            int restantes = vivos - 1;
+            if (restantes == 0) {
+                return null;
+            }
+            return restantes * 2 < tamanio ? compactar(restantes) : new Tramo(ids, datos, tamanio, restantes);
+        }
+
+        private Tramo compactar(int restantes) {
+            int capacidad = restantes + (restantes >> 1);
+            long[] nuevosIds = new long[capacidad];
+            int[] nuevosDatos = new int[capacidad];
+            int j = 0;
+            for (int i = 0; i < tamanio; i++) {
+                if (datos[i] != BORRADO) {
+                    nuevosIds[j] = ids[i];
+                    nuevosDatos[j++] = datos[i];
+                }
+            }
+            return new Tramo(nuevosIds, nuevosDatos, j, j);
+        }
+    }
+
+    /**
+     * Acumulador ID → puntaje con direccionamiento abierto sobre arreglos primitivos,
+     * dimensionado con la suma de los postings de la consulta.
+     */
+    private static final class Puntajes {
+        private final long[] ids;
+        private final double[] valores;
+        private final boolean[] ocupados;
+        private final int mascara;
+
+        Puntajes(int candidatos) {
+            int capacidad = Integer.highestOneBit(Math.max(8, candidatos)) << 2;
+            ids = new long[capacidad];
+            valores = new double[capacidad];
+            ocupados = new boolean[capacidad];
+            mascara = capacidad - 1;
+        }
+
+        void sumar(long id, double puntaje) {
+            int i = (int) (id * 0x9E3779B97F4A7C15L >>> 32) & mascara;
+            while (ocupados[i] && ids[i] != id) {
+                i = (i + 1) & mascara;
+            }
+            ids[i] = id;
+            ocupados[i] = true;
+            valores[i] += puntaje;
+        }
+
+        List<Coincidencia> mejores(int limite) {
+            Comparator<Coincidencia> orden = Comparator.comparingDouble(Coincidencia::puntaje)
+                    .thenComparing(Coincidencia::id, Comparator.reverseOrder());
+            PriorityQueue<Coincidencia> monticulo = new PriorityQueue<>(limite + 1, orden);
+            for (int i = 0; i < ids.length; i++) {
+                if (!ocupados[i]) {
+                    continue;
+                }
+                Coincidencia minima = monticulo.peek();
+                if (monticulo.size() < limite || valores[i] > minima.puntaje()
+                        || (valores[i] == minima.puntaje() && ids[i] < minima.id())) {
+                    monticulo.add(new Coincidencia(ids[i], valores[i]));
+                    if (monticulo.size() > limite) {
+                        monticulo.poll();
+                    }
+                }
+            }
+            List<Coincidencia> resultado = new ArrayList<>(monticulo);
+            resultado.sort(orden.reversed());
+            return resultado;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.springLibrarySystem.storage;
+
+import com.example.springLibrarySystem.models.Entidad;
+
+import java.util.Collections;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Function;
+
+/**
+ * Índice clave → IDs para claves que pueden repetirse entre entidades.
+ * Los IDs de cada clave se mantienen ordenados.
+ */
+public class MultiValueIndex<T extends Entidad, K> implements EntityIndex<T> {
+    private final Function<T, K> extractorClave;
+    private final ConcurrentMap<K, NavigableSet<Long>> idsPorClave = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, K> clavesPorId = new ConcurrentHashMap<>();
+
+    public MultiValueIndex(Function<T, K> extractorClave) {
+        this.extractorClave = extractorClave;
+    }
+
+    @Override
+    public void put(Long id, T entidad) {
+        K nueva = extractorClave.apply(entidad);
+        K anterior = nueva == null ? clavesPorId.remove(id) : clavesPorId.put(id, nueva);
+        if (Objects.equals(nueva, anterior)) {
+            return;
+        }
+        if (anterior != null) {
+            quitar(anterior, id);
+        }
+        if (nueva != null) {
+            idsPorClave.compute(nueva, (clave, ids) -> {
+                NavigableSet<Long> resultado = ids != null ? ids : new ConcurrentSkipListSet<>();
+                resultado.add(id);
+                return resultado;
+            });
+        }
+    }
+
+    @Override
+    public void remove(Long id) {
+        K anterior = clavesPorId.remove(id);
+        if (anterior != null) {
+            quitar(anterior, id);
+        }
+    }
+
+    public NavigableSet<Long> find(K clave) {
+        NavigableSet<Long> ids = clave == null ? null : idsPorClave.get(clave);
+        return ids == null ? Collections.emptyNavigableSet() : Collections.unmodifiableNavigableSet(ids);
+    }
+
+    public Optional<Long> findFirst(K clave) {
+        NavigableSet<Long> ids = find(clave);
+        return ids.isEmpty() ? Optional.empty() : Optional.of(ids.first());
+    }
+
+    private void quitar(K clave, Long id) {
+        idsPorClave.computeIfPresent(clave, (k, ids) -> {
+            ids.remove(id);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.springLibrarySystem.storage;
+
+import com.example.springLibrarySystem.models.Entidad;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Function;
+
+/**
+ * Índice ordenado por una clave comparable (por ejemplo una fecha), con los empates
+ * ordenados por ID. Un rango de claves se recorre sin mirar las entidades de afuera.
+ * Las entidades cuya clave es {@code null} no se indexan.
+ */
+public class SortedIndex<T extends Entidad, K extends Comparable<? super K>> implements EntityIndex<T> {
+    private final Function<T, K> extractorClave;
+    private final NavigableSet<Entrada<K>> entradas =
+            new ConcurrentSkipListSet<>(Comparator.<Entrada<K>, K>comparing(Entrada::clave).thenComparingLong(Entrada::id));
+    private final ConcurrentMap<Long, K> clavesPorId = new ConcurrentHashMap<>();
+
+    public SortedIndex(Function<T, K> extractorClave) {
+        this.extractorClave = extractorClave;
+    }
+
+    @Override
+    public void put(Long id, T entidad) {
+        K nueva = extractorClave.apply(entidad);
+        K anterior = nueva == null ? clavesPorId.remove(id) : clavesPorId.put(id, nueva);
+        if (Objects.equals(nueva, anterior)) {
+            return;
+        }
+        if (anterior != null) {
+            entradas.remove(new Entrada<>(anterior, id));
+        }
+        if (nueva != null) {
+            entradas.add(new Entrada<>(nueva, id));
+        }
+    }
+
+    @Override
+    public void remove(Long id) {
+        K anterior = clavesPorId.remove(id);
+        if (anterior != null) {
+            entradas.remove(new Entrada<>(anterior, id));
+        }
+    }
+
+    /**
+     * IDs con clave en {@code [desde, hasta)}, ordenados por clave y después por ID.
+     * @param desde Límite inferior inclusivo, o {@code null} para empezar por la menor
+     * @param limite Cantidad máxima de IDs
+     */
+    public List<Long> findBetween(K desde, K hasta, int limite) {
+        NavigableSet<Entrada<K>> rango = desde == null
+                ? entradas.headSet(new Entrada<>(hasta, Long.MIN_VALUE), false)
+                : entradas.subSet(new Entrada<>(desde, Long.MIN_VALUE), true, new Entrada<>(hasta, Long.MIN_VALUE), false);
+        List<Long> ids = new ArrayList<>(Math.min(limite, 64));
+        for (Entrada<K> entrada : rango) {
+            if (ids.size() >= limite) {
+                break;
+            }
+            ids.add(entrada.id());
+        }
+        return ids;
+    }
+
+    public int size() {
+        return clavesPorId.size();
+    }
+
+    private record Entrada<K>(K clave, long id) {
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.springLibrarySystem.storage;
+
+import com.example.springLibrarySystem.models.Entidad;
+
+/**
+ * Registro durable de las escrituras de un {@link ConcurrentEntityStore}.
+ * {@code recordSave} y {@code recordDelete} se llaman con el lock de la franja
+ * tomado y devuelven un ticket; {@code awaitDurable} se llama ya sin el lock
+ * y bloquea hasta que el ticket quedó persistido.
+ */
+public interface StoreJournal<T extends Entidad> {
+
+    long recordSave(T entidad);
+
+    long recordDelete(Long id);
+
+    void awaitDurable(long ticket);
+
+    static <T extends Entidad> StoreJournal<T> none() {
+        return new StoreJournal<>() {
+            @Override
+            public long recordSave(T entidad) {
+                return 0;
+            }
+
+            @Override
+            public long recordDelete(Long id) {
+                return 0;
+            }
+
+            @Override
+            public void awaitDurable(long ticket) {
+            }
+        };
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.springLibrarySystem.storage;
+
+import com.example.springLibrarySystem.models.Entidad;
+
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Recibe cada escritura confirmada de un {@link ConcurrentEntityStore}. Se llama con el
+ * lock de la franja tomado y después de aplicar el cambio, así que los cambios de un mismo
+ * ID llegan en el orden en que se aplicaron. Lo recuperado de disco no se notifica.
+ * Debe ser rápido y no lanzar excepciones: la escritura ya está hecha.
+ */
+public interface StoreListener<T extends Entidad> {
+
+    void saved(T entidad, boolean nueva);
+
+    void deleted(T entidad);
+
+    static <T extends Entidad> StoreListener<T> of(BiConsumer<T, Boolean> alGuardar, Consumer<T> alEliminar) {
+        return new StoreListener<>() {
+            @Override
+            public void saved(T entidad, boolean nueva) {
+                alGuardar.accept(entidad, nueva);
+            }
+
+            @Override
+            public void deleted(T entidad) {
+                alEliminar.accept(entidad);
+            }
+        };
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.springLibrarySystem.storage;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Conjunto fijo de locks repartidos por hash de clave.
+ * Dos claves distintas sólo compiten si caen en la misma franja.
+ */
+public class StripedLocks {
+    private final ReentrantLock[] locks;
+    private final int mascara;
+
+    public StripedLocks(int franjas) {
+        int cantidad = 1;
+        while (cantidad < franjas) {
+            cantidad <<= 1;
+        }
+        this.locks = new ReentrantLock[cantidad];
+        for (int i = 0; i < cantidad; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        this.mascara = cantidad - 1;
+    }
+
+    public Lock get(Object clave) {
+        return locks[indice(clave)];
+    }
+
+    public Lock getAt(int indice) {
+        return locks[indice];
+    }
+
+    public int size() {
+        return locks.length;
+    }
+
+    public int indice(Object clave) {
+        int h = clave.hashCode();
+        return (h ^ (h >>> 16)) & mascara;
+    }
+}
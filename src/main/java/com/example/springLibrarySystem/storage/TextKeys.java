@@ -0,0 +1,72 @@
+package com.example.springLibrarySystem.storage;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Normalización de claves de texto para índices que ignoran mayúsculas
+ * y separación en términos para la búsqueda de texto completo.
+ */
+public final class TextKeys {
+
+    private TextKeys() {
+    }
+
+    /**
+     * Pliega mayúsculas de forma independiente del locale: compatibilidad NFKC
+     * y luego mayúscula → minúscula, de modo que "STRASSE", "Straße" y "straße" coinciden.
+     * Las claves sólo ASCII (la mayoría de los emails e ISBN) se pasan a minúscula sin
+     * normalizar: NFKC no las cambia y el resultado es el mismo.
+     */
+    public static String fold(String texto) {
+        if (texto == null) {
+            return null;
+        }
+        if (esAscii(texto)) {
+            return texto.toLowerCase(Locale.ROOT);
+        }
+        String normalizado = Normalizer.normalize(texto, Normalizer.Form.NFKC);
+        return normalizado.toUpperCase(Locale.ROOT).toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Separa el texto en términos de letras y dígitos, en minúscula y sin tildes
+     * ni diéresis ("Canción" → "cancion", "Güemes" → "guemes", "Año" → "ano").
+     */
+    public static List<String> terms(String texto) {
+        List<String> terminos = new ArrayList<>();
+        if (texto == null || texto.isEmpty()) {
+            return terminos;
+        }
+        String plegado = esAscii(texto) ? texto : Normalizer.normalize(texto, Normalizer.Form.NFKD);
+        StringBuilder actual = new StringBuilder();
+        for (int i = 0; i < plegado.length(); ) {
+            int c = plegado.codePointAt(i);
+            i += Character.charCount(c);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            if (Character.isLetterOrDigit(c)) {
+                actual.appendCodePoint(Character.toLowerCase(c));
+            } else if (!actual.isEmpty()) {
+                terminos.add(actual.toString());
+                actual.setLength(0);
+            }
+        }
+        if (!actual.isEmpty()) {
+            terminos.add(actual.toString());
+        }
+        return terminos;
+    }
+
+    private static boolean esAscii(String texto) {
+        for (int i = 0; i < texto.length(); i++) {
+            if (texto.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
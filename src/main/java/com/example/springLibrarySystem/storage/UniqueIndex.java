@@ -0,0 +1,63 @@
+package com.example.springLibrarySystem.storage;
+
+import com.example.springLibrarySystem.models.Entidad;
+
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * Índice clave → ID que rechaza dos entidades con la misma clave.
+ * Guarda también la clave vigente de cada ID para poder limpiar la anterior
+ * aunque la entidad se haya modificado en el lugar.
+ */
+public class UniqueIndex<T extends Entidad, K> implements EntityIndex<T> {
+    private final Function<T, K> extractorClave;
+    private final Function<K, ? extends RuntimeException> errorDuplicado;
+    private final ConcurrentMap<K, Long> idsPorClave = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, K> clavesPorId = new ConcurrentHashMap<>();
+
+    public UniqueIndex(Function<T, K> extractorClave, Function<K, ? extends RuntimeException> errorDuplicado) {
+        this.extractorClave = extractorClave;
+        this.errorDuplicado = errorDuplicado;
+    }
+
+    @Override
+    public void put(Long id, T entidad) {
+        K nueva = extractorClave.apply(entidad);
+        K anterior = clavesPorId.get(id);
+        if (Objects.equals(nueva, anterior)) {
+            return;
+        }
+        if (nueva != null) {
+            Long existente = idsPorClave.putIfAbsent(nueva, id);
+            if (existente != null && !existente.equals(id)) {
+                throw errorDuplicado.apply(nueva);
+            }
+            clavesPorId.put(id, nueva);
+        } else {
+            clavesPorId.remove(id);
+        }
+        if (anterior != null) {
+            idsPorClave.remove(anterior, id);
+        }
+    }
+
+    @Override
+    public void remove(Long id) {
+        K anterior = clavesPorId.remove(id);
+        if (anterior != null) {
+            idsPorClave.remove(anterior, id);
+        }
+    }
+
+    public Optional<Long> find(K clave) {
+        return clave == null ? Optional.empty() : Optional.ofNullable(idsPorClave.get(clave));
+    }
+
+    public int size() {
+        return idsPorClave.size();
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.springLibrarySystem;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.embedded.netty.NettyWebServer;
+import org.springframework.boot.web.reactive.context.ReactiveWebServerApplicationContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("reactive")
+class ReactiveApplicationTests {
+
+	@Autowired
+	private ReactiveWebServerApplicationContext context;
+
+	@Autowired
+	private WebTestClient webTestClient;
+
+	@Test
+	void reactiveProfileRunsOnNetty() {
+		assertInstanceOf(NettyWebServer.class, context.getWebServer());
+		webTestClient.get().uri("/api/libros").exchange().expectStatus().isOk();
+	}
+
+}
@@ -0,0 +1,90 @@
+package com.example.springLibrarySystem.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedCacheTest {
+
+    @Test
+    void secondLookupIsServedFromCache() {
+        BoundedCache<Long, String> cache = new BoundedCache<>("test", 10, Duration.ZERO);
+        AtomicInteger cargas = new AtomicInteger();
+
+        cache.obtener(1L, id -> Optional.of("uno-" + cargas.incrementAndGet()));
+        Optional<String> valor = cache.obtener(1L, id -> Optional.of("uno-" + cargas.incrementAndGet()));
+
+        assertEquals("uno-1", valor.orElseThrow());
+        assertEquals(new BoundedCache.Estadisticas(1, 1, 0, 1), cache.estadisticas());
+    }
+
+    @Test
+    void emptyResultsAreNotCached() {
+        BoundedCache<Long, String> cache = new BoundedCache<>("test", 10, Duration.ZERO);
+
+        cache.obtener(1L, id -> Optional.empty());
+        cache.obtener(1L, id -> Optional.empty());
+
+        assertEquals(2, cache.estadisticas().fallos());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void leastRecentlyUsedEntryIsEvictedWhenFull() {
+        BoundedCache<Long, String> cache = new BoundedCache<>("test", 2, Duration.ZERO, 1, System::nanoTime);
+        cache.obtener(1L, id -> Optional.of("uno"));
+        cache.obtener(2L, id -> Optional.of("dos"));
+        cache.obtener(1L, id -> Optional.of("uno"));
+
+        cache.obtener(3L, id -> Optional.of("tres"));
+
+        assertEquals(1, cache.estadisticas().desalojos());
+        AtomicInteger recargas = new AtomicInteger();
+        cache.obtener(1L, id -> Optional.of("uno-" + recargas.incrementAndGet()));
+        cache.obtener(2L, id -> Optional.of("dos-" + recargas.incrementAndGet()));
+        assertEquals(1, recargas.get(), "sólo el 2 (el menos usado) debió desalojarse");
+    }
+
+    @Test
+    void entriesExpireAfterTtl() {
+        AtomicLong reloj = new AtomicLong();
+        BoundedCache<Long, String> cache = new BoundedCache<>("test", 10, Duration.ofSeconds(5), 1, reloj::get);
+        cache.obtener(1L, id -> Optional.of("viejo"));
+
+        reloj.addAndGet(Duration.ofSeconds(4).toNanos());
+        assertEquals("viejo", cache.obtener(1L, id -> Optional.of("nuevo")).orElseThrow());
+
+        reloj.addAndGet(Duration.ofSeconds(1).toNanos());
+        assertEquals("nuevo", cache.obtener(1L, id -> Optional.of("nuevo")).orElseThrow());
+        assertEquals(1, cache.estadisticas().desalojos());
+    }
+
+    @Test
+    void invalidateRemovesEntry() {
+        BoundedCache<Long, String> cache = new BoundedCache<>("test", 10, Duration.ZERO);
+        cache.obtener(1L, id -> Optional.of("viejo"));
+
+        cache.invalidar(1L);
+
+        assertEquals("nuevo", cache.obtener(1L, id -> Optional.of("nuevo")).orElseThrow());
+    }
+
+    @Test
+    void loadStartedBeforeInvalidationIsNotCached() {
+        BoundedCache<Long, String> cache = new BoundedCache<>("test", 10, Duration.ZERO);
+
+        Optional<String> leido = cache.obtener(1L, id -> {
+            // Un escritor reemplaza el valor mientras la carga todavía está en curso.
+            cache.invalidar(1L);
+            return Optional.of("viejo");
+        });
+
+        assertEquals("viejo", leido.orElseThrow());
+        assertEquals(0, cache.size());
+    }
+}
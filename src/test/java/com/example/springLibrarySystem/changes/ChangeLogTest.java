@@ -0,0 +1,143 @@
+package com.example.springLibrarySystem.changes;
+
+import com.example.springLibrarySystem.enums.EstadoLibro;
+import com.example.springLibrarySystem.enums.EstadoUsuario;
+import com.example.springLibrarySystem.enums.TipoCambio;
+import com.example.springLibrarySystem.exception.CambiosNoDisponiblesException;
+import com.example.springLibrarySystem.models.Libro;
+import com.example.springLibrarySystem.models.Usuario;
+import com.example.springLibrarySystem.repository.LibroRepositoryImpl;
+import com.example.springLibrarySystem.repository.UsuarioRepositoryImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChangeLogTest {
+
+    private final ObjectMapper mapper = JsonMapper.builder().findAndAddModules().build();
+    private final LibroRepositoryImpl libroRepository = new LibroRepositoryImpl();
+    private final UsuarioRepositoryImpl usuarioRepository = new UsuarioRepositoryImpl();
+    private ChangeLog changeLog;
+
+    @TempDir
+    Path directorio;
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (changeLog != null) {
+            changeLog.close();
+        }
+    }
+
+    private ChangeLog abrir(int capacidad, Path enDisco) throws IOException {
+        ChangeLog nuevo = new ChangeLog(capacidad, enDisco, Duration.ofDays(7), mapper);
+        libroRepository.getStore().addListener(nuevo.listener("libros", Libro.class));
+        usuarioRepository.getStore().addListener(nuevo.listener("usuarios", Usuario.class));
+        return nuevo;
+    }
+
+    private Libro libro(int i) {
+        return new Libro(null, "isbn-" + i, "Libro " + i, "Autor", EstadoLibro.DISPONIBLE);
+    }
+
+    @Test
+    void assignsGaplessOffsetsAcrossRepositories() throws IOException {
+        changeLog = abrir(16, null);
+        Libro libro = libroRepository.save(libro(1));
+        usuarioRepository.save(new Usuario(null, "Ana", "ana@mail.com", EstadoUsuario.ACTIVO));
+        libroRepository.deleteById(libro.getId());
+
+        List<Cambio> cambios = changeLog.read(0, 100);
+
+        assertEquals(List.of(1L, 2L, 3L), cambios.stream().map(Cambio::offset).toList());
+        assertEquals(List.of("libros", "usuarios", "libros"), cambios.stream().map(Cambio::coleccion).toList());
+        assertEquals(TipoCambio.ELIMINADO, cambios.get(2).tipo());
+        assertEquals(libro.getId(), cambios.get(2).id());
+        assertNull(cambios.get(2).entidad());
+        assertEquals(List.of(3L), changeLog.read(2, 100).stream().map(Cambio::offset).toList());
+        assertTrue(changeLog.read(3, 100).isEmpty());
+        assertEquals(3, changeLog.lastOffset());
+    }
+
+    @Test
+    void offsetsOutOfMemoryWithoutDiskAreGone() throws IOException {
+        changeLog = abrir(4, null);
+        for (int i = 0; i < 10; i++) {
+            libroRepository.save(libro(i));
+        }
+
+        assertThrows(CambiosNoDisponiblesException.class, () -> changeLog.read(0, 10));
+        assertEquals(List.of(7L, 8L, 9L, 10L), changeLog.read(6, 10).stream().map(Cambio::offset).toList());
+        // Un offset posterior al último, por ejemplo guardado antes de un reinicio.
+        assertThrows(CambiosNoDisponiblesException.class, () -> changeLog.read(11, 10));
+    }
+
+    @Test
+    void awaitReturnsAsSoonAsAChangeArrives() throws Exception {
+        changeLog = abrir(16, null);
+        assertTrue(changeLog.await(0, 10, Duration.ofMillis(20)).isEmpty());
+
+        CompletableFuture<List<Cambio>> espera = CompletableFuture.supplyAsync(() -> {
+            try {
+                return changeLog.await(0, 10, Duration.ofSeconds(10));
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        Thread.sleep(50);
+        libroRepository.save(libro(1));
+
+        assertEquals(1, espera.get(5, TimeUnit.SECONDS).size());
+    }
+
+    @Test
+    void spillServesEvictedChangesAndOffsetsSurviveRestart() throws IOException {
+        changeLog = abrir(2, directorio);
+        for (int i = 0; i < 5; i++) {
+            libroRepository.save(libro(i));
+        }
+
+        List<Cambio> desdeDisco = changeLog.read(0, 10);
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), desdeDisco.stream().map(Cambio::offset).toList());
+        assertEquals("Libro 0", ((Libro) desdeDisco.get(0).entidad()).getTitulo());
+
+        changeLog.close();
+        changeLog = abrir(2, directorio);
+        assertEquals(5, changeLog.lastOffset());
+        usuarioRepository.save(new Usuario(null, "Ana", "ana@mail.com", EstadoUsuario.ACTIVO));
+
+        List<Cambio> retomados = changeLog.read(3, 10);
+        assertEquals(List.of(4L, 5L, 6L), retomados.stream().map(Cambio::offset).toList());
+        assertEquals("usuarios", retomados.get(2).coleccion());
+    }
+
+    @Test
+    void purgeDropsSegmentsOlderThanRetention() throws IOException {
+        changeLog = abrir(2, directorio);
+        for (int i = 0; i < 3; i++) {
+            libroRepository.save(libro(i));
+        }
+        Instant ahora = Instant.now();
+        changeLog.purgar(ahora);
+        for (int i = 3; i < 6; i++) {
+            libroRepository.save(libro(i));
+        }
+
+        changeLog.purgar(ahora.plus(Duration.ofDays(8)));
+
+        assertThrows(CambiosNoDisponiblesException.class, () -> changeLog.read(0, 10));
+        assertEquals(List.of(4L, 5L), changeLog.read(3, 2).stream().map(Cambio::offset).toList());
+    }
+}
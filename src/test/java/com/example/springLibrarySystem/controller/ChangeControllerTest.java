@@ -0,0 +1,80 @@
+package com.example.springLibrarySystem.controller;
+
+import com.example.springLibrarySystem.changes.Cambio;
+import com.example.springLibrarySystem.changes.ChangeLog;
+import com.example.springLibrarySystem.enums.EstadoLibro;
+import com.example.springLibrarySystem.enums.TipoCambio;
+import com.example.springLibrarySystem.exception.CambiosNoDisponiblesException;
+import com.example.springLibrarySystem.models.Libro;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(ChangeController.class)
+class ChangeControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ChangeLog changeLog;
+
+    private Cambio cambio(long offset) {
+        return new Cambio(offset, "libros", TipoCambio.GUARDADO, 1L, Instant.parse("2025-01-01T00:00:00Z"),
+                new Libro(1L, "123", "Libro de prueba", "Autor X", EstadoLibro.DISPONIBLE));
+    }
+
+    @Test
+    void GETChangesSinceOffsetReturnsChangesAndNextOffset() throws Exception {
+        when(changeLog.await(5L, 50, Duration.ofSeconds(30))).thenReturn(List.of(cambio(6), cambio(7)));
+
+        mockMvc.perform(get("/api/changes").param("since", "5").param("wait", "120"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(ChangeController.HEADER_OFFSET, "7"))
+                .andExpect(jsonPath("$[0].offset").value(6))
+                .andExpect(jsonPath("$[0].entidad.titulo").value("Libro de prueba"))
+                .andExpect(jsonPath("$[1].offset").value(7));
+    }
+
+    @Test
+    void GETChangesUnavailableOffsetReturn410() throws Exception {
+        when(changeLog.await(eq(3L), anyInt(), any())).thenThrow(new CambiosNoDisponiblesException(3, 1));
+
+        mockMvc.perform(get("/api/changes").param("since", "3"))
+                .andExpect(status().isGone());
+    }
+
+    @Test
+    void GETChangesStreamSendsOffsetsAsEventIds() throws Exception {
+        when(changeLog.lastOffset()).thenReturn(7L);
+        when(changeLog.await(eq(5L), anyInt(), any())).thenReturn(List.of(cambio(6), cambio(7)));
+        when(changeLog.await(eq(7L), anyInt(), any())).thenThrow(new InterruptedException());
+
+        MvcResult resultado = mockMvc.perform(get("/api/changes")
+                        .accept(MediaType.TEXT_EVENT_STREAM)
+                        .header("Last-Event-ID", "5"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        // El emisor escribe desde otro hilo: se espera a que termine antes de despachar.
+        resultado.getAsyncResult(5000);
+
+        mockMvc.perform(asyncDispatch(resultado))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("id:6")))
+                .andExpect(content().string(containsString("id:7")));
+    }
+}
@@ -1,8 +1,13 @@
 package com.example.springLibrarySystem.controller;
 
 import com.example.springLibrarySystem.enums.EstadoLibro;
+import com.example.springLibrarySystem.exception.ConflictoVersionException;
+import com.example.springLibrarySystem.exception.EstadoLibroInvalidoException;
+import com.example.springLibrarySystem.exception.IsbnDuplicadoException;
+import com.example.springLibrarySystem.exception.LibroConPrestamosException;
 import com.example.springLibrarySystem.exception.LibroNoEncontradoException;
 import com.example.springLibrarySystem.models.Libro;
+import com.example.springLibrarySystem.models.ResultadoLote;
 import com.example.springLibrarySystem.service.LibroService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
@@ -11,9 +16,16 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.time.Instant;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
+import static org.hamcrest.Matchers.matchesPattern;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -36,7 +48,7 @@ class LibroControllerTest {
                 new Libro(1L, "123", "Libro 1", "Autor 1", EstadoLibro.DISPONIBLE),
                 new Libro(2L, "456", "Libro 2", "Autor 2", EstadoLibro.PRESTADO)
         );
-        when(libroService.findAll()).thenReturn(libros);
+        when(libroService.findPage(null, 51)).thenReturn(libros);
 
         mockMvc.perform(get("/api/libros"))
                 .andExpect(status().isOk())
@@ -119,13 +131,296 @@ class LibroControllerTest {
                 .andExpect(jsonPath("$.titulo").value("Actualizado"));
     }
 
+    @Test
+    void GETSearchReturnsRankedBooksWithClampedLimit() throws Exception {
+        when(libroService.search("soled*", LibroController.RESULTADOS_MAXIMOS))
+                .thenReturn(List.of(new Libro(1L, "123", "Cien años de soledad", "Gabriel García Márquez", EstadoLibro.DISPONIBLE)));
+
+        mockMvc.perform(get("/api/libros/search").param("q", "soled*").param("limit", "5000"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andExpect(jsonPath("$.size()").value(1))
+                .andExpect(jsonPath("$[0].titulo").value("Cien años de soledad"));
+    }
+
+    @Test
+    void GETSearchWithoutQueryReturn400() throws Exception {
+        mockMvc.perform(get("/api/libros/search"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void GETBookByIdReturnsEpochIdAndVersionAsETag() throws Exception {
+        Libro libro = new Libro(1L, "123", "Libro", "Autor", EstadoLibro.DISPONIBLE, 4L);
+        when(libroService.findById(1L)).thenReturn(libro);
+
+        mockMvc.perform(get("/api/libros/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", matchesPattern("\"[0-9a-z]+-1\\.4\"")));
+    }
+
+    @Test
+    void GETBookByIdWithCurrentETagReturn304WithoutBody() throws Exception {
+        Libro libro = new Libro(1L, "123", "Libro", "Autor", EstadoLibro.DISPONIBLE, 4L);
+        when(libroService.findById(1L)).thenReturn(libro);
+        String etag = ETags.de(libro);
+
+        mockMvc.perform(get("/api/libros/1").header("If-None-Match", "W/" + etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", etag))
+                .andExpect(content().string(""));
+
+        mockMvc.perform(get("/api/libros/1").header("If-None-Match", "\"4\""))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/libros/1").header("If-None-Match", ETags.de(new Libro(2L, "9", "Otro", "Autor", EstadoLibro.DISPONIBLE, 4L))))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/libros/1").header("If-None-Match", ETags.de(new Libro(1L, "123", "Libro", "Autor", EstadoLibro.DISPONIBLE, 3L))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.titulo").value("Libro"));
+    }
+
+    @Test
+    void GETBooksWithUnchangedCollectionReturn304WithoutQuerying() throws Exception {
+        when(libroService.getModificationCount()).thenReturn(7L);
+        when(libroService.findPage(null, 51)).thenReturn(List.of(new Libro(1L, "123", "Libro", "Autor", EstadoLibro.DISPONIBLE)));
+
+        String etag = mockMvc.perform(get("/api/libros"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+        mockMvc.perform(get("/api/libros").header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+        verify(libroService, times(1)).findPage(null, 51);
+
+        when(libroService.getModificationCount()).thenReturn(8L);
+        mockMvc.perform(get("/api/libros").header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()").value(1));
+    }
+
+    @Test
+    void PUTBookWithIfMatchSendsExpectedVersion() throws Exception {
+        Libro actualizado = new Libro(1L, "123", "Actualizado", "Autor", EstadoLibro.DISPONIBLE, 5L);
+        when(libroService.update(eq(1L), argThat(l -> Long.valueOf(4L).equals(l.getVersion())))).thenReturn(actualizado);
+
+        mockMvc.perform(put("/api/libros/1")
+                        .header("If-Match", ETags.de(new Libro(1L, "123", "Libro", "Autor", EstadoLibro.DISPONIBLE, 4L)))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(actualizado)))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", ETags.de(actualizado)));
+    }
+
+    @Test
+    void PUTBookWithIfMatchOfAnotherBookSendsAVersionThatNeverMatches() throws Exception {
+        Libro otro = new Libro(2L, "9", "Otro", "Autor", EstadoLibro.DISPONIBLE, 4L);
+        when(libroService.update(eq(1L), argThat(l -> Long.valueOf(-1L).equals(l.getVersion()))))
+                .thenThrow(new ConflictoVersionException(1L, -1L, 4L));
+
+        mockMvc.perform(put("/api/libros/1")
+                        .header("If-Match", ETags.de(otro))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new Libro(1L, "123", "Libro", "Autor", EstadoLibro.DISPONIBLE))))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    void PUTBookWithStaleIfMatchReturn412() throws Exception {
+        when(libroService.update(eq(1L), any())).thenThrow(new ConflictoVersionException(1L, 3L, 4L));
+
+        mockMvc.perform(put("/api/libros/1")
+                        .header("If-Match", "\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new Libro(1L, "123", "Viejo", "Autor", EstadoLibro.DISPONIBLE))))
+                .andExpect(status().isPreconditionFailed());
+    }
+
     @Test
     void DELETEBook() throws Exception {
-        doNothing().when(libroService).deleteById(1L);
+        doNothing().when(libroService).deleteById(1L, false);
 
         mockMvc.perform(delete("/api/libros/1"))
                 .andExpect(status().isNoContent());
 
-        verify(libroService).deleteById(1L);
+        verify(libroService).deleteById(1L, false);
+    }
+
+    @Test
+    void DELETEBookWithLoansReturn409() throws Exception {
+        doThrow(new LibroConPrestamosException(1L, 1)).when(libroService).deleteById(1L, false);
+
+        mockMvc.perform(delete("/api/libros/1"))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void PUTLentBookAsAvailableReturn409() throws Exception {
+        Libro reabierto = new Libro(null, "123", "Libro", "Autor", EstadoLibro.DISPONIBLE);
+        when(libroService.update(eq(1L), any())).thenThrow(new EstadoLibroInvalidoException(1L, EstadoLibro.DISPONIBLE));
+
+        mockMvc.perform(put("/api/libros/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(reabierto)))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void POSTBookDuplicateIsbnReturn409() throws Exception {
+        Libro nuevo = new Libro(null, "123", "Repetido", "Autor", EstadoLibro.DISPONIBLE);
+        when(libroService.save(any())).thenThrow(new IsbnDuplicadoException("123"));
+
+        mockMvc.perform(post("/api/libros")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(nuevo)))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void GETBooksWithLimitReturnPageAndNextCursor() throws Exception {
+        List<Libro> libros = List.of(
+                new Libro(1L, "123", "Libro 1", "Autor 1", EstadoLibro.DISPONIBLE),
+                new Libro(2L, "456", "Libro 2", "Autor 2", EstadoLibro.DISPONIBLE),
+                new Libro(3L, "789", "Libro 3", "Autor 3", EstadoLibro.DISPONIBLE)
+        );
+        when(libroService.findPage(null, 3)).thenReturn(libros);
+
+        mockMvc.perform(get("/api/libros").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()").value(2))
+                .andExpect(header().string("X-Next-Cursor", Paginacion.codificar(2L)));
+    }
+
+    @Test
+    void GETBooksWithoutLimitReturnDefaultPageAndNextCursor() throws Exception {
+        int limite = Paginacion.LIMITE_POR_DEFECTO;
+        when(libroService.findPage(null, limite + 1)).thenReturn(IntStream.rangeClosed(1, limite + 1)
+                .mapToObj(i -> new Libro((long) i, "isbn-" + i, "Libro " + i, "Autor", EstadoLibro.DISPONIBLE))
+                .toList());
+
+        mockMvc.perform(get("/api/libros"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()").value(limite))
+                .andExpect(header().string("X-Next-Cursor", Paginacion.codificar((long) limite)));
+        verify(libroService, never()).findAll();
+    }
+
+    @Test
+    void GETBooksLastPageHasNoCursor() throws Exception {
+        when(libroService.findPage(2L, 51)).thenReturn(List.of(
+                new Libro(3L, "789", "Libro 3", "Autor 3", EstadoLibro.DISPONIBLE)));
+
+        mockMvc.perform(get("/api/libros").param("after", Paginacion.codificar(2L)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()").value(1))
+                .andExpect(header().doesNotExist("X-Next-Cursor"));
+    }
+
+    @Test
+    void GETBooksWithInvalidCursorReturn400() throws Exception {
+        mockMvc.perform(get("/api/libros").param("after", "no-es-un-cursor"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void GETExportBooksWritesOneJsonPerLine() throws Exception {
+        when(libroService.streamAll(null)).thenReturn(Stream.of(
+                new Libro(1L, "123", "Libro 1", "Autor 1", EstadoLibro.DISPONIBLE),
+                new Libro(2L, "456", "Libro 2", "Autor 2", EstadoLibro.PRESTADO)));
+
+        MvcResult resultado = mockMvc.perform(get("/api/libros/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String cuerpo = mockMvc.perform(asyncDispatch(resultado))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+        String[] lineas = cuerpo.split("\n");
+        assertEquals(2, lineas.length);
+        assertEquals("Libro 2", objectMapper.readValue(lineas[1], Libro.class).getTitulo());
+    }
+
+    @Test
+    void GETExportBooksPassesModifiedSince() throws Exception {
+        Instant desde = Instant.parse("2025-01-01T00:00:00Z");
+        when(libroService.streamAll(desde)).thenReturn(Stream.empty());
+
+        MvcResult resultado = mockMvc.perform(get("/api/libros/export").param("modifiedSince", "2025-01-01T00:00:00Z"))
+                .andReturn();
+        mockMvc.perform(asyncDispatch(resultado))
+                .andExpect(status().isOk())
+                .andExpect(content().string(""));
+
+        verify(libroService).streamAll(desde);
+    }
+
+    @Test
+    void POSTBulkBooksReturnPerItemResults() throws Exception {
+        List<Libro> libros = List.of(
+                new Libro(null, "123", "Libro 1", "Autor 1", EstadoLibro.DISPONIBLE),
+                new Libro(null, "123", "Libro 2", "Autor 2", EstadoLibro.DISPONIBLE));
+        when(libroService.saveAll(any())).thenReturn(List.of(
+                ResultadoLote.ok(0, new Libro(1L, "123", "Libro 1", "Autor 1", EstadoLibro.DISPONIBLE)),
+                ResultadoLote.error(1, "Ya existe un libro con ISBN: 123")));
+
+        mockMvc.perform(post("/api/libros/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(libros)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].ok").value(true))
+                .andExpect(jsonPath("$[0].entidad.id").value(1))
+                .andExpect(jsonPath("$[1].ok").value(false))
+                .andExpect(jsonPath("$[1].posicion").value(1));
+    }
+
+    @Test
+    void POSTBulkBooksAsNdjsonSavesEveryLine() throws Exception {
+        when(libroService.saveAll(any())).thenAnswer(inv -> {
+            List<Libro> lote = inv.getArgument(0);
+            return IntStream.range(0, lote.size())
+                    .mapToObj(i -> ResultadoLote.ok(i, lote.get(i))).toList();
+        });
+        String cuerpo = objectMapper.writeValueAsString(new Libro(null, "1", "Libro 1", "Autor", EstadoLibro.DISPONIBLE))
+                + "\n" + objectMapper.writeValueAsString(new Libro(null, "2", "Libro 2", "Autor", EstadoLibro.DISPONIBLE)) + "\n";
+
+        mockMvc.perform(post("/api/libros/bulk")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(cuerpo))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[1].entidad.titulo").value("Libro 2"));
+    }
+
+    @Test
+    void PUTBulkBooksDelegatesToUpdateAll() throws Exception {
+        Libro libro = new Libro(1L, "123", "Libro 1", "Autor 1", EstadoLibro.DISPONIBLE);
+        when(libroService.updateAll(any())).thenReturn(List.of(ResultadoLote.ok(0, libro)));
+
+        mockMvc.perform(put("/api/libros/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(libro))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].ok").value(true));
+    }
+
+    @Test
+    void GETBooksFilteredByEstadoWithLimitReturnPage() throws Exception {
+        when(libroService.findPageByEstado(EstadoLibro.EN_REPARACION, null, 3)).thenReturn(List.of(
+                new Libro(4L, "444", "Libro 4", "Autor", EstadoLibro.EN_REPARACION)));
+
+        mockMvc.perform(get("/api/libros").param("estado", "EN_REPARACION").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()").value(1))
+                .andExpect(jsonPath("$[0].id").value(4));
+    }
+
+    @Test
+    void GETBookCountReturnsEveryState() throws Exception {
+        when(libroService.countByEstado()).thenReturn(Map.of(
+                EstadoLibro.DISPONIBLE, 10L, EstadoLibro.PRESTADO, 3L, EstadoLibro.EN_REPARACION, 1L));
+
+        mockMvc.perform(get("/api/libros/count"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.DISPONIBLE").value(10))
+                .andExpect(jsonPath("$.EN_REPARACION").value(1));
     }
 }
@@ -2,11 +2,18 @@ package com.example.springLibrarySystem.controller;
 
 import com.example.springLibrarySystem.enums.EstadoLibro;
 import com.example.springLibrarySystem.enums.EstadoUsuario;
+import com.example.springLibrarySystem.enums.ExpansionPrestamo;
+import com.example.springLibrarySystem.exception.LibroNoDisponibleException;
+import com.example.springLibrarySystem.exception.LibroNoEncontradoException;
+import com.example.springLibrarySystem.exception.PrestamoNoModificableException;
+import com.example.springLibrarySystem.exception.PrestamoYaDevueltoException;
 import com.example.springLibrarySystem.models.Libro;
 import com.example.springLibrarySystem.models.Prestamo;
+import com.example.springLibrarySystem.models.PrestamoExpandido;
 import com.example.springLibrarySystem.models.Usuario;
 import com.example.springLibrarySystem.service.PrestamoService;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
@@ -15,8 +22,10 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.time.LocalDate;
+import java.util.EnumSet;
 import java.util.List;
 
+import static org.hamcrest.Matchers.matchesPattern;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -33,16 +42,26 @@ class PrestamoControllerTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    private final Libro libro = new Libro(1L, "123", "Libro de prueba", "Autor X", EstadoLibro.DISPONIBLE);
+    private final Usuario usuario = new Usuario(1L, "Juan", "juan@mail.com", EstadoUsuario.ACTIVO);
+
     private Prestamo createTrialLoan() {
-        Libro libro = new Libro(1L, "123", "Libro de prueba", "Autor X", EstadoLibro.DISPONIBLE);
-        Usuario usuario = new Usuario(1L, "Juan", "juan@mail.com", EstadoUsuario.ACTIVO);
-        return new Prestamo(1L, libro, usuario, LocalDate.now(), LocalDate.now().plusDays(7));
+        return new Prestamo(1L, libro.getId(), usuario.getId(), LocalDate.now(), LocalDate.now().plusDays(7));
+    }
+
+    // Sin expansiones el servicio sólo envuelve cada préstamo.
+    @BeforeEach
+    void setUp() {
+        when(prestamoService.expandir(anyList(), anySet())).thenAnswer(inv -> inv.<List<Prestamo>>getArgument(0)
+                .stream().map(PrestamoExpandido::de).toList());
+        when(prestamoService.expandir(any(Prestamo.class), anySet()))
+                .thenAnswer(inv -> PrestamoExpandido.de(inv.getArgument(0)));
     }
 
     @Test
     void GETLoanReturnList() throws Exception {
         Prestamo p = createTrialLoan();
-        when(prestamoService.findAll()).thenReturn(List.of(p));
+        when(prestamoService.findPage(null, 51)).thenReturn(List.of(p));
 
         mockMvc.perform(get("/api/prestamos"))
                 .andExpect(status().isOk())
@@ -57,7 +76,45 @@ class PrestamoControllerTest {
 
         mockMvc.perform(get("/api/prestamos/1"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.libro.titulo").value("Libro de prueba"));
+                .andExpect(jsonPath("$.libroId").value(1))
+                .andExpect(jsonPath("$.libro").doesNotExist());
+    }
+
+    @Test
+    void GETLoanByIdWithExpandIncludesBookAndUser() throws Exception {
+        Prestamo p = createTrialLoan();
+        p.setVersion(2L);
+        libro.setVersion(5L);
+        usuario.setVersion(1L);
+        when(prestamoService.findById(1L)).thenReturn(p);
+        when(prestamoService.expandir(p, EnumSet.of(ExpansionPrestamo.LIBRO, ExpansionPrestamo.USUARIO)))
+                .thenReturn(new PrestamoExpandido(p, libro, usuario));
+
+        mockMvc.perform(get("/api/prestamos/1").param("expand", "libro,usuario"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", matchesPattern("\"[0-9a-z]+-1\\.2-1\\.5-1\\.1\"")))
+                .andExpect(jsonPath("$.libroId").value(1))
+                .andExpect(jsonPath("$.libro.titulo").value("Libro de prueba"))
+                .andExpect(jsonPath("$.usuarioId").value(1));
+    }
+
+    @Test
+    void GETLoansWithUnknownExpandReturn400() throws Exception {
+        mockMvc.perform(get("/api/prestamos").param("expand", "editorial"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void POSTLoanWithNestedBookAndUserKeepsOnlyIds() throws Exception {
+        when(prestamoService.save(any())).thenAnswer(inv -> inv.getArgument(0));
+
+        mockMvc.perform(post("/api/prestamos")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"libro\":{\"id\":3,\"titulo\":\"Viejo\"},\"usuario\":{\"id\":4},\"fechaPrestamo\":\"2024-05-01\"}"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.libroId").value(3))
+                .andExpect(jsonPath("$.usuarioId").value(4))
+                .andExpect(jsonPath("$.libro").doesNotExist());
     }
 
     @Test
@@ -75,6 +132,26 @@ class PrestamoControllerTest {
                 .andExpect(jsonPath("$.id").value(creado.getId()));
     }
 
+    @Test
+    void POSTLoanForBookNotAvailableReturn409() throws Exception {
+        when(prestamoService.save(any())).thenThrow(new LibroNoDisponibleException(1L));
+
+        mockMvc.perform(post("/api/prestamos")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createTrialLoan())))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void PUTLoanChangingItsBookReturn409() throws Exception {
+        when(prestamoService.update(eq(1L), any())).thenThrow(new PrestamoNoModificableException(1L));
+
+        mockMvc.perform(put("/api/prestamos/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createTrialLoan())))
+                .andExpect(status().isConflict());
+    }
+
     @Test
     void PUTUpdateLoan() throws Exception {
         Prestamo actualizado = createTrialLoan();
@@ -84,7 +161,7 @@ class PrestamoControllerTest {
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(actualizado)))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.usuario.nombre").value("Juan"));
+                .andExpect(jsonPath("$.usuarioId").value(1));
     }
 
     @Test
@@ -126,4 +203,64 @@ class PrestamoControllerTest {
                 .andExpect(status().isNotFound());
     }
 
+
+    @Test
+    void POSTLendBookReturn201() throws Exception {
+        Prestamo p = createTrialLoan();
+        when(prestamoService.prestarLibro(1L, 1L)).thenReturn(p);
+
+        mockMvc.perform(post("/api/prestamos/prestar").param("libroId", "1").param("usuarioId", "1"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.estado").value("ACTIVO"));
+    }
+
+    @Test
+    void POSTLendBookNotAvailableReturn409() throws Exception {
+        when(prestamoService.prestarLibro(1L, 1L)).thenThrow(new LibroNoDisponibleException(1L));
+
+        mockMvc.perform(post("/api/prestamos/prestar").param("libroId", "1").param("usuarioId", "1"))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void POSTLendBookNotExistentReturn404() throws Exception {
+        when(prestamoService.prestarLibro(99L, 1L)).thenThrow(new LibroNoEncontradoException(99L));
+
+        mockMvc.perform(post("/api/prestamos/prestar").param("libroId", "99").param("usuarioId", "1"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void POSTReturnLoanAlreadyReturnedReturn409() throws Exception {
+        when(prestamoService.devolverLibro(1L)).thenThrow(new PrestamoYaDevueltoException(1L));
+
+        mockMvc.perform(post("/api/prestamos/1/devolver"))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void GETOverdueLoansReturnsLoansFromService() throws Exception {
+        Prestamo vencido = new Prestamo(3L, libro.getId(), usuario.getId(), LocalDate.now().minusDays(20),
+                LocalDate.now().minusDays(6));
+        when(prestamoService.findVencidos(Paginacion.LIMITE_POR_DEFECTO)).thenReturn(List.of(vencido));
+
+        mockMvc.perform(get("/api/prestamos/vencidos"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()").value(1))
+                .andExpect(jsonPath("$[0].id").value(3));
+    }
+
+    @Test
+    void GETOverdueLoansCapsTheLimit() throws Exception {
+        mockMvc.perform(get("/api/prestamos/vencidos").param("limit", "100000"))
+                .andExpect(status().isOk());
+        verify(prestamoService).findVencidos(Paginacion.LIMITE_MAXIMO);
+    }
+
+    @Test
+    void GETOverdueLoansWithInvalidExpandReturn400() throws Exception {
+        mockMvc.perform(get("/api/prestamos/vencidos").param("expand", "autor"))
+                .andExpect(status().isBadRequest());
+        verify(prestamoService, never()).findVencidos(anyInt());
+    }
 }
@@ -0,0 +1,67 @@
+package com.example.springLibrarySystem.controller;
+
+import com.example.springLibrarySystem.changes.Cambio;
+import com.example.springLibrarySystem.changes.ChangeLog;
+import com.example.springLibrarySystem.enums.TipoCambio;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.when;
+
+@WebFluxTest(ReactiveChangeController.class)
+@ActiveProfiles("reactive")
+class ReactiveChangeControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockBean
+    private ChangeLog changeLog;
+
+    @Test
+    void GETChangesStreamResumesFromLastEventId() throws InterruptedException {
+        when(changeLog.lastOffset()).thenReturn(4L);
+        when(changeLog.await(eq(3L), anyInt(), any())).thenReturn(List.of(
+                new Cambio(4, "usuarios", TipoCambio.ELIMINADO, 9L, Instant.now(), null)));
+
+        Flux<ServerSentEvent<Cambio>> eventos = webTestClient.get().uri("/api/changes")
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .header("Last-Event-ID", "3")
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(new ParameterizedTypeReference<ServerSentEvent<Cambio>>() {
+                })
+                .getResponseBody();
+
+        StepVerifier.create(eventos.take(1))
+                .assertNext(evento -> {
+                    assertEquals("4", evento.id());
+                    assertEquals(9L, evento.data().id());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void GETChangesStreamFromFutureOffsetReturn410() {
+        when(changeLog.lastOffset()).thenReturn(2L);
+
+        webTestClient.get().uri("/api/changes?since=10")
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .exchange()
+                .expectStatus().isEqualTo(410);
+    }
+}
@@ -0,0 +1,213 @@
+package com.example.springLibrarySystem.controller;
+
+import com.example.springLibrarySystem.enums.EstadoLibro;
+import com.example.springLibrarySystem.exception.IsbnDuplicadoException;
+import com.example.springLibrarySystem.exception.LibroNoEncontradoException;
+import com.example.springLibrarySystem.models.Libro;
+import com.example.springLibrarySystem.models.ResultadoLote;
+import com.example.springLibrarySystem.service.ReactiveLibroService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@WebFluxTest(ReactiveLibroController.class)
+@ActiveProfiles("reactive")
+class ReactiveLibroControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockBean
+    private ReactiveLibroService libroService;
+
+    @Test
+    void GETBooksReturnList() {
+        when(libroService.findPage(null, 51)).thenReturn(Mono.just(List.of(
+                new Libro(1L, "123", "Libro 1", "Autor 1", EstadoLibro.DISPONIBLE),
+                new Libro(2L, "456", "Libro 2", "Autor 2", EstadoLibro.PRESTADO))));
+
+        webTestClient.get().uri("/api/libros").exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.size()").isEqualTo(2)
+                .jsonPath("$[1].estado").isEqualTo("PRESTADO");
+    }
+
+    @Test
+    void GETBookByIdWithCurrentETagReturn304() {
+        Libro libro = new Libro(1L, "123", "Libro", "Autor", EstadoLibro.DISPONIBLE, 2L);
+        when(libroService.findById(1L)).thenReturn(Mono.just(libro));
+
+        webTestClient.get().uri("/api/libros/1").header("If-None-Match", ETags.de(libro)).exchange()
+                .expectStatus().isNotModified()
+                .expectHeader().valueEquals("ETag", ETags.de(libro))
+                .expectBody().isEmpty();
+    }
+
+    @Test
+    void GETBooksWithUnchangedCollectionReturn304() {
+        when(libroService.getModificationCount()).thenReturn(5L);
+        when(libroService.findPage(null, 51)).thenReturn(Mono.just(List.of(new Libro(1L, "123", "Libro", "Autor", EstadoLibro.DISPONIBLE))));
+
+        String etag = webTestClient.get().uri("/api/libros").exchange()
+                .expectStatus().isOk()
+                .returnResult(Libro.class).getResponseHeaders().getETag();
+        webTestClient.get().uri("/api/libros").header("If-None-Match", etag).exchange()
+                .expectStatus().isNotModified();
+        verify(libroService, times(1)).findPage(null, 51);
+    }
+
+    @Test
+    void GETSearchReturnsRankedBooks() {
+        when(libroService.search("rulfo", LibroController.RESULTADOS_POR_DEFECTO))
+                .thenReturn(Mono.just(List.of(new Libro(2L, "456", "Pedro Páramo", "Juan Rulfo", EstadoLibro.DISPONIBLE))));
+
+        webTestClient.get().uri("/api/libros/search?q=rulfo").exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[0].id").isEqualTo(2);
+    }
+
+    @Test
+    void GETBooksAsNdjsonStreamsOneBookPerLine() {
+        when(libroService.findPage(null, 51)).thenReturn(Mono.just(IntStream.rangeClosed(1, 3)
+                .mapToObj(i -> new Libro((long) i, "isbn-" + i, "Libro " + i, "Autor", EstadoLibro.DISPONIBLE))
+                .toList()));
+
+        webTestClient.get().uri("/api/libros").accept(MediaType.APPLICATION_NDJSON).exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(Libro.class)
+                .getResponseBody()
+                .as(StepVerifier::create)
+                .expectNextCount(3)
+                .verifyComplete();
+    }
+
+    @Test
+    void GETBooksWithLimitReturnsPageAndCursor() {
+        when(libroService.findPage(null, 3)).thenReturn(Mono.just(List.of(
+                new Libro(1L, "1", "Libro 1", "Autor", EstadoLibro.DISPONIBLE),
+                new Libro(2L, "2", "Libro 2", "Autor", EstadoLibro.DISPONIBLE),
+                new Libro(3L, "3", "Libro 3", "Autor", EstadoLibro.DISPONIBLE))));
+
+        webTestClient.get().uri("/api/libros?limit=2").exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(Paginacion.HEADER_CURSOR, Paginacion.codificar(2L))
+                .expectBody().jsonPath("$.size()").isEqualTo(2);
+    }
+
+    @Test
+    void GETBooksWithoutLimitReturnDefaultPageAndCursor() {
+        int limite = Paginacion.LIMITE_POR_DEFECTO;
+        when(libroService.findPage(null, limite + 1)).thenReturn(Mono.just(IntStream.rangeClosed(1, limite + 1)
+                .mapToObj(i -> new Libro((long) i, "isbn-" + i, "Libro " + i, "Autor", EstadoLibro.DISPONIBLE))
+                .toList()));
+
+        webTestClient.get().uri("/api/libros").exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(Paginacion.HEADER_CURSOR, Paginacion.codificar((long) limite))
+                .expectBody().jsonPath("$.size()").isEqualTo(limite);
+        verify(libroService, never()).findAll();
+    }
+
+    @Test
+    void GETBooksWithInvalidCursorReturn400() {
+        webTestClient.get().uri("/api/libros?after=xxx").exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void GETBookByIdNotExistentReturn404() {
+        when(libroService.findById(99L)).thenReturn(Mono.error(new LibroNoEncontradoException(99L)));
+
+        webTestClient.get().uri("/api/libros/99").exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void POSTBookDuplicatedIsbnReturn409() {
+        when(libroService.save(any())).thenReturn(Mono.error(new IsbnDuplicadoException("123")));
+
+        webTestClient.post().uri("/api/libros")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new Libro(null, "123", "Libro", "Autor", EstadoLibro.DISPONIBLE))
+                .exchange()
+                .expectStatus().isEqualTo(409);
+    }
+
+    @Test
+    void POSTBulkNdjsonSavesInBatchesWithGlobalPositions() {
+        when(libroService.saveAll(anyList())).thenAnswer(inv -> {
+            List<Libro> lote = inv.getArgument(0);
+            return Mono.just(IntStream.range(0, lote.size()).mapToObj(i -> ResultadoLote.ok(i, lote.get(i))).toList());
+        });
+        String cuerpo = IntStream.range(0, 1500)
+                .mapToObj(i -> "{\"isbn\":\"" + i + "\",\"titulo\":\"Libro\"}\n")
+                .reduce("", String::concat);
+
+        webTestClient.post().uri("/api/libros/bulk")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .bodyValue(cuerpo)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.size()").isEqualTo(1500)
+                .jsonPath("$[1499].posicion").isEqualTo(1499);
+        verify(libroService, times(2)).saveAll(anyList());
+    }
+
+    @Test
+    void POSTBulkNdjsonInvalidLineKeepsSavedAndReportsError() {
+        when(libroService.saveAll(anyList())).thenAnswer(inv -> {
+            List<Libro> lote = inv.getArgument(0);
+            return Mono.just(IntStream.range(0, lote.size()).mapToObj(i -> ResultadoLote.ok(i, lote.get(i))).toList());
+        });
+
+        webTestClient.post().uri("/api/libros/bulk")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(Flux.just("{\"isbn\":\"1\"}\n", "{\"isbn\":\"2\"}\n", "{no es json\n"), String.class)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.size()").isEqualTo(3)
+                .jsonPath("$[1].ok").isEqualTo(true)
+                .jsonPath("$[2].posicion").isEqualTo(2)
+                .jsonPath("$[2].error").exists();
+    }
+
+    @Test
+    void PUTBookNotExistentReturn404() {
+        when(libroService.update(eq(99L), any())).thenReturn(Mono.error(new LibroNoEncontradoException(99L)));
+
+        webTestClient.put().uri("/api/libros/99")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new Libro(null, "123", "Libro", "Autor", EstadoLibro.DISPONIBLE))
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void DELETEBookReturn204() {
+        when(libroService.deleteById(1L, false)).thenReturn(Mono.empty());
+
+        webTestClient.delete().uri("/api/libros/1").exchange()
+                .expectStatus().isNoContent();
+        verify(libroService).deleteById(1L, false);
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.springLibrarySystem.controller;
+
+import com.example.springLibrarySystem.enums.EstadoLibro;
+import com.example.springLibrarySystem.enums.ExpansionPrestamo;
+import com.example.springLibrarySystem.exception.UsuarioNoActivoException;
+import com.example.springLibrarySystem.models.Libro;
+import com.example.springLibrarySystem.models.Prestamo;
+import com.example.springLibrarySystem.models.PrestamoExpandido;
+import com.example.springLibrarySystem.service.ReactivePrestamoService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@WebFluxTest(ReactivePrestamoController.class)
+@ActiveProfiles("reactive")
+class ReactivePrestamoControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockBean
+    private ReactivePrestamoService prestamoService;
+
+    @Test
+    void POSTLoanReturn201() {
+        Prestamo prestamo = new Prestamo(1L, null, null, LocalDate.of(2024, 5, 1), LocalDate.of(2024, 5, 15));
+        when(prestamoService.save(any())).thenReturn(Mono.just(prestamo));
+
+        webTestClient.post().uri("/api/prestamos")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(prestamo)
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody().jsonPath("$.id").isEqualTo(1);
+    }
+
+    @Test
+    void POSTLoanForInactiveUserReturn409() {
+        Prestamo prestamo = new Prestamo(null, 1L, 2L, LocalDate.of(2024, 5, 1), LocalDate.of(2024, 5, 15));
+        when(prestamoService.save(any())).thenReturn(Mono.error(new UsuarioNoActivoException(2L)));
+
+        webTestClient.post().uri("/api/prestamos")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(prestamo)
+                .exchange()
+                .expectStatus().isEqualTo(409);
+    }
+
+    @Test
+    void GETExportStreamsNdjson() {
+        when(prestamoService.streamAll(null)).thenReturn(Flux.just(
+                new Prestamo(1L, null, null, null, null),
+                new Prestamo(2L, null, null, null, null)));
+
+        String cuerpo = webTestClient.get().uri("/api/prestamos/export").exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBody(String.class).returnResult().getResponseBody();
+
+        assertEquals(2, cuerpo.lines().count());
+    }
+
+    @Test
+    void GETLoansWithExpandIncludesBook() {
+        Prestamo prestamo = new Prestamo(1L, 3L, 4L, LocalDate.of(2024, 5, 1), null);
+        Libro libro = new Libro(3L, "123", "Libro", "Autor", EstadoLibro.PRESTADO);
+        when(prestamoService.findPage(null, 51)).thenReturn(Mono.just(List.of(prestamo)));
+        when(prestamoService.expandir(any(Flux.class), eq(EnumSet.of(ExpansionPrestamo.LIBRO))))
+                .thenReturn(Flux.just(new PrestamoExpandido(prestamo, libro, null)));
+
+        webTestClient.get().uri("/api/prestamos?expand=libro").exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[0].libroId").isEqualTo(3)
+                .jsonPath("$[0].libro.titulo").isEqualTo("Libro")
+                .jsonPath("$[0].usuario").doesNotExist();
+    }
+
+    @Test
+    void GETOverdueLoansUsesTheDefaultLimit() {
+        Prestamo vencido = new Prestamo(3L, 1L, 2L, LocalDate.now().minusDays(20), LocalDate.now().minusDays(6));
+        when(prestamoService.findVencidos(Paginacion.LIMITE_POR_DEFECTO)).thenReturn(Mono.just(List.of(vencido)));
+        when(prestamoService.expandir(any(Flux.class), eq(EnumSet.noneOf(ExpansionPrestamo.class))))
+                .thenReturn(Flux.just(new PrestamoExpandido(vencido, null, null)));
+
+        webTestClient.get().uri("/api/prestamos/vencidos").exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$[0].id").isEqualTo(3);
+    }
+
+    @Test
+    void DELETELoanNotExistentReturn404() {
+        when(prestamoService.deleteById(99L)).thenReturn(Mono.error(new RuntimeException("Préstamo no encontrado con ID: 99")));
+
+        webTestClient.delete().uri("/api/prestamos/99").exchange()
+                .expectStatus().isNotFound();
+    }
+}
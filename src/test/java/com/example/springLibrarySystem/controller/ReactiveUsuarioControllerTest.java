@@ -0,0 +1,81 @@
+package com.example.springLibrarySystem.controller;
+
+import com.example.springLibrarySystem.enums.EstadoUsuario;
+import com.example.springLibrarySystem.exception.EmailDuplicadoException;
+import com.example.springLibrarySystem.models.Usuario;
+import com.example.springLibrarySystem.service.ReactiveUsuarioService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@WebFluxTest(ReactiveUsuarioController.class)
+@ActiveProfiles("reactive")
+class ReactiveUsuarioControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockBean
+    private ReactiveUsuarioService usuarioService;
+
+    @Test
+    void GETUserByEmailReturnUser() {
+        when(usuarioService.findByEmail("ana@mail.com"))
+                .thenReturn(Mono.just(new Usuario(1L, "Ana", "ana@mail.com", EstadoUsuario.ACTIVO)));
+
+        webTestClient.get().uri("/api/usuarios/email/ana@mail.com").exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.nombre").isEqualTo("Ana");
+    }
+
+    @Test
+    void GETUserByIdNotExistentReturn404() {
+        when(usuarioService.findById(99L)).thenReturn(Mono.error(new RuntimeException("Usuario no encontrado con ID: 99")));
+
+        webTestClient.get().uri("/api/usuarios/99").exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void PUTUserDuplicatedEmailReturn409() {
+        when(usuarioService.update(eq(1L), any())).thenReturn(Mono.error(new EmailDuplicadoException("ana@mail.com")));
+
+        webTestClient.put().uri("/api/usuarios/1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new Usuario(null, "Ana", "ana@mail.com", EstadoUsuario.ACTIVO))
+                .exchange()
+                .expectStatus().isEqualTo(409);
+    }
+
+    @Test
+    void PUTUserNotExistentReturn404() {
+        when(usuarioService.update(eq(99L), any())).thenReturn(Mono.error(new RuntimeException("Usuario no encontrado con ID: 99")));
+
+        webTestClient.put().uri("/api/usuarios/99")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new Usuario(null, "Ana", "ana@mail.com", EstadoUsuario.ACTIVO))
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void GETUsersFilteredByEstadoStreamsOnlyThatState() {
+        when(usuarioService.findPageByEstado(EstadoUsuario.SUSPENDIDO, null, 51))
+                .thenReturn(Mono.just(List.of(new Usuario(2L, "Eva", "eva@mail.com", EstadoUsuario.SUSPENDIDO))));
+
+        webTestClient.get().uri("/api/usuarios?estado=SUSPENDIDO").exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$[0].nombre").isEqualTo("Eva");
+    }
+}
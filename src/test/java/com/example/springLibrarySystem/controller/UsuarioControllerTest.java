@@ -1,6 +1,9 @@
 package com.example.springLibrarySystem.controller;
 
 import com.example.springLibrarySystem.enums.EstadoUsuario;
+import com.example.springLibrarySystem.exception.EmailDuplicadoException;
+import com.example.springLibrarySystem.exception.UsuarioConPrestamosException;
+import com.example.springLibrarySystem.models.ResultadoLote;
 import com.example.springLibrarySystem.models.Usuario;
 import com.example.springLibrarySystem.service.UsuarioService;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -12,6 +15,7 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.util.List;
+import java.util.Map;
 
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
@@ -37,7 +41,7 @@ class UsuarioControllerTest {
 
     @Test
     void GETUsersReturnList() throws Exception {
-        when(usuarioService.findAll()).thenReturn(List.of(createUser()));
+        when(usuarioService.findPage(null, 51)).thenReturn(List.of(createUser()));
 
         mockMvc.perform(get("/api/usuarios"))
                 .andExpect(status().isOk())
@@ -105,20 +109,85 @@ class UsuarioControllerTest {
 
     @Test
     void DELETEUser() throws Exception {
-        doNothing().when(usuarioService).deleteById(1L);
+        doNothing().when(usuarioService).deleteById(1L, false);
 
         mockMvc.perform(delete("/api/usuarios/1"))
                 .andExpect(status().isNoContent());
 
-        verify(usuarioService).deleteById(1L);
+        verify(usuarioService).deleteById(1L, false);
     }
 
     @Test
     void DELETEUserNotExistentReturn404() throws Exception {
         doThrow(new RuntimeException("Usuario no encontrado"))
-                .when(usuarioService).deleteById(999L);
+                .when(usuarioService).deleteById(999L, false);
 
         mockMvc.perform(delete("/api/usuarios/999"))
                 .andExpect(status().isNotFound());
     }
+
+    @Test
+    void DELETEUserWithLoansReturn409UnlessCascade() throws Exception {
+        doThrow(new UsuarioConPrestamosException(1L, 2)).when(usuarioService).deleteById(1L, false);
+
+        mockMvc.perform(delete("/api/usuarios/1"))
+                .andExpect(status().isConflict());
+        mockMvc.perform(delete("/api/usuarios/1").param("cascade", "true"))
+                .andExpect(status().isNoContent());
+
+        verify(usuarioService).deleteById(1L, true);
+    }
+
+    @Test
+    void DELETEUsersBulkReturnsResultPerId() throws Exception {
+        when(usuarioService.deleteAllById(List.of(1L, 2L), true)).thenReturn(List.of(
+                ResultadoLote.ok(0, new Usuario(1L, "Ana", "ana@mail.com", EstadoUsuario.ACTIVO)),
+                ResultadoLote.error(1, "Usuario no encontrado con ID: 2")));
+
+        mockMvc.perform(delete("/api/usuarios/bulk").param("cascade", "true")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[1, 2]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].entidad.id").value(1))
+                .andExpect(jsonPath("$[1].error").value("Usuario no encontrado con ID: 2"));
+    }
+
+    @Test
+    void PUTUserDuplicateEmailReturn409() throws Exception {
+        Usuario usuario = new Usuario(1L, "Ana", "otro@mail.com", EstadoUsuario.ACTIVO);
+        when(usuarioService.update(eq(1L), any())).thenThrow(new EmailDuplicadoException("otro@mail.com"));
+
+        mockMvc.perform(put("/api/usuarios/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(usuario)))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void GETUsersFilteredByEstadoReturnOnlyThatState() throws Exception {
+        when(usuarioService.findPageByEstado(EstadoUsuario.SUSPENDIDO, null, 51))
+                .thenReturn(List.of(new Usuario(2L, "Eva", "eva@mail.com", EstadoUsuario.SUSPENDIDO)));
+
+        mockMvc.perform(get("/api/usuarios").param("estado", "SUSPENDIDO"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].estado").value("SUSPENDIDO"));
+        verify(usuarioService, never()).findPage(null, 51);
+    }
+
+    @Test
+    void GETUserCountByEstadoReturnsSingleEntry() throws Exception {
+        when(usuarioService.countByEstado()).thenReturn(Map.of(EstadoUsuario.ACTIVO, 7L, EstadoUsuario.SUSPENDIDO, 2L));
+
+        mockMvc.perform(get("/api/usuarios/count").param("estado", "SUSPENDIDO"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.SUSPENDIDO").value(2))
+                .andExpect(jsonPath("$.ACTIVO").doesNotExist());
+    }
+
+    @Test
+    void GETUsersWithUnknownEstadoReturn400() throws Exception {
+        mockMvc.perform(get("/api/usuarios").param("estado", "BORRADO"))
+                .andExpect(status().isBadRequest());
+    }
 }
@@ -0,0 +1,164 @@
+package com.example.springLibrarySystem.events;
+
+import com.example.springLibrarySystem.enums.EstadoLibro;
+import com.example.springLibrarySystem.enums.EstadoUsuario;
+import com.example.springLibrarySystem.models.Libro;
+import com.example.springLibrarySystem.models.Prestamo;
+import com.example.springLibrarySystem.models.Usuario;
+import com.example.springLibrarySystem.repository.LibroRepositoryImpl;
+import com.example.springLibrarySystem.repository.PrestamoRepositoryImpl;
+import com.example.springLibrarySystem.repository.UsuarioRepositoryImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventBusTest {
+
+    private EventBus bus;
+
+    @AfterEach
+    void tearDown() {
+        if (bus != null) {
+            bus.close();
+        }
+    }
+
+    @Test
+    void deliversEventsInOrderInBoundedBatches() {
+        bus = new EventBus(1024, 10);
+        List<Long> recibidos = Collections.synchronizedList(new ArrayList<>());
+        List<Integer> lotes = Collections.synchronizedList(new ArrayList<>());
+        bus.subscribe(lote -> {
+            lotes.add(lote.size());
+            lote.forEach(evento -> recibidos.add(evento.entidad().getId()));
+        });
+
+        for (long id = 1; id <= 500; id++) {
+            bus.publish(new DomainEvent.LibroGuardado(libro(id)));
+        }
+        bus.close();
+
+        assertEquals(500, recibidos.size());
+        for (int i = 0; i < recibidos.size(); i++) {
+            assertEquals(i + 1L, recibidos.get(i));
+        }
+        assertTrue(lotes.stream().allMatch(tamanio -> tamanio <= 10));
+    }
+
+    @Test
+    void concurrentPublishersNeverWaitAndCountWhatTheyDrop() throws Exception {
+        bus = new EventBus(16, 4);
+        List<Long> recibidos = new ArrayList<>();
+        bus.subscribe(lote -> lote.forEach(evento -> recibidos.add(evento.entidad().getId())));
+        int hilos = 8;
+        int porHilo = 5_000;
+        ExecutorService pool = Executors.newFixedThreadPool(hilos);
+        CountDownLatch listos = new CountDownLatch(hilos);
+        for (int h = 0; h < hilos; h++) {
+            long base = (long) h * porHilo;
+            pool.execute(() -> {
+                for (long i = 1; i <= porHilo; i++) {
+                    bus.publish(new DomainEvent.LibroGuardado(libro(base + i)));
+                }
+                listos.countDown();
+            });
+        }
+        assertTrue(listos.await(30, TimeUnit.SECONDS));
+        pool.shutdown();
+        bus.close();
+
+        assertEquals(hilos * porHilo, recibidos.size() + bus.dropped());
+        assertEquals(recibidos.size(), recibidos.stream().distinct().count());
+        // Los eventos de un mismo productor llegan en el orden en que los publicó.
+        for (int h = 0; h < hilos; h++) {
+            long desde = (long) h * porHilo;
+            List<Long> propios = recibidos.stream().filter(id -> id > desde && id <= desde + porHilo).toList();
+            assertEquals(propios.stream().sorted().toList(), propios);
+        }
+    }
+
+    @Test
+    void subscriberWritingToTheStoreWhileTheRingIsFullDoesNotDeadlock() throws Exception {
+        bus = new EventBus(4, 1);
+        LibroRepositoryImpl libros = new LibroRepositoryImpl(bus);
+        CountDownLatch liberar = new CountDownLatch(1);
+        CountDownLatch escrito = new CountDownLatch(1);
+        AtomicBoolean primero = new AtomicBoolean(true);
+        // El suscriptor se frena en el primer lote y después escribe en el mismo libro.
+        bus.subscribe(lote -> {
+            if (primero.compareAndSet(true, false)) {
+                try {
+                    liberar.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                libros.save(new Libro(1L, null, "Eco", "Autor", EstadoLibro.DISPONIBLE));
+                escrito.countDown();
+            }
+        });
+
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            for (int i = 0; i < 20; i++) {
+                libros.save(new Libro(1L, null, "Libro " + i, "Autor", EstadoLibro.DISPONIBLE));
+            }
+        });
+        liberar.countDown();
+
+        assertTrue(escrito.await(5, TimeUnit.SECONDS));
+        assertTrue(bus.dropped() > 0);
+        assertEquals("Eco", libros.findById(1L).orElseThrow().getTitulo());
+    }
+
+    @Test
+    void failingSubscriberDoesNotStopTheOthers() {
+        bus = new EventBus(64, 8);
+        List<DomainEvent> recibidos = Collections.synchronizedList(new ArrayList<>());
+        bus.subscribe(lote -> {
+            throw new IllegalStateException("suscriptor roto");
+        });
+        bus.subscribe(recibidos::addAll);
+
+        bus.publish(new DomainEvent.LibroEliminado(libro(1L)));
+        bus.publish(new DomainEvent.LibroEliminado(libro(2L)));
+        bus.close();
+
+        assertEquals(2, recibidos.size());
+    }
+
+    @Test
+    void repositoriesPublishEachConfirmedWrite() {
+        List<DomainEvent> eventos = new ArrayList<>();
+        LibroRepositoryImpl libros = new LibroRepositoryImpl(eventos::add);
+        UsuarioRepositoryImpl usuarios = new UsuarioRepositoryImpl(eventos::add);
+        PrestamoRepositoryImpl prestamos = new PrestamoRepositoryImpl(eventos::add);
+
+        Libro libro = libros.save(new Libro(null, "111", "Libro", "Autor", EstadoLibro.DISPONIBLE));
+        Usuario usuario = usuarios.save(new Usuario(null, "Ana", "ana@mail.com", EstadoUsuario.ACTIVO));
+        Prestamo prestamo = prestamos.save(new Prestamo(null, libro.getId(), usuario.getId(), LocalDate.now(), null));
+        prestamos.save(prestamo);
+        usuarios.deleteById(usuario.getId());
+
+        assertEquals(List.of(
+                new DomainEvent.LibroGuardado(libro),
+                new DomainEvent.UsuarioGuardado(usuario),
+                new DomainEvent.PrestamoCreado(prestamo),
+                new DomainEvent.PrestamoActualizado(prestamo),
+                new DomainEvent.UsuarioEliminado(usuario)), eventos);
+    }
+
+    private static Libro libro(long id) {
+        return new Libro(id, null, "Libro " + id, "Autor", EstadoLibro.DISPONIBLE);
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.springLibrarySystem.metrics;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+class MetricsEndpointTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void prometheusEndpointExposesLibraryMetrics() throws Exception {
+        mockMvc.perform(get("/api/libros/424242")).andExpect(status().isNotFound());
+
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("library_service_seconds_bucket{class=\"LibroServiceImpl\"")))
+                .andExpect(content().string(containsString(
+                        "library_not_found_total{class=\"LibroServiceImpl\",method=\"findById\"} 1.0")))
+                .andExpect(content().string(containsString("library_repository_size{entity=\"libros\"}")))
+                .andExpect(content().string(containsString("http_server_requests_seconds_count")));
+    }
+}
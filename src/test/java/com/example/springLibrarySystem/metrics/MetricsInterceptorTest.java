@@ -0,0 +1,86 @@
+package com.example.springLibrarySystem.metrics;
+
+import com.example.springLibrarySystem.enums.EstadoLibro;
+import com.example.springLibrarySystem.exception.LibroNoEncontradoException;
+import com.example.springLibrarySystem.models.Libro;
+import com.example.springLibrarySystem.repository.LibroRepository;
+import com.example.springLibrarySystem.repository.LibroRepositoryImpl;
+import com.example.springLibrarySystem.repository.PrestamoRepositoryImpl;
+import com.example.springLibrarySystem.repository.UsuarioRepositoryImpl;
+import com.example.springLibrarySystem.service.LibroService;
+import com.example.springLibrarySystem.service.LibroServiceImpl;
+import com.example.springLibrarySystem.service.PrestamoServiceImpl;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MetricsInterceptorTest {
+
+    private SimpleMeterRegistry registry;
+    private LibroRepository libroRepository;
+    private LibroService libroService;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        libroRepository = proxy(new LibroRepositoryImpl(), "library.repository");
+        libroService = proxy(new LibroServiceImpl(libroRepository,
+                new PrestamoServiceImpl(new PrestamoRepositoryImpl(), libroRepository, new UsuarioRepositoryImpl())), "library.service");
+    }
+
+    @Test
+    void eachCallIsTimedByClassAndMethod() {
+        Libro libro = libroService.save(new Libro(null, "111", "Libro A", "Autor", EstadoLibro.DISPONIBLE));
+        libroService.findById(libro.getId());
+        libroService.findById(libro.getId());
+
+        Timer timer = registry.get("library.repository")
+                .tags("class", "LibroRepositoryImpl", "method", "findById", "exception", "none").timer();
+        assertEquals(2, timer.count());
+        assertEquals(1, registry.get("library.service").tags("method", "save").timer().count());
+    }
+
+    @Test
+    void emptyOptionalsAndNotFoundExceptionsAreCounted() {
+        assertThrows(LibroNoEncontradoException.class, () -> libroService.findById(99L));
+
+        assertEquals(1, registry.get(MetricsInterceptor.NO_ENCONTRADO)
+                .tags("class", "LibroRepositoryImpl", "method", "findById").counter().count());
+        assertEquals(1, registry.get(MetricsInterceptor.NO_ENCONTRADO)
+                .tags("class", "LibroServiceImpl", "method", "findById").counter().count());
+        assertEquals(1, registry.get("library.service")
+                .tags("exception", "LibroNoEncontradoException").timer().count());
+    }
+
+    @Test
+    void exceptionTimersAreKeptPerMethodAndExceptionClass() {
+        assertThrows(LibroNoEncontradoException.class, () -> libroService.findById(99L));
+        assertThrows(LibroNoEncontradoException.class, () -> libroService.findById(98L));
+        assertThrows(NullPointerException.class, () -> libroService.findById(null));
+
+        assertEquals(2, registry.get("library.service")
+                .tags("method", "findById", "exception", "LibroNoEncontradoException").timer().count());
+        assertEquals(1, registry.get("library.service")
+                .tags("method", "findById", "exception", "NullPointerException").timer().count());
+    }
+
+    @Test
+    void metersAreCreatedOnlyForCalledMethods() {
+        libroService.findAll();
+
+        assertNull(registry.find("library.service").tags("method", "save").timer());
+        assertNull(registry.find(MetricsInterceptor.NO_ENCONTRADO).counter());
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T proxy(T destino, String nombre) {
+        ProxyFactory fabrica = new ProxyFactory(destino);
+        fabrica.setProxyTargetClass(true);
+        fabrica.addAdvice(new MetricsInterceptor(() -> registry, nombre));
+        return (T) fabrica.getProxy();
+    }
+}
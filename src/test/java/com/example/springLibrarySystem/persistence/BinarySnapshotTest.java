@@ -0,0 +1,119 @@
+package com.example.springLibrarySystem.persistence;
+
+import com.example.springLibrarySystem.enums.EstadoLibro;
+import com.example.springLibrarySystem.enums.EstadoPrestamo;
+import com.example.springLibrarySystem.models.Libro;
+import com.example.springLibrarySystem.models.Prestamo;
+import com.example.springLibrarySystem.models.Usuario;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinarySnapshotTest {
+
+    @TempDir
+    Path directorio;
+
+    @Test
+    void writeAndReadLibrosKeepsEveryField() throws Exception {
+        List<Libro> libros = new ArrayList<>();
+        for (long i = 1; i <= 1000; i++) {
+            libros.add(new Libro(i, "978-" + i, "Cien años de soledad " + i, "Gabriel García Márquez", EstadoLibro.values()[(int) (i % 2)]));
+        }
+        libros.add(new Libro(1001L, null, "", null, null));
+        libros.get(0).setVersion(3L);
+        // Ventana chica para cruzar varios mapeos en registros y diccionario.
+        BinarySnapshot<Libro> snapshot = new BinarySnapshot<>(directorio.resolve("libros.bin"), BinaryCodecs.LIBRO, 64);
+
+        snapshot.write(new Snapshot.Cabecera(42, 1002), libros.iterator());
+        List<Libro> leidos = new ArrayList<>();
+        Snapshot.Cabecera cabecera = snapshot.read(leidos::add).orElseThrow();
+
+        assertEquals(new Snapshot.Cabecera(42, 1002), cabecera);
+        assertEquals(libros, leidos);
+        assertSame(leidos.get(0).getAutor(), leidos.get(1).getAutor());
+    }
+
+    @Test
+    void writeAndReadPrestamosKeepsIds() throws Exception {
+        LocalDate hoy = LocalDate.of(2024, 5, 1);
+        List<Prestamo> prestamos = List.of(
+                new Prestamo(1L, 1L, 7L, hoy, hoy.plusDays(14)),
+                new Prestamo(2L, 99L, null, LocalDate.of(1960, 1, 1), null, EstadoPrestamo.DEVUELTO, 4L));
+        BinarySnapshot<Prestamo> snapshot = new BinarySnapshot<>(directorio.resolve("prestamos.bin"), BinaryCodecs.PRESTAMO);
+
+        snapshot.write(new Snapshot.Cabecera(0, 3), prestamos.iterator());
+        List<Prestamo> leidos = new ArrayList<>();
+        snapshot.read(leidos::add);
+
+        assertEquals(prestamos, leidos);
+    }
+
+    @Test
+    void readVersion1PrestamosAsActive() throws Exception {
+        Path archivo = directorio.resolve("prestamos.bin");
+        LocalDate hoy = LocalDate.of(2024, 5, 1);
+        // Codec de la versión 1: sin el estado del préstamo.
+        BinaryCodec<Prestamo> version1 = new BinaryCodec<>() {
+            @Override
+            public void escribir(Prestamo prestamo, BinarySnapshot.Escritor salida) {
+                salida.numero(prestamo.getId());
+                salida.opcional(null);
+                salida.opcional(null);
+                salida.fecha(prestamo.getFechaPrestamo());
+                salida.fecha(prestamo.getFechaDevolucion());
+            }
+
+            @Override
+            public Prestamo leer(BinarySnapshot.Lector entrada) {
+                throw new UnsupportedOperationException();
+            }
+        };
+        new BinarySnapshot<>(archivo, version1).write(new Snapshot.Cabecera(0, 3),
+                List.of(new Prestamo(1L, null, null, hoy, hoy.plusDays(14)),
+                        new Prestamo(2L, null, null, hoy, null)).iterator());
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.WRITE)) {
+            canal.write(ByteBuffer.allocate(4).putInt(0, 1), 4);
+        }
+
+        List<Prestamo> leidos = new ArrayList<>();
+        new BinarySnapshot<>(archivo, BinaryCodecs.PRESTAMO).read(leidos::add);
+
+        assertEquals(List.of(new Prestamo(1L, null, null, hoy, hoy.plusDays(14)),
+                new Prestamo(2L, null, null, hoy, null)), leidos);
+        assertEquals(EstadoPrestamo.ACTIVO, leidos.get(1).getEstado());
+    }
+
+    @Test
+    void readEmptySnapshotReturnsHeaderOnly() throws Exception {
+        BinarySnapshot<Usuario> snapshot = new BinarySnapshot<>(directorio.resolve("usuarios.bin"), BinaryCodecs.USUARIO);
+
+        snapshot.write(new Snapshot.Cabecera(5, 1), Collections.emptyIterator());
+
+        assertEquals(Optional.of(new Snapshot.Cabecera(5, 1)), snapshot.read(u -> fail()));
+        assertEquals(Optional.empty(), new BinarySnapshot<>(directorio.resolve("otro.bin"), BinaryCodecs.USUARIO).read(u -> fail()));
+    }
+
+    @Test
+    void readRejectsFileInOtherFormat() throws Exception {
+        Path archivo = directorio.resolve("libros.bin");
+        Files.writeString(archivo, "{\"lsn\":0,\"nextId\":1}\n");
+
+        BinarySnapshot<Libro> snapshot = new BinarySnapshot<>(archivo, BinaryCodecs.LIBRO);
+
+        assertThrows(IOException.class, () -> snapshot.read(l -> fail()));
+    }
+}
@@ -0,0 +1,197 @@
+package com.example.springLibrarySystem.persistence;
+
+import com.example.springLibrarySystem.enums.EstadoLibro;
+import com.example.springLibrarySystem.models.Libro;
+import com.example.springLibrarySystem.storage.ConcurrentEntityStore;
+import com.example.springLibrarySystem.storage.UniqueIndex;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DurableStoreTest {
+
+    private final ObjectMapper mapper = JsonMapper.builder().findAndAddModules().build();
+
+    @TempDir
+    Path directorio;
+
+    @Test
+    void recoverReplaysSavesAndDeletesFromLog() throws Exception {
+        ConcurrentEntityStore<Libro> store = new ConcurrentEntityStore<>();
+        DurableStore<Libro> durable = abrir(store);
+        store.save(new Libro(null, "1", "Libro 1", "Autor", EstadoLibro.DISPONIBLE));
+        store.save(new Libro(null, "2", "Libro 2", "Autor", EstadoLibro.DISPONIBLE));
+        store.save(new Libro(1L, "1", "Libro 1 editado", "Autor", EstadoLibro.PRESTADO));
+        store.deleteById(2L);
+        durable.cerrar();
+
+        ConcurrentEntityStore<Libro> recuperado = new ConcurrentEntityStore<>();
+        abrir(recuperado).cerrar();
+
+        assertEquals(1, recuperado.size());
+        assertEquals("Libro 1 editado", recuperado.findById(1L).orElseThrow().getTitulo());
+        assertEquals(EstadoLibro.PRESTADO, recuperado.findById(1L).orElseThrow().getEstado());
+        assertEquals(3L, recuperado.getNextId());
+    }
+
+    @Test
+    void recoveredEntitiesCountAsModifiedWhenRecovered() throws Exception {
+        ConcurrentEntityStore<Libro> store = new ConcurrentEntityStore<>();
+        DurableStore<Libro> durable = abrir(store);
+        store.save(new Libro(null, "1", "Libro 1", "Autor", EstadoLibro.DISPONIBLE));
+        durable.snapshot();
+        store.save(new Libro(null, "2", "Libro 2", "Autor", EstadoLibro.DISPONIBLE));
+        durable.cerrar();
+        Instant antesDeReiniciar = Instant.now();
+
+        ConcurrentEntityStore<Libro> recuperado = new ConcurrentEntityStore<>();
+        abrir(recuperado).cerrar();
+
+        assertEquals(2, recuperado.stream(antesDeReiniciar).count());
+    }
+
+    @Test
+    void snapshotCompactsLogAndRecoveryCombinesBoth() throws Exception {
+        ConcurrentEntityStore<Libro> store = new ConcurrentEntityStore<>();
+        DurableStore<Libro> durable = abrir(store);
+        for (int i = 1; i <= 100; i++) {
+            store.save(new Libro(null, "isbn-" + i, "Libro " + i, "Autor", EstadoLibro.DISPONIBLE));
+        }
+        durable.snapshot();
+        store.save(new Libro(null, "isbn-101", "Libro 101", "Autor", EstadoLibro.DISPONIBLE));
+        store.deleteById(50L);
+        durable.cerrar();
+
+        assertEquals(1, segmentos().size());
+
+        ConcurrentEntityStore<Libro> recuperado = new ConcurrentEntityStore<>();
+        abrir(recuperado).cerrar();
+
+        assertEquals(100, recuperado.size());
+        assertFalse(recuperado.existsById(50L));
+        assertEquals("Libro 101", recuperado.findById(101L).orElseThrow().getTitulo());
+        assertEquals(102L, recuperado.getNextId());
+    }
+
+    @Test
+    void snapshotDuringConcurrentWritesLosesNothing() throws Exception {
+        ConcurrentEntityStore<Libro> store = new ConcurrentEntityStore<>();
+        DurableStore<Libro> durable = abrir(store);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<?>> futuros = new ArrayList<>();
+        for (int h = 0; h < 4; h++) {
+            int hilo = h;
+            futuros.add(executor.submit(() -> {
+                for (int i = 0; i < 500; i++) {
+                    store.save(new Libro(null, hilo + "-" + i, "Libro", "Autor", EstadoLibro.DISPONIBLE));
+                }
+            }));
+        }
+        for (int i = 0; i < 5; i++) {
+            durable.snapshot();
+        }
+        for (Future<?> futuro : futuros) {
+            futuro.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+        durable.cerrar();
+
+        ConcurrentEntityStore<Libro> recuperado = new ConcurrentEntityStore<>();
+        abrir(recuperado).cerrar();
+        assertEquals(2000, recuperado.size());
+    }
+
+    @Test
+    void recoverIgnoresTornRecordAtEndOfLog() throws Exception {
+        ConcurrentEntityStore<Libro> store = new ConcurrentEntityStore<>();
+        DurableStore<Libro> durable = abrir(store);
+        store.save(new Libro(null, "1", "Libro 1", "Autor", EstadoLibro.DISPONIBLE));
+        store.save(new Libro(null, "2", "Libro 2", "Autor", EstadoLibro.DISPONIBLE));
+        durable.cerrar();
+
+        Path segmento = segmentos().get(0);
+        long tamanio = Files.size(segmento);
+        try (FileChannel canal = FileChannel.open(segmento, StandardOpenOption.WRITE)) {
+            canal.truncate(tamanio - 5);
+            canal.write(ByteBuffer.wrap(new byte[]{1, 2}), canal.size());
+        }
+
+        ConcurrentEntityStore<Libro> recuperado = new ConcurrentEntityStore<>();
+        DurableStore<Libro> reabierto = abrir(recuperado);
+        recuperado.save(new Libro(null, "3", "Libro 3", "Autor", EstadoLibro.DISPONIBLE));
+        reabierto.cerrar();
+
+        ConcurrentEntityStore<Libro> otraVez = new ConcurrentEntityStore<>();
+        abrir(otraVez).cerrar();
+        assertEquals(2, otraVez.size());
+        assertTrue(otraVez.existsById(1L));
+        assertEquals("Libro 3", otraVez.findById(2L).orElseThrow().getTitulo());
+    }
+
+    @Test
+    void recoverReadsSnapshotWrittenInOtherFormat() throws Exception {
+        ConcurrentEntityStore<Libro> store = new ConcurrentEntityStore<>();
+        DurableStore<Libro> durable = abrir(store, SnapshotFormat.JSON);
+        store.save(new Libro(null, "1", "Libro 1", "Autor", EstadoLibro.DISPONIBLE));
+        durable.snapshot();
+        durable.cerrar();
+
+        ConcurrentEntityStore<Libro> recuperado = new ConcurrentEntityStore<>();
+        DurableStore<Libro> binario = abrir(recuperado, SnapshotFormat.BINARY);
+        binario.snapshot();
+        binario.cerrar();
+
+        assertEquals("Libro 1", recuperado.findById(1L).orElseThrow().getTitulo());
+        assertTrue(Files.exists(directorio.resolve("libros.bin")));
+        assertFalse(Files.exists(directorio.resolve("libros.snapshot")));
+    }
+
+    @Test
+    void recoverSkipsSnapshotEntriesRejectedByUniqueIndex() throws Exception {
+        new BinarySnapshot<>(directorio.resolve("libros.bin"), BinaryCodecs.LIBRO).write(new Snapshot.Cabecera(0, 3), List.of(
+                new Libro(1L, "123", "Libro 1", "Autor", EstadoLibro.DISPONIBLE),
+                new Libro(2L, "123", "Libro 2", "Autor", EstadoLibro.DISPONIBLE)).iterator());
+        ConcurrentEntityStore<Libro> store = new ConcurrentEntityStore<>();
+        store.addIndex(new UniqueIndex<Libro, String>(Libro::getIsbn, IllegalStateException::new));
+
+        abrir(store).cerrar();
+
+        assertEquals(1, store.size());
+        assertTrue(store.existsById(1L));
+        assertEquals(3L, store.getNextId());
+    }
+
+    private DurableStore<Libro> abrir(ConcurrentEntityStore<Libro> store) throws Exception {
+        return abrir(store, SnapshotFormat.BINARY);
+    }
+
+    private DurableStore<Libro> abrir(ConcurrentEntityStore<Libro> store, SnapshotFormat formato) throws Exception {
+        DurableStore<Libro> durable = new DurableStore<>("libros", store, Libro.class, directorio, true, mapper,
+                BinaryCodecs.LIBRO, formato);
+        durable.recuperar();
+        return durable;
+    }
+
+    private List<Path> segmentos() throws Exception {
+        try (Stream<Path> archivos = Files.list(directorio)) {
+            return archivos.filter(p -> p.toString().endsWith(".wal")).sorted().toList();
+        }
+    }
+}
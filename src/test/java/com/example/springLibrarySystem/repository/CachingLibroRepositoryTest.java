@@ -0,0 +1,112 @@
+package com.example.springLibrarySystem.repository;
+
+import com.example.springLibrarySystem.cache.CacheProperties;
+import com.example.springLibrarySystem.enums.EstadoLibro;
+import com.example.springLibrarySystem.models.Libro;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class CachingLibroRepositoryTest {
+    private LibroRepositoryImpl delegado;
+    private CachingLibroRepository libroRepository;
+
+    @BeforeEach
+    void setUp() {
+        delegado = spy(new LibroRepositoryImpl());
+        libroRepository = new CachingLibroRepository(delegado, new CacheProperties());
+    }
+
+    @Test
+    void repeatedFindByIdReadsStorageOnce() {
+        Libro libro = libroRepository.save(new Libro(null, "111", "Libro A", "Autor", EstadoLibro.DISPONIBLE));
+
+        libroRepository.findById(libro.getId());
+        libroRepository.findById(libro.getId());
+
+        verify(delegado, times(1)).findById(libro.getId());
+    }
+
+    @Test
+    void saveInvalidatesCachedBook() {
+        Libro libro = libroRepository.save(new Libro(null, "111", "Libro A", "Autor", EstadoLibro.DISPONIBLE));
+        libroRepository.findById(libro.getId());
+
+        libroRepository.save(new Libro(libro.getId(), "111", "Libro A editado", "Autor", EstadoLibro.PRESTADO));
+
+        assertEquals("Libro A editado", libroRepository.findById(libro.getId()).orElseThrow().getTitulo());
+    }
+
+    @Test
+    void saveAllInvalidatesCachedBooks() {
+        Libro libro = libroRepository.save(new Libro(null, "111", "Libro A", "Autor", EstadoLibro.DISPONIBLE));
+        libroRepository.findById(libro.getId());
+
+        libroRepository.saveAll(List.of(new Libro(libro.getId(), "111", "Libro A editado", "Autor", EstadoLibro.DISPONIBLE)));
+
+        assertEquals("Libro A editado", libroRepository.findById(libro.getId()).orElseThrow().getTitulo());
+    }
+
+    @Test
+    void deleteInvalidatesCachedBook() {
+        Libro libro = libroRepository.save(new Libro(null, "111", "Libro A", "Autor", EstadoLibro.DISPONIBLE));
+        libroRepository.findById(libro.getId());
+
+        libroRepository.deleteById(libro.getId());
+
+        assertEquals(Optional.empty(), libroRepository.findById(libro.getId()));
+        assertEquals(Optional.empty(), libroRepository.findByIsbn("111"));
+    }
+
+    @Test
+    void findByIsbnIsCachedAndFollowsIsbnChanges() {
+        Libro libro = libroRepository.save(new Libro(null, "111", "Libro A", "Autor", EstadoLibro.DISPONIBLE));
+        libroRepository.findByIsbn("111");
+        libroRepository.findByIsbn("111");
+        verify(delegado, times(1)).findByIsbn("111");
+
+        libroRepository.save(new Libro(libro.getId(), "222", "Libro A", "Autor", EstadoLibro.DISPONIBLE));
+        Libro otro = libroRepository.save(new Libro(null, "111", "Libro B", "Autor", EstadoLibro.DISPONIBLE));
+
+        assertEquals(otro.getId(), libroRepository.findByIsbn("111").orElseThrow().getId());
+        assertEquals(libro.getId(), libroRepository.findByIsbn("222").orElseThrow().getId());
+    }
+
+    @Test
+    void countersTrackHitsAndMisses() {
+        Libro libro = libroRepository.save(new Libro(null, "111", "Libro A", "Autor", EstadoLibro.DISPONIBLE));
+
+        libroRepository.findById(libro.getId());
+        libroRepository.findById(libro.getId());
+        libroRepository.findById(999L);
+
+        var estadisticas = libroRepository.getCaches().get(0).estadisticas();
+        assertEquals(1, estadisticas.aciertos());
+        assertEquals(2, estadisticas.fallos());
+    }
+
+    @Test
+    void missingIsbnIsRememberedUntilABookWithItIsSaved() {
+        assertEquals(Optional.empty(), libroRepository.findByIsbn("404"));
+        assertEquals(Optional.empty(), libroRepository.findByIsbn("404"));
+        verify(delegado, times(1)).findByIsbn("404");
+
+        Libro libro = libroRepository.save(new Libro(null, "404", "Libro", "Autor", EstadoLibro.DISPONIBLE));
+
+        assertEquals(libro.getId(), libroRepository.findByIsbn("404").orElseThrow().getId());
+    }
+
+    @Test
+    void bulkSaveClearsMissingIsbn() {
+        libroRepository.findByIsbn("404");
+
+        libroRepository.saveAll(List.of(new Libro(null, "404", "Libro", "Autor", EstadoLibro.DISPONIBLE)));
+
+        assertTrue(libroRepository.findByIsbn("404").isPresent());
+    }
+}
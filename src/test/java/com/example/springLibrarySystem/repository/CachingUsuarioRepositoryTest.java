@@ -0,0 +1,56 @@
+package com.example.springLibrarySystem.repository;
+
+import com.example.springLibrarySystem.cache.CacheProperties;
+import com.example.springLibrarySystem.enums.EstadoUsuario;
+import com.example.springLibrarySystem.models.Usuario;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class CachingUsuarioRepositoryTest {
+    private UsuarioRepositoryImpl delegado;
+    private CachingUsuarioRepository usuarioRepository;
+
+    @BeforeEach
+    void setUp() {
+        delegado = spy(new UsuarioRepositoryImpl());
+        usuarioRepository = new CachingUsuarioRepository(delegado, new CacheProperties());
+    }
+
+    @Test
+    void findByEmailIgnoresCaseAndIsCached() {
+        Usuario usuario = usuarioRepository.save(new Usuario(null, "Ana", "ana@mail.com", EstadoUsuario.ACTIVO));
+
+        usuarioRepository.findByEmail("ana@mail.com");
+        Optional<Usuario> resultado = usuarioRepository.findByEmail("ANA@mail.com");
+
+        assertEquals(usuario.getId(), resultado.orElseThrow().getId());
+        verify(delegado, times(1)).findByEmail(anyString());
+    }
+
+    @Test
+    void emailChangeIsVisibleThroughCache() {
+        Usuario usuario = usuarioRepository.save(new Usuario(null, "Ana", "ana@mail.com", EstadoUsuario.ACTIVO));
+        usuarioRepository.findByEmail("ana@mail.com");
+
+        usuarioRepository.save(new Usuario(usuario.getId(), "Ana", "ana@otro.com", EstadoUsuario.ACTIVO));
+
+        assertEquals(Optional.empty(), usuarioRepository.findByEmail("ana@mail.com"));
+        assertTrue(usuarioRepository.findByEmail("ana@otro.com").isPresent());
+    }
+
+    @Test
+    void missingEmailIsRememberedUntilAUserWithItIsSaved() {
+        usuarioRepository.findByEmail("nadie@mail.com");
+        usuarioRepository.findByEmail("NADIE@mail.com");
+        verify(delegado, times(1)).findByEmail(anyString());
+
+        usuarioRepository.save(new Usuario(null, "Nadie", "Nadie@Mail.com", EstadoUsuario.ACTIVO));
+
+        assertTrue(usuarioRepository.findByEmail("nadie@mail.com").isPresent());
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.springLibrarySystem.repository;
 
 import com.example.springLibrarySystem.enums.EstadoLibro;
+import com.example.springLibrarySystem.exception.IsbnDuplicadoException;
 import com.example.springLibrarySystem.models.Libro;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -85,4 +86,79 @@ public class LibroRepositoryTest {
     void existsByIdReturnFalseIfBookDoesNotExist() {
         assertFalse(libroRepository.existsById(1234L));
     }
+
+    @Test
+    void saveDuplicateIsbnThrowsAndKeepsOriginal() {
+        Libro original = libroRepository.save(new Libro(null, "DUP-001", "Original", "Autor", EstadoLibro.DISPONIBLE));
+
+        assertThrows(IsbnDuplicadoException.class, () ->
+                libroRepository.save(new Libro(null, "DUP-001", "Copia", "Autor", EstadoLibro.DISPONIBLE)));
+        assertEquals(original.getId(), libroRepository.findByIsbn("DUP-001").get().getId());
+        assertEquals(1, libroRepository.findAll().size());
+    }
+
+    @Test
+    void updateIsbnMovesIndexEntry() {
+        Libro libro = libroRepository.save(new Libro(null, "OLD-001", "Libro F", "Autor F", EstadoLibro.DISPONIBLE));
+        libroRepository.save(new Libro(libro.getId(), "NEW-001", "Libro F", "Autor F", EstadoLibro.DISPONIBLE));
+
+        assertFalse(libroRepository.findByIsbn("OLD-001").isPresent());
+        assertEquals(libro.getId(), libroRepository.findByIsbn("NEW-001").get().getId());
+
+        libroRepository.save(new Libro(null, "OLD-001", "Libro G", "Autor G", EstadoLibro.DISPONIBLE));
+        assertEquals("Libro G", libroRepository.findByIsbn("OLD-001").get().getTitulo());
+    }
+
+    @Test
+    void deleteByIdReleasesIsbn() {
+        Libro libro = libroRepository.save(new Libro(null, "REL-001", "Libro H", "Autor H", EstadoLibro.DISPONIBLE));
+        libroRepository.deleteById(libro.getId());
+
+        assertFalse(libroRepository.findByIsbn("REL-001").isPresent());
+        assertDoesNotThrow(() ->
+                libroRepository.save(new Libro(null, "REL-001", "Libro I", "Autor I", EstadoLibro.DISPONIBLE)));
+    }
+
+    @Test
+    void searchFindsSavedBooksAndForgetsDeletedOnes() {
+        Libro libro = libroRepository.save(new Libro(null, "BUS-001", "La ciudad y los perros", "Mario Vargas Llosa", EstadoLibro.DISPONIBLE));
+        libroRepository.save(new Libro(null, "BUS-002", "Pedro Páramo", "Juan Rulfo", EstadoLibro.DISPONIBLE));
+
+        assertEquals(List.of(libro.getId()), libroRepository.search("vargas ciudad", 10).stream().map(Libro::getId).toList());
+
+        libroRepository.deleteById(libro.getId());
+        assertTrue(libroRepository.search("vargas", 10).isEmpty());
+    }
+
+    @Test
+    void findPageReturnsBooksOrderedAfterCursor() {
+        for (int i = 1; i <= 5; i++) {
+            libroRepository.save(new Libro(null, "PAG-" + i, "Libro " + i, "Autor", EstadoLibro.DISPONIBLE));
+        }
+        libroRepository.deleteById(3L);
+
+        List<Libro> primera = libroRepository.findPage(null, 2);
+        List<Libro> segunda = libroRepository.findPage(primera.get(1).getId(), 2);
+        List<Libro> ultima = libroRepository.findPage(segunda.get(1).getId(), 2);
+
+        assertEquals(List.of(1L, 2L), primera.stream().map(Libro::getId).toList());
+        assertEquals(List.of(4L, 5L), segunda.stream().map(Libro::getId).toList());
+        assertTrue(ultima.isEmpty());
+    }
+
+    @Test
+    void findPageByEstadoWalksOnlyBooksInThatState() {
+        for (int i = 1; i <= 6; i++) {
+            EstadoLibro estado = i % 2 == 0 ? EstadoLibro.EN_REPARACION : EstadoLibro.DISPONIBLE;
+            libroRepository.save(new Libro(null, "EST-" + i, "Libro " + i, "Autor", estado));
+        }
+
+        List<Libro> primera = libroRepository.findPageByEstado(EstadoLibro.EN_REPARACION, null, 2);
+        List<Libro> segunda = libroRepository.findPageByEstado(EstadoLibro.EN_REPARACION, primera.get(1).getId(), 2);
+
+        assertEquals(List.of(2L, 4L), primera.stream().map(Libro::getId).toList());
+        assertEquals(List.of(6L), segunda.stream().map(Libro::getId).toList());
+        assertEquals(3L, libroRepository.countByEstado().get(EstadoLibro.DISPONIBLE));
+        assertEquals(0L, libroRepository.countByEstado().get(EstadoLibro.PRESTADO));
+    }
 }
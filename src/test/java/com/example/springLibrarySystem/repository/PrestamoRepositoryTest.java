@@ -1,6 +1,7 @@
 package com.example.springLibrarySystem.repository;
 
 import com.example.springLibrarySystem.enums.EstadoLibro;
+import com.example.springLibrarySystem.enums.EstadoPrestamo;
 import com.example.springLibrarySystem.enums.EstadoUsuario;
 import com.example.springLibrarySystem.models.Libro;
 import com.example.springLibrarySystem.models.Prestamo;
@@ -28,7 +29,7 @@ class PrestamoRepositoryTest {
 
         libro = new Libro(1L, "111-222", "Libro Test", "Autor", EstadoLibro.DISPONIBLE);
         usuario = new Usuario(1L, "Juan", "juan@mail.com", EstadoUsuario.ACTIVO);
-        prestamo = new Prestamo(null, libro, usuario, LocalDate.now(), null);
+        prestamo = new Prestamo(null, libro.getId(), usuario.getId(), LocalDate.now(), null);
     }
 
     @Test
@@ -36,8 +37,8 @@ class PrestamoRepositoryTest {
         Prestamo guardado = prestamoRepository.save(prestamo);
 
         assertNotNull(guardado.getId());
-        assertEquals(libro, guardado.getLibro());
-        assertEquals(usuario, guardado.getUsuario());
+        assertEquals(libro.getId(), guardado.getLibroId());
+        assertEquals(usuario.getId(), guardado.getUsuarioId());
     }
 
     @Test
@@ -46,7 +47,7 @@ class PrestamoRepositoryTest {
         Optional<Prestamo> resultado = prestamoRepository.findById(guardado.getId());
 
         assertTrue(resultado.isPresent());
-        assertEquals(libro, resultado.get().getLibro());
+        assertEquals(libro.getId(), resultado.get().getLibroId());
     }
 
     @Test
@@ -61,7 +62,7 @@ class PrestamoRepositoryTest {
         Optional<Prestamo> resultado = prestamoRepository.findByLibro(libro);
 
         assertTrue(resultado.isPresent());
-        assertEquals(libro, resultado.get().getLibro());
+        assertEquals(libro.getId(), resultado.get().getLibroId());
     }
 
     @Test
@@ -75,18 +76,18 @@ class PrestamoRepositoryTest {
     @Test
     void findByUserExistentReturnLoan() {
         prestamoRepository.save(prestamo);
-        Optional<Prestamo> resultado = prestamoRepository.findByUsuario(usuario);
+        List<Prestamo> resultado = prestamoRepository.findByUsuario(usuario);
 
-        assertTrue(resultado.isPresent());
-        assertEquals(usuario, resultado.get().getUsuario());
+        assertEquals(1, resultado.size());
+        assertEquals(usuario.getId(), resultado.get(0).getUsuarioId());
     }
 
     @Test
     void findByUserInexistentReturnEmpty() {
         Usuario otroUsuario = new Usuario(2L, "Maria", "maria@mail.com", EstadoUsuario.ACTIVO);
-        Optional<Prestamo> resultado = prestamoRepository.findByUsuario(otroUsuario);
+        List<Prestamo> resultado = prestamoRepository.findByUsuario(otroUsuario);
 
-        assertFalse(resultado.isPresent());
+        assertTrue(resultado.isEmpty());
     }
 
     @Test
@@ -111,13 +112,70 @@ class PrestamoRepositoryTest {
     @Test
     void findAllReturnAllLoans() {
         prestamoRepository.save(prestamo);
-        prestamoRepository.save(new Prestamo(null,
-                new Libro(2L, "444-555", "Otro Libro", "Autor", EstadoLibro.DISPONIBLE),
-                new Usuario(2L, "Ana", "ana@mail.com", EstadoUsuario.ACTIVO),
-                LocalDate.now(), null
-        ));
+        prestamoRepository.save(new Prestamo(null, 2L, 2L, LocalDate.now(), null));
 
         List<Prestamo> lista = prestamoRepository.findAll();
         assertEquals(2, lista.size());
     }
+
+    @Test
+    void findByUserReturnsAllLoansOfUser() {
+        prestamoRepository.save(prestamo);
+        prestamoRepository.save(new Prestamo(null, 2L, usuario.getId(), LocalDate.now(), null));
+
+        assertEquals(2, prestamoRepository.findByUsuario(usuario).size());
+        assertEquals(2, prestamoRepository.findAllByUsuarioId(usuario.getId()).size());
+    }
+
+    @Test
+    void findByBookMatchesByIdAfterTitleEdit() {
+        prestamoRepository.save(prestamo);
+        Libro editado = new Libro(libro.getId(), libro.getIsbn(), "Título editado", "Autor", EstadoLibro.PRESTADO);
+
+        assertTrue(prestamoRepository.findByLibro(editado).isPresent());
+        assertEquals(1, prestamoRepository.findAllByLibroId(libro.getId()).size());
+    }
+
+    @Test
+    void deleteAndReassignKeepIndexesConsistent() {
+        Prestamo guardado = prestamoRepository.save(prestamo);
+        Usuario otroUsuario = new Usuario(2L, "Maria", "maria@mail.com", EstadoUsuario.ACTIVO);
+        prestamoRepository.save(new Prestamo(guardado.getId(), libro.getId(), otroUsuario.getId(), LocalDate.now(), null));
+
+        assertTrue(prestamoRepository.findAllByUsuarioId(usuario.getId()).isEmpty());
+        assertEquals(1, prestamoRepository.findAllByUsuarioId(otroUsuario.getId()).size());
+
+        prestamoRepository.deleteById(guardado.getId());
+        assertTrue(prestamoRepository.findAllByUsuarioId(otroUsuario.getId()).isEmpty());
+        assertTrue(prestamoRepository.findAllByLibroId(libro.getId()).isEmpty());
+    }
+
+    @Test
+    void findDueBetweenReturnsActiveLoansOrderedByDueDate() {
+        LocalDate hoy = LocalDate.of(2025, 3, 10);
+        Prestamo tarde = prestamoRepository.save(new Prestamo(null, 1L, 1L, hoy.minusDays(20), hoy.minusDays(1)));
+        Prestamo masTarde = prestamoRepository.save(new Prestamo(null, 2L, 1L, hoy.minusDays(30), hoy.minusDays(9)));
+        prestamoRepository.save(new Prestamo(null, 3L, 2L, hoy.minusDays(5), hoy));
+        Prestamo devuelto = prestamoRepository.save(new Prestamo(null, 4L, 2L, hoy.minusDays(30), hoy.minusDays(5),
+                EstadoPrestamo.DEVUELTO));
+
+        assertEquals(List.of(masTarde.getId(), tarde.getId()),
+                prestamoRepository.findDueBetween(null, hoy, 10).stream().map(Prestamo::getId).toList());
+        assertEquals(List.of(tarde.getId()),
+                prestamoRepository.findDueBetween(hoy.minusDays(3), hoy, 10).stream().map(Prestamo::getId).toList());
+        assertEquals(1, prestamoRepository.findDueBetween(null, hoy, 1).size());
+        assertFalse(prestamoRepository.findDueBetween(null, hoy, 10).stream()
+                .anyMatch(p -> p.getId().equals(devuelto.getId())));
+    }
+
+    @Test
+    void returningLoanRemovesItFromDueDates() {
+        LocalDate hoy = LocalDate.of(2025, 3, 10);
+        Prestamo vencido = prestamoRepository.save(new Prestamo(null, 1L, 1L, hoy.minusDays(20), hoy.minusDays(1)));
+
+        prestamoRepository.save(new Prestamo(vencido.getId(), 1L, 1L, vencido.getFechaPrestamo(),
+                vencido.getFechaDevolucion(), EstadoPrestamo.DEVUELTO));
+
+        assertTrue(prestamoRepository.findDueBetween(null, hoy, 10).isEmpty());
+    }
 }
@@ -0,0 +1,69 @@
+package com.example.springLibrarySystem.repository;
+
+import com.example.springLibrarySystem.enums.EstadoLibro;
+import com.example.springLibrarySystem.exception.IsbnDuplicadoException;
+import com.example.springLibrarySystem.models.Libro;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.test.StepVerifier;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ReactiveLibroRepositoryTest {
+    private LibroRepositoryImpl libros;
+    private ReactiveLibroRepositoryImpl libroRepository;
+
+    @BeforeEach
+    void setUp() {
+        libros = spy(new LibroRepositoryImpl());
+        libroRepository = new ReactiveLibroRepositoryImpl(libros);
+    }
+
+    @Test
+    void saveBookAsignIdToBook() {
+        StepVerifier.create(libroRepository.save(new Libro(null, "111", "Libro A", "Autor A", EstadoLibro.DISPONIBLE)))
+                .expectNextMatches(libro -> libro.getId() != null)
+                .verifyComplete();
+    }
+
+    @Test
+    void saveDuplicateIsbnSignalsError() {
+        libros.save(new Libro(null, "111", "Libro A", "Autor A", EstadoLibro.DISPONIBLE));
+
+        StepVerifier.create(libroRepository.save(new Libro(null, "111", "Libro B", "Autor B", EstadoLibro.DISPONIBLE)))
+                .verifyError(IsbnDuplicadoException.class);
+    }
+
+    @Test
+    void findByIdNotExistentCompletesEmpty() {
+        StepVerifier.create(libroRepository.findById(99L)).verifyComplete();
+    }
+
+    @Test
+    void findAllReadsPagesOnlyAsRequested() {
+        for (int i = 0; i < 1000; i++) {
+            libros.save(new Libro(null, "isbn-" + i, "Libro " + i, "Autor", EstadoLibro.DISPONIBLE));
+        }
+
+        StepVerifier.create(libroRepository.findAll(), 0)
+                .then(() -> verify(libros, never()).findPage(any(), anyInt()))
+                .thenRequest(10)
+                .expectNextCount(10)
+                .then(() -> verify(libros, times(1)).findPage(any(), anyInt()))
+                .thenRequest(Long.MAX_VALUE)
+                .expectNextCount(990)
+                .verifyComplete();
+    }
+
+    @Test
+    void deleteByIdRemovesBook() {
+        Libro libro = libros.save(new Libro(null, "111", "Libro A", "Autor A", EstadoLibro.DISPONIBLE));
+
+        StepVerifier.create(libroRepository.deleteById(libro.getId())
+                        .then(libroRepository.existsById(libro.getId())))
+                .expectNext(false)
+                .verifyComplete();
+    }
+}
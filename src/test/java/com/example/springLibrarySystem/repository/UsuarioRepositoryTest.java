@@ -1,11 +1,13 @@
 package com.example.springLibrarySystem.repository;
 
 import com.example.springLibrarySystem.enums.EstadoUsuario;
+import com.example.springLibrarySystem.exception.EmailDuplicadoException;
 import com.example.springLibrarySystem.models.Usuario;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -101,4 +103,58 @@ class UsuarioRepositoryTest {
         List<Usuario> usuarios = usuarioRepository.findAll();
         assertEquals(2, usuarios.size());
     }
+
+    @Test
+    void findByEmailIgnoresCase() {
+        usuarioRepository.save(new Usuario(null, "Sofía", "Sofia@Mail.com", EstadoUsuario.ACTIVO));
+
+        assertTrue(usuarioRepository.findByEmail("SOFIA@MAIL.COM").isPresent());
+        assertTrue(usuarioRepository.findByNombre("SOFÍA").isPresent());
+    }
+
+    @Test
+    void saveDuplicateEmailIgnoringCaseThrows() {
+        usuarioRepository.save(new Usuario(null, "Luis", "luis@mail.com", EstadoUsuario.ACTIVO));
+
+        assertThrows(EmailDuplicadoException.class, () ->
+                usuarioRepository.save(new Usuario(null, "Otro Luis", "LUIS@mail.com", EstadoUsuario.ACTIVO)));
+        assertEquals(1, usuarioRepository.findAll().size());
+    }
+
+    @Test
+    void updateEmailMovesIndexEntry() {
+        Usuario guardado = usuarioRepository.save(new Usuario(null, "Marta", "marta@mail.com", EstadoUsuario.ACTIVO));
+        usuarioRepository.save(new Usuario(guardado.getId(), "Marta", "marta@nuevo.com", EstadoUsuario.ACTIVO));
+
+        assertFalse(usuarioRepository.findByEmail("marta@mail.com").isPresent());
+        assertEquals(guardado.getId(), usuarioRepository.findByEmail("marta@nuevo.com").get().getId());
+    }
+
+    @Test
+    void findByNameWithRepeatedNamesReturnsLowestId() {
+        Usuario primero = usuarioRepository.save(new Usuario(null, "Pablo", "pablo1@mail.com", EstadoUsuario.ACTIVO));
+        Usuario segundo = usuarioRepository.save(new Usuario(null, "pablo", "pablo2@mail.com", EstadoUsuario.ACTIVO));
+
+        assertEquals(primero.getId(), usuarioRepository.findByNombre("PABLO").get().getId());
+
+        usuarioRepository.deleteById(primero.getId());
+        assertEquals(segundo.getId(), usuarioRepository.findByNombre("Pablo").get().getId());
+    }
+
+    @Test
+    void findByEstadoAndCountFollowStatusChanges() {
+        Usuario ana = usuarioRepository.save(new Usuario(null, "Ana", "ana@mail.com", EstadoUsuario.ACTIVO));
+        usuarioRepository.save(new Usuario(null, "Luis", "luis@mail.com", EstadoUsuario.ACTIVO));
+        Usuario eva = usuarioRepository.save(new Usuario(null, "Eva", "eva@mail.com", EstadoUsuario.SUSPENDIDO));
+
+        usuarioRepository.save(new Usuario(ana.getId(), "Ana", "ana@mail.com", EstadoUsuario.SUSPENDIDO));
+
+        assertEquals(List.of(ana.getId(), eva.getId()),
+                usuarioRepository.findAllByEstado(EstadoUsuario.SUSPENDIDO).stream().map(Usuario::getId).toList());
+        assertEquals(Map.of(EstadoUsuario.ACTIVO, 1L, EstadoUsuario.INACTIVO, 0L, EstadoUsuario.SUSPENDIDO, 2L),
+                usuarioRepository.countByEstado());
+
+        usuarioRepository.deleteById(eva.getId());
+        assertEquals(1L, usuarioRepository.countByEstado().get(EstadoUsuario.SUSPENDIDO));
+    }
 }
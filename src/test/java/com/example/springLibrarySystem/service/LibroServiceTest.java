@@ -3,6 +3,7 @@ package com.example.springLibrarySystem.service;
 import com.example.springLibrarySystem.enums.EstadoLibro;
 import com.example.springLibrarySystem.exception.LibroNoEncontradoException;
 import com.example.springLibrarySystem.models.Libro;
+import com.example.springLibrarySystem.models.ResultadoLote;
 import com.example.springLibrarySystem.repository.LibroRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -22,6 +23,9 @@ class LibroServiceTest {
     @Mock
     private LibroRepository libroRepository;
 
+    @Mock
+    private PrestamoService prestamoService;
+
     @InjectMocks
     private LibroServiceImpl libroService;
 
@@ -51,6 +55,15 @@ class LibroServiceTest {
         verify(libroRepository).findByIsbn("000");
     }
 
+    @Test
+    void notFoundExceptionDoesNotCaptureStackTrace() {
+        when(libroRepository.findByIsbn("000")).thenReturn(Optional.empty());
+
+        LibroNoEncontradoException e = assertThrows(LibroNoEncontradoException.class, () -> libroService.findByIsbn("000"));
+        assertEquals(0, e.getStackTrace().length);
+        assertEquals("Libro no encontrado con ISBN: 000", e.getMessage());
+    }
+
     @Test
     void findByIdExistenteReturnBook() {
         when(libroRepository.findById(1L)).thenReturn(Optional.of(libro));
@@ -80,41 +93,58 @@ class LibroServiceTest {
     }
 
     @Test
-    void saveAndReturnBook() {
-        when(libroRepository.save(libro)).thenReturn(libro);
+    void saveDelegatesToLoanServiceAndReturnBook() {
+        when(prestamoService.guardarLibro(libro)).thenReturn(libro);
 
         Libro resultado = libroService.save(libro);
 
         assertEquals("Libro A", resultado.getTitulo());
-        verify(libroRepository).save(libro);
+        verify(libroRepository, never()).save(any());
     }
 
     @Test
-    void deleteByIdDeleteBook() {
-        doNothing().when(libroRepository).deleteById(1L);
-
+    void deleteByIdDelegatesToLoanServiceWithoutCascade() {
         libroService.deleteById(1L);
+        libroService.deleteById(2L, true);
 
-        verify(libroRepository).deleteById(1L);
+        verify(prestamoService).eliminarLibro(1L, false);
+        verify(prestamoService).eliminarLibro(2L, true);
+        verify(libroRepository, never()).deleteById(any());
     }
 
     @Test
     void updateExistentUpdateAndReturnBook() {
-        when(libroRepository.existsById(1L)).thenReturn(true);
-        when(libroRepository.save(libro)).thenReturn(libro);
+        when(prestamoService.actualizarLibro(libro)).thenReturn(libro);
 
         Libro resultado = libroService.update(1L, libro);
 
         assertEquals("Libro A", resultado.getTitulo());
         assertEquals(1L, resultado.getId());
-        verify(libroRepository).save(libro);
+        verify(libroRepository, never()).update(any());
     }
 
     @Test
     void updateNotExistentThrowException() {
-        when(libroRepository.existsById(99L)).thenReturn(false);
+        when(prestamoService.actualizarLibro(libro)).thenThrow(new LibroNoEncontradoException(99L));
 
         assertThrows(LibroNoEncontradoException.class, () -> libroService.update(99L, libro));
         verify(libroRepository, never()).save(any());
     }
-}
\ No newline at end of file
+
+    @Test
+    void bulkWritesDelegateToLoanService() {
+        Libro inexistente = new Libro(99L, "999", "No existe", "Autor", EstadoLibro.DISPONIBLE);
+        when(prestamoService.actualizarLibros(List.of(libro, inexistente))).thenReturn(List.of(
+                ResultadoLote.ok(0, libro), ResultadoLote.error(1, "Libro no encontrado con ID: 99")));
+        when(prestamoService.guardarLibros(List.of(libro))).thenReturn(List.of(ResultadoLote.ok(0, libro)));
+
+        List<ResultadoLote<Libro>> actualizados = libroService.updateAll(List.of(libro, inexistente));
+        List<ResultadoLote<Libro>> guardados = libroService.saveAll(List.of(libro));
+
+        assertTrue(actualizados.get(0).isOk());
+        assertEquals("Libro no encontrado con ID: 99", actualizados.get(1).getError());
+        assertTrue(guardados.get(0).isOk());
+        verify(libroRepository, never()).saveAll(any());
+        verify(libroRepository, never()).updateAll(any());
+    }
+}
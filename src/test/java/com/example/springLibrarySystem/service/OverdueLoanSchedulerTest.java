@@ -0,0 +1,90 @@
+package com.example.springLibrarySystem.service;
+
+import com.example.springLibrarySystem.enums.EstadoPrestamo;
+import com.example.springLibrarySystem.enums.EstadoUsuario;
+import com.example.springLibrarySystem.models.Prestamo;
+import com.example.springLibrarySystem.models.Usuario;
+import com.example.springLibrarySystem.repository.PrestamoRepository;
+import com.example.springLibrarySystem.repository.PrestamoRepositoryImpl;
+import com.example.springLibrarySystem.repository.UsuarioRepositoryImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class OverdueLoanSchedulerTest {
+
+    private static final LocalDate HOY = LocalDate.of(2025, 3, 10);
+
+    private PrestamoRepository prestamoRepository;
+    private UsuarioRepositoryImpl usuarioRepository;
+    private OverdueLoanScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        prestamoRepository = spy(new PrestamoRepositoryImpl());
+        usuarioRepository = new UsuarioRepositoryImpl();
+        scheduler = new OverdueLoanScheduler(prestamoRepository, usuarioRepository, new OverdueProperties(), false);
+    }
+
+    @Test
+    void suspendsActiveUsersWithOverdueLoans() {
+        Usuario atrasado = usuario("ana@mail.com");
+        Usuario alDia = usuario("luis@mail.com");
+        prestamo(atrasado, HOY.minusDays(3), EstadoPrestamo.ACTIVO);
+        prestamo(atrasado, HOY.minusDays(1), EstadoPrestamo.ACTIVO);
+        prestamo(alDia, HOY, EstadoPrestamo.ACTIVO);
+        prestamo(alDia, HOY.minusDays(5), EstadoPrestamo.DEVUELTO);
+
+        assertEquals(1, scheduler.revisar(HOY));
+
+        assertEquals(EstadoUsuario.SUSPENDIDO, usuarioRepository.findById(atrasado.getId()).orElseThrow().getEstado());
+        assertEquals(EstadoUsuario.ACTIVO, usuarioRepository.findById(alDia.getId()).orElseThrow().getEstado());
+    }
+
+    @Test
+    void eachRunAsksTheIndexOnlyForLoansAlreadyDue() {
+        Usuario usuario = usuario("ana@mail.com");
+        prestamo(usuario, HOY, EstadoPrestamo.ACTIVO);
+
+        assertEquals(0, scheduler.revisar(HOY));
+        assertEquals(1, scheduler.revisar(HOY.plusDays(1)));
+        assertEquals(0, scheduler.revisar(HOY.plusDays(1)));
+
+        verify(prestamoRepository).findDueBetween(null, HOY, Integer.MAX_VALUE);
+        verify(prestamoRepository, times(2)).findDueBetween(null, HOY.plusDays(1), Integer.MAX_VALUE);
+    }
+
+    @Test
+    void loanSavedAfterItsDueDateWasReviewedSuspendsItsUser() {
+        Usuario primero = usuario("ana@mail.com");
+        prestamo(primero, HOY.minusDays(2), EstadoPrestamo.ACTIVO);
+        assertEquals(1, scheduler.revisar(HOY));
+
+        Usuario tardio = usuario("luis@mail.com");
+        prestamo(tardio, HOY.minusDays(5), EstadoPrestamo.ACTIVO);
+
+        assertEquals(1, scheduler.revisar(HOY));
+        assertEquals(EstadoUsuario.SUSPENDIDO, usuarioRepository.findById(tardio.getId()).orElseThrow().getEstado());
+    }
+
+    @Test
+    void usersNotActiveAreLeftAsIs() {
+        Usuario usuario = usuarioRepository.save(new Usuario(null, "Eva", "eva@mail.com", EstadoUsuario.INACTIVO));
+        prestamo(usuario, HOY.minusDays(2), EstadoPrestamo.ACTIVO);
+
+        assertEquals(0, scheduler.revisar(HOY));
+        assertEquals(EstadoUsuario.INACTIVO, usuarioRepository.findById(usuario.getId()).orElseThrow().getEstado());
+    }
+
+    private Usuario usuario(String email) {
+        return usuarioRepository.save(new Usuario(null, email, email, EstadoUsuario.ACTIVO));
+    }
+
+    private void prestamo(Usuario usuario, LocalDate vence, EstadoPrestamo estado) {
+        prestamoRepository.save(new Prestamo(null, null, usuario.getId(), vence.minusDays(14), vence, estado));
+    }
+}
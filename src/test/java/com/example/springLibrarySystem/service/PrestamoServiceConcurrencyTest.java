@@ -0,0 +1,230 @@
+package com.example.springLibrarySystem.service;
+
+import com.example.springLibrarySystem.enums.EstadoLibro;
+import com.example.springLibrarySystem.enums.EstadoPrestamo;
+import com.example.springLibrarySystem.enums.EstadoUsuario;
+import com.example.springLibrarySystem.exception.EstadoLibroInvalidoException;
+import com.example.springLibrarySystem.exception.LibroNoDisponibleException;
+import com.example.springLibrarySystem.exception.LibroNoEncontradoException;
+import com.example.springLibrarySystem.exception.PrestamoYaDevueltoException;
+import com.example.springLibrarySystem.models.Libro;
+import com.example.springLibrarySystem.models.Prestamo;
+import com.example.springLibrarySystem.models.Usuario;
+import com.example.springLibrarySystem.repository.LibroRepositoryImpl;
+import com.example.springLibrarySystem.repository.PrestamoRepositoryImpl;
+import com.example.springLibrarySystem.repository.UsuarioRepositoryImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Préstamos y devoluciones concurrentes contra los repositorios reales.
+ */
+class PrestamoServiceConcurrencyTest {
+    private static final int HILOS = 32;
+
+    private LibroRepositoryImpl libroRepository;
+    private UsuarioRepositoryImpl usuarioRepository;
+    private PrestamoRepositoryImpl prestamoRepository;
+    private PrestamoServiceImpl prestamoService;
+
+    @BeforeEach
+    void setUp() {
+        libroRepository = new LibroRepositoryImpl();
+        usuarioRepository = new UsuarioRepositoryImpl();
+        prestamoRepository = new PrestamoRepositoryImpl();
+        prestamoService = new PrestamoServiceImpl(prestamoRepository, libroRepository, usuarioRepository);
+    }
+
+    @Test
+    void reopeningALentBookIsRejectedSoItCannotBeLentTwice() {
+        LibroServiceImpl libroService = new LibroServiceImpl(libroRepository, prestamoService);
+        Libro libro = libroRepository.save(new Libro(null, "123", "Rayuela", "Cortázar", EstadoLibro.DISPONIBLE));
+        Long ana = usuarioRepository.save(new Usuario(null, "Ana", "ana@mail.com", EstadoUsuario.ACTIVO)).getId();
+        Long eva = usuarioRepository.save(new Usuario(null, "Eva", "eva@mail.com", EstadoUsuario.ACTIVO)).getId();
+        prestamoService.prestarLibro(libro.getId(), ana);
+
+        Libro reabierto = new Libro(null, "123", "Rayuela", "Cortázar", EstadoLibro.DISPONIBLE);
+        assertThrows(EstadoLibroInvalidoException.class, () -> libroService.update(libro.getId(), reabierto));
+        assertThrows(LibroNoDisponibleException.class, () -> prestamoService.prestarLibro(libro.getId(), eva));
+
+        assertEquals(1, prestamoRepository.findAllByLibroId(libro.getId()).size());
+        assertEquals(EstadoLibro.PRESTADO, libroRepository.findById(libro.getId()).orElseThrow().getEstado());
+    }
+
+    @Test
+    void deletingAnActiveLoanFreesTheBookForTheNextCheckout() {
+        Libro libro = libroRepository.save(new Libro(null, "123", "Rayuela", "Cortázar", EstadoLibro.DISPONIBLE));
+        Long ana = usuarioRepository.save(new Usuario(null, "Ana", "ana@mail.com", EstadoUsuario.ACTIVO)).getId();
+        Long eva = usuarioRepository.save(new Usuario(null, "Eva", "eva@mail.com", EstadoUsuario.ACTIVO)).getId();
+        Prestamo prestamo = prestamoService.prestarLibro(libro.getId(), ana);
+
+        prestamoService.deleteById(prestamo.getId());
+
+        assertEquals(EstadoLibro.DISPONIBLE, libroRepository.findById(libro.getId()).orElseThrow().getEstado());
+        assertEquals(eva, prestamoService.prestarLibro(libro.getId(), eva).getUsuarioId());
+    }
+
+    @RepeatedTest(20)
+    void deletingAUserWithoutCascadeNeverOrphansAConcurrentLoan() throws Exception {
+        UsuarioServiceImpl usuarioService = new UsuarioServiceImpl(usuarioRepository, prestamoRepository, libroRepository);
+        Long libroId = libroRepository.save(new Libro(null, "123", "Rayuela", "Cortázar", EstadoLibro.DISPONIBLE)).getId();
+        Long ana = usuarioRepository.save(new Usuario(null, "Ana", "ana@mail.com", EstadoUsuario.ACTIVO)).getId();
+        CountDownLatch largada = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> prestamo = executor.submit(() -> {
+                largada.await();
+                return prestamoService.prestarLibro(libroId, ana);
+            });
+            Future<?> borrado = executor.submit(() -> {
+                largada.await();
+                usuarioService.deleteById(ana, false);
+                return null;
+            });
+            largada.countDown();
+            try {
+                prestamo.get();
+            } catch (Exception ignorada) {
+                // El usuario ya no existía: el préstamo se deshizo.
+            }
+            try {
+                borrado.get();
+            } catch (Exception ignorada) {
+                // Ya tenía el préstamo: el borrado se rechazó.
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        boolean tienePrestamos = !prestamoRepository.findAllByUsuarioId(ana).isEmpty();
+        assertEquals(tienePrestamos, usuarioRepository.existsById(ana));
+        assertEquals(tienePrestamos ? EstadoLibro.PRESTADO : EstadoLibro.DISPONIBLE,
+                libroRepository.findById(libroId).orElseThrow().getEstado());
+    }
+
+    @RepeatedTest(5)
+    void contestedBookIsLentOnlyOnce() throws Exception {
+        Libro libro = libroRepository.save(new Libro(null, "123", "Rayuela", "Cortázar", EstadoLibro.DISPONIBLE));
+        List<Long> usuarios = new ArrayList<>();
+        for (int i = 0; i < HILOS; i++) {
+            usuarios.add(usuarioRepository.save(new Usuario(null, "Usuario " + i, i + "@mail.com", EstadoUsuario.ACTIVO)).getId());
+        }
+
+        AtomicInteger rechazados = new AtomicInteger();
+        List<Prestamo> prestados = enParalelo(HILOS, i -> {
+            try {
+                return prestamoService.prestarLibro(libro.getId(), usuarios.get(i));
+            } catch (LibroNoDisponibleException e) {
+                rechazados.incrementAndGet();
+                return null;
+            }
+        });
+
+        assertEquals(1, prestados.size());
+        assertEquals(HILOS - 1, rechazados.get());
+        assertEquals(1, prestamoRepository.findAll().size());
+        assertEquals(EstadoLibro.PRESTADO, libroRepository.findById(libro.getId()).orElseThrow().getEstado());
+    }
+
+    @RepeatedTest(5)
+    void concurrentReturnsOfTheSameLoanSucceedOnce() throws Exception {
+        Libro libro = libroRepository.save(new Libro(null, "123", "Rayuela", "Cortázar", EstadoLibro.DISPONIBLE));
+        Usuario usuario = usuarioRepository.save(new Usuario(null, "Ana", "ana@mail.com", EstadoUsuario.ACTIVO));
+        Prestamo prestamo = prestamoService.prestarLibro(libro.getId(), usuario.getId());
+
+        List<Prestamo> devueltos = enParalelo(HILOS, i -> {
+            try {
+                return prestamoService.devolverLibro(prestamo.getId());
+            } catch (PrestamoYaDevueltoException e) {
+                return null;
+            }
+        });
+
+        assertEquals(1, devueltos.size());
+        assertEquals(EstadoPrestamo.DEVUELTO, prestamoRepository.findById(prestamo.getId()).orElseThrow().getEstado());
+        assertEquals(EstadoLibro.DISPONIBLE, libroRepository.findById(libro.getId()).orElseThrow().getEstado());
+    }
+
+    @RepeatedTest(5)
+    void deletingABookWhileLendingItLeavesNoLoanBehind() throws Exception {
+        Libro libro = libroRepository.save(new Libro(null, "123", "Rayuela", "Cortázar", EstadoLibro.DISPONIBLE));
+        List<Long> usuarios = new ArrayList<>();
+        for (int i = 0; i < HILOS; i++) {
+            usuarios.add(usuarioRepository.save(new Usuario(null, "Usuario " + i, i + "@mail.com", EstadoUsuario.ACTIVO)).getId());
+        }
+
+        // La mitad de los hilos pide el libro y la otra mitad lo borra en cascada.
+        enParalelo(HILOS, i -> {
+            if (i % 2 == 0) {
+                prestamoService.eliminarLibro(libro.getId(), true);
+                return null;
+            }
+            try {
+                return prestamoService.prestarLibro(libro.getId(), usuarios.get(i));
+            } catch (LibroNoDisponibleException | LibroNoEncontradoException e) {
+                return null;
+            }
+        });
+
+        assertTrue(libroRepository.findById(libro.getId()).isEmpty());
+        assertTrue(prestamoRepository.findAllByLibroId(libro.getId()).isEmpty());
+        assertTrue(prestamoRepository.findAll().isEmpty());
+    }
+
+    @Test
+    void returnedBookCanBeLentAgain() {
+        Libro libro = libroRepository.save(new Libro(null, "123", "Rayuela", "Cortázar", EstadoLibro.DISPONIBLE));
+        Usuario ana = usuarioRepository.save(new Usuario(null, "Ana", "ana@mail.com", EstadoUsuario.ACTIVO));
+        Usuario juan = usuarioRepository.save(new Usuario(null, "Juan", "juan@mail.com", EstadoUsuario.ACTIVO));
+
+        Prestamo primero = prestamoService.prestarLibro(libro.getId(), ana.getId());
+        assertThrows(LibroNoDisponibleException.class, () -> prestamoService.prestarLibro(libro.getId(), juan.getId()));
+        prestamoService.devolverLibro(primero.getId());
+        Prestamo segundo = prestamoService.prestarLibro(libro.getId(), juan.getId());
+
+        assertEquals(juan.getId(), segundo.getUsuarioId());
+        assertNotEquals(primero.getId(), segundo.getId());
+    }
+
+    private interface Tarea {
+        Prestamo ejecutar(int indice);
+    }
+
+    // Arranca todos los hilos a la vez y junta los resultados no nulos.
+    private static List<Prestamo> enParalelo(int hilos, Tarea tarea) throws Exception {
+        ExecutorService ejecutor = Executors.newFixedThreadPool(hilos);
+        CountDownLatch largada = new CountDownLatch(1);
+        try {
+            List<Future<Prestamo>> futuros = new ArrayList<>();
+            for (int i = 0; i < hilos; i++) {
+                int indice = i;
+                futuros.add(ejecutor.submit(() -> {
+                    largada.await();
+                    return tarea.ejecutar(indice);
+                }));
+            }
+            largada.countDown();
+            List<Prestamo> resultados = new ArrayList<>();
+            for (Future<Prestamo> futuro : futuros) {
+                Prestamo prestamo = futuro.get();
+                if (prestamo != null) {
+                    resultados.add(prestamo);
+                }
+            }
+            return resultados;
+        } finally {
+            ejecutor.shutdownNow();
+        }
+    }
+}
@@ -1,11 +1,27 @@
 package com.example.springLibrarySystem.service;
 
 import com.example.springLibrarySystem.enums.EstadoLibro;
+import com.example.springLibrarySystem.enums.EstadoPrestamo;
 import com.example.springLibrarySystem.enums.EstadoUsuario;
+import com.example.springLibrarySystem.enums.ExpansionPrestamo;
+import com.example.springLibrarySystem.exception.ConflictoVersionException;
+import com.example.springLibrarySystem.exception.EstadoLibroInvalidoException;
+import com.example.springLibrarySystem.exception.LibroConPrestamosException;
+import com.example.springLibrarySystem.exception.LibroNoDisponibleException;
+import com.example.springLibrarySystem.exception.LibroNoEncontradoException;
+import com.example.springLibrarySystem.exception.PrestamoNoEncontradoException;
+import com.example.springLibrarySystem.exception.PrestamoNoModificableException;
+import com.example.springLibrarySystem.exception.PrestamoYaDevueltoException;
+import com.example.springLibrarySystem.exception.UsuarioNoActivoException;
+import com.example.springLibrarySystem.exception.UsuarioNoEncontradoException;
 import com.example.springLibrarySystem.models.Libro;
 import com.example.springLibrarySystem.models.Prestamo;
+import com.example.springLibrarySystem.models.PrestamoExpandido;
+import com.example.springLibrarySystem.models.ResultadoLote;
 import com.example.springLibrarySystem.models.Usuario;
+import com.example.springLibrarySystem.repository.LibroRepository;
 import com.example.springLibrarySystem.repository.PrestamoRepository;
+import com.example.springLibrarySystem.repository.UsuarioRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -13,6 +29,7 @@ import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.LocalDate;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Optional;
 
@@ -25,6 +42,12 @@ class PrestamoServiceTest {
     @Mock
     private PrestamoRepository prestamoRepository;
 
+    @Mock
+    private LibroRepository libroRepository;
+
+    @Mock
+    private UsuarioRepository usuarioRepository;
+
     @InjectMocks
     private PrestamoServiceImpl prestamoService;
 
@@ -36,7 +59,7 @@ class PrestamoServiceTest {
     void setUp() {
         libro = new Libro(1L, "ABC", "Título", "Autor", EstadoLibro.DISPONIBLE);
         usuario = new Usuario(1L, "Carlos", "carlos@mail.com", EstadoUsuario.ACTIVO);
-        prestamo = new Prestamo(1L, libro, usuario, LocalDate.now(), LocalDate.now().plusDays(7));
+        prestamo = new Prestamo(1L, libro.getId(), usuario.getId(), LocalDate.now(), LocalDate.now().plusDays(7));
     }
 
     @Test
@@ -46,7 +69,7 @@ class PrestamoServiceTest {
         Prestamo resultado = prestamoService.findById(1L);
 
         assertNotNull(resultado);
-        assertEquals("Carlos", resultado.getUsuario().getNombre());
+        assertEquals(usuario.getId(), resultado.getUsuarioId());
         verify(prestamoRepository).findById(1L);
     }
 
@@ -75,7 +98,7 @@ class PrestamoServiceTest {
         Prestamo resultado = prestamoService.findByLibro(libro);
 
         assertNotNull(resultado);
-        assertEquals(libro.getId(), resultado.getLibro().getId());
+        assertEquals(libro.getId(), resultado.getLibroId());
         verify(prestamoRepository).findByLibro(libro);
     }
 
@@ -90,59 +113,352 @@ class PrestamoServiceTest {
 
     @Test
     void findByUserExistent() {
-        when(prestamoRepository.findByUsuario(usuario)).thenReturn(Optional.of(prestamo));
+        when(prestamoRepository.findByUsuario(usuario)).thenReturn(List.of(prestamo));
 
-        Prestamo resultado = prestamoService.findByUsuario(usuario);
+        List<Prestamo> resultado = prestamoService.findByUsuario(usuario);
 
-        assertNotNull(resultado);
-        assertEquals(usuario.getId(), resultado.getUsuario().getId());
+        assertEquals(1, resultado.size());
+        assertEquals(usuario.getId(), resultado.get(0).getUsuarioId());
         verify(prestamoRepository).findByUsuario(usuario);
     }
 
     @Test
     void findByUserNotExistent() {
-        when(prestamoRepository.findByUsuario(usuario)).thenReturn(Optional.empty());
+        when(prestamoRepository.findByUsuario(usuario)).thenReturn(List.of());
 
-        Prestamo resultado = prestamoService.findByUsuario(usuario);
+        List<Prestamo> resultado = prestamoService.findByUsuario(usuario);
 
-        assertNull(resultado);
+        assertTrue(resultado.isEmpty());
     }
 
     @Test
-    void saveReturnLoanSaved() {
+    void saveActiveLoanMarksBookAsLent() {
+        when(prestamoRepository.existsById(1L)).thenReturn(false);
+        when(usuarioRepository.findById(1L)).thenReturn(Optional.of(usuario));
+        when(libroRepository.findById(1L)).thenReturn(Optional.of(libro));
+        when(libroRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
         when(prestamoRepository.save(prestamo)).thenReturn(prestamo);
 
         Prestamo resultado = prestamoService.save(prestamo);
 
         assertEquals(prestamo.getId(), resultado.getId());
-        verify(prestamoRepository).save(prestamo);
+        assertEquals(LocalDate.now().plusDays(7), resultado.getFechaDevolucion());
+        verify(libroRepository).save(argThat(l -> l.getEstado() == EstadoLibro.PRESTADO));
+    }
+
+    @Test
+    void saveActiveLoanRejectsBookNotAvailable() {
+        libro.setEstado(EstadoLibro.PRESTADO);
+        when(usuarioRepository.findById(1L)).thenReturn(Optional.of(usuario));
+        when(libroRepository.findById(1L)).thenReturn(Optional.of(libro));
+
+        assertThrows(LibroNoDisponibleException.class, () -> prestamoService.save(prestamo));
+        verify(prestamoRepository, never()).save(any());
+    }
+
+    @Test
+    void saveRejectsMissingBookOrUser() {
+        Prestamo sinLibro = new Prestamo(null, null, 1L, LocalDate.now(), null);
+        Prestamo devueltoSinUsuario = new Prestamo(null, 1L, 9L, LocalDate.now(), null, EstadoPrestamo.DEVUELTO);
+        when(usuarioRepository.findById(1L)).thenReturn(Optional.of(usuario));
+
+        assertThrows(LibroNoEncontradoException.class, () -> prestamoService.save(sinLibro));
+        assertThrows(UsuarioNoEncontradoException.class, () -> prestamoService.save(devueltoSinUsuario));
+        verify(prestamoRepository, never()).save(any());
+    }
+
+    @Test
+    void saveReturnedLoanKeepsBookAsIs() {
+        Prestamo devuelto = new Prestamo(null, 1L, 1L, LocalDate.now().minusDays(20), LocalDate.now().minusDays(6),
+                EstadoPrestamo.DEVUELTO);
+        when(usuarioRepository.findById(1L)).thenReturn(Optional.of(usuario));
+        when(libroRepository.findById(1L)).thenReturn(Optional.of(libro));
+        when(prestamoRepository.save(devuelto)).thenReturn(devuelto);
+
+        assertSame(devuelto, prestamoService.save(devuelto));
+        verify(libroRepository, never()).save(any());
     }
 
     @Test
     void updateExistentUpdateAndReturnLoan() {
-        when(prestamoRepository.existsById(1L)).thenReturn(true);
-        when(prestamoRepository.save(prestamo)).thenReturn(prestamo);
+        Prestamo extendido = new Prestamo(null, 1L, 1L, prestamo.getFechaPrestamo(), LocalDate.now().plusDays(30));
+        when(prestamoRepository.findById(1L)).thenReturn(Optional.of(prestamo));
+        when(prestamoRepository.update(extendido)).thenReturn(extendido);
 
-        Prestamo resultado = prestamoService.update(1L, prestamo);
+        Prestamo resultado = prestamoService.update(1L, extendido);
 
-        assertEquals(prestamo.getId(), resultado.getId());
-        verify(prestamoRepository).save(prestamo);
+        assertEquals(1L, resultado.getId());
+        verify(prestamoRepository).update(extendido);
+    }
+
+    @Test
+    void updateRejectsChangingBookUserOrState() {
+        when(prestamoRepository.findById(1L)).thenReturn(Optional.of(prestamo));
+
+        assertThrows(PrestamoNoModificableException.class,
+                () -> prestamoService.update(1L, new Prestamo(null, 2L, 1L, LocalDate.now(), LocalDate.now())));
+        assertThrows(PrestamoNoModificableException.class,
+                () -> prestamoService.update(1L, new Prestamo(null, 1L, 2L, LocalDate.now(), LocalDate.now())));
+        assertThrows(PrestamoNoModificableException.class, () -> prestamoService.update(1L,
+                new Prestamo(null, 1L, 1L, LocalDate.now(), LocalDate.now(), EstadoPrestamo.DEVUELTO)));
+        verify(prestamoRepository, never()).save(any());
     }
 
     @Test
     void updateNotExistentThrowException() {
-        when(prestamoRepository.existsById(99L)).thenReturn(false);
+        when(prestamoRepository.findById(99L)).thenReturn(Optional.empty());
 
-        assertThrows(RuntimeException.class, () -> prestamoService.update(99L, prestamo));
+        assertThrows(PrestamoNoEncontradoException.class, () -> prestamoService.update(99L, prestamo));
         verify(prestamoRepository, never()).save(any());
     }
 
     @Test
-    void deleteByIdCallsRepository() {
-        doNothing().when(prestamoRepository).deleteById(1L);
+    void saveAllReportsEachRejectedLoan() {
+        Prestamo devuelto = new Prestamo(null, 1L, 1L, LocalDate.now(), null, EstadoPrestamo.DEVUELTO);
+        Prestamo sinUsuario = new Prestamo(null, 1L, 9L, LocalDate.now(), null);
+        when(usuarioRepository.findById(1L)).thenReturn(Optional.of(usuario));
+        when(libroRepository.findById(1L)).thenReturn(Optional.of(libro));
+        when(prestamoRepository.save(devuelto)).thenReturn(devuelto);
+
+        List<ResultadoLote<Prestamo>> resultado = prestamoService.saveAll(List.of(devuelto, sinUsuario));
+
+        assertTrue(resultado.get(0).isOk());
+        assertEquals("Usuario no encontrado con ID: 9", resultado.get(1).getError());
+        assertEquals(1, resultado.get(1).getPosicion());
+    }
+
+    @Test
+    void deleteByIdOfActiveLoanFreesTheBook() {
+        Libro prestado = new Libro(1L, "ABC", "Título", "Autor", EstadoLibro.PRESTADO);
+        when(prestamoRepository.findById(1L)).thenReturn(Optional.of(prestamo));
+        when(libroRepository.findById(1L)).thenReturn(Optional.of(prestado));
+
+        prestamoService.deleteById(1L);
+
+        verify(prestamoRepository).deleteById(1L);
+        verify(libroRepository).save(argThat(l -> l.getEstado() == EstadoLibro.DISPONIBLE));
+    }
+
+    @Test
+    void deleteByIdOfReturnedLoanLeavesTheBookAlone() {
+        Prestamo devuelto = new Prestamo(1L, libro.getId(), usuario.getId(), LocalDate.now(), LocalDate.now().plusDays(7),
+                EstadoPrestamo.DEVUELTO);
+        when(prestamoRepository.findById(1L)).thenReturn(Optional.of(devuelto));
 
         prestamoService.deleteById(1L);
 
         verify(prestamoRepository).deleteById(1L);
+        verify(libroRepository, never()).save(any());
+    }
+
+    @Test
+    void deleteByIdOfMissingLoanDoesNothing() {
+        when(prestamoRepository.findById(1L)).thenReturn(Optional.empty());
+
+        prestamoService.deleteById(1L);
+
+        verify(prestamoRepository, never()).deleteById(any());
+    }
+
+    @Test
+    void prestarLibroMarksBookAsLentAndCreatesLoan() {
+        when(usuarioRepository.findById(1L)).thenReturn(Optional.of(usuario));
+        when(libroRepository.findById(1L)).thenReturn(Optional.of(libro));
+        when(libroRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+        when(prestamoRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+
+        Prestamo resultado = prestamoService.prestarLibro(1L, 1L);
+
+        assertEquals(libro.getId(), resultado.getLibroId());
+        verify(libroRepository).save(argThat(l -> l.getEstado() == EstadoLibro.PRESTADO));
+        assertEquals(EstadoPrestamo.ACTIVO, resultado.getEstado());
+        assertEquals(LocalDate.now().plusDays(14), resultado.getFechaDevolucion());
+        assertEquals(EstadoLibro.DISPONIBLE, libro.getEstado(), "el libro leído no se modifica en el lugar");
+    }
+
+    @Test
+    void prestarLibroRejectsInactiveUser() {
+        usuario.setEstado(EstadoUsuario.SUSPENDIDO);
+        when(usuarioRepository.findById(1L)).thenReturn(Optional.of(usuario));
+
+        assertThrows(UsuarioNoActivoException.class, () -> prestamoService.prestarLibro(1L, 1L));
+        verify(libroRepository, never()).save(any());
+        verify(prestamoRepository, never()).save(any());
+    }
+
+    @Test
+    void prestarLibroRejectsBookNotAvailable() {
+        libro.setEstado(EstadoLibro.EN_REPARACION);
+        when(usuarioRepository.findById(1L)).thenReturn(Optional.of(usuario));
+        when(libroRepository.findById(1L)).thenReturn(Optional.of(libro));
+
+        assertThrows(LibroNoDisponibleException.class, () -> prestamoService.prestarLibro(1L, 1L));
+        verify(prestamoRepository, never()).save(any());
+    }
+
+    @Test
+    void prestarLibroRestoresBookWhenLoanCannotBeSaved() {
+        when(usuarioRepository.findById(1L)).thenReturn(Optional.of(usuario));
+        when(libroRepository.findById(1L)).thenReturn(Optional.of(libro),
+                Optional.of(PrestamoServiceImpl.conEstado(libro, EstadoLibro.PRESTADO)));
+        when(libroRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+        when(prestamoRepository.save(any())).thenThrow(new IllegalStateException("disco lleno"));
+
+        assertThrows(IllegalStateException.class, () -> prestamoService.prestarLibro(1L, 1L));
+        verify(libroRepository).save(argThat(l -> l.getEstado() == EstadoLibro.DISPONIBLE));
+    }
+
+    @Test
+    void prestarLibroRereadsTheBookWhenRestoringItConflicts() {
+        Libro editado = new Libro(1L, "ABC", "Título corregido", "Autor", EstadoLibro.PRESTADO, 3L);
+        when(usuarioRepository.findById(1L)).thenReturn(Optional.of(usuario));
+        when(libroRepository.findById(1L)).thenReturn(Optional.of(libro),
+                Optional.of(PrestamoServiceImpl.conEstado(libro, EstadoLibro.PRESTADO)), Optional.of(editado));
+        when(libroRepository.save(any()))
+                .thenAnswer(inv -> inv.getArgument(0))
+                .thenThrow(new ConflictoVersionException(1L, 1L, 3L))
+                .thenAnswer(inv -> inv.getArgument(0));
+        when(prestamoRepository.save(any())).thenThrow(new IllegalStateException("disco lleno"));
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> prestamoService.prestarLibro(1L, 1L));
+
+        assertEquals(0, e.getSuppressed().length);
+        verify(libroRepository).save(argThat(l -> l.getEstado() == EstadoLibro.DISPONIBLE
+                && "Título corregido".equals(l.getTitulo()) && l.getVersion() == 3L));
+    }
+
+    @Test
+    void prestarLibroKeepsTheOriginalErrorWhenTheBookCannotBeRestored() {
+        when(usuarioRepository.findById(1L)).thenReturn(Optional.of(usuario));
+        when(libroRepository.findById(1L)).thenReturn(Optional.of(libro),
+                Optional.of(PrestamoServiceImpl.conEstado(libro, EstadoLibro.PRESTADO)));
+        when(libroRepository.save(any()))
+                .thenAnswer(inv -> inv.getArgument(0))
+                .thenThrow(new ConflictoVersionException(1L, 1L, 2L));
+        when(prestamoRepository.save(any())).thenThrow(new IllegalStateException("disco lleno"));
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> prestamoService.prestarLibro(1L, 1L));
+
+        assertEquals("disco lleno", e.getMessage());
+        assertInstanceOf(ConflictoVersionException.class, e.getSuppressed()[0]);
+    }
+
+    @Test
+    void bookWritesRejectAStateThatDoesNotMatchItsActiveLoans() {
+        Libro nuevoPrestado = new Libro(null, "XYZ", "Nuevo", "Autor", EstadoLibro.PRESTADO);
+        when(prestamoRepository.findAllByLibroId(1L)).thenReturn(List.of(prestamo));
+
+        assertThrows(EstadoLibroInvalidoException.class, () -> prestamoService.actualizarLibro(libro));
+        assertThrows(EstadoLibroInvalidoException.class, () -> prestamoService.guardarLibro(nuevoPrestado));
+        verify(libroRepository, never()).update(any());
+        verify(libroRepository, never()).save(any());
+    }
+
+    @Test
+    void guardarLibrosRejectsOnlyBooksWhoseStateDoesNotMatchTheirLoans() {
+        Libro enReparacion = new Libro(2L, "DEF", "Otro", "Autor", EstadoLibro.EN_REPARACION);
+        when(prestamoRepository.findAllByLibroId(1L)).thenReturn(List.of(prestamo));
+        when(prestamoRepository.findAllByLibroId(2L)).thenReturn(List.of());
+        when(libroRepository.saveAll(List.of(enReparacion))).thenReturn(List.of(ResultadoLote.ok(0, enReparacion)));
+
+        List<ResultadoLote<Libro>> resultados = prestamoService.guardarLibros(List.of(libro, enReparacion));
+
+        assertFalse(resultados.get(0).isOk());
+        assertTrue(resultados.get(1).isOk());
+        assertEquals(1, resultados.get(1).getPosicion());
+    }
+
+    @Test
+    void prestarLibroUndoesLoanWhenBookWasDeletedMeanwhile() {
+        when(usuarioRepository.findById(1L)).thenReturn(Optional.of(usuario));
+        when(libroRepository.findById(1L)).thenReturn(Optional.of(libro), Optional.empty());
+        when(libroRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+        when(prestamoRepository.save(any())).thenAnswer(inv -> {
+            Prestamo nuevo = inv.getArgument(0);
+            nuevo.setId(5L);
+            return nuevo;
+        });
+
+        assertThrows(LibroNoEncontradoException.class, () -> prestamoService.prestarLibro(1L, 1L));
+        verify(prestamoRepository).deleteById(5L);
+    }
+
+    @Test
+    void eliminarLibroWithLoansIsRejectedUnlessCascading() {
+        when(prestamoRepository.findAllByLibroId(1L)).thenReturn(List.of(prestamo));
+
+        assertThrows(LibroConPrestamosException.class, () -> prestamoService.eliminarLibro(1L, false));
+        verify(libroRepository, never()).deleteById(any());
+
+        prestamoService.eliminarLibro(1L, true);
+
+        verify(libroRepository).deleteById(1L);
+        verify(prestamoRepository).deleteAllById(List.of(1L));
+    }
+
+    @Test
+    void eliminarLibroWithoutLoansDeletesBook() {
+        prestamoService.eliminarLibro(1L, false);
+
+        verify(libroRepository).deleteById(1L);
+        verify(prestamoRepository, never()).deleteAllById(any());
+    }
+
+    @Test
+    void devolverLibroMarksLoanReturnedAndBookAvailable() {
+        Libro prestado = new Libro(1L, "ABC", "Título", "Autor", EstadoLibro.PRESTADO);
+        when(prestamoRepository.findById(1L)).thenReturn(Optional.of(prestamo));
+        when(libroRepository.findById(1L)).thenReturn(Optional.of(prestado));
+        when(libroRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+        when(prestamoRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+
+        Prestamo resultado = prestamoService.devolverLibro(1L);
+
+        assertEquals(EstadoPrestamo.DEVUELTO, resultado.getEstado());
+        verify(libroRepository).save(argThat(l -> l.getEstado() == EstadoLibro.DISPONIBLE));
+    }
+
+    @Test
+    void devolverLibroTwiceThrowsException() {
+        prestamo.setEstado(EstadoPrestamo.DEVUELTO);
+        when(prestamoRepository.findById(1L)).thenReturn(Optional.of(prestamo));
+
+        assertThrows(PrestamoYaDevueltoException.class, () -> prestamoService.devolverLibro(1L));
+        verify(libroRepository, never()).save(any());
+    }
+
+    @Test
+    void expandirResolvesEachBookAndUserOnce() {
+        Prestamo otro = new Prestamo(2L, 2L, usuario.getId(), LocalDate.now(), null);
+        when(libroRepository.findById(1L)).thenReturn(Optional.of(libro));
+        when(libroRepository.findById(2L)).thenReturn(Optional.empty());
+        when(usuarioRepository.findById(1L)).thenReturn(Optional.of(usuario));
+
+        List<PrestamoExpandido> resultado = prestamoService.expandir(List.of(prestamo, otro),
+                EnumSet.of(ExpansionPrestamo.LIBRO, ExpansionPrestamo.USUARIO));
+
+        assertSame(libro, resultado.get(0).libro());
+        assertNull(resultado.get(1).libro());
+        assertSame(usuario, resultado.get(1).usuario());
+        verify(usuarioRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    void expandirWithoutExpansionsDoesNotReadRelatedEntities() {
+        PrestamoExpandido resultado = prestamoService.expandir(prestamo, EnumSet.noneOf(ExpansionPrestamo.class));
+
+        assertSame(prestamo, resultado.prestamo());
+        assertNull(resultado.libro());
+        verifyNoInteractions(libroRepository, usuarioRepository);
+    }
+
+    @Test
+    void modificationCountIncludesOnlyExpandedRepositories() {
+        when(prestamoRepository.getModificationCount()).thenReturn(10L);
+        when(libroRepository.getModificationCount()).thenReturn(100L);
+
+        assertEquals(10L, prestamoService.getModificationCount());
+        assertEquals(110L, prestamoService.getModificationCount(EnumSet.of(ExpansionPrestamo.LIBRO)));
+        verify(usuarioRepository, never()).getModificationCount();
     }
 }
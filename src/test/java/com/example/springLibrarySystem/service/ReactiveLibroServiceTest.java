@@ -0,0 +1,92 @@
+package com.example.springLibrarySystem.service;
+
+import com.example.springLibrarySystem.enums.EstadoLibro;
+import com.example.springLibrarySystem.exception.LibroNoEncontradoException;
+import com.example.springLibrarySystem.models.Libro;
+import com.example.springLibrarySystem.models.ResultadoLote;
+import com.example.springLibrarySystem.repository.ReactiveLibroRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveLibroServiceTest {
+
+    @Mock
+    private ReactiveLibroRepository libroRepository;
+
+    @Mock
+    private LibroService servicioBloqueante;
+
+    @InjectMocks
+    private ReactiveLibroServiceImpl libroService;
+
+    private Libro libro;
+
+    @BeforeEach
+    void setUp() {
+        libro = new Libro(1L, "123-456-789", "Libro A", "Autor A", EstadoLibro.DISPONIBLE);
+    }
+
+    @Test
+    void findByIsbnExistentReturnBook() {
+        when(libroRepository.findByIsbn("123-456-789")).thenReturn(Mono.just(libro));
+
+        StepVerifier.create(libroService.findByIsbn("123-456-789"))
+                .expectNext(libro)
+                .verifyComplete();
+    }
+
+    @Test
+    void findByIdNotExistentSignalsNotFound() {
+        when(libroRepository.findById(99L)).thenReturn(Mono.empty());
+
+        StepVerifier.create(libroService.findById(99L))
+                .verifyError(LibroNoEncontradoException.class);
+    }
+
+    @Test
+    void updateExistentBookRunsOnBlockingService() {
+        Libro cambios = new Libro(null, "123-456-789", "Libro A editado", "Autor A", EstadoLibro.PRESTADO);
+        when(servicioBloqueante.update(1L, cambios)).thenAnswer(inv -> {
+            cambios.setId(1L);
+            return cambios;
+        });
+
+        StepVerifier.create(libroService.update(1L, cambios))
+                .expectNextMatches(l -> l.getId() == 1L && l.getTitulo().equals("Libro A editado"))
+                .verifyComplete();
+    }
+
+    @Test
+    void updateNotExistentBookSignalsNotFoundWithoutSaving() {
+        when(servicioBloqueante.update(99L, libro)).thenThrow(new LibroNoEncontradoException(99L));
+
+        StepVerifier.create(libroService.update(99L, libro))
+                .verifyError(LibroNoEncontradoException.class);
+        verify(libroRepository, never()).save(any());
+    }
+
+    @Test
+    void updateAllOnlyReplacesExistingBooks() {
+        Libro inexistente = new Libro(99L, "999", "No existe", "Autor", EstadoLibro.DISPONIBLE);
+        when(servicioBloqueante.updateAll(List.of(libro, inexistente))).thenReturn(List.of(
+                ResultadoLote.ok(0, libro), ResultadoLote.error(1, "Libro no encontrado con ID: 99")));
+
+        List<ResultadoLote<Libro>> resultados = libroService.updateAll(List.of(libro, inexistente)).block();
+
+        assertTrue(resultados.get(0).isOk());
+        assertEquals("Libro no encontrado con ID: 99", resultados.get(1).getError());
+        verify(libroRepository, never()).saveAll(any());
+    }
+}
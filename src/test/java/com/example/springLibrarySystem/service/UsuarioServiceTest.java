@@ -1,7 +1,16 @@
 package com.example.springLibrarySystem.service;
 
+import com.example.springLibrarySystem.enums.EstadoLibro;
+import com.example.springLibrarySystem.enums.EstadoPrestamo;
 import com.example.springLibrarySystem.enums.EstadoUsuario;
+import com.example.springLibrarySystem.exception.UsuarioConPrestamosException;
+import com.example.springLibrarySystem.exception.UsuarioNoEncontradoException;
+import com.example.springLibrarySystem.models.Libro;
+import com.example.springLibrarySystem.models.Prestamo;
+import com.example.springLibrarySystem.models.ResultadoLote;
 import com.example.springLibrarySystem.models.Usuario;
+import com.example.springLibrarySystem.repository.LibroRepository;
+import com.example.springLibrarySystem.repository.PrestamoRepository;
 import com.example.springLibrarySystem.repository.UsuarioRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -9,6 +18,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 
@@ -21,6 +31,12 @@ class UsuarioServiceTest {
     @Mock
     private UsuarioRepository usuarioRepository;
 
+    @Mock
+    private PrestamoRepository prestamoRepository;
+
+    @Mock
+    private LibroRepository libroRepository;
+
     @InjectMocks
     private UsuarioServiceImpl usuarioService;
 
@@ -106,29 +122,86 @@ class UsuarioServiceTest {
 
     @Test
     void updateExistentUser() {
-        when(usuarioRepository.existsById(1L)).thenReturn(true);
-        when(usuarioRepository.save(usuario)).thenReturn(usuario);
+        when(usuarioRepository.update(usuario)).thenReturn(usuario);
 
         Usuario resultado = usuarioService.update(1L, usuario);
 
         assertEquals(1L, resultado.getId());
-        verify(usuarioRepository).save(usuario);
+        verify(usuarioRepository).update(usuario);
     }
 
     @Test
     void updateNotExistentThrowException() {
-        when(usuarioRepository.existsById(999L)).thenReturn(false);
+        when(usuarioRepository.update(usuario)).thenThrow(new UsuarioNoEncontradoException(999L));
 
-        assertThrows(RuntimeException.class, () -> usuarioService.update(999L, usuario));
+        assertThrows(UsuarioNoEncontradoException.class, () -> usuarioService.update(999L, usuario));
         verify(usuarioRepository, never()).save(any());
     }
 
     @Test
     void deleteByIdCallsRepository() {
-        doNothing().when(usuarioRepository).deleteById(1L);
+        when(usuarioRepository.deleteAllById(List.of(1L))).thenReturn(List.of(usuario));
 
         usuarioService.deleteById(1L);
 
+        verify(usuarioRepository).deleteAllById(List.of(1L));
+        verify(usuarioRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void deleteByIdWithLoansIsRejectedAndRestoresTheUser() {
+        when(usuarioRepository.deleteAllById(List.of(1L))).thenReturn(List.of(usuario));
+        when(prestamoRepository.findAllByUsuarioId(1L)).thenReturn(List.of(prestamo(7L, 3L, EstadoPrestamo.DEVUELTO)));
+        when(usuarioRepository.saveAll(any())).thenAnswer(inv -> List.of(ResultadoLote.ok(0, inv.getArgument(0, List.class).get(0))));
+
+        assertThrows(UsuarioConPrestamosException.class, () -> usuarioService.deleteById(1L));
+        verify(usuarioRepository).saveAll(argThat(usuarios -> usuarios.size() == 1
+                && usuarios.get(0).getId() == 1L && usuarios.get(0).getVersion() == 0L));
+    }
+
+    @Test
+    void rejectedDeleteKeepsTheLoanErrorWhenTheUserCannotBeRestored() {
+        when(usuarioRepository.deleteAllById(List.of(1L))).thenReturn(List.of(usuario));
+        when(prestamoRepository.findAllByUsuarioId(1L)).thenReturn(List.of(prestamo(7L, 3L, EstadoPrestamo.ACTIVO)));
+        when(usuarioRepository.saveAll(any())).thenReturn(List.of(ResultadoLote.error(0, "El email ya está registrado")));
+
+        UsuarioConPrestamosException e = assertThrows(UsuarioConPrestamosException.class, () -> usuarioService.deleteById(1L));
+        assertEquals("El email ya está registrado", e.getSuppressed()[0].getMessage());
+    }
+
+    @Test
+    void cascadeDeleteRemovesLoansAndFreesBooksOfActiveOnes() {
+        Prestamo activo = prestamo(7L, 3L, EstadoPrestamo.ACTIVO);
+        Prestamo devuelto = prestamo(8L, 4L, EstadoPrestamo.DEVUELTO);
+        when(prestamoRepository.findAllByUsuarioId(1L)).thenReturn(List.of(activo, devuelto));
+        when(prestamoRepository.deleteAllById(List.of(7L, 8L))).thenReturn(List.of(activo, devuelto));
+        when(libroRepository.findById(3L))
+                .thenReturn(Optional.of(new Libro(3L, "333", "Prestado", "Autor", EstadoLibro.PRESTADO, 5L)));
+
+        usuarioService.deleteById(1L, true);
+
         verify(usuarioRepository).deleteById(1L);
+        verify(libroRepository).saveAll(argThat(libros -> libros.size() == 1
+                && libros.get(0).getEstado() == EstadoLibro.DISPONIBLE && libros.get(0).getVersion() == 5L));
+    }
+
+    @Test
+    void deleteAllByIdReportsEachUserAndDeletesTheRestInOneBatch() {
+        Usuario otro = new Usuario(2L, "Leo", "leo@mail.com", EstadoUsuario.ACTIVO);
+        when(prestamoRepository.findAllByUsuarioId(1L)).thenReturn(List.of(prestamo(7L, 3L, EstadoPrestamo.ACTIVO)));
+        when(usuarioRepository.deleteAllById(List.of(1L, 2L, 99L))).thenReturn(List.of(usuario, otro));
+
+        List<ResultadoLote<Usuario>> resultados = usuarioService.deleteAllById(List.of(1L, 2L, 99L), false);
+
+        assertFalse(resultados.get(0).isOk());
+        assertTrue(resultados.get(0).getError().contains("préstamos"));
+        assertSame(otro, resultados.get(1).getEntidad());
+        assertFalse(resultados.get(2).isOk());
+        verify(usuarioRepository).saveAll(argThat(usuarios -> usuarios.size() == 1 && usuarios.get(0).getId() == 1L));
+        verify(prestamoRepository, never()).deleteAllById(any());
+    }
+
+    private Prestamo prestamo(Long id, Long libroId, EstadoPrestamo estado) {
+        return new Prestamo(id, libroId, 1L, LocalDate.now(), LocalDate.now().plusDays(14), estado);
     }
 }
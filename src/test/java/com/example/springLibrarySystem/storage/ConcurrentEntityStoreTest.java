@@ -0,0 +1,400 @@
+package com.example.springLibrarySystem.storage;
+
+import com.example.springLibrarySystem.enums.EstadoLibro;
+import com.example.springLibrarySystem.exception.ConflictoVersionException;
+import com.example.springLibrarySystem.models.Libro;
+import com.example.springLibrarySystem.models.ResultadoLote;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentEntityStoreTest {
+
+    private static final int HILOS = 16;
+    private static final int ESCRITURAS_POR_HILO = 5_000;
+
+    private ConcurrentEntityStore<Libro> store;
+
+    @BeforeEach
+    void setUp() {
+        store = new ConcurrentEntityStore<>();
+    }
+
+    @Test
+    void saveAssignsSequentialIds() {
+        Libro primero = store.save(new Libro(null, "1", "Libro 1", "Autor", EstadoLibro.DISPONIBLE));
+        Libro segundo = store.save(new Libro(null, "2", "Libro 2", "Autor", EstadoLibro.DISPONIBLE));
+
+        assertEquals(1L, primero.getId());
+        assertEquals(2L, segundo.getId());
+    }
+
+    @Test
+    void saveWithExplicitIdIsNotReusedByGeneratedIds() {
+        store.save(new Libro(10L, "10", "Libro 10", "Autor", EstadoLibro.DISPONIBLE));
+        Libro nuevo = store.save(new Libro(null, "11", "Libro 11", "Autor", EstadoLibro.DISPONIBLE));
+
+        assertEquals(11L, nuevo.getId());
+        assertEquals(2, store.size());
+    }
+
+    @Test
+    void deleteByIdReturnsRemovedEntity() {
+        Libro libro = store.save(new Libro(null, "1", "Libro 1", "Autor", EstadoLibro.DISPONIBLE));
+
+        assertTrue(store.deleteById(libro.getId()).isPresent());
+        assertFalse(store.existsById(libro.getId()));
+        assertFalse(store.deleteById(libro.getId()).isPresent());
+    }
+
+    @Test
+    void deleteAllByIdRemovesExistingIdsAndNotifiesEach() {
+        List<Long> notificados = new ArrayList<>();
+        store.addListener(StoreListener.of((libro, nueva) -> {
+        }, libro -> notificados.add(libro.getId())));
+        for (int i = 1; i <= 5; i++) {
+            store.save(new Libro(null, String.valueOf(i), "Libro " + i, "Autor", EstadoLibro.DISPONIBLE));
+        }
+
+        List<Libro> eliminados = store.deleteAllById(List.of(4L, 2L, 99L));
+
+        assertEquals(List.of(4L, 2L), eliminados.stream().map(Libro::getId).toList());
+        assertEquals(List.of(4L, 2L), notificados);
+        assertEquals(3, store.size());
+        assertFalse(store.existsById(2L));
+    }
+
+    @Test
+    void streamFiltersByModificationInstantInIdOrder() {
+        MutableClock reloj = new MutableClock(Instant.parse("2025-01-01T00:00:00Z"));
+        ConcurrentEntityStore<Libro> conReloj = new ConcurrentEntityStore<>(4, reloj);
+        conReloj.save(new Libro(null, "1", "Libro 1", "Autor", EstadoLibro.DISPONIBLE));
+        conReloj.save(new Libro(null, "2", "Libro 2", "Autor", EstadoLibro.DISPONIBLE));
+        reloj.instante = Instant.parse("2025-02-01T00:00:00Z");
+        conReloj.save(new Libro(null, "3", "Libro 3", "Autor", EstadoLibro.DISPONIBLE));
+        conReloj.save(new Libro(1L, "1", "Libro 1 editado", "Autor", EstadoLibro.DISPONIBLE));
+
+        List<Long> todos = conReloj.stream(null).map(Libro::getId).toList();
+        List<Long> recientes = conReloj.stream(Instant.parse("2025-01-15T00:00:00Z")).map(Libro::getId).toList();
+
+        assertEquals(List.of(1L, 2L, 3L), todos);
+        assertEquals(List.of(1L, 3L), recientes);
+    }
+
+    @Test
+    void rejectedIndexWriteLeavesStoreUnchanged() {
+        UniqueIndex<Libro, String> porIsbn =
+                store.addIndex(new UniqueIndex<>(Libro::getIsbn, IllegalStateException::new));
+        Libro primero = store.save(new Libro(null, "A", "Libro A", "Autor", EstadoLibro.DISPONIBLE));
+        Libro segundo = store.save(new Libro(null, "B", "Libro B", "Autor", EstadoLibro.DISPONIBLE));
+
+        assertThrows(IllegalStateException.class, () ->
+                store.save(new Libro(segundo.getId(), "A", "Libro B", "Autor", EstadoLibro.DISPONIBLE)));
+        assertEquals("B", store.findById(segundo.getId()).orElseThrow().getIsbn());
+        assertEquals(primero.getId(), porIsbn.find("A").orElseThrow());
+        assertEquals(segundo.getId(), porIsbn.find("B").orElseThrow());
+    }
+
+    @Test
+    void saveAllReportsRejectedItemsAndSavesTheRest() {
+        store.addIndex(new UniqueIndex<>(Libro::getIsbn, isbn -> new IllegalStateException("ISBN repetido: " + isbn)));
+        store.save(new Libro(null, "A", "Libro A", "Autor", EstadoLibro.DISPONIBLE));
+
+        List<ResultadoLote<Libro>> resultados = store.saveAll(List.of(
+                new Libro(null, "B", "Libro B", "Autor", EstadoLibro.DISPONIBLE),
+                new Libro(null, "A", "Copia de A", "Autor", EstadoLibro.DISPONIBLE),
+                new Libro(1L, "A", "Libro A editado", "Autor", EstadoLibro.DISPONIBLE)));
+
+        assertTrue(resultados.get(0).isOk());
+        assertEquals("ISBN repetido: A", resultados.get(1).getError());
+        assertTrue(resultados.get(2).isOk());
+        assertEquals(2, store.size());
+        assertEquals("Libro A editado", store.findById(1L).orElseThrow().getTitulo());
+    }
+
+    @Test
+    void concurrentBatchesNeverDuplicateIdsNorLoseWrites() throws Exception {
+        List<Long> ids = ejecutarEnParalelo(hilo -> {
+            List<Long> generados = new ArrayList<>();
+            for (int lote = 0; lote < 50; lote++) {
+                List<Libro> libros = new ArrayList<>();
+                for (int i = 0; i < 100; i++) {
+                    libros.add(new Libro(null, hilo + "-" + lote + "-" + i, "Libro", "Autor", EstadoLibro.DISPONIBLE));
+                }
+                for (ResultadoLote<Libro> resultado : store.saveAll(libros)) {
+                    generados.add(resultado.getEntidad().getId());
+                }
+            }
+            return generados;
+        });
+
+        assertEquals(HILOS * 50 * 100, new HashSet<>(ids).size());
+        assertEquals(HILOS * 50 * 100, store.size());
+    }
+
+    @Test
+    void concurrentInsertsNeverDuplicateIdsNorLoseWrites() throws Exception {
+        List<Long> ids = ejecutarEnParalelo(hilo -> {
+            List<Long> generados = new ArrayList<>();
+            for (int i = 0; i < ESCRITURAS_POR_HILO; i++) {
+                Libro libro = store.save(new Libro(null, hilo + "-" + i, "Libro", "Autor", EstadoLibro.DISPONIBLE));
+                generados.add(libro.getId());
+            }
+            return generados;
+        });
+
+        Set<Long> unicos = new HashSet<>(ids);
+        assertEquals(HILOS * ESCRITURAS_POR_HILO, ids.size());
+        assertEquals(ids.size(), unicos.size());
+        assertEquals(ids.size(), store.size());
+        assertEquals(HILOS * ESCRITURAS_POR_HILO + 1L, store.getNextId());
+    }
+
+    @Test
+    void concurrentUpdatesOnDistinctIdsKeepLastWriteOfEachThread() throws Exception {
+        for (long id = 1; id <= HILOS; id++) {
+            store.save(new Libro(id, "isbn-" + id, "v0", "Autor", EstadoLibro.DISPONIBLE));
+        }
+
+        ejecutarEnParalelo(hilo -> {
+            long id = hilo + 1L;
+            for (int i = 1; i <= ESCRITURAS_POR_HILO; i++) {
+                store.save(new Libro(id, "isbn-" + id, "v" + i, "Autor", EstadoLibro.DISPONIBLE));
+            }
+            return List.of();
+        });
+
+        for (long id = 1; id <= HILOS; id++) {
+            assertEquals("v" + ESCRITURAS_POR_HILO, store.findById(id).orElseThrow().getTitulo());
+        }
+        assertEquals(HILOS, store.size());
+    }
+
+    private List<Long> ejecutarEnParalelo(Tarea tarea) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(HILOS);
+        CountDownLatch largada = new CountDownLatch(1);
+        try {
+            List<Future<List<Long>>> futuros = new ArrayList<>();
+            for (int h = 0; h < HILOS; h++) {
+                int hilo = h;
+                futuros.add(executor.submit(() -> {
+                    largada.await();
+                    return tarea.ejecutar(hilo);
+                }));
+            }
+            largada.countDown();
+            List<Long> resultado = new ArrayList<>();
+            for (Future<List<Long>> futuro : futuros) {
+                resultado.addAll(futuro.get(30, TimeUnit.SECONDS));
+            }
+            return resultado;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void saveIncrementsVersion() {
+        Libro creado = store.save(new Libro(null, "1", "Libro 1", "Autor", EstadoLibro.DISPONIBLE));
+        assertEquals(1L, creado.getVersion());
+
+        Libro actualizado = store.save(new Libro(creado.getId(), "1", "Otro", "Autor", EstadoLibro.DISPONIBLE, 1L));
+        assertEquals(2L, actualizado.getVersion());
+        assertEquals(2L, store.findById(creado.getId()).orElseThrow().getVersion());
+    }
+
+    @Test
+    void saveWithStaleVersionIsRejected() {
+        Libro creado = store.save(new Libro(null, "1", "Libro 1", "Autor", EstadoLibro.DISPONIBLE));
+        store.save(new Libro(creado.getId(), "1", "Primero", "Autor", EstadoLibro.DISPONIBLE, 1L));
+
+        Libro viejo = new Libro(creado.getId(), "1", "Segundo", "Autor", EstadoLibro.DISPONIBLE, 1L);
+        ConflictoVersionException e = assertThrows(ConflictoVersionException.class, () -> store.save(viejo));
+
+        assertTrue(e.getMessage().contains("la vigente es 2"));
+        assertEquals(1L, viejo.getVersion());
+        assertEquals("Primero", store.findById(creado.getId()).orElseThrow().getTitulo());
+    }
+
+    @Test
+    void saveWithVersionOfDeletedEntityIsRejected() {
+        Libro creado = store.save(new Libro(null, "1", "Libro 1", "Autor", EstadoLibro.DISPONIBLE));
+        store.deleteById(creado.getId());
+
+        Libro viejo = new Libro(creado.getId(), "1", "Resucitado", "Autor", EstadoLibro.DISPONIBLE, 1L);
+        ConflictoVersionException e = assertThrows(ConflictoVersionException.class, () -> store.save(viejo));
+
+        assertTrue(e.getMessage().contains("la vigente es 0"));
+        assertEquals(1L, viejo.getVersion());
+        assertTrue(store.findById(creado.getId()).isEmpty());
+        assertTrue(store.findAll().isEmpty());
+    }
+
+    @Test
+    void saveWithoutVersionOverwrites() {
+        Libro creado = store.save(new Libro(null, "1", "Libro 1", "Autor", EstadoLibro.DISPONIBLE));
+        store.save(new Libro(creado.getId(), "1", "Primero", "Autor", EstadoLibro.DISPONIBLE, 1L));
+
+        Libro sinVersion = store.save(new Libro(creado.getId(), "1", "Segundo", "Autor", EstadoLibro.DISPONIBLE));
+
+        assertEquals(3L, sinVersion.getVersion());
+    }
+
+    @Test
+    void replaceWithoutVersionOfDeletedEntityIsRejected() {
+        Libro creado = store.save(new Libro(null, "1", "Libro 1", "Autor", EstadoLibro.DISPONIBLE));
+        store.deleteById(creado.getId());
+
+        Libro sinVersion = new Libro(creado.getId(), "1", "Resucitado", "Autor", EstadoLibro.DISPONIBLE);
+        assertThrows(NoSuchElementException.class, () -> store.replace(sinVersion, id -> new NoSuchElementException()));
+
+        assertTrue(store.findAll().isEmpty());
+    }
+
+    @Test
+    void replaceAllRejectsItemsWithoutIdOrWithMissingIds() {
+        Libro existente = store.save(new Libro(null, "1", "Libro 1", "Autor", EstadoLibro.DISPONIBLE));
+
+        List<ResultadoLote<Libro>> resultados = store.replaceAll(List.of(
+                new Libro(null, "0", "Sin ID", "Autor", EstadoLibro.DISPONIBLE),
+                new Libro(existente.getId(), "1", "Editado", "Autor", EstadoLibro.DISPONIBLE),
+                new Libro(99L, "99", "No existe", "Autor", EstadoLibro.DISPONIBLE)),
+                id -> new NoSuchElementException("No existe " + id));
+
+        assertEquals("El elemento no tiene ID", resultados.get(0).getError());
+        assertTrue(resultados.get(1).isOk());
+        assertEquals("No existe 99", resultados.get(2).getError());
+        assertEquals(1, store.size());
+        assertEquals("Editado", store.findById(existente.getId()).orElseThrow().getTitulo());
+    }
+
+    @Test
+    void replaceRacingADeleteNeverRecreatesTheEntity() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            for (int i = 0; i < 500; i++) {
+                Libro libro = store.save(new Libro(null, String.valueOf(i), "Libro", "Autor", EstadoLibro.DISPONIBLE));
+                CountDownLatch largada = new CountDownLatch(1);
+                Future<?> borrado = pool.submit(() -> {
+                    largada.await();
+                    return store.deleteById(libro.getId());
+                });
+                Future<?> reemplazo = pool.submit(() -> {
+                    largada.await();
+                    try {
+                        store.replace(new Libro(libro.getId(), libro.getIsbn(), "Editado", "Autor", EstadoLibro.DISPONIBLE),
+                                id -> new NoSuchElementException());
+                    } catch (NoSuchElementException e) {
+                        // Perdió la carrera contra el borrado.
+                    }
+                    return null;
+                });
+                largada.countDown();
+                borrado.get(5, TimeUnit.SECONDS);
+                reemplazo.get(5, TimeUnit.SECONDS);
+
+                assertFalse(store.existsById(libro.getId()));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void failedWriteKeepsCallerVersion() {
+        store.addIndex(new UniqueIndex<Libro, String>(Libro::getIsbn, IllegalStateException::new));
+        store.save(new Libro(null, "1", "Libro 1", "Autor", EstadoLibro.DISPONIBLE));
+        Libro segundo = store.save(new Libro(null, "2", "Libro 2", "Autor", EstadoLibro.DISPONIBLE));
+
+        Libro duplicado = new Libro(segundo.getId(), "1", "Libro 2", "Autor", EstadoLibro.DISPONIBLE, 1L);
+        assertThrows(IllegalStateException.class, () -> store.save(duplicado));
+
+        assertEquals(1L, duplicado.getVersion());
+        assertEquals(1L, store.findById(segundo.getId()).orElseThrow().getVersion());
+    }
+
+    @Test
+    void saveAllReportsVersionConflictsPerItem() {
+        Libro primero = store.save(new Libro(null, "1", "Libro 1", "Autor", EstadoLibro.DISPONIBLE));
+        Libro segundo = store.save(new Libro(null, "2", "Libro 2", "Autor", EstadoLibro.DISPONIBLE));
+
+        List<ResultadoLote<Libro>> resultados = store.saveAll(List.of(
+                new Libro(primero.getId(), "1", "Nuevo 1", "Autor", EstadoLibro.DISPONIBLE, 1L),
+                new Libro(segundo.getId(), "2", "Nuevo 2", "Autor", EstadoLibro.DISPONIBLE, 7L)));
+
+        assertTrue(resultados.get(0).isOk());
+        assertFalse(resultados.get(1).isOk());
+        assertEquals("Libro 2", store.findById(segundo.getId()).orElseThrow().getTitulo());
+    }
+
+    @Test
+    void modificationCountAdvancesOnEveryChange() {
+        Libro libro = store.save(new Libro(null, "1", "Libro 1", "Autor", EstadoLibro.DISPONIBLE));
+        store.save(libro);
+        long antes = store.getModificationCount();
+
+        store.findAll();
+        store.deleteById(99L);
+        assertEquals(antes, store.getModificationCount());
+
+        store.deleteById(libro.getId());
+        assertEquals(3L, store.getModificationCount());
+    }
+
+    private interface Tarea {
+        List<Long> ejecutar(int hilo) throws Exception;
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant instante;
+
+        MutableClock(Instant instante) {
+            this.instante = instante;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instante;
+        }
+    }
+
+    @Test
+    void listenersSeeOnlyAppliedWrites() {
+        List<String> cambios = new ArrayList<>();
+        store.addListener(StoreListener.of(
+                (libro, nueva) -> cambios.add((nueva ? "alta " : "cambio ") + libro.getId()),
+                libro -> cambios.add("baja " + libro.getId())));
+
+        Libro libro = store.save(new Libro(null, "1", "Libro 1", "Autor", EstadoLibro.DISPONIBLE));
+        store.save(new Libro(libro.getId(), "1", "Libro 1 editado", "Autor", EstadoLibro.DISPONIBLE, libro.getVersion()));
+        assertThrows(ConflictoVersionException.class,
+                () -> store.save(new Libro(libro.getId(), "1", "Viejo", "Autor", EstadoLibro.DISPONIBLE, 1L)));
+        store.restore(new Libro(7L, "7", "Recuperado", "Autor", EstadoLibro.DISPONIBLE));
+        store.deleteById(libro.getId());
+        store.deleteById(libro.getId());
+
+        assertEquals(List.of("alta 1", "cambio 1", "baja 1"), cambios);
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.springLibrarySystem.storage;
+
+import com.example.springLibrarySystem.enums.EstadoLibro;
+import com.example.springLibrarySystem.models.Libro;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FullTextIndexTest {
+
+    private ConcurrentEntityStore<Libro> store;
+    private FullTextIndex<Libro> indice;
+
+    @BeforeEach
+    void setUp() {
+        store = new ConcurrentEntityStore<>();
+        indice = store.addIndex(new FullTextIndex<>(List.of(Libro::getTitulo, Libro::getAutor)));
+    }
+
+    @Test
+    void termsFoldCaseAndAccents() {
+        assertEquals(List.of("cancion", "de", "otono", "guemes"), TextKeys.terms("¡Canción de OTOÑO! (Güemes)"));
+    }
+
+    @Test
+    void searchIgnoresAccentsAndCase() {
+        Libro libro = store.save(libro("Cien años de soledad", "Gabriel García Márquez"));
+
+        assertEquals(List.of(libro.getId()), ids("GARCIA anos"));
+    }
+
+    @Test
+    void searchRanksDocumentsWithMoreMatchingTermsFirst() {
+        Libro uno = store.save(libro("El amor en los tiempos del cólera", "Gabriel García Márquez"));
+        Libro dos = store.save(libro("Cien años de soledad", "Gabriel García Márquez"));
+        store.save(libro("Rayuela", "Julio Cortázar"));
+
+        assertEquals(List.of(dos.getId(), uno.getId()), ids("garcia soledad"));
+    }
+
+    @Test
+    void rarerTermsWeighMore() {
+        Libro comun = store.save(libro("Historia de la historia", "Autor"));
+        Libro raro = store.save(libro("Historia del zapato", "Autor"));
+        store.save(libro("Historia antigua", "Autor"));
+
+        assertEquals(raro.getId(), ids("historia zapato").get(0));
+        assertTrue(ids("historia zapato").contains(comun.getId()));
+    }
+
+    @Test
+    void wordEndingWithAsteriskMatchesByPrefix() {
+        Libro soledad = store.save(libro("Cien años de soledad", "García Márquez"));
+        store.save(libro("El túnel", "Ernesto Sábato"));
+
+        assertEquals(List.of(soledad.getId()), ids("sol*"));
+        assertTrue(ids("sol").isEmpty());
+    }
+
+    @Test
+    void updateReplacesIndexedTerms() {
+        Libro libro = store.save(libro("Borrador", "Autor"));
+        store.save(new Libro(libro.getId(), libro.getIsbn(), "Definitivo", "Autor", EstadoLibro.DISPONIBLE));
+
+        assertTrue(ids("borrador").isEmpty());
+        assertEquals(List.of(libro.getId()), ids("definitivo"));
+    }
+
+    @Test
+    void deleteRemovesDocument() {
+        Libro libro = store.save(libro("Ficciones", "Jorge Luis Borges"));
+
+        store.deleteById(libro.getId());
+
+        assertTrue(ids("borges").isEmpty());
+        assertEquals(0, indice.size());
+    }
+
+    @Test
+    void deletingMostDocumentsKeepsTheRestSearchable() {
+        for (int i = 0; i < 20; i++) {
+            store.save(libro("Poemas " + i, "Alfonsina Storni"));
+        }
+        for (long id = 1; id <= 18; id++) {
+            store.deleteById(id);
+        }
+        store.save(new Libro(5L, null, "Poemas otra vez", "Alfonsina Storni", EstadoLibro.DISPONIBLE));
+
+        assertEquals(List.of(5L, 19L, 20L), ids("storni").stream().sorted().toList());
+    }
+
+    @Test
+    void searchReturnsAtMostLimitResults() {
+        for (int i = 0; i < 30; i++) {
+            store.save(libro("Cuentos " + i, "Autor"));
+        }
+
+        List<FullTextIndex.Coincidencia> resultado = indice.search("cuentos", 10);
+
+        assertEquals(10, resultado.size());
+        assertEquals(1L, resultado.get(0).id(), "a igual puntaje se ordena por ID");
+    }
+
+    private List<Long> ids(String consulta) {
+        return indice.search(consulta, 10).stream().map(FullTextIndex.Coincidencia::id).toList();
+    }
+
+    private static Libro libro(String titulo, String autor) {
+        return new Libro(null, null, titulo, autor, EstadoLibro.DISPONIBLE);
+    }
+}
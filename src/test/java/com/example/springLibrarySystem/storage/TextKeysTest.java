@@ -0,0 +1,45 @@
+package com.example.springLibrarySystem.storage;
+
+import org.junit.jupiter.api.Test;
+
+import java.text.Normalizer;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TextKeysTest {
+
+    @Test
+    void asciiFastPathMatchesFullFolding() {
+        StringBuilder ascii = new StringBuilder();
+        for (char c = 0; c < 0x80; c++) {
+            ascii.append(c);
+        }
+        String texto = ascii.toString();
+
+        assertEquals(plegadoCompleto(texto), TextKeys.fold(texto));
+    }
+
+    @Test
+    void asciiFoldingIgnoresDefaultLocale() {
+        Locale anterior = Locale.getDefault();
+        Locale.setDefault(Locale.forLanguageTag("tr"));
+        try {
+            assertEquals("title@mail.com", TextKeys.fold("TITLE@Mail.com"));
+        } finally {
+            Locale.setDefault(anterior);
+        }
+    }
+
+    @Test
+    void nonAsciiKeysStillUseCompatibilityFolding() {
+        assertEquals(TextKeys.fold("STRASSE"), TextKeys.fold("Straße"));
+        assertEquals("file", TextKeys.fold("ﬁle"));
+        assertEquals("ana@mail.com", TextKeys.fold("ＡＮＡ@mail.com"));
+        assertNull(TextKeys.fold(null));
+    }
+
+    private static String plegadoCompleto(String texto) {
+        return Normalizer.normalize(texto, Normalizer.Form.NFKC).toUpperCase(Locale.ROOT).toLowerCase(Locale.ROOT);
+    }
+}